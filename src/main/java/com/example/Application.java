@@ -1,16 +1,24 @@
 package com.example;
 
+import com.example.config.NativeImageHints;
+import com.example.controller.BulbExportController;
+import com.example.controller.BulbImportController;
+import com.example.controller.BulbSearchController;
+import com.example.controller.BulbStatsController;
 import com.example.controller.HealthController;
+import com.example.controller.MetricsController;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 import com.example.controller.LightBulbController;
 
 @SpringBootApplication
 // We use direct @Import instead of @ComponentScan to speed up cold starts
 // @ComponentScan(basePackages = "com.example.controller")
-@Import({LightBulbController.class, HealthController.class})
+@Import({LightBulbController.class, BulbStatsController.class, BulbImportController.class, BulbExportController.class, BulbSearchController.class, HealthController.class, MetricsController.class})
+@ImportRuntimeHints(NativeImageHints.class)
 public class Application {
 
     public static void main(String[] args) {
@@ -1,21 +1,84 @@
 package com.example;
 
 import com.amazonaws.serverless.exceptions.ContainerInitializationException;
+import com.amazonaws.serverless.proxy.internal.LambdaContainerHandler;
+import com.amazonaws.serverless.proxy.internal.testutils.AwsProxyRequestBuilder;
+import com.amazonaws.serverless.proxy.internal.testutils.MockLambdaContext;
 import com.amazonaws.serverless.proxy.model.AwsProxyRequest;
 import com.amazonaws.serverless.proxy.model.AwsProxyResponse;
+import com.amazonaws.serverless.proxy.model.Headers;
 import com.amazonaws.serverless.proxy.spring.SpringBootLambdaContainerHandler;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import com.example.http.ClientIdentity;
+import com.example.http.FastPathRouter;
+import com.example.http.ResponseCompression;
+import com.example.resilience.Deadline;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.crac.Core;
+import org.crac.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.context.support.WebApplicationContextUtils;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
 
 
 public class StreamLambdaHandler implements RequestStreamHandler {
+    private static final Logger logger = LoggerFactory.getLogger(StreamLambdaHandler.class);
+
+    private static final ObjectReader REQUEST_READER = LambdaContainerHandler.getObjectMapper().readerFor(AwsProxyRequest.class);
+    private static final ObjectWriter RESPONSE_WRITER = LambdaContainerHandler.getObjectMapper().writerFor(AwsProxyResponse.class);
+
+    // kept back from the function timeout to compress and write the response
+    static final long RESPONSE_RESERVE_MILLIS = 300;
+
+    static final int DEFAULT_PRIMING_ROUNDS = 10;
+
+    // read-only requests, plus a POST that fails validation and so never writes
+    private static final List<Supplier<InputStream>> PRIMING_REQUESTS = List.of(
+            () -> new AwsProxyRequestBuilder("/ping", "GET").buildStream(),
+            () -> new AwsProxyRequestBuilder("/bulbs/1", "GET")
+                    .header("Accept", "application/json")
+                    .header("Accept-Encoding", "gzip")
+                    .buildStream(),
+            () -> new AwsProxyRequestBuilder("/bulbs", "GET")
+                    .queryString("ids", "1,2")
+                    .buildStream(),
+            () -> new AwsProxyRequestBuilder("/bulbs", "POST")
+                    .header("Content-Type", "application/json")
+                    .body("{\"name\":\"\",\"type\":\"LED\",\"wattage\":0}")
+                    .buildStream());
 
     private static SpringBootLambdaContainerHandler<AwsProxyRequest, AwsProxyResponse> handler;
 
+    // null when lightbulb.fast-path.enabled=false
+    private static FastPathRouter fastPath;
+
+    // held here because the CRaC context only keeps weak references to its resources
+    private static final Resource PRIMING = new Resource() {
+        @Override
+        public void beforeCheckpoint(org.crac.Context<? extends Resource> context) {
+            prime(primingRounds());
+        }
+
+        @Override
+        public void afterRestore(org.crac.Context<? extends Resource> context) {
+            // connections, ids and random state are reset by Spring's lifecycle (SnapStartConfig)
+            logger.info("Restored from snapshot");
+        }
+    };
+
     static {
         try {
             handler = SpringBootLambdaContainerHandler.getAwsProxyHandler(Application.class);
@@ -24,11 +87,131 @@ public class StreamLambdaHandler implements RequestStreamHandler {
             e.printStackTrace();
             throw new RuntimeException("Could not initialize Spring Boot application", e);
         }
+        fastPath = FastPathRouter.from(WebApplicationContextUtils.getRequiredWebApplicationContext(handler.getServletContext()));
+        // Spring registered its own resource while starting, so ours runs before it stops the
+        // lifecycle beans on checkpoint and after it has started them again on restore
+        Core.getGlobalContext().register(PRIMING);
     }
 
     @Override
     public void handleRequest(InputStream inputStream, OutputStream outputStream, Context context)
             throws IOException {
-        handler.proxyStream(inputStream, outputStream, context);
+        // read whole, so an event the fast path declines can still be parsed for Spring
+        byte[] event = inputStream.readAllBytes();
+        AwsProxyRequest request;
+        AwsProxyResponse response;
+        try (Deadline.Scope ignored = Deadline.attach(deadline(context))) {
+            if (fastPath != null && fastPath.route(event, outputStream)) {
+                return;
+            }
+            request = REQUEST_READER.readValue(event);
+            try (ClientIdentity.Scope ignored = ClientIdentity.attach(verifiedClient(request))) {
+                response = handler.proxy(request, context);
+            }
+        }
+        compress(request, response);
+        RESPONSE_WRITER.writeValue(outputStream, response);
+    }
+
+    // the quota key ClientQuotaFilter uses, from what API Gateway verified rather than from headers
+    static String verifiedClient(AwsProxyRequest request) {
+        if (request.getRequestContext() == null || request.getRequestContext().getIdentity() == null) {
+            return null;
+        }
+        return ClientIdentity.verified(request.getRequestContext().getIdentity().getApiKeyId(),
+                request.getRequestContext().getIdentity().getCaller());
+    }
+
+    /**
+     * Runs synthetic requests through the whole handler, so the snapshot already holds the loaded
+     * and compiled classes of Jackson, Spring MVC, the SDK clients and our own hot paths instead of
+     * the first real requests paying for them. Failures are logged and do not stop the checkpoint.
+     *
+     * @return the number of requests that completed
+     */
+    static int prime(int rounds) {
+        StreamLambdaHandler primer = new StreamLambdaHandler();
+        long started = System.nanoTime();
+        int completed = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (Supplier<InputStream> request : PRIMING_REQUESTS) {
+                try {
+                    primer.handleRequest(request.get(), new ByteArrayOutputStream(), new MockLambdaContext());
+                    completed++;
+                } catch (Exception e) {
+                    logger.warn("Priming request failed: {}", e.getMessage());
+                }
+            }
+        }
+        logger.info("Primed with {} of {} requests in {} ms", completed, rounds * PRIMING_REQUESTS.size(),
+                (System.nanoTime() - started) / 1_000_000);
+        return completed;
+    }
+
+    private static int primingRounds() {
+        String rounds = System.getenv("LIGHTBULB_PRIMING_ROUNDS");
+        return rounds == null || rounds.isBlank() ? DEFAULT_PRIMING_ROUNDS : Integer.parseInt(rounds.trim());
+    }
+
+    /**
+     * The time this invocation has left, minus what writing the response needs. Backend calls are
+     * bounded by it (see DeadlineInterceptor and ThrottlingLightBulbRepository) and fail with 503
+     * once it has passed, rather than running into the function timeout.
+     */
+    static Deadline deadline(Context context) {
+        // test and local contexts report no remaining time; a real invocation always has some
+        if (context == null || context.getRemainingTimeInMillis() <= 0) {
+            return Deadline.none();
+        }
+        return Deadline.after(Math.max(0, context.getRemainingTimeInMillis() - RESPONSE_RESERVE_MILLIS));
+    }
+
+    /**
+     * Gzips large text bodies for clients that accept it. The proxy response body is a string, so the
+     * compressed bytes go out base64 encoded and API Gateway decodes them (binary media types are
+     * enabled in template.yml). Tomcat's server.compression settings cover server mode.
+     */
+    static void compress(AwsProxyRequest request, AwsProxyResponse response) {
+        String body = response.getBody();
+        if (body == null || response.isBase64Encoded() || body.length() < ResponseCompression.DEFAULT_MIN_BYTES) {
+            return;
+        }
+        Headers headers = response.getMultiValueHeaders();
+        if (headers == null) {
+            headers = new Headers();
+            response.setMultiValueHeaders(headers);
+        }
+        if (headers.getFirst("Content-Encoding") != null) {
+            return;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length < ResponseCompression.DEFAULT_MIN_BYTES) {
+            return;
+        }
+        // caches must key on Accept-Encoding whether or not this client got gzip
+        headers.add("Vary", "Accept-Encoding");
+        if (ResponseCompression.negotiate(acceptEncoding(request)) == null) {
+            return;
+        }
+        byte[] compressed = ResponseCompression.gzip(bytes, Deflater.BEST_SPEED);
+        response.setBody(Base64.getEncoder().encodeToString(compressed));
+        response.setBase64Encoded(true);
+        headers.putSingle("Content-Encoding", ResponseCompression.GZIP);
+        headers.remove("Content-Length");
+    }
+
+    private static String acceptEncoding(AwsProxyRequest request) {
+        if (request.getMultiValueHeaders() != null && request.getMultiValueHeaders().getFirst("Accept-Encoding") != null) {
+            return request.getMultiValueHeaders().getFirst("Accept-Encoding");
+        }
+        if (request.getHeaders() != null) {
+            // single-value headers keep the client's casing
+            for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+                if ("Accept-Encoding".equalsIgnoreCase(header.getKey())) {
+                    return header.getValue();
+                }
+            }
+        }
+        return null;
     }
-}
\ No newline at end of file
+}
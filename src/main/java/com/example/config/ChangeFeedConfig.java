@@ -0,0 +1,77 @@
+package com.example.config;
+
+import com.example.events.DynamoDbStreamsChangeSource;
+import com.example.events.FileChangeLog;
+import com.example.events.LightBulbChangeFeed;
+import com.example.events.StreamRecordConverter;
+import com.example.repo.ChangePublishingLightBulbRepository;
+import com.example.repo.LightBulbRepository;
+import com.example.repo.RestorableHttpClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.streams.DynamoDbStreamsClient;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+
+@Configuration
+public class ChangeFeedConfig {
+
+    @Bean
+    public LightBulbChangeFeed lightBulbChangeFeed() {
+        return new LightBulbChangeFeed();
+    }
+
+    @Bean
+    public StreamRecordConverter streamRecordConverter() {
+        return new StreamRecordConverter(new ObjectMapper());
+    }
+
+    // Decorates whichever repository the active profile defines, so every write reaches the feed
+    @Bean
+    public static BeanPostProcessor changePublishingRepositoryPostProcessor(ObjectProvider<LightBulbChangeFeed> changeFeed) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof LightBulbRepository repository
+                        && !(bean instanceof ChangePublishingLightBulbRepository)) {
+                    return new ChangePublishingLightBulbRepository(repository, changeFeed.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnProperty("lightbulb.changes.stream-arn")
+    public DynamoDbStreamsChangeSource dynamoDbStreamsChangeSource(
+            @Value("${lightbulb.changes.stream-arn}") String streamArn,
+            @Value("${aws.region:ap-south-1}") String region,
+            @Value("${lightbulb.changes.poll-interval-ms:1000}") long pollIntervalMillis,
+            LightBulbChangeFeed changeFeed, StreamRecordConverter converter, RestorableHttpClient httpClient) {
+        // the shared client, whose connections SnapStartConfig drops around a snapshot
+        DynamoDbStreamsClient streams = DynamoDbStreamsClient.builder()
+                .region(Region.of(region))
+                .httpClient(httpClient)
+                .build();
+        return new DynamoDbStreamsChangeSource(streams, streamArn, changeFeed, converter,
+                Duration.ofMillis(pollIntervalMillis));
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnProperty("lightbulb.changes.file")
+    public FileChangeLog fileChangeLog(
+            @Value("${lightbulb.changes.file}") String file,
+            @Value("${lightbulb.changes.poll-interval-ms:1000}") long pollIntervalMillis,
+            LightBulbChangeFeed changeFeed, StreamRecordConverter converter) {
+        return new FileChangeLog(Path.of(file), changeFeed, converter, new ObjectMapper(),
+                Duration.ofMillis(pollIntervalMillis));
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.config;
+
+import com.example.resilience.Deadline;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+@Configuration
+public class DeadlineConfig {
+
+    // Spring Boot applies a single TaskDecorator bean to applicationTaskExecutor, so backend calls
+    // made there run under the deadline of the request that submitted them; maintenance work such
+    // as BulbSearchIndex rebuilds clears it again, it only happens to be triggered by a request
+    @Bean
+    public TaskDecorator deadlineTaskDecorator() {
+        return Deadline::propagate;
+    }
+}
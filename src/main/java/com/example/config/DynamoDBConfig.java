@@ -21,6 +21,12 @@ public class DynamoDBConfig {
     @Value("${lightbulb.table.name:LightBulb}")
     private String tableName;
 
+    @Value("${lightbulb.idempotency.table.name:LightBulbIdempotency}")
+    private String idempotencyTableName;
+
+    @Value("${lightbulb.id.lease-table.name:LightBulbWorkerIds}")
+    private String workerIdTableName;
+
     private final DynamoDbClient dynamoDbClient;
 
     public DynamoDBConfig(DynamoDbClient dynamoDbClient) {
@@ -48,6 +54,11 @@ public class DynamoDBConfig {
                             .attributeType(ScalarAttributeType.N)
                             .build())
                     .billingMode(BillingMode.PAY_PER_REQUEST)
+                    // feeds DynamoDbStreamsChangeSource on the other instances
+                    .streamSpecification(StreamSpecification.builder()
+                            .streamEnabled(true)
+                            .streamViewType(StreamViewType.NEW_AND_OLD_IMAGES)
+                            .build())
                     .build();
 
             try {
@@ -68,6 +79,82 @@ public class DynamoDBConfig {
         }
     }
 
+    @PostConstruct
+    public void createIdempotencyTableIfNotExists() {
+        try {
+            dynamoDbClient.describeTable(builder -> builder.tableName(idempotencyTableName));
+            logger.info("DynamoDB table {} already exists", idempotencyTableName);
+        } catch (ResourceNotFoundException e) {
+            logger.info("Creating DynamoDB table: {}", idempotencyTableName);
+            try {
+                dynamoDbClient.createTable(builder -> builder
+                        .tableName(idempotencyTableName)
+                        .keySchema(KeySchemaElement.builder()
+                                .attributeName("key")
+                                .keyType(KeyType.HASH)
+                                .build())
+                        .attributeDefinitions(AttributeDefinition.builder()
+                                .attributeName("key")
+                                .attributeType(ScalarAttributeType.S)
+                                .build())
+                        .billingMode(BillingMode.PAY_PER_REQUEST));
+                dynamoDbClient.waiter().waitUntilTableExists(builder -> builder.tableName(idempotencyTableName).build());
+                // expired keys are removed by DynamoDB instead of piling up
+                dynamoDbClient.updateTimeToLive(builder -> builder
+                        .tableName(idempotencyTableName)
+                        .timeToLiveSpecification(TimeToLiveSpecification.builder()
+                                .attributeName("expiresAt")
+                                .enabled(true)
+                                .build()));
+                logger.info("DynamoDB table {} is now active", idempotencyTableName);
+            } catch (Exception ex) {
+                logger.error("Error creating DynamoDB table: {}", ex.getMessage(), ex);
+                throw new RuntimeException("Failed to create DynamoDB table", ex);
+            }
+        } catch (Exception e) {
+            logger.error("Error checking/creating DynamoDB table: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to initialize DynamoDB table", e);
+        }
+    }
+
+    // Snowflake worker id leases (LeasedIdGenerator)
+    @PostConstruct
+    public void createWorkerIdTableIfNotExists() {
+        try {
+            dynamoDbClient.describeTable(builder -> builder.tableName(workerIdTableName));
+            logger.info("DynamoDB table {} already exists", workerIdTableName);
+        } catch (ResourceNotFoundException e) {
+            logger.info("Creating DynamoDB table: {}", workerIdTableName);
+            try {
+                dynamoDbClient.createTable(builder -> builder
+                        .tableName(workerIdTableName)
+                        .keySchema(KeySchemaElement.builder()
+                                .attributeName("workerId")
+                                .keyType(KeyType.HASH)
+                                .build())
+                        .attributeDefinitions(AttributeDefinition.builder()
+                                .attributeName("workerId")
+                                .attributeType(ScalarAttributeType.N)
+                                .build())
+                        .billingMode(BillingMode.PAY_PER_REQUEST));
+                dynamoDbClient.waiter().waitUntilTableExists(builder -> builder.tableName(workerIdTableName).build());
+                dynamoDbClient.updateTimeToLive(builder -> builder
+                        .tableName(workerIdTableName)
+                        .timeToLiveSpecification(TimeToLiveSpecification.builder()
+                                .attributeName("expiresAt")
+                                .enabled(true)
+                                .build()));
+                logger.info("DynamoDB table {} is now active", workerIdTableName);
+            } catch (Exception ex) {
+                logger.error("Error creating DynamoDB table: {}", ex.getMessage(), ex);
+                throw new RuntimeException("Failed to create DynamoDB table", ex);
+            }
+        } catch (Exception e) {
+            logger.error("Error checking/creating DynamoDB table: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to initialize DynamoDB table", e);
+        }
+    }
+
     @Bean
     public DynamoDbEnhancedClient dynamoDbEnhancedClient() {
         return DynamoDbEnhancedClient.builder()
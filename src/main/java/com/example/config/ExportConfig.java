@@ -0,0 +1,44 @@
+package com.example.config;
+
+import com.example.repo.LightBulbRepository;
+import com.example.repo.RestorableHttpClient;
+import com.example.services.BulbExporter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+
+@Configuration
+public class ExportConfig {
+
+    @Value("${lightbulb.export.segments:4}")
+    private int segments = 4;
+
+    @Value("${lightbulb.export.bucket:}")
+    private String bucket;
+
+    @Value("${lightbulb.export.key-prefix:exports/}")
+    private String keyPrefix;
+
+    @Value("${lightbulb.export.directory:}")
+    private String directory;
+
+    @Bean
+    public BulbExporter bulbExporter(LightBulbRepository repository,
+                                     @Qualifier("applicationTaskExecutor") Executor executor,
+                                     @Value("${aws.region:ap-south-1}") String region,
+                                     RestorableHttpClient httpClient) {
+        // only built when exports to S3 are configured; SDK retries are fine here, parts are idempotent
+        S3Client s3 = bucket.isBlank() ? null : S3Client.builder()
+                .region(Region.of(region))
+                .httpClient(httpClient)
+                .build();
+        return new BulbExporter(repository, executor, segments, s3, bucket, keyPrefix,
+                directory.isBlank() ? null : Path.of(directory));
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.config;
+
+import com.example.repo.DynamoDbIdempotencyStore;
+import com.example.services.IdempotencyStore;
+import com.example.services.InMemoryIdempotencyStore;
+import com.example.services.TieredIdempotencyStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class IdempotencyConfig {
+
+    @Value("${lightbulb.idempotency.max-entries:10000}")
+    private int maxEntries = 10_000;
+
+    @Value("${lightbulb.idempotency.ttl-hours:24}")
+    private long ttlHours = 24;
+
+    @Value("${lightbulb.idempotency.lease-seconds:30}")
+    private long leaseSeconds = 30;
+
+    // the same profiles as RepoConfig's repositories: DynamoDB bulbs get DynamoDB idempotency records
+    @Bean
+    @Profile("!dynamodb & !default")
+    public IdempotencyStore inMemoryIdempotencyStore() {
+        return localStore();
+    }
+
+    // Retries can land on any instance, so the in-memory tier only serves replays it has seen
+    @Bean
+    @Profile({"dynamodb", "default"})
+    public IdempotencyStore dynamoDbIdempotencyStore(DynamoDbClient dynamoDbClient,
+                                                     @Value("${lightbulb.idempotency.table.name:LightBulbIdempotency}") String tableName) {
+        return new TieredIdempotencyStore(localStore(), new DynamoDbIdempotencyStore(
+                dynamoDbClient, tableName, TimeUnit.HOURS.toMillis(ttlHours), TimeUnit.SECONDS.toMillis(leaseSeconds)));
+    }
+
+    private InMemoryIdempotencyStore localStore() {
+        return new InMemoryIdempotencyStore(maxEntries, TimeUnit.HOURS.toMillis(ttlHours), TimeUnit.SECONDS.toMillis(leaseSeconds));
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.config;
+
+import com.example.model.BulbStats;
+import com.example.model.ExportSummary;
+import com.example.model.ImportSummary;
+import com.example.model.LightBulb;
+import com.example.model.LightBulbPatch;
+import com.example.repo.LightBulbPage;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * What the native image needs beyond what Spring's AOT processing finds on its own. Controller
+ * signatures are covered by it, but the model is also read and written by Jackson in the S3
+ * repository, the idempotency store, the importer and exporter, and as CBOR, Smile and protobuf.
+ * The AWS SDK and the generated validators (see ConstraintProcessor) bring their own metadata.
+ */
+public class NativeImageHints implements RuntimeHintsRegistrar {
+
+    private static final Class<?>[] JSON_TYPES = {
+            LightBulb.class, LightBulbPatch.class, LightBulbPage.class, BulbStats.class,
+            ImportSummary.class, ExportSummary.class
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), JSON_TYPES);
+        // loaded by LightBulbProtobufHttpMessageConverter
+        hints.resources().registerPattern("lightbulb.proto");
+    }
+}
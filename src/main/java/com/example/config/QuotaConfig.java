@@ -0,0 +1,44 @@
+package com.example.config;
+
+import com.example.http.ClientQuotaFilter;
+import com.example.resilience.ClientQuota;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@ConditionalOnProperty(name = "lightbulb.quota.enabled", havingValue = "true", matchIfMissing = true)
+public class QuotaConfig {
+
+    @Value("${lightbulb.quota.read.per-second:50}")
+    private double readsPerSecond = 50;
+
+    @Value("${lightbulb.quota.read.burst:100}")
+    private int readBurst = 100;
+
+    @Value("${lightbulb.quota.write.per-second:10}")
+    private double writesPerSecond = 10;
+
+    @Value("${lightbulb.quota.write.burst:20}")
+    private int writeBurst = 20;
+
+    @Value("${lightbulb.quota.stripes:65536}")
+    private int stripes = 65536;
+
+    @Bean
+    public ClientQuotaFilter clientQuotaFilter() {
+        return new ClientQuotaFilter(new ClientQuota(readsPerSecond, readBurst, stripes),
+                new ClientQuota(writesPerSecond, writeBurst, stripes));
+    }
+
+    // ahead of everything else, a rejected request should cost as little as possible
+    @Bean
+    public FilterRegistrationBean<ClientQuotaFilter> clientQuotaFilterRegistration(ClientQuotaFilter filter) {
+        FilterRegistrationBean<ClientQuotaFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
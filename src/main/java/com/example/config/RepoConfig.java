@@ -1,31 +1,92 @@
 package com.example.config;
 
 import com.example.repo.*;
+import com.example.resilience.AdaptiveRateLimiter;
+import com.example.resilience.DeadlineInterceptor;
+import com.example.resilience.ThrottleMetrics;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import software.amazon.awssdk.awscore.retry.AwsRetryStrategy;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.S3ClientBuilder;
 
+import java.util.concurrent.TimeUnit;
+
 
 @Configuration
 public class RepoConfig {
 
+    @Value("${lightbulb.id.worker-id:}")
+    private String workerId;
+
+    @Value("${lightbulb.id.lease-table.name:LightBulbWorkerIds}")
+    private String leaseTableName;
+
+    @Value("${lightbulb.id.lease-seconds:900}")
+    private long leaseSeconds = 900;
+
+    // One generator shared by every repository, so ids stay unique whichever backend is active.
+    // With DynamoDB the worker id is leased, as hashed ones collide between concurrent environments
+    @Bean
+    public IdGenerator idGenerator(ObjectProvider<DynamoDbClient> dynamoDbClient) {
+        DynamoDbClient client = dynamoDbClient.getIfAvailable();
+        if (client != null && (workerId == null || workerId.isBlank())) {
+            return new LeasedIdGenerator(client, leaseTableName, TimeUnit.SECONDS.toMillis(leaseSeconds));
+        }
+        return new SnowflakeIdGenerator(SnowflakeIdGenerator.resolveWorkerId(workerId));
+    }
+
+    @Value("${lightbulb.throttle.max-attempts:4}")
+    private int maxAttempts = 4;
+
+    @Value("${lightbulb.throttle.base-delay-ms:25}")
+    private long baseDelayMillis = 25;
+
+    @Value("${lightbulb.throttle.max-delay-ms:2000}")
+    private long maxDelayMillis = 2000;
+
+    @Value("${lightbulb.throttle.min-rate:5}")
+    private double minRate = 5;
+
+    @Value("${lightbulb.throttle.max-rate:2000}")
+    private double maxRate = 2000;
+
+    @Bean
+    public AdaptiveRateLimiter rateLimiter() {
+        return new AdaptiveRateLimiter(minRate, maxRate, maxRate / 60, 0.7);
+    }
+
+    @Bean
+    public ThrottleMetrics throttleMetrics() {
+        return new ThrottleMetrics(rateLimiter());
+    }
+
+    // Shared by the SDK clients; SnapStartConfig drops its connections around a snapshot
+    @Bean(destroyMethod = "close")
+    public RestorableHttpClient sdkHttpClient() {
+        return RestorableHttpClient.withDefaultImplementation();
+    }
+
     @Bean
     @Profile("local")
-    public LightBulbRepository localRepo() {
-        return new LocalLightBulbRepository();
+    public LightBulbRepository localRepo(IdGenerator idGenerator) {
+        return new LocalLightBulbRepository(idGenerator);
     }
 
     @Bean
     @Profile("s3")
-    public LightBulbRepository s3Repo() {
+    public LightBulbRepository s3Repo(IdGenerator idGenerator) {
         S3ClientBuilder builder = S3Client.builder();
-        // Add any S3 specific configurations here if needed
-        return new S3LightBulbRepository(builder.build());
+        builder.httpClient(sdkHttpClient());
+        // Retries are done by ThrottlingLightBulbRepository, SDK retries on top would multiply them
+        builder.overrideConfiguration(c -> c.retryStrategy(AwsRetryStrategy.doNotRetry())
+                .addExecutionInterceptor(new DeadlineInterceptor()));
+        return throttled(new S3LightBulbRepository(builder.build(), idGenerator));
     }
 
     @Value("${lightbulb.table.name:LightBulb}")
@@ -33,8 +94,8 @@ public class RepoConfig {
 
     @Bean
     @Profile({"dynamodb", "default"})
-    public LightBulbRepository dynamoDbRepo(DynamoDbClient dynamoDbClient) {
-        return new DynamoDbLightBulbRepository(dynamoDbClient, tableName);
+    public LightBulbRepository dynamoDbRepo(DynamoDbClient dynamoDbClient, IdGenerator idGenerator) {
+        return throttled(new DynamoDbLightBulbRepository(dynamoDbClient, tableName, idGenerator, rateLimiter()));
     }
 
     @Bean
@@ -42,6 +103,15 @@ public class RepoConfig {
     public DynamoDbClient dynamoDbClient(@Value("${aws.region:ap-south-1}") String region) {
         return DynamoDbClient.builder()
                 .region(Region.of(region))
+                .httpClient(sdkHttpClient())
+                .overrideConfiguration(c -> c.retryStrategy(AwsRetryStrategy.doNotRetry())
+                        // caps each call at the time left on the request's Deadline
+                        .addExecutionInterceptor(new DeadlineInterceptor()))
                 .build();
     }
+
+    private LightBulbRepository throttled(LightBulbRepository repository) {
+        return new ThrottlingLightBulbRepository(repository, rateLimiter(), throttleMetrics(),
+                maxAttempts, baseDelayMillis, maxDelayMillis);
+    }
 }
@@ -0,0 +1,112 @@
+package com.example.config;
+
+import com.example.events.DynamoDbStreamsChangeSource;
+import com.example.repo.IdGenerator;
+import com.example.repo.LeasedIdGenerator;
+import com.example.repo.RestorableHttpClient;
+import com.example.repo.SnowflakeIdGenerator;
+import com.example.resilience.Jitter;
+import com.example.services.BulbSearchIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * State that must not survive a SnapStart/CRaC snapshot. With org.crac on the classpath Spring
+ * stops the lifecycle beans before the checkpoint and starts them again after the restore, and
+ * every environment restored from one snapshot starts from the same memory: the same pooled
+ * connections, the same Snowflake worker id and the same random sequences. The search index also
+ * holds whatever was stored when the snapshot was taken, so it is rebuilt in the background, and
+ * the DynamoDB stream poller is stopped for the checkpoint and starts over at the tip afterwards.
+ */
+@Configuration
+public class SnapStartConfig {
+
+    @Bean
+    public RestoreLifecycle restoreLifecycle(IdGenerator idGenerator,
+                                             ObjectProvider<RestorableHttpClient> httpClient,
+                                             @Value("${lightbulb.id.worker-id:}") String workerId,
+                                             ObjectProvider<BulbSearchIndex> searchIndex,
+                                             ObjectProvider<DynamoDbStreamsChangeSource> changeSource) {
+        return new RestoreLifecycle(idGenerator, httpClient.getIfAvailable(), workerId, searchIndex.getIfAvailable(),
+                changeSource.getIfAvailable());
+    }
+
+    public static class RestoreLifecycle implements SmartLifecycle {
+        private static final Logger logger = LoggerFactory.getLogger(RestoreLifecycle.class);
+
+        private final IdGenerator idGenerator;
+        private final RestorableHttpClient httpClient;
+        private final String workerId;
+        private final BulbSearchIndex searchIndex;
+        private final DynamoDbStreamsChangeSource changeSource;
+        private volatile boolean running;
+        private volatile boolean stopped;
+
+        RestoreLifecycle(IdGenerator idGenerator, RestorableHttpClient httpClient, String workerId,
+                         BulbSearchIndex searchIndex, DynamoDbStreamsChangeSource changeSource) {
+            this.idGenerator = idGenerator;
+            this.httpClient = httpClient;
+            this.workerId = workerId;
+            this.searchIndex = searchIndex;
+            this.changeSource = changeSource;
+        }
+
+        @Override
+        public void start() {
+            // the first start is the context refresh; later ones follow a stop for a checkpoint
+            if (stopped) {
+                afterRestore();
+            }
+            running = true;
+        }
+
+        @Override
+        public void stop() {
+            running = false;
+            stopped = true;
+            if (changeSource != null) {
+                // its polling thread would otherwise hold a connection, or open one, during the checkpoint
+                changeSource.close();
+            }
+            if (httpClient != null) {
+                // no socket goes into the snapshot, the first request after the restore connects anew
+                httpClient.reset();
+            }
+        }
+
+        @Override
+        public boolean isRunning() {
+            return running;
+        }
+
+        // started before and stopped after every other lifecycle bean
+        @Override
+        public int getPhase() {
+            return Integer.MIN_VALUE;
+        }
+
+        void afterRestore() {
+            if (idGenerator instanceof SnowflakeIdGenerator snowflake) {
+                snowflake.reset(SnowflakeIdGenerator.resolveRestoredWorkerId(workerId));
+            } else if (idGenerator instanceof LeasedIdGenerator leased) {
+                // the next id leases a worker id of this environment's own
+                leased.reset();
+            }
+            SnowflakeIdGenerator.shared().reset(SnowflakeIdGenerator.resolveRestoredWorkerId(null));
+            Jitter.reseed();
+            if (searchIndex != null) {
+                searchIndex.rebuildInBackground();
+            }
+            if (changeSource != null) {
+                changeSource.start();
+            }
+            logger.info("Restored from a snapshot: Snowflake worker id {}, retry jitter reseeded, HTTP connections reset",
+                    idGenerator instanceof SnowflakeIdGenerator snowflake ? snowflake.getWorkerId() : "n/a");
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.config;
+
+import com.example.validation.GeneratedValidator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.Validator;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * {@code @Valid} request bodies are checked by the validators generated from the model's constraint
+ * annotations. Hibernate Validator is only on the test classpath, so no Bean Validation provider is
+ * bootstrapped at startup.
+ */
+@Configuration
+public class ValidationConfig implements WebMvcConfigurer {
+
+    private final GeneratedValidator validator = new GeneratedValidator();
+
+    @Bean
+    public GeneratedValidator generatedValidator() {
+        return validator;
+    }
+
+    @Override
+    public Validator getValidator() {
+        return validator;
+    }
+}
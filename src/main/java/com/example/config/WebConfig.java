@@ -0,0 +1,23 @@
+package com.example.config;
+
+import com.example.http.LightBulbProtobufHttpMessageConverter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Binary representations of /bulbs for internal callers, chosen by Accept and Content-Type.
+ * CBOR (application/cbor) and Smile (application/x-jackson-smile) converters are registered by
+ * Spring MVC because their Jackson dataformats are on the classpath; protobuf is added here.
+ * All of them come after the JSON converter, so JSON stays the default for wildcard Accept headers.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new LightBulbProtobufHttpMessageConverter());
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.controller;
+
+import com.example.model.ExportSummary;
+import com.example.services.BulbExporter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+
+/**
+ * Full exports as gzip NDJSON. Downloading through {@code GET} suits server mode; on Lambda the
+ * response is buffered and capped by the payload limit, so export to S3 there.
+ */
+@RestController
+@RequestMapping("/bulbs/export")
+public class BulbExportController {
+
+    static final String APPLICATION_GZIP_VALUE = "application/gzip";
+
+    private final BulbExporter exporter;
+
+    public BulbExportController(BulbExporter exporter) {
+        this.exporter = exporter;
+    }
+
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> download(@RequestParam(defaultValue = "0") int segments) {
+        StreamingResponseBody body = out -> exporter.export(out, segments, "response");
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, APPLICATION_GZIP_VALUE)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"bulbs.ndjson.gz\"")
+                .body(body);
+    }
+
+    @PostMapping
+    public ExportSummary export(@RequestParam(defaultValue = "s3") String target,
+                                @RequestParam(defaultValue = "0") int segments) throws IOException {
+        return switch (target) {
+            case "s3" -> exporter.exportToS3(segments);
+            case "file" -> exporter.exportToFile(segments);
+            default -> throw new IllegalArgumentException("Unsupported export target '" + target + "', expected s3 or file");
+        };
+    }
+
+    @GetMapping("/progress")
+    public ResponseEntity<ExportSummary> progress() {
+        return exporter.progress()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+}
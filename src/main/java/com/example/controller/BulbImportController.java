@@ -0,0 +1,38 @@
+package com.example.controller;
+
+import com.example.model.ImportSummary;
+import com.example.services.BulbImporter;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Bulk import. The body is read as it is parsed, so uploads are not buffered; on Lambda the
+ * API Gateway payload limit still applies.
+ */
+@RestController
+@RequestMapping("/bulbs/import")
+public class BulbImportController {
+
+    static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final BulbImporter importer;
+
+    public BulbImportController(BulbImporter importer) {
+        this.importer = importer;
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ImportSummary importNdjson(InputStream body) throws IOException {
+        return importer.importBulbs(body, BulbImporter.Format.NDJSON);
+    }
+
+    @PostMapping(consumes = TEXT_CSV_VALUE)
+    public ImportSummary importCsv(InputStream body) throws IOException {
+        return importer.importBulbs(body, BulbImporter.Format.CSV);
+    }
+}
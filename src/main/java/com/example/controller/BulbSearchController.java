@@ -0,0 +1,35 @@
+package com.example.controller;
+
+import com.example.model.LightBulb;
+import com.example.services.BulbSearchIndex;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/bulbs/search")
+public class BulbSearchController {
+
+    static final int MAX_LIMIT = 100;
+
+    private final BulbSearchIndex searchIndex;
+
+    public BulbSearchController(BulbSearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    @GetMapping
+    public List<LightBulb> search(@RequestParam("q") String query,
+                                  @RequestParam(defaultValue = "20") int limit) {
+        if (query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be blank");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        return searchIndex.search(query, limit);
+    }
+}
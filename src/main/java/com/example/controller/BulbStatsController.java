@@ -0,0 +1,23 @@
+package com.example.controller;
+
+import com.example.model.BulbStats;
+import com.example.services.BulbStatistics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/bulbs/stats")
+public class BulbStatsController {
+
+    private final BulbStatistics statistics;
+
+    public BulbStatsController(BulbStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @GetMapping
+    public BulbStats getStats() {
+        return statistics.getStats();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.controller;
+
+import com.example.exception.VersionConflictException;
+import com.example.model.LightBulb;
+
+import java.util.List;
+
+/**
+ * Entity tags for bulbs and the bulb collection.
+ *
+ * A bulb's tag is its version. The collection tag is the count plus an order-independent hash
+ * of every (id, version) pair, so it changes with any save or delete made by any instance,
+ * without a separately stored counter.
+ *
+ * Both are weak: the JSON, CBOR, Smile and protobuf representations, gzipped or not, carry the same
+ * tag but not the same bytes, so a cache must not use them for byte ranges or to merge responses.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Null for bulbs stored before versioning.
+     */
+    public static String of(LightBulb bulb) {
+        return bulb.getVersion() == null ? null : "W/\"" + bulb.getVersion() + "\"";
+    }
+
+    static String of(List<LightBulb> bulbs) {
+        long hash = 0;
+        for (LightBulb bulb : bulbs) {
+            long id = bulb.getId() == null ? 0 : bulb.getId();
+            long version = bulb.getVersion() == null ? 0 : bulb.getVersion();
+            hash += mix(id * 0x9E3779B97F4A7C15L + version);
+        }
+        return "W/\"" + bulbs.size() + "-" + Long.toHexString(hash) + "\"";
+    }
+
+    static Long lastModified(List<LightBulb> bulbs) {
+        Long latest = null;
+        for (LightBulb bulb : bulbs) {
+            if (bulb.getLastModified() != null && (latest == null || bulb.getLastModified() > latest)) {
+                latest = bulb.getLastModified();
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * If-None-Match uses the weak comparison, so W/ prefixes are ignored.
+     */
+    public static boolean noneMatchHits(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || stripWeak(tag).equals(stripWeak(etag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The version an If-Match header requires, or null for "*" (any current version). Our tags are
+     * weak, so the version is compared whether or not the client echoes the W/ prefix; unknown tags
+     * fail the precondition.
+     */
+    static Long expectedVersion(String ifMatch) {
+        String tag = stripWeak(ifMatch.trim());
+        if (tag.equals("*")) {
+            return null;
+        }
+        if (tag.contains(",")) {
+            throw new IllegalArgumentException("If-Match with more than one entity tag is not supported");
+        }
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // not one of our tags, falls through to the precondition failure
+            }
+        }
+        throw new VersionConflictException("If-Match " + tag + " does not match the current version");
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    // SplitMix64 finalizer, spreads nearby ids and versions over the whole range
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
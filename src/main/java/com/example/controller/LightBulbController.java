@@ -1,58 +1,235 @@
 package com.example.controller;
 
 import com.example.model.LightBulb;
-import com.example.services.LightBulbService;
+import com.example.model.LightBulbPatch;
+import com.example.services.AsyncLightBulbService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @RestController
 @RequestMapping("/bulbs")
 public class LightBulbController {
 
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
 
-    private final LightBulbService lightBulbService;
+    static final int MAX_IDS_PER_REQUEST = 100;
+
+    static final int MAX_TOP_K = 1000;
+
+    static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+
+    private final AsyncLightBulbService lightBulbService;
+
+    private final ObjectMapper objectMapper;
+
+    public LightBulbController(AsyncLightBulbService lightBulbService) {
+        this(lightBulbService, new ObjectMapper());
+    }
 
     @Autowired
-    public LightBulbController(LightBulbService lightBulbService) {
+    public LightBulbController(AsyncLightBulbService lightBulbService, ObjectMapper objectMapper) {
         this.lightBulbService = lightBulbService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
-    public List<LightBulb> getAllBulbs() {
-        return lightBulbService.getAllBulbs();
+    public CompletableFuture<ResponseEntity<List<LightBulb>>> getAllBulbs(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return lightBulbService.getAllBulbs()
+                .thenApply(bulbs -> conditional(ifNoneMatch, ETags.of(bulbs), ETags.lastModified(bulbs), bulbs));
+    }
+
+    /**
+     * One bulb per line, written page by page while the scan is still running.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBulbsAsNdjson() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(streamBulbs(false));
+    }
+
+    /**
+     * The same JSON array as {@code GET /bulbs}, but written page by page instead of built in memory.
+     * A request naming {@code ids} is a lookup of those bulbs, stream or not.
+     */
+    @GetMapping(params = {"stream=true", "!ids"})
+    public ResponseEntity<StreamingResponseBody> streamBulbsAsArray() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(streamBulbs(true));
+    }
+
+    @GetMapping(params = "ids")
+    public CompletableFuture<List<LightBulb>> getBulbsByIds(@RequestParam List<Long> ids) {
+        if (ids.size() > MAX_IDS_PER_REQUEST) {
+            throw new IllegalArgumentException("At most " + MAX_IDS_PER_REQUEST + " ids can be requested at once");
+        }
+        return lightBulbService.getBulbsByIds(ids);
+    }
+
+    @GetMapping("/top")
+    public CompletableFuture<List<LightBulb>> getTopBulbs(@RequestParam(defaultValue = "wattage") String by,
+                                                          @RequestParam(defaultValue = "10") int k) {
+        if (k < 1 || k > MAX_TOP_K) {
+            throw new IllegalArgumentException("k must be between 1 and " + MAX_TOP_K);
+        }
+        return lightBulbService.getTopBulbs(by, k);
     }
 
     @GetMapping("/{id}")
-    public LightBulb getBulbById(@PathVariable Long id) {
-        return lightBulbService.getBulbById(id);
+    public CompletableFuture<ResponseEntity<LightBulb>> getBulbById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return lightBulbService.getBulbById(id)
+                .thenApply(bulb -> conditional(ifNoneMatch, ETags.of(bulb), bulb.getLastModified(), bulb));
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public ResponseEntity<LightBulb> addBulb(@Valid @RequestBody LightBulb lightBulb) {
-        LightBulb createdBulb = lightBulbService.addBulb(lightBulb);
-        return ResponseEntity.created(URI.create("/bulbs/" + createdBulb.getId())).body(createdBulb);
+    public CompletableFuture<ResponseEntity<LightBulb>> addBulb(@Valid @RequestBody LightBulb lightBulb,
+                                                                @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > 255)) {
+            throw new IllegalArgumentException("Idempotency-Key must be between 1 and 255 characters");
+        }
+        return lightBulbService.addBulb(lightBulb, idempotencyKey)
+                .thenApply(createdBulb -> withValidators(ResponseEntity.created(URI.create("/bulbs/" + createdBulb.getId())),
+                        ETags.of(createdBulb), createdBulb.getLastModified()).body(createdBulb));
     }
 
     @PutMapping("/{id}")
-    public LightBulb updateBulb(@PathVariable Long id, @Valid @RequestBody LightBulb updatedBulb) {
+    public CompletableFuture<ResponseEntity<LightBulb>> updateBulb(
+            @PathVariable Long id, @Valid @RequestBody LightBulb updatedBulb,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         if (updatedBulb.getId() != null && !updatedBulb.getId().equals(id)) {
             throw new IllegalArgumentException("ID in URL does not match ID in request body");
         }
-        return lightBulbService.updateBulb(id, updatedBulb);
+        Long expectedVersion = ifMatch == null ? null : ETags.expectedVersion(ifMatch);
+        return lightBulbService.updateBulb(id, updatedBulb, expectedVersion)
+                .thenApply(bulb -> withValidators(ResponseEntity.ok(), ETags.of(bulb), bulb.getLastModified()).body(bulb));
     }
 
+    @PatchMapping(value = "/{id}", consumes = {MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE})
+    public CompletableFuture<ResponseEntity<LightBulb>> patchBulb(
+            @PathVariable Long id, @RequestBody JsonNode mergePatch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        LightBulbPatch patch = toPatch(id, mergePatch);
+        Long expectedVersion = ifMatch == null ? null : ETags.expectedVersion(ifMatch);
+        return lightBulbService.patchBulb(id, patch, expectedVersion)
+                .thenApply(bulb -> withValidators(ResponseEntity.ok(), ETags.of(bulb), bulb.getLastModified()).body(bulb));
+    }
 
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void deleteBulb(@PathVariable Long id) {
-        lightBulbService.deleteBulb(id);
+    public CompletableFuture<Void> deleteBulb(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = ifMatch == null ? null : ETags.expectedVersion(ifMatch);
+        return lightBulbService.deleteBulb(id, expectedVersion);
+    }
+
+    // RFC 7396 applied to a bulb: members set fields, and since every bulb field is required a null
+    // (remove) is rejected. The version is server-owned, conditional patches use If-Match instead.
+    private static LightBulbPatch toPatch(Long id, JsonNode mergePatch) {
+        if (mergePatch == null || !mergePatch.isObject()) {
+            throw new IllegalArgumentException("A merge patch for a bulb must be a JSON object");
+        }
+        LightBulbPatch patch = new LightBulbPatch();
+        Iterator<Map.Entry<String, JsonNode>> fields = mergePatch.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode value = field.getValue();
+            switch (field.getKey()) {
+                case "name" -> patch.setName(requiredText(field.getKey(), value));
+                case "type" -> patch.setType(requiredText(field.getKey(), value));
+                case "wattage" -> {
+                    if (!value.isIntegralNumber() || !value.canConvertToInt()) {
+                        throw new IllegalArgumentException("Field 'wattage' must be an integer");
+                    }
+                    patch.setWattage(value.intValue());
+                }
+                case "id" -> {
+                    if (!value.isIntegralNumber() || value.longValue() != id) {
+                        throw new IllegalArgumentException("ID in URL does not match ID in request body");
+                    }
+                }
+                default -> throw new IllegalArgumentException("Field '" + field.getKey() + "' cannot be patched");
+            }
+        }
+        return patch;
+    }
+
+    private static String requiredText(String field, JsonNode value) {
+        if (value.isNull()) {
+            throw new IllegalArgumentException("Field '" + field + "' is required and cannot be removed");
+        }
+        if (!value.isTextual()) {
+            throw new IllegalArgumentException("Field '" + field + "' must be a string");
+        }
+        return value.textValue();
+    }
+
+    // status and headers are committed with the first page, so a later failure can only cut the body short
+    private StreamingResponseBody streamBulbs(boolean asArray) {
+        return out -> {
+            ObjectWriter writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            AtomicBoolean wroteAny = new AtomicBoolean();
+            try (SequenceWriter sequence = asArray
+                    ? writer.writeValuesAsArray(out)
+                    : writer.withRootValueSeparator("\n").writeValues(out)) {
+                lightBulbService.forEachPage(page -> {
+                    try {
+                        if (!page.isEmpty()) {
+                            sequence.writeAll(page);
+                            sequence.flush();
+                            wroteAny.set(true);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            if (!asArray && wroteAny.get()) {
+                out.write('\n');
+            }
+        };
+    }
+
+    // 304 without a body when the client already has this representation
+    private static <T> ResponseEntity<T> conditional(String ifNoneMatch, String etag, Long lastModified, T body) {
+        if (ETags.noneMatchHits(ifNoneMatch, etag)) {
+            return withValidators(ResponseEntity.status(HttpStatus.NOT_MODIFIED), etag, lastModified).build();
+        }
+        return withValidators(ResponseEntity.ok(), etag, lastModified).body(body);
+    }
+
+    private static ResponseEntity.BodyBuilder withValidators(ResponseEntity.BodyBuilder builder, String etag, Long lastModified) {
+        if (etag != null) {
+            builder.eTag(etag);
+        }
+        if (lastModified != null) {
+            builder.lastModified(lastModified);
+        }
+        return builder;
     }
 }
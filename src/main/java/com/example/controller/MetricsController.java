@@ -0,0 +1,26 @@
+package com.example.controller;
+
+import com.example.metrics.MetricsSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+@RestController
+public class MetricsController {
+
+    private final ObjectProvider<MetricsSource> sources;
+
+    public MetricsController(ObjectProvider<MetricsSource> sources) {
+        this.sources = sources;
+    }
+
+    @GetMapping("/metrics")
+    public Map<String, Map<String, Number>> metrics() {
+        Map<String, Map<String, Number>> metrics = new TreeMap<>();
+        sources.orderedStream().forEach(source -> metrics.put(source.metricsName(), source.metricsSnapshot()));
+        return metrics;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.events;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.dynamodb.model.*;
+import software.amazon.awssdk.services.dynamodb.model.Record;
+import software.amazon.awssdk.services.dynamodb.streams.DynamoDbStreamsClient;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tails the DynamoDB stream of the light bulb table and republishes its records on the change feed,
+ * so that writes made by other instances reach the local caches.
+ *
+ * Every instance starts at the tip of the stream (LATEST): caches are empty at start-up, so there is
+ * nothing older to invalidate. Child shards discovered after a split are read from TRIM_HORIZON.
+ * It can be closed and started again, as around a SnapStart snapshot; a restart begins at the tip
+ * again, since the shard iterators held before have expired by then.
+ */
+public class DynamoDbStreamsChangeSource implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(DynamoDbStreamsChangeSource.class);
+
+    private static final int MAX_RECORDS_PER_CALL = 1000;
+
+    private final DynamoDbStreamsClient streams;
+    private final String streamArn;
+    private final LightBulbChangeFeed changeFeed;
+    private final StreamRecordConverter converter;
+    private final Duration pollInterval;
+
+    // shard id -> next iterator; only touched by the polling thread
+    private final Map<String, String> iterators = new HashMap<>();
+    private boolean initialized;
+
+    private ScheduledExecutorService scheduler;
+
+    public DynamoDbStreamsChangeSource(DynamoDbStreamsClient streams, String streamArn,
+                                       LightBulbChangeFeed changeFeed, StreamRecordConverter converter,
+                                       Duration pollInterval) {
+        this.streams = streams;
+        this.streamArn = streamArn;
+        this.changeFeed = changeFeed;
+        this.converter = converter;
+        this.pollInterval = pollInterval;
+    }
+
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        // no polling thread is running, so this thread may touch the polling state
+        iterators.clear();
+        initialized = false;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "dynamodb-streams-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::pollSafely, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        logger.info("Tailing DynamoDB stream {} every {} ms", streamArn, pollInterval.toMillis());
+    }
+
+    /**
+     * Stops polling and waits for a poll in flight, so no request is using a connection afterwards.
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            try {
+                if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+                    logger.warn("DynamoDB stream poller did not stop within 5 s");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            scheduler = null;
+        }
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (Exception e) {
+            logger.warn("Polling DynamoDB stream {} failed: {}", streamArn, e.getMessage());
+        }
+    }
+
+    void poll() {
+        if (!initialized) {
+            discoverShards(ShardIteratorType.LATEST);
+            initialized = true;
+        }
+        boolean shardClosed = false;
+        for (Map.Entry<String, String> entry : Map.copyOf(iterators).entrySet()) {
+            String shardId = entry.getKey();
+            GetRecordsResponse response;
+            try {
+                response = streams.getRecords(GetRecordsRequest.builder()
+                        .shardIterator(entry.getValue())
+                        .limit(MAX_RECORDS_PER_CALL)
+                        .build());
+            } catch (ExpiredIteratorException e) {
+                iterators.put(shardId, iterator(shardId, ShardIteratorType.LATEST));
+                continue;
+            }
+            for (Record record : response.records()) {
+                changeFeed.publish(converter.fromRecord(record));
+            }
+            if (response.nextShardIterator() == null) {
+                iterators.remove(shardId);
+                shardClosed = true;
+            } else {
+                iterators.put(shardId, response.nextShardIterator());
+            }
+        }
+        if (shardClosed) {
+            discoverShards(ShardIteratorType.TRIM_HORIZON);
+        }
+    }
+
+    private void discoverShards(ShardIteratorType startAt) {
+        String lastShardId = null;
+        do {
+            StreamDescription description = streams.describeStream(DescribeStreamRequest.builder()
+                    .streamArn(streamArn)
+                    .exclusiveStartShardId(lastShardId)
+                    .build()).streamDescription();
+            for (Shard shard : description.shards()) {
+                boolean open = shard.sequenceNumberRange().endingSequenceNumber() == null;
+                if (open && !iterators.containsKey(shard.shardId())) {
+                    iterators.put(shard.shardId(), iterator(shard.shardId(), startAt));
+                }
+            }
+            lastShardId = description.lastEvaluatedShardId();
+        } while (lastShardId != null);
+    }
+
+    private String iterator(String shardId, ShardIteratorType type) {
+        return streams.getShardIterator(GetShardIteratorRequest.builder()
+                .streamArn(streamArn)
+                .shardId(shardId)
+                .shardIteratorType(type)
+                .build()).shardIterator();
+    }
+}
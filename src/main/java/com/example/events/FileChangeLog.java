@@ -0,0 +1,154 @@
+package com.example.events;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Stand-in for DynamoDB Streams when running locally: local writes are appended to a shared
+ * newline-delimited file in the Streams record shape, and records appended by other processes
+ * (or by hand, for testing) are republished on the change feed.
+ */
+public class FileChangeLog implements LightBulbChangeListener, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(FileChangeLog.class);
+
+    private static final String ORIGIN_FIELD = "origin";
+
+    private final Path file;
+    private final LightBulbChangeFeed changeFeed;
+    private final StreamRecordConverter converter;
+    private final ObjectMapper mapper;
+    private final Duration pollInterval;
+    private final String origin = UUID.randomUUID().toString();
+
+    // not synchronized: appends run on request threads, which may be virtual, and must not pin their carrier
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long position;
+    private ScheduledExecutorService scheduler;
+
+    public FileChangeLog(Path file, LightBulbChangeFeed changeFeed, StreamRecordConverter converter,
+                         ObjectMapper mapper, Duration pollInterval) {
+        this.file = file;
+        this.changeFeed = changeFeed;
+        this.converter = converter;
+        this.mapper = mapper;
+        this.pollInterval = pollInterval;
+    }
+
+    public void start() {
+        lock.lock();
+        try {
+            if (scheduler != null) {
+                return;
+            }
+            try {
+                // like the stream source, start at the tip
+                position = Files.exists(file) ? Files.size(file) : 0;
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to open change log: " + file, e);
+            }
+            changeFeed.subscribe(this);
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "file-change-log");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::pollSafely, pollInterval.toMillis(), pollInterval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            changeFeed.unsubscribe(this);
+            if (scheduler != null) {
+                scheduler.shutdownNow();
+                scheduler = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void onChange(LightBulbChangeEvent event) {
+        if (!event.isLocal()) {
+            return;
+        }
+        ObjectNode record = converter.toJson(event);
+        record.put(ORIGIN_FIELD, origin);
+        try {
+            byte[] line = (mapper.writeValueAsString(record) + "\n").getBytes(StandardCharsets.UTF_8);
+            lock.lock();
+            try {
+                Files.write(file, line, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } finally {
+                lock.unlock();
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to append to change log {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (Exception e) {
+            logger.warn("Reading change log {} failed: {}", file, e.getMessage());
+        }
+    }
+
+    void poll() throws IOException {
+        lock.lock();
+        try {
+            if (!Files.exists(file)) {
+                return;
+            }
+            try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+                if (raf.length() < position) {
+                    // truncated or replaced, start over
+                    position = 0;
+                }
+                raf.seek(position);
+                String line;
+                while ((line = raf.readLine()) != null) {
+                    if (!line.isBlank()) {
+                        publish(line);
+                    }
+                    position = raf.getFilePointer();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void publish(String line) throws IOException {
+        // RandomAccessFile reads bytes as ISO-8859-1
+        JsonNode record = mapper.readTree(new String(line.getBytes(StandardCharsets.ISO_8859_1), StandardCharsets.UTF_8));
+        if (origin.equals(record.path(ORIGIN_FIELD).asText())) {
+            return;
+        }
+        changeFeed.publish(converter.fromJson(record));
+    }
+}
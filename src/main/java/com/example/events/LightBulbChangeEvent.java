@@ -0,0 +1,76 @@
+package com.example.events;
+
+import com.example.model.LightBulb;
+
+/**
+ * A single write to the light bulb store, as seen by cache subscribers.
+ * {@code version} is the item version after an upsert and the last known version for a delete;
+ * it is null when the source did not know it. Local events come from writes made by this instance,
+ * remote ones from a change source and may repeat a local write.
+ */
+public final class LightBulbChangeEvent {
+
+    public enum Operation {
+        UPSERT,
+        DELETE
+    }
+
+    private final Long id;
+    private final Long version;
+    private final Operation operation;
+    private final LightBulb bulb;
+    private final boolean local;
+
+    private LightBulbChangeEvent(Long id, Long version, Operation operation, LightBulb bulb, boolean local) {
+        this.id = id;
+        this.version = version;
+        this.operation = operation;
+        this.bulb = bulb;
+        this.local = local;
+    }
+
+    public static LightBulbChangeEvent upsert(LightBulb bulb) {
+        return new LightBulbChangeEvent(bulb.getId(), bulb.getVersion(), Operation.UPSERT, bulb, true);
+    }
+
+    public static LightBulbChangeEvent delete(Long id, Long version) {
+        return new LightBulbChangeEvent(id, version, Operation.DELETE, null, true);
+    }
+
+    public static LightBulbChangeEvent remote(Long id, Long version, Operation operation, LightBulb bulb) {
+        return new LightBulbChangeEvent(id, version, operation, bulb, false);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    /**
+     * The new state of the bulb for upserts, null for deletes.
+     */
+    public LightBulb getBulb() {
+        return bulb;
+    }
+
+    public boolean isLocal() {
+        return local;
+    }
+
+    @Override
+    public String toString() {
+        return "LightBulbChangeEvent{" +
+                "id=" + id +
+                ", version=" + version +
+                ", operation=" + operation +
+                ", local=" + local +
+                '}';
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.events;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-process fan-out of change events. Local writes and remote change sources
+ * (DynamoDB Streams, the file change log) publish here; caches subscribe here.
+ * Listeners run on the publishing thread and must be cheap; a failing listener
+ * never fails the write that triggered it.
+ */
+public class LightBulbChangeFeed {
+    private static final Logger logger = LoggerFactory.getLogger(LightBulbChangeFeed.class);
+
+    private final List<LightBulbChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    public void subscribe(LightBulbChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void unsubscribe(LightBulbChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    public void publish(LightBulbChangeEvent event) {
+        for (LightBulbChangeListener listener : listeners) {
+            try {
+                listener.onChange(event);
+            } catch (Exception e) {
+                logger.warn("Change listener failed for {}: {}", event, e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.events;
+
+@FunctionalInterface
+public interface LightBulbChangeListener {
+    void onChange(LightBulbChangeEvent event);
+}
@@ -0,0 +1,133 @@
+package com.example.events;
+
+import com.example.model.LightBulb;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.OperationType;
+import software.amazon.awssdk.services.dynamodb.model.Record;
+
+import java.util.Map;
+
+/**
+ * Converts DynamoDB Streams records (SDK model or their JSON shape, as delivered to Lambda
+ * or written to the local change log) into {@link LightBulbChangeEvent}s and back.
+ */
+public class StreamRecordConverter {
+
+    private final ObjectMapper mapper;
+
+    public StreamRecordConverter(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    public LightBulbChangeEvent fromRecord(Record record) {
+        Map<String, AttributeValue> keys = record.dynamodb().keys();
+        Long id = numberOf(keys.get("id"));
+        if (record.eventName() == OperationType.REMOVE) {
+            return LightBulbChangeEvent.remote(id, versionOf(record.dynamodb().oldImage()),
+                    LightBulbChangeEvent.Operation.DELETE, null);
+        }
+        LightBulb bulb = record.dynamodb().hasNewImage() ? toBulb(record.dynamodb().newImage()) : null;
+        return LightBulbChangeEvent.remote(id, bulb != null ? bulb.getVersion() : null,
+                LightBulbChangeEvent.Operation.UPSERT, bulb);
+    }
+
+    /**
+     * Parses one element of a {@code Records} array in the Streams JSON shape.
+     */
+    public LightBulbChangeEvent fromJson(JsonNode record) {
+        JsonNode dynamodb = record.path("dynamodb");
+        Long id = jsonNumber(dynamodb.path("Keys").path("id"));
+        if ("REMOVE".equals(record.path("eventName").asText())) {
+            return LightBulbChangeEvent.remote(id, jsonNumber(dynamodb.path("OldImage").path("version")),
+                    LightBulbChangeEvent.Operation.DELETE, null);
+        }
+        JsonNode image = dynamodb.path("NewImage");
+        LightBulb bulb = image.isObject() ? jsonToBulb(image) : null;
+        return LightBulbChangeEvent.remote(id, bulb != null ? bulb.getVersion() : null,
+                LightBulbChangeEvent.Operation.UPSERT, bulb);
+    }
+
+    public ObjectNode toJson(LightBulbChangeEvent event) {
+        ObjectNode record = mapper.createObjectNode();
+        ObjectNode dynamodb = record.putObject("dynamodb");
+        dynamodb.putObject("Keys").putObject("id").put("N", String.valueOf(event.getId()));
+        if (event.getOperation() == LightBulbChangeEvent.Operation.DELETE) {
+            record.put("eventName", "REMOVE");
+            if (event.getVersion() != null) {
+                dynamodb.putObject("OldImage").putObject("version").put("N", String.valueOf(event.getVersion()));
+            }
+            return record;
+        }
+        record.put("eventName", "MODIFY");
+        LightBulb bulb = event.getBulb();
+        if (bulb != null) {
+            ObjectNode image = dynamodb.putObject("NewImage");
+            image.putObject("id").put("N", String.valueOf(bulb.getId()));
+            putString(image, "name", bulb.getName());
+            putString(image, "type", bulb.getType());
+            image.putObject("wattage").put("N", String.valueOf(bulb.getWattage()));
+            if (bulb.getVersion() != null) {
+                image.putObject("version").put("N", String.valueOf(bulb.getVersion()));
+            }
+            if (bulb.getLastModified() != null) {
+                image.putObject("lastModified").put("N", String.valueOf(bulb.getLastModified()));
+            }
+        }
+        return record;
+    }
+
+    private static LightBulb toBulb(Map<String, AttributeValue> image) {
+        LightBulb bulb = new LightBulb();
+        bulb.setId(numberOf(image.get("id")));
+        bulb.setName(stringOf(image.get("name")));
+        bulb.setType(stringOf(image.get("type")));
+        Long wattage = numberOf(image.get("wattage"));
+        bulb.setWattage(wattage != null ? wattage.intValue() : 0);
+        bulb.setVersion(numberOf(image.get("version")));
+        bulb.setLastModified(numberOf(image.get("lastModified")));
+        return bulb;
+    }
+
+    private static LightBulb jsonToBulb(JsonNode image) {
+        LightBulb bulb = new LightBulb();
+        bulb.setId(jsonNumber(image.path("id")));
+        bulb.setName(jsonString(image.path("name")));
+        bulb.setType(jsonString(image.path("type")));
+        Long wattage = jsonNumber(image.path("wattage"));
+        bulb.setWattage(wattage != null ? wattage.intValue() : 0);
+        bulb.setVersion(jsonNumber(image.path("version")));
+        bulb.setLastModified(jsonNumber(image.path("lastModified")));
+        return bulb;
+    }
+
+    private static Long versionOf(Map<String, AttributeValue> image) {
+        return image != null ? numberOf(image.get("version")) : null;
+    }
+
+    private static Long numberOf(AttributeValue value) {
+        return value != null && value.n() != null ? Long.valueOf(value.n()) : null;
+    }
+
+    private static String stringOf(AttributeValue value) {
+        return value != null ? value.s() : null;
+    }
+
+    private static Long jsonNumber(JsonNode attribute) {
+        JsonNode n = attribute.path("N");
+        return n.isMissingNode() || n.isNull() ? null : Long.valueOf(n.asText());
+    }
+
+    private static String jsonString(JsonNode attribute) {
+        JsonNode s = attribute.path("S");
+        return s.isMissingNode() || s.isNull() ? null : s.asText();
+    }
+
+    private static void putString(ObjectNode image, String name, String value) {
+        if (value != null) {
+            image.putObject(name).put("S", value);
+        }
+    }
+}
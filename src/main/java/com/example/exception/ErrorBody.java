@@ -0,0 +1,87 @@
+package com.example.exception;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Pre-rendered JSON for the error responses of one status. Everything but the message, path and
+ * timestamp is serialized once, so rendering an error is a few array copies instead of a map, a
+ * {@link LocalDateTime} and a pass through Jackson.
+ */
+final class ErrorBody {
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    private static final byte[] TIMESTAMP_START = bytes("{\"timestamp\":\"");
+    private static final byte[] PATH_START = bytes("\",\"path\":\"");
+    private static final byte[] END = bytes("\"}");
+
+    // second-resolution timestamps are rendered once per second and shared
+    private static volatile Timestamp timestamp = new Timestamp(-1, new byte[0]);
+
+    private final HttpStatus status;
+    private final byte[] middle;
+
+    ErrorBody(HttpStatus status) {
+        this.status = status;
+        this.middle = bytes("\",\"status\":" + status.value()
+                + ",\"error\":\"" + new String(JsonStringEncoder.getInstance().quoteAsString(status.getReasonPhrase()))
+                + "\",\"message\":\"");
+    }
+
+    HttpStatus status() {
+        return status;
+    }
+
+    byte[] render(String message, String path) {
+        byte[] time = timestamp(System.currentTimeMillis());
+        byte[] quotedMessage = quote(message);
+        byte[] quotedPath = quote(path);
+        byte[] body = new byte[TIMESTAMP_START.length + time.length + middle.length + quotedMessage.length
+                + PATH_START.length + quotedPath.length + END.length];
+        int at = copy(TIMESTAMP_START, body, 0);
+        at = copy(time, body, at);
+        at = copy(middle, body, at);
+        at = copy(quotedMessage, body, at);
+        at = copy(PATH_START, body, at);
+        at = copy(quotedPath, body, at);
+        copy(END, body, at);
+        return body;
+    }
+
+    static String formatTimestamp(long epochMillis) {
+        return new String(timestamp(epochMillis), StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] timestamp(long epochMillis) {
+        long second = epochMillis / 1000;
+        Timestamp current = timestamp;
+        if (current.second != second) {
+            // local time of the system zone, as the LocalDateTime.now() of the old handler
+            current = new Timestamp(second, bytes(TIMESTAMP.format(
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault()))));
+            timestamp = current;
+        }
+        return current.rendered;
+    }
+
+    private static byte[] quote(String value) {
+        return value == null ? new byte[0] : JsonStringEncoder.getInstance().quoteAsUTF8(value);
+    }
+
+    private static int copy(byte[] from, byte[] to, int at) {
+        System.arraycopy(from, 0, to, at, from.length);
+        return at + from.length;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private record Timestamp(long second, byte[] rendered) {
+    }
+}
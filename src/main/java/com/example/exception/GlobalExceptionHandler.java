@@ -1,6 +1,10 @@
 package com.example.exception;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -8,20 +12,27 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
-import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 
 @ControllerAdvice
 public class GlobalExceptionHandler {
+    private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+    private static final ErrorBody NOT_FOUND = new ErrorBody(HttpStatus.NOT_FOUND);
+    private static final ErrorBody BAD_REQUEST = new ErrorBody(HttpStatus.BAD_REQUEST);
+    private static final ErrorBody CONFLICT = new ErrorBody(HttpStatus.CONFLICT);
+    private static final ErrorBody PRECONDITION_FAILED = new ErrorBody(HttpStatus.PRECONDITION_FAILED);
+    private static final ErrorBody TOO_MANY_REQUESTS = new ErrorBody(HttpStatus.TOO_MANY_REQUESTS);
+    private static final ErrorBody SERVICE_UNAVAILABLE = new ErrorBody(HttpStatus.SERVICE_UNAVAILABLE);
+    private static final ErrorBody INTERNAL_SERVER_ERROR = new ErrorBody(HttpStatus.INTERNAL_SERVER_ERROR);
 
     @ExceptionHandler(ResourceNotFoundException.class)
-    public ResponseEntity<Map<String, Object>> handleResourceNotFound(
+    public ResponseEntity<byte[]> handleResourceNotFound(
             ResourceNotFoundException ex, WebRequest request) {
-        Map<String, Object> errorDetails = createErrorResponse(
-                HttpStatus.NOT_FOUND, ex.getMessage(), request);
-        return new ResponseEntity<>(errorDetails, HttpStatus.NOT_FOUND);
+        return errorResponse(NOT_FOUND, ex.getMessage(), request);
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
@@ -33,59 +44,110 @@ public class GlobalExceptionHandler {
             validationErrors.put(error.getField(), error.getDefaultMessage())
         );
         
-        Map<String, Object> errorDetails = createErrorResponse(
-                HttpStatus.BAD_REQUEST, "Validation failed", request);
+        Map<String, Object> errorDetails = new LinkedHashMap<>();
+        errorDetails.put("timestamp", ErrorBody.formatTimestamp(System.currentTimeMillis()));
+        errorDetails.put("status", HttpStatus.BAD_REQUEST.value());
+        errorDetails.put("error", HttpStatus.BAD_REQUEST.getReasonPhrase());
+        errorDetails.put("message", "Validation failed");
+        errorDetails.put("path", path(request));
         errorDetails.put("validationErrors", validationErrors);
         
         return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
     }
 
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
-    public ResponseEntity<Map<String, Object>> handleMethodArgumentTypeMismatch(
+    public ResponseEntity<byte[]> handleMethodArgumentTypeMismatch(
             MethodArgumentTypeMismatchException ex, WebRequest request) {
         
         String requiredType = ex.getRequiredType() != null ? ex.getRequiredType().getSimpleName() : "unknown";
-        String message = String.format("Invalid value '%s' for parameter '%s'. Expected type: %s", 
-                ex.getValue(), ex.getName(), requiredType);
-        
-        Map<String, Object> errorDetails = createErrorResponse(
-                HttpStatus.BAD_REQUEST, message, request);
-        
-        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+        String message = "Invalid value '" + ex.getValue() + "' for parameter '" + ex.getName()
+                + "'. Expected type: " + requiredType;
+        return errorResponse(BAD_REQUEST, message, request);
     }
 
     @ExceptionHandler(IllegalArgumentException.class)
-    public ResponseEntity<Map<String, Object>> handleIllegalArgument(
+    public ResponseEntity<byte[]> handleIllegalArgument(
             IllegalArgumentException ex, WebRequest request) {
-        Map<String, Object> errorDetails = createErrorResponse(
-                HttpStatus.BAD_REQUEST, ex.getMessage(), request);
-        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+        return errorResponse(BAD_REQUEST, ex.getMessage(), request);
+    }
+
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<byte[]> handleIdempotencyConflict(
+            IdempotencyConflictException ex, WebRequest request) {
+        return errorResponse(CONFLICT, ex.getMessage(), request);
+    }
+
+    @ExceptionHandler(VersionConflictException.class)
+    public ResponseEntity<byte[]> handleVersionConflict(
+            VersionConflictException ex, WebRequest request) {
+        return errorResponse(PRECONDITION_FAILED, ex.getMessage(), request);
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<byte[]> handleServiceUnavailable(
+            ServiceUnavailableException ex, WebRequest request) {
+        return serviceUnavailable(ex, path(request));
     }
 
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<Map<String, Object>> handleGlobalException(
+    public ResponseEntity<byte[]> handleGlobalException(
             Exception ex, WebRequest request) {
-        Map<String, Object> errorDetails = createErrorResponse(
-                HttpStatus.INTERNAL_SERVER_ERROR, 
-                "An unexpected error occurred: " + ex.getMessage(), 
-                request);
-        return new ResponseEntity<>(errorDetails, HttpStatus.INTERNAL_SERVER_ERROR);
+        return unexpected(ex, path(request));
     }
 
-    private Map<String, Object> createErrorResponse(HttpStatus status, String message, WebRequest request) {
-        Map<String, Object> errorDetails = new HashMap<>();
-        errorDetails.put("timestamp", LocalDateTime.now());
-        errorDetails.put("status", status.value());
-        errorDetails.put("error", status.getReasonPhrase());
-        errorDetails.put("message", message);
-        
-        String path = request.getDescription(false);
-        if (path.startsWith("uri=")) {
-            path = path.substring(4);
+    /**
+     * The response this advice gives a failed read, for callers that bypass Spring MVC (FastPathRouter).
+     */
+    public static ResponseEntity<byte[]> readFailure(RuntimeException ex, String path) {
+        if (ex instanceof ResourceNotFoundException) {
+            return errorResponse(NOT_FOUND, ex.getMessage(), path);
         }
-        errorDetails.put("path", path);
-        
-        return errorDetails;
+        if (ex instanceof ServiceUnavailableException unavailable) {
+            return serviceUnavailable(unavailable, path);
+        }
+        if (ex instanceof IllegalArgumentException) {
+            return errorResponse(BAD_REQUEST, ex.getMessage(), path);
+        }
+        return unexpected(ex, path);
+    }
+
+    /**
+     * The response for a client over its quota, for ClientQuotaFilter and FastPathRouter, which
+     * reject before Spring MVC.
+     */
+    public static ResponseEntity<byte[]> quotaExceeded(long retryAfterSeconds, String path) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(TOO_MANY_REQUESTS.render("Request quota exceeded, retry in " + retryAfterSeconds + "s", path));
+    }
+
+    private static ResponseEntity<byte[]> unexpected(Exception ex, String path) {
+        // the one place an unexpected failure is logged; the layers below only wrap and rethrow
+        logger.error("Unhandled exception for {}", path, ex);
+        return errorResponse(INTERNAL_SERVER_ERROR, "An unexpected error occurred: " + ex.getMessage(), path);
+    }
+
+    private static ResponseEntity<byte[]> serviceUnavailable(ServiceUnavailableException ex, String path) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(SERVICE_UNAVAILABLE.render(ex.getMessage(), path));
+    }
+
+    private static ResponseEntity<byte[]> errorResponse(ErrorBody template, String message, WebRequest request) {
+        return errorResponse(template, message, path(request));
+    }
+
+    private static ResponseEntity<byte[]> errorResponse(ErrorBody template, String message, String path) {
+        return ResponseEntity.status(template.status())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(template.render(message, path));
+    }
+
+    private static String path(WebRequest request) {
+        String path = request.getDescription(false);
+        return path.startsWith("uri=") ? path.substring(4) : path;
     }
 
 }
@@ -0,0 +1,8 @@
+package com.example.exception;
+
+public class IdempotencyConflictException extends RuntimeException {
+    public IdempotencyConflictException(String message) {
+        // a client error answered with 409, the stack trace is never used
+        super(message, null, false, false);
+    }
+}
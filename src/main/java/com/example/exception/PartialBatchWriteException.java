@@ -0,0 +1,28 @@
+package com.example.exception;
+
+import com.example.model.LightBulb;
+
+import java.util.List;
+
+/**
+ * A batch write that stored only part of its bulbs; the rest, {@link #getUnprocessed()}, were not
+ * written and can be sent again.
+ */
+public class PartialBatchWriteException extends ServiceUnavailableException {
+
+    private final List<LightBulb> unprocessed;
+
+    public PartialBatchWriteException(String message, long retryAfterSeconds, List<LightBulb> unprocessed) {
+        super(message, retryAfterSeconds);
+        this.unprocessed = List.copyOf(unprocessed);
+    }
+
+    public PartialBatchWriteException(String message, long retryAfterSeconds, List<LightBulb> unprocessed, Throwable cause) {
+        super(message, retryAfterSeconds, cause);
+        this.unprocessed = List.copyOf(unprocessed);
+    }
+
+    public List<LightBulb> getUnprocessed() {
+        return unprocessed;
+    }
+}
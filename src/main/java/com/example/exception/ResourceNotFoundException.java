@@ -1,11 +1,35 @@
 package com.example.exception;
 
+/**
+ * Thrown on every lookup of a missing id, so it is cheap: no stack trace (the handler maps it to a
+ * 404 and never logs it) and the message is only formatted when something reads it.
+ */
 public class ResourceNotFoundException extends RuntimeException {
+    private final String resourceName;
+    private final String fieldName;
+    private final Object fieldValue;
+    private String message;
+
     public ResourceNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
+        this.resourceName = null;
+        this.fieldName = null;
+        this.fieldValue = null;
+        this.message = message;
     }
 
     public ResourceNotFoundException(String resourceName, String fieldName, Object fieldValue) {
-        super(String.format("%s not found with %s : '%s'", resourceName, fieldName, fieldValue));
+        super(null, null, false, false);
+        this.resourceName = resourceName;
+        this.fieldName = fieldName;
+        this.fieldValue = fieldValue;
+    }
+
+    @Override
+    public String getMessage() {
+        if (message == null) {
+            message = resourceName + " not found with " + fieldName + " : '" + fieldValue + "'";
+        }
+        return message;
     }
 }
@@ -0,0 +1,16 @@
+package com.example.exception;
+
+/**
+ * A write was based on a version of the bulb that is no longer current, either because the
+ * client's If-Match is stale or because another write got in first. Like the other exceptions the
+ * handler maps to a 4xx it carries no stack trace.
+ */
+public class VersionConflictException extends RuntimeException {
+    public VersionConflictException(String message) {
+        super(message, null, false, false);
+    }
+
+    public VersionConflictException(String message, Throwable cause) {
+        super(message, cause, false, false);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.http;
+
+/**
+ * The client API Gateway verified for the request being handled: the id of the API key it checked
+ * against a usage plan, or else the IAM caller it authenticated. Headers are never trusted for
+ * this, anyone can send an {@code x-api-key} of their choosing to get a fresh quota.
+ *
+ * StreamLambdaHandler attaches it to the handling thread from the event's request context;
+ * {@link #current()} is null when nothing was verified, e.g. outside Lambda.
+ */
+public final class ClientIdentity {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ClientIdentity() {
+    }
+
+    /**
+     * The quota key for a verified client, or null when API Gateway verified neither.
+     */
+    public static String verified(String apiKeyId, String caller) {
+        if (apiKeyId != null && !apiKeyId.isBlank()) {
+            return "key:" + apiKeyId;
+        }
+        if (caller != null && !caller.isBlank()) {
+            return "caller:" + caller;
+        }
+        return null;
+    }
+
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Attaches the verified client to the current thread until the returned scope is closed.
+     */
+    public static Scope attach(String client) {
+        String previous = CURRENT.get();
+        if (client == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(client);
+        }
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.http;
+
+import com.example.exception.GlobalExceptionHandler;
+import com.example.metrics.MetricsSource;
+import com.example.resilience.ClientQuota;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rejects clients that exceed their quota with 429 and {@code Retry-After}, before any controller or
+ * backend work. Clients are identified by what API Gateway verified ({@link ClientIdentity}) or else
+ * by source address, and have separate read (GET, HEAD, OPTIONS) and write budgets.
+ *
+ * On Lambda the proxy container runs the same filter chain and reports the API Gateway source IP as
+ * the remote address. In server mode Tomcat resolves the remote address from X-Forwarded-For sent by
+ * a trusted load balancer ({@code server.forward-headers-strategy}), otherwise all clients would share
+ * the load balancer's bucket. Buckets are per instance, so the effective limit grows with concurrency.
+ */
+public class ClientQuotaFilter extends OncePerRequestFilter implements MetricsSource {
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+    // health checks must never be throttled
+    private static final Set<String> EXEMPT_PATHS = Set.of("/ping");
+
+    private final ClientQuota reads;
+    private final ClientQuota writes;
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder readsRejected = new LongAdder();
+    private final LongAdder writesRejected = new LongAdder();
+
+    public ClientQuotaFilter(ClientQuota reads, ClientQuota writes) {
+        this.reads = reads;
+        this.writes = writes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return EXEMPT_PATHS.contains(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long waitNanos = admit(request.getMethod(), ClientIdentity.current(), request.getRemoteAddr());
+        if (waitNanos == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        reject(request, response, waitNanos);
+    }
+
+    /**
+     * Charges one request to the client's read or write budget; FastPathRouter calls this too, as
+     * its requests never pass the filter chain.
+     *
+     * @param verifiedClient the {@link ClientIdentity#verified} key, or null to go by address
+     * @return 0 when admitted, otherwise the nanoseconds until the client has budget again
+     */
+    long admit(String method, String verifiedClient, String remoteAddress) {
+        boolean read = READ_METHODS.contains(method);
+        long waitNanos = (read ? reads : writes).tryAcquire(clientKey(verifiedClient, remoteAddress));
+        if (waitNanos == 0) {
+            admitted.increment();
+        } else {
+            (read ? readsRejected : writesRejected).increment();
+        }
+        return waitNanos;
+    }
+
+    static String clientKey(HttpServletRequest request) {
+        return clientKey(ClientIdentity.current(), request.getRemoteAddr());
+    }
+
+    private static String clientKey(String verifiedClient, String remoteAddress) {
+        return verifiedClient != null ? verifiedClient : "ip:" + remoteAddress;
+    }
+
+    static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static void reject(HttpServletRequest request, HttpServletResponse response, long waitNanos)
+            throws IOException {
+        ResponseEntity<byte[]> rejection = GlobalExceptionHandler.quotaExceeded(retryAfterSeconds(waitNanos),
+                request.getRequestURI());
+        response.setStatus(rejection.getStatusCode().value());
+        rejection.getHeaders().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        response.getOutputStream().write(rejection.getBody());
+    }
+
+    @Override
+    public String metricsName() {
+        return "quota";
+    }
+
+    @Override
+    public Map<String, Number> metricsSnapshot() {
+        Map<String, Number> snapshot = new LinkedHashMap<>();
+        snapshot.put("admitted", admitted.sum());
+        snapshot.put("readsRejected", readsRejected.sum());
+        snapshot.put("writesRejected", writesRejected.sum());
+        return snapshot;
+    }
+}
@@ -0,0 +1,335 @@
+package com.example.http;
+
+import com.example.controller.ETags;
+import com.example.exception.GlobalExceptionHandler;
+import com.example.model.LightBulb;
+import com.example.services.LightBulbService;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * Answers the hottest API Gateway proxy events, {@code GET /ping} and {@code GET /bulbs/{id}} as
+ * JSON, without the Lambda container and Spring MVC. The event is read with a streaming parser
+ * that gives up as soon as it is not one of them, the bulb comes straight from
+ * {@link LightBulbService}, and the proxy response is generated into the output stream.
+ *
+ * The responses are the ones the controllers give: quotas, ETag and If-None-Match, Last-Modified,
+ * the exception handler's error bodies and gzip for large bodies. Anything this does not cover,
+ * such as other Accept types, query parameters or other conditional headers, is left to Spring.
+ */
+public class FastPathRouter {
+
+    static final String ENABLED_PROPERTY = "lightbulb.fast-path.enabled";
+
+    private static final String PING = "/ping";
+    private static final String BULBS = "/bulbs/";
+    // longer ids may not fit a long, Spring answers those
+    private static final int MAX_ID_DIGITS = 18;
+    private static final byte[] PONG = "pong".getBytes(StandardCharsets.UTF_8);
+    private static final MediaType TEXT_PLAIN_UTF8 = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+
+    private final LightBulbService service;
+    private final ClientQuotaFilter quota;
+    private final ObjectWriter bulbWriter;
+    private final JsonFactory json = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+
+    /**
+     * @param quota null when quotas are disabled
+     * @param mapper the mapper Spring MVC writes bodies with, so both paths render bulbs alike
+     */
+    public FastPathRouter(LightBulbService service, ClientQuotaFilter quota, ObjectMapper mapper) {
+        this.service = service;
+        this.quota = quota;
+        this.bulbWriter = mapper.writerFor(LightBulb.class);
+    }
+
+    /**
+     * The router for the application's beans, or null when {@value #ENABLED_PROPERTY} is false.
+     */
+    public static FastPathRouter from(ApplicationContext context) {
+        if (!context.getEnvironment().getProperty(ENABLED_PROPERTY, Boolean.class, true)) {
+            return null;
+        }
+        return new FastPathRouter(context.getBean(LightBulbService.class),
+                context.getBeanProvider(ClientQuotaFilter.class).getIfAvailable(),
+                context.getBean(ObjectMapper.class));
+    }
+
+    /**
+     * Writes the proxy response for {@code event} if it is one of the fast routes.
+     *
+     * @return false, with nothing written, when the event is for Spring
+     */
+    public boolean route(byte[] event, OutputStream out) throws IOException {
+        Request request = parse(event);
+        if (request == null || request.unsupported) {
+            return false;
+        }
+        if (request.path.equals(PING)) {
+            return ping(request, out);
+        }
+        return bulb(request, out);
+    }
+
+    private boolean ping(Request request, OutputStream out) throws IOException {
+        // what Spring negotiates for the String "pong"; the quota filter exempts /ping
+        MediaType contentType;
+        if (request.accept == null || request.accept.isBlank() || request.accept.equals(MediaType.ALL_VALUE)) {
+            contentType = TEXT_PLAIN_UTF8;
+        } else if (request.accept.equals(MediaType.APPLICATION_JSON_VALUE)) {
+            contentType = MediaType.APPLICATION_JSON;
+        } else {
+            return false;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(contentType);
+        write(out, HttpStatus.OK.value(), headers, PONG, request);
+        return true;
+    }
+
+    private boolean bulb(Request request, OutputStream out) throws IOException {
+        // JSON is the default for wildcards (see WebConfig); binary formats go through Spring
+        if (request.accept != null && !request.accept.isBlank() && !request.accept.equals(MediaType.ALL_VALUE)
+                && !request.accept.equals(MediaType.APPLICATION_JSON_VALUE)) {
+            return false;
+        }
+        if (quota != null) {
+            long waitNanos = quota.admit(request.method, ClientIdentity.verified(request.apiKeyId, request.caller), request.sourceIp);
+            if (waitNanos != 0) {
+                ResponseEntity<byte[]> rejection = GlobalExceptionHandler.quotaExceeded(
+                        ClientQuotaFilter.retryAfterSeconds(waitNanos), request.path);
+                write(out, rejection.getStatusCode().value(), new HttpHeaders(rejection.getHeaders()), rejection.getBody(), request);
+                return true;
+            }
+        }
+
+        LightBulb bulb;
+        try {
+            bulb = service.getBulbById(request.id);
+        } catch (RuntimeException e) {
+            // answered here rather than by Spring, which would charge the quota and run the lookup again
+            ResponseEntity<byte[]> failure = GlobalExceptionHandler.readFailure(e, request.path);
+            write(out, failure.getStatusCode().value(), new HttpHeaders(failure.getHeaders()), failure.getBody(), request);
+            return true;
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        String etag = ETags.of(bulb);
+        if (etag != null) {
+            headers.setETag(etag);
+        }
+        if (bulb.getLastModified() != null) {
+            headers.setLastModified(bulb.getLastModified());
+        }
+        if (ETags.noneMatchHits(request.ifNoneMatch, etag)) {
+            write(out, HttpStatus.NOT_MODIFIED.value(), headers, null, request);
+            return true;
+        }
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        write(out, HttpStatus.OK.value(), headers, bulbWriter.writeValueAsBytes(bulb), request);
+        return true;
+    }
+
+    private void write(OutputStream out, int status, HttpHeaders headers, byte[] body, Request request)
+            throws IOException {
+        boolean base64 = false;
+        // as StreamLambdaHandler.compress does for the responses from Spring
+        if (body != null && body.length >= ResponseCompression.DEFAULT_MIN_BYTES) {
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (ResponseCompression.negotiate(request.acceptEncoding) != null) {
+                body = Base64.getEncoder().encode(ResponseCompression.gzip(body, Deflater.BEST_SPEED));
+                headers.set(HttpHeaders.CONTENT_ENCODING, ResponseCompression.GZIP);
+                base64 = true;
+            }
+        }
+        try (JsonGenerator generator = json.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeNumberField("statusCode", status);
+            generator.writeObjectFieldStart("multiValueHeaders");
+            for (Map.Entry<String, List<String>> header : headers.headerSet()) {
+                generator.writeArrayFieldStart(header.getKey());
+                for (String value : header.getValue()) {
+                    generator.writeString(value);
+                }
+                generator.writeEndArray();
+            }
+            generator.writeEndObject();
+            if (body != null) {
+                generator.writeFieldName("body");
+                generator.writeUTF8String(body, 0, body.length);
+            }
+            generator.writeBooleanField("isBase64Encoded", base64);
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * The parts of the event the fast routes look at, or null as soon as it is clear the event is
+     * not for them.
+     */
+    private Request parse(byte[] event) throws IOException {
+        Request request = new Request();
+        try (JsonParser parser = json.createParser(event)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "httpMethod" -> {
+                        request.method = parser.getValueAsString();
+                        if (!"GET".equals(request.method)) {
+                            return null;
+                        }
+                    }
+                    case "path" -> {
+                        if (!request.route(parser.getValueAsString())) {
+                            return null;
+                        }
+                    }
+                    case "queryStringParameters", "multiValueQueryStringParameters" -> {
+                        if (value == JsonToken.START_OBJECT && parser.nextToken() != JsonToken.END_OBJECT) {
+                            return null;
+                        }
+                    }
+                    case "headers" -> headers(parser, request, false);
+                    case "multiValueHeaders" -> headers(parser, request, true);
+                    case "requestContext" -> requestContext(parser, request);
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        return request.method != null && request.path != null ? request : null;
+    }
+
+    private static void headers(JsonParser parser, Request request, boolean multiValue) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (!multiValue) {
+                request.header(name, parser.getValueAsString());
+            } else if (value == JsonToken.START_ARRAY) {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    request.header(name, parser.getValueAsString());
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static void requestContext(JsonParser parser, Request request) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            if (parser.nextToken() == JsonToken.START_OBJECT && field.equals("identity")) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.currentName();
+                    parser.nextToken();
+                    if (name.equals("sourceIp")) {
+                        request.sourceIp = parser.getValueAsString();
+                    } else if (name.equals("apiKeyId")) {
+                        request.apiKeyId = parser.getValueAsString();
+                    } else if (name.equals("caller")) {
+                        request.caller = parser.getValueAsString();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static final class Request {
+        String method;
+        String path;
+        long id;
+        String accept;
+        String acceptEncoding;
+        String ifNoneMatch;
+        // what API Gateway verified, see ClientIdentity
+        String apiKeyId;
+        String caller;
+        // what the proxy container reports as the remote address
+        String sourceIp;
+        // a header this does not handle, or one with several values
+        boolean unsupported;
+
+        boolean route(String path) {
+            if (PING.equals(path)) {
+                this.path = path;
+                return true;
+            }
+            if (path == null || !path.startsWith(BULBS)) {
+                return false;
+            }
+            int digits = path.length() - BULBS.length();
+            if (digits == 0 || digits > MAX_ID_DIGITS) {
+                return false;
+            }
+            long value = 0;
+            for (int i = BULBS.length(); i < path.length(); i++) {
+                char c = path.charAt(i);
+                if (c < '0' || c > '9') {
+                    return false;
+                }
+                value = value * 10 + (c - '0');
+            }
+            this.path = path;
+            this.id = value;
+            return true;
+        }
+
+        void header(String name, String value) {
+            if (name.equalsIgnoreCase(HttpHeaders.ACCEPT)) {
+                accept = merge(accept, value);
+            } else if (name.equalsIgnoreCase(HttpHeaders.ACCEPT_ENCODING)) {
+                acceptEncoding = merge(acceptEncoding, value);
+            } else if (name.equalsIgnoreCase(HttpHeaders.IF_NONE_MATCH)) {
+                ifNoneMatch = merge(ifNoneMatch, value);
+            } else if (name.equalsIgnoreCase(HttpHeaders.IF_MODIFIED_SINCE)
+                    || name.equalsIgnoreCase(HttpHeaders.IF_MATCH)
+                    || name.equalsIgnoreCase(HttpHeaders.IF_UNMODIFIED_SINCE)
+                    || name.equalsIgnoreCase(HttpHeaders.ORIGIN)) {
+                // Spring's conditional request and CORS handling
+                unsupported = true;
+            }
+        }
+
+        // events carry headers twice, as single and as multi-value headers; values must agree
+        private String merge(String current, String value) {
+            if (current != null && !current.equals(value)) {
+                unsupported = true;
+            }
+            return value;
+        }
+    }
+}
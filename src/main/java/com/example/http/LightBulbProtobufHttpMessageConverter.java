@@ -0,0 +1,120 @@
+package com.example.http;
+
+import com.example.model.LightBulb;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reads and writes {@link LightBulb} and lists of bulbs as protobuf, using the schema in
+ * {@code lightbulb.proto}. Lists travel as a {@code LightBulbList} message. Jackson's protobuf
+ * backend maps the existing bean directly, so there are no generated classes to keep in sync.
+ */
+public class LightBulbProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType APPLICATION_X_PROTOBUF = new MediaType("application", "x-protobuf");
+    public static final MediaType APPLICATION_PROTOBUF = new MediaType("application", "protobuf");
+
+    static final String SCHEMA_RESOURCE = "/lightbulb.proto";
+
+    private final ProtobufMapper mapper = new ProtobufMapper();
+    private final ProtobufSchema bulbSchema;
+    private final ProtobufSchema listSchema;
+
+    public LightBulbProtobufHttpMessageConverter() {
+        super(APPLICATION_X_PROTOBUF, APPLICATION_PROTOBUF);
+        try (InputStream in = LightBulbProtobufHttpMessageConverter.class.getResourceAsStream(SCHEMA_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing protobuf schema " + SCHEMA_RESOURCE);
+            }
+            ProtobufSchema schema = ProtobufSchemaLoader.std.load(in);
+            this.bulbSchema = schema.withRootType("LightBulb");
+            this.listSchema = schema.withRootType("LightBulbList");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load protobuf schema " + SCHEMA_RESOURCE, e);
+        }
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return LightBulb.class.isAssignableFrom(clazz) || Collection.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return (type == LightBulb.class || isBulbList(type)) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        // async handlers may only know the erased class; element types are checked on write
+        boolean bulbs = type instanceof ParameterizedType ? isBulbList(type) : supports(clazz);
+        return bulbs && canWrite(mediaType);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        if (isBulbList(type)) {
+            BulbList list = read(BulbList.class, listSchema, inputMessage);
+            return list.bulbs == null ? new ArrayList<LightBulb>() : list.bulbs;
+        }
+        return read(LightBulb.class, bulbSchema, inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(LightBulb.class, bulbSchema, inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+        if (body instanceof LightBulb bulb) {
+            mapper.writer(bulbSchema).writeValue(outputMessage.getBody(), bulb);
+            return;
+        }
+        BulbList list = new BulbList();
+        list.bulbs = new ArrayList<>();
+        for (Object item : (Collection<?>) body) {
+            if (!(item instanceof LightBulb bulb)) {
+                throw new HttpMessageNotWritableException("Only bulbs can be written as protobuf, got " + item);
+            }
+            list.bulbs.add(bulb);
+        }
+        mapper.writer(listSchema).writeValue(outputMessage.getBody(), list);
+    }
+
+    private <T> T read(Class<T> clazz, ProtobufSchema schema, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return mapper.readerFor(clazz).with(schema).readValue(inputMessage.getBody());
+        } catch (IOException e) {
+            throw new HttpMessageNotReadableException("Invalid protobuf " + clazz.getSimpleName() + ": " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    private static boolean isBulbList(Type type) {
+        return type instanceof ParameterizedType parameterized
+                && parameterized.getRawType() instanceof Class<?> raw
+                && Collection.class.isAssignableFrom(raw)
+                && raw.isAssignableFrom(ArrayList.class)
+                && parameterized.getActualTypeArguments()[0] == LightBulb.class;
+    }
+
+    static final class BulbList {
+        public List<LightBulb> bulbs;
+    }
+}
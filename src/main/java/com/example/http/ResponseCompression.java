@@ -0,0 +1,78 @@
+package com.example.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Accept-Encoding negotiation and gzip for responses that do not go through the embedded
+ * server's own compression (the Lambda proxy path).
+ */
+public final class ResponseCompression {
+
+    public static final String GZIP = "gzip";
+
+    /**
+     * Same default as {@code server.compression.min-response-size}: below this the gzip header
+     * and the base64 expansion cost more than they save.
+     */
+    public static final int DEFAULT_MIN_BYTES = 1024;
+
+    private ResponseCompression() {
+    }
+
+    /**
+     * The encoding to use for a client sending {@code acceptEncoding}, or null to send the body as is.
+     * Only gzip is produced; brotli would need a native encoder that the JDK does not ship.
+     */
+    public static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.trim().split(";");
+            String coding = params[0].trim().toLowerCase(Locale.ROOT);
+            double q = quality(params);
+            if (coding.equals(GZIP) || coding.equals("x-gzip")) {
+                gzip = q;
+            } else if (coding.equals("*")) {
+                any = q;
+            }
+        }
+        // an explicit gzip;q=0 wins over a wildcard
+        double q = gzip != null ? gzip : any != null ? any : 0;
+        return q > 0 ? GZIP : null;
+    }
+
+    public static byte[] gzip(byte[] data, int level) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer, 8192) {
+            {
+                def.setLevel(level);
+            }
+        }) {
+            out.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static double quality(String[] params) {
+        for (int i = 1; i < params.length; i++) {
+            String param = params[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * An {@link AsyncAppender} that appends on the calling thread on AWS Lambda. The execution
+ * environment is frozen as soon as the handler returns, so events still queued would only be
+ * written during a later invocation, or never once the environment is reaped.
+ *
+ * Off Lambda the queue is used as configured, except that WARN and ERROR events meeting a full
+ * queue are written directly instead of being dropped by {@code neverBlock}.
+ */
+public class LambdaSafeAsyncAppender extends AsyncAppender {
+
+    private boolean synchronous = System.getenv("AWS_LAMBDA_FUNCTION_NAME") != null;
+
+    public void setSynchronous(boolean synchronous) {
+        this.synchronous = synchronous;
+    }
+
+    public boolean isSynchronous() {
+        return synchronous;
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (synchronous || (getRemainingCapacity() == 0 && event.getLevel().isGreaterOrEqual(Level.WARN))) {
+            iteratorForAppenders().forEachRemaining(appender -> appender.doAppend(event));
+            return;
+        }
+        super.append(event);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Keeps roughly one in N events below WARN for the configured logger prefixes and drops the rest
+ * before a logging event is even created. WARN/ERROR events and anything carrying a throwable always pass.
+ *
+ * Rules are configured as {@code prefix=N} pairs separated by commas, e.g.
+ * {@code com.example.services=10,com.example.repo=100}; the longest matching prefix wins.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private static final int NOT_SAMPLED = 1;
+
+    private String rules = "";
+
+    private Map<String, Integer> sampleRates = Map.of();
+
+    // logger name -> sample rate of the longest matching rule
+    private final Map<String, Integer> resolved = new ConcurrentHashMap<>();
+
+    public void setRules(String rules) {
+        this.rules = rules;
+    }
+
+    @Override
+    public void start() {
+        Map<String, Integer> parsed = new ConcurrentHashMap<>();
+        for (String rule : rules.split(",")) {
+            String trimmed = rule.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int separator = trimmed.lastIndexOf('=');
+            if (separator <= 0) {
+                addError("Ignoring malformed sampling rule: " + trimmed);
+                continue;
+            }
+            int every;
+            try {
+                every = Integer.parseInt(trimmed.substring(separator + 1).trim());
+            } catch (NumberFormatException e) {
+                addError("Ignoring sampling rule with a malformed rate: " + trimmed);
+                continue;
+            }
+            parsed.put(trimmed.substring(0, separator).trim(), Math.max(NOT_SAMPLED, every));
+        }
+        sampleRates = parsed;
+        resolved.clear();
+        super.start();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // isXxxEnabled() checks arrive without a format, let them through so the real call gets sampled
+        if (format == null || t != null || level.isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        if (!level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        int every = resolved.computeIfAbsent(logger.getName(), this::sampleRateFor);
+        if (every == NOT_SAMPLED || ThreadLocalRandom.current().nextInt(every) == 0) {
+            return FilterReply.NEUTRAL;
+        }
+        return FilterReply.DENY;
+    }
+
+    private int sampleRateFor(String loggerName) {
+        String bestMatch = null;
+        for (String prefix : sampleRates.keySet()) {
+            boolean matches = loggerName.equals(prefix) || loggerName.startsWith(prefix + ".");
+            if (matches && (bestMatch == null || prefix.length() > bestMatch.length())) {
+                bestMatch = prefix;
+            }
+        }
+        return bestMatch != null ? sampleRates.get(bestMatch) : NOT_SAMPLED;
+    }
+}
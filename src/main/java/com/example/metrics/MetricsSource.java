@@ -0,0 +1,13 @@
+package com.example.metrics;
+
+import java.util.Map;
+
+/**
+ * A component that exposes counters under {@code GET /metrics}.
+ */
+public interface MetricsSource {
+
+    String metricsName();
+
+    Map<String, Number> metricsSnapshot();
+}
@@ -0,0 +1,51 @@
+package com.example.model;
+
+import java.util.Map;
+
+/**
+ * Fleet-wide aggregates served by {@code GET /bulbs/stats}. Average, min and max are null when
+ * there are no bulbs.
+ */
+public class BulbStats {
+
+    private final long count;
+    private final Map<String, Long> countsByType;
+    private final long totalWattage;
+    private final Double averageWattage;
+    private final Integer minWattage;
+    private final Integer maxWattage;
+
+    public BulbStats(long count, Map<String, Long> countsByType, long totalWattage,
+                     Integer minWattage, Integer maxWattage) {
+        this.count = count;
+        this.countsByType = countsByType;
+        this.totalWattage = totalWattage;
+        this.averageWattage = count == 0 ? null : (double) totalWattage / count;
+        this.minWattage = minWattage;
+        this.maxWattage = maxWattage;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public Map<String, Long> getCountsByType() {
+        return countsByType;
+    }
+
+    public long getTotalWattage() {
+        return totalWattage;
+    }
+
+    public Double getAverageWattage() {
+        return averageWattage;
+    }
+
+    public Integer getMinWattage() {
+        return minWattage;
+    }
+
+    public Integer getMaxWattage() {
+        return maxWattage;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.model;
+
+/**
+ * Progress of a bulk export, and its result once {@code status} is no longer running. Byte counts
+ * are of the gzip output.
+ */
+public class ExportSummary {
+
+    public enum Status {
+        RUNNING, FINISHED, FAILED
+    }
+
+    private final String location;
+    private final int segments;
+    private final long bulbs;
+    private final long compressedBytes;
+    private final long elapsedMillis;
+    private final Status status;
+
+    public ExportSummary(String location, int segments, long bulbs, long compressedBytes, long elapsedMillis,
+                         Status status) {
+        this.location = location;
+        this.segments = segments;
+        this.bulbs = bulbs;
+        this.compressedBytes = compressedBytes;
+        this.elapsedMillis = elapsedMillis;
+        this.status = status;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public int getSegments() {
+        return segments;
+    }
+
+    public long getBulbs() {
+        return bulbs;
+    }
+
+    public long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public long getBulbsPerSecond() {
+        return elapsedMillis == 0 ? bulbs : bulbs * 1000 / elapsedMillis;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.model;
+
+import java.util.List;
+
+/**
+ * Result of {@code POST /bulbs/import}. Only the first errors are listed; {@code failed} counts
+ * all rejected lines.
+ */
+public class ImportSummary {
+
+    private final long lines;
+    private final long imported;
+    private final long failed;
+    private final List<LineError> errors;
+    private final boolean errorsTruncated;
+
+    public ImportSummary(long lines, long imported, long failed, List<LineError> errors, boolean errorsTruncated) {
+        this.lines = lines;
+        this.imported = imported;
+        this.failed = failed;
+        this.errors = errors;
+        this.errorsTruncated = errorsTruncated;
+    }
+
+    public long getLines() {
+        return lines;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public List<LineError> getErrors() {
+        return errors;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    /**
+     * A rejected input line, numbered from 1 (the CSV header is line 1).
+     */
+    public static class LineError {
+
+        private final long line;
+        private final String message;
+
+        public LineError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -20,6 +20,12 @@ public class LightBulb {
     @Min(value = 1, message = "Wattage must be at least 1")
     private int wattage;
 
+    // Bumped by the repository on every save
+    private Long version;
+
+    // Epoch millis of the last save, set by the repository
+    private Long lastModified;
+
     public LightBulb() {
     }
 
@@ -56,6 +62,22 @@ public class LightBulb {
         this.wattage = wattage;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Long lastModified) {
+        this.lastModified = lastModified;
+    }
+
     @Override
     public String toString() {
         return "LightBulb{" +
@@ -63,6 +85,7 @@ public class LightBulb {
                 ", name='" + name + '\'' +
                 ", type='" + type + '\'' +
                 ", wattage=" + wattage +
+                ", version=" + version +
                 '}';
     }
 }
@@ -0,0 +1,72 @@
+package com.example.model;
+
+/**
+ * The changes of a JSON merge patch (RFC 7396) to a bulb. A null field is left unchanged; every
+ * patchable field is required on the bulb, so a merge patch can set them but never remove them.
+ */
+public class LightBulbPatch {
+
+    private String name;
+
+    private String type;
+
+    private Integer wattage;
+
+    public LightBulbPatch() {
+    }
+
+    public LightBulbPatch(String name, String type, Integer wattage) {
+        this.name = name;
+        this.type = type;
+        this.wattage = wattage;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Integer getWattage() {
+        return wattage;
+    }
+
+    public void setWattage(Integer wattage) {
+        this.wattage = wattage;
+    }
+
+    public boolean isEmpty() {
+        return name == null && type == null && wattage == null;
+    }
+
+    public void applyTo(LightBulb bulb) {
+        if (name != null) {
+            bulb.setName(name);
+        }
+        if (type != null) {
+            bulb.setType(type);
+        }
+        if (wattage != null) {
+            bulb.setWattage(wattage);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LightBulbPatch{" +
+                "name='" + name + '\'' +
+                ", type='" + type + '\'' +
+                ", wattage=" + wattage +
+                '}';
+    }
+}
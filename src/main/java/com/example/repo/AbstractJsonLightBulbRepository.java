@@ -1,11 +1,34 @@
 package com.example.repo;
 
+import com.example.exception.VersionConflictException;
 import com.example.model.LightBulb;
+import com.example.model.LightBulbPatch;
 import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
 
 
 public abstract class AbstractJsonLightBulbRepository implements LightBulbRepository {
 
+    private final IdGenerator idGenerator;
+
+    // Serializes read-modify-write of the whole document within this instance. A ReentrantLock
+    // rather than synchronized, so virtual threads blocked on file/S3 I/O release their carrier.
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    static final long SNAPSHOT_MAX_AGE_MILLIS = 1_000;
+
+    // the document as last read by a page scan, so a traversal reads it once instead of once per page
+    private volatile Snapshot snapshot;
+    private final ReentrantLock readLock = new ReentrantLock();
+
+    protected AbstractJsonLightBulbRepository() {
+        this(SnowflakeIdGenerator.shared());
+    }
+
+    protected AbstractJsonLightBulbRepository(IdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+    }
+
     @Override
     public List<LightBulb> findAll() {
         return readAll();
@@ -20,28 +43,241 @@ public abstract class AbstractJsonLightBulbRepository implements LightBulbReposi
 
     @Override
     public LightBulb save(LightBulb bulb) {
-        List<LightBulb> bulbs = readAll();
-        if (bulb.getId() == null) {
-            bulb.setId(generateId());
+        writeLock.lock();
+        try {
+            List<LightBulb> bulbs = readAll();
+            if (bulb.getId() == null) {
+                bulb.setId(generateId());
+            }
+            Optional<LightBulb> stored = bulbs.stream()
+                    .filter(b -> Objects.equals(b.getId(), bulb.getId()))
+                    .findFirst();
+            long storedVersion = stored.map(LightBulb::getVersion).orElse(0L);
+            // a versioned save is conditional on the stored version, an unversioned one overwrites;
+            // like DynamoDbLightBulbRepository, a versioned save of a deleted bulb does not recreate it
+            if (bulb.getVersion() != null && stored.isEmpty()) {
+                throw new VersionConflictException("LightBulb " + bulb.getId() + " no longer exists, expected version "
+                        + bulb.getVersion());
+            }
+            if (bulb.getVersion() != null
+                    && !Objects.equals(bulb.getVersion(), stored.get().getVersion())) {
+                throw new VersionConflictException("LightBulb " + bulb.getId() + " is at version "
+                        + stored.get().getVersion() + ", expected " + bulb.getVersion());
+            }
+            bulb.setVersion(storedVersion + 1);
+            bulb.setLastModified(System.currentTimeMillis());
+            bulbs.removeIf(b -> Objects.equals(b.getId(), bulb.getId()));
+            bulbs.add(bulb);
+            store(bulbs);
+            return bulb;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // one rewrite of the document per batch, so imports use large batches
+    @Override
+    public List<LightBulb> saveAll(List<LightBulb> newBulbs) {
+        writeLock.lock();
+        try {
+            List<LightBulb> bulbs = readAll();
+            long now = System.currentTimeMillis();
+            Set<Long> ids = new HashSet<>();
+            for (LightBulb bulb : newBulbs) {
+                if (bulb.getId() == null) {
+                    bulb.setId(generateId());
+                }
+                bulb.setVersion(1L);
+                bulb.setLastModified(now);
+                ids.add(bulb.getId());
+            }
+            bulbs.removeIf(b -> ids.contains(b.getId()));
+            bulbs.addAll(newBulbs);
+            store(bulbs);
+            return newBulbs;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public int writeBatchSize() {
+        return 5000;
+    }
+
+    // patched in place on the document, no separate read and full-bulb save
+    @Override
+    public Optional<LightBulb> patch(Long id, LightBulbPatch patch, Long expectedVersion) {
+        writeLock.lock();
+        try {
+            List<LightBulb> bulbs = readAll();
+            Optional<LightBulb> stored = bulbs.stream()
+                    .filter(b -> Objects.equals(b.getId(), id))
+                    .findFirst();
+            if (stored.isEmpty()) {
+                return Optional.empty();
+            }
+            LightBulb bulb = stored.get();
+            if (expectedVersion != null && !expectedVersion.equals(bulb.getVersion())) {
+                throw new VersionConflictException("LightBulb " + id + " is at version "
+                        + bulb.getVersion() + ", expected " + expectedVersion);
+            }
+            patch.applyTo(bulb);
+            bulb.setVersion(bulb.getVersion() == null ? 1L : bulb.getVersion() + 1);
+            bulb.setLastModified(System.currentTimeMillis());
+            store(bulbs);
+            return stored;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteById(Long id, Long expectedVersion) {
+        writeLock.lock();
+        try {
+            LightBulbRepository.super.deleteById(id, expectedVersion);
+        } finally {
+            writeLock.unlock();
         }
-        bulbs.removeIf(b -> Objects.equals(b.getId(), bulb.getId()));
-        bulbs.add(bulb);
-        writeAll(bulbs);
-        return bulb;
     }
 
     @Override
     public void deleteById(Long id) {
-        List<LightBulb> bulbs = readAll();
-        bulbs.removeIf(b -> Objects.equals(b.getId(), id));
+        writeLock.lock();
+        try {
+            List<LightBulb> bulbs = readAll();
+            bulbs.removeIf(b -> Objects.equals(b.getId(), id));
+            store(bulbs);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Pages in id order; the cursor is the last id returned. Pages are cut from the snapshot of the
+     * document held for all scans, so concurrent traversals share one read: a traversal resumes on
+     * whatever snapshot is current, and only starts on a new read when there is none, or it is older
+     * than {@value #SNAPSHOT_MAX_AGE_MILLIS} ms, so writes by other instances are seen by new scans.
+     */
+    @Override
+    public LightBulbPage findPage(String cursor, int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        return snapshot(cursor).page(lastId(cursor), pageSize, 0, 1);
+    }
+
+    /**
+     * Segments by a hash of the id, so they stay disjoint across snapshots.
+     */
+    @Override
+    public LightBulbPage findSegmentPage(int segment, int totalSegments, String cursor, int pageSize) {
+        if (totalSegments < 1 || segment < 0 || segment >= totalSegments) {
+            throw new IllegalArgumentException("Segment must be between 0 and " + (totalSegments - 1));
+        }
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        return snapshot(cursor).page(lastId(cursor), pageSize, segment, totalSegments);
+    }
+
+    private Snapshot snapshot(String cursor) {
+        Snapshot current = snapshot;
+        if (reusable(current, cursor)) {
+            return current;
+        }
+        // one read at a time, traversals starting together wait for it instead of reading too
+        readLock.lock();
+        try {
+            current = snapshot;
+            if (reusable(current, cursor)) {
+                return current;
+            }
+            long readAt = System.currentTimeMillis();
+            List<LightBulb> bulbs = readAll();
+            bulbs.removeIf(bulb -> bulb.getId() == null);
+            bulbs.sort(Comparator.comparing(LightBulb::getId));
+            current = new Snapshot(readAt, bulbs);
+            snapshot = current;
+            return current;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // a traversal under way keeps its snapshot until a write drops it; a new one only takes a fresh one
+    private static boolean reusable(Snapshot current, String cursor) {
+        return current != null && (cursor != null || System.currentTimeMillis() - current.readAtMillis < SNAPSHOT_MAX_AGE_MILLIS);
+    }
+
+    private static Long lastId(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    // every write goes through here, so no page scan continues on a copy older than our own writes
+    private void store(List<LightBulb> bulbs) {
         writeAll(bulbs);
+        snapshot = null;
     }
 
     protected abstract List<LightBulb> readAll();
     protected abstract void writeAll(List<LightBulb> bulbs);
 
     protected long generateId() {
-        Random rand = new Random();
-        return (System.currentTimeMillis() + rand.nextInt(10000)) % 9137;
+        return idGenerator.nextId();
+    }
+
+    private static final class Snapshot {
+        private final long readAtMillis;
+        private final List<LightBulb> bulbs;
+
+        Snapshot(long readAtMillis, List<LightBulb> bulbs) {
+            this.readAtMillis = readAtMillis;
+            this.bulbs = bulbs;
+        }
+
+        LightBulbPage page(Long after, int pageSize, int segment, int totalSegments) {
+            int from = 0;
+            if (after != null) {
+                // first bulb with a greater id
+                int low = 0;
+                int high = bulbs.size();
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (bulbs.get(mid).getId() <= after) {
+                        low = mid + 1;
+                    } else {
+                        high = mid;
+                    }
+                }
+                from = low;
+            }
+            List<LightBulb> items = new ArrayList<>(Math.min(pageSize, bulbs.size() - from));
+            int i = from;
+            for (; i < bulbs.size() && items.size() < pageSize; i++) {
+                LightBulb bulb = bulbs.get(i);
+                if (segmentOf(bulb.getId(), totalSegments) == segment) {
+                    items.add(bulb);
+                }
+            }
+            while (i < bulbs.size() && segmentOf(bulbs.get(i).getId(), totalSegments) != segment) {
+                i++;
+            }
+            String next = i < bulbs.size() ? Long.toString(items.get(items.size() - 1).getId()) : null;
+            return new LightBulbPage(items, next);
+        }
+
+        private static int segmentOf(long id, int totalSegments) {
+            // Snowflake ids differ mostly in their high bits, so spread them before taking the modulus
+            return totalSegments == 1 ? 0 : (int) Long.remainderUnsigned((id * 0x9E3779B97F4A7C15L) >>> 32, totalSegments);
+        }
     }
 }
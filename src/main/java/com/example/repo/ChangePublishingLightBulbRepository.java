@@ -0,0 +1,94 @@
+package com.example.repo;
+
+import com.example.events.LightBulbChangeEvent;
+import com.example.events.LightBulbChangeFeed;
+import com.example.exception.PartialBatchWriteException;
+import com.example.model.LightBulb;
+import com.example.model.LightBulbPatch;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes a {@link LightBulbChangeEvent} to the change feed after every successful write.
+ */
+public class ChangePublishingLightBulbRepository implements LightBulbRepository {
+
+    private final LightBulbRepository delegate;
+    private final LightBulbChangeFeed changeFeed;
+
+    public ChangePublishingLightBulbRepository(LightBulbRepository delegate, LightBulbChangeFeed changeFeed) {
+        this.delegate = delegate;
+        this.changeFeed = changeFeed;
+    }
+
+    @Override
+    public List<LightBulb> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Optional<LightBulb> findById(Long id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public LightBulbPage findPage(String cursor, int pageSize) {
+        return delegate.findPage(cursor, pageSize);
+    }
+
+    @Override
+    public LightBulbPage findSegmentPage(int segment, int totalSegments, String cursor, int pageSize) {
+        return delegate.findSegmentPage(segment, totalSegments, cursor, pageSize);
+    }
+
+    @Override
+    public LightBulb save(LightBulb bulb) {
+        LightBulb saved = delegate.save(bulb);
+        changeFeed.publish(LightBulbChangeEvent.upsert(saved));
+        return saved;
+    }
+
+    @Override
+    public List<LightBulb> saveAll(List<LightBulb> bulbs) {
+        List<LightBulb> saved;
+        try {
+            saved = delegate.saveAll(bulbs);
+        } catch (PartialBatchWriteException e) {
+            // the part that was written is stored all the same
+            Set<Long> unprocessed = e.getUnprocessed().stream().map(LightBulb::getId).collect(Collectors.toSet());
+            bulbs.stream()
+                    .filter(bulb -> !unprocessed.contains(bulb.getId()))
+                    .forEach(bulb -> changeFeed.publish(LightBulbChangeEvent.upsert(bulb)));
+            throw e;
+        }
+        saved.forEach(bulb -> changeFeed.publish(LightBulbChangeEvent.upsert(bulb)));
+        return saved;
+    }
+
+    @Override
+    public int writeBatchSize() {
+        return delegate.writeBatchSize();
+    }
+
+    @Override
+    public Optional<LightBulb> patch(Long id, LightBulbPatch patch, Long expectedVersion) {
+        Optional<LightBulb> patched = delegate.patch(id, patch, expectedVersion);
+        patched.ifPresent(bulb -> changeFeed.publish(LightBulbChangeEvent.upsert(bulb)));
+        return patched;
+    }
+
+    @Override
+    public void deleteById(Long id, Long expectedVersion) {
+        delegate.deleteById(id, expectedVersion);
+        changeFeed.publish(LightBulbChangeEvent.delete(id, expectedVersion));
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        delegate.deleteById(id);
+        changeFeed.publish(LightBulbChangeEvent.delete(id, null));
+    }
+}
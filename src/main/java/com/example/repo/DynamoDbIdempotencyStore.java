@@ -0,0 +1,128 @@
+package com.example.repo;
+
+import com.example.model.LightBulb;
+import com.example.services.IdempotencyRecord;
+import com.example.services.IdempotencyStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Idempotency keys shared by all instances, stored in their own DynamoDB table.
+ * A key is claimed with a conditional put that only succeeds when the key is unused, expired,
+ * or still in progress past its lease. {@code expiresAt} is meant to be the table's TTL attribute.
+ */
+public class DynamoDbIdempotencyStore implements IdempotencyStore {
+    private static final Logger logger = LoggerFactory.getLogger(DynamoDbIdempotencyStore.class);
+
+    private static final String KEY = "key";
+    private static final String FINGERPRINT = "fingerprint";
+    private static final String RESULT = "result";
+    private static final String CLAIMED_AT = "claimedAt";
+    private static final String EXPIRES_AT = "expiresAt";
+
+    private static final String CLAIM_CONDITION = "attribute_not_exists(#key)"
+            + " OR (attribute_not_exists(#result) AND #claimedAt < :leaseCutoff)"
+            + " OR #expiresAt < :nowSeconds";
+
+    private final DynamoDbClient dynamoDb;
+    private final String tableName;
+    private final long ttlMillis;
+    private final long leaseMillis;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public DynamoDbIdempotencyStore(DynamoDbClient dynamoDb, String tableName, long ttlMillis, long leaseMillis) {
+        this.dynamoDb = dynamoDb;
+        this.tableName = tableName;
+        this.ttlMillis = ttlMillis;
+        this.leaseMillis = leaseMillis;
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> claim(String key, String fingerprint) {
+        long now = System.currentTimeMillis();
+        try {
+            dynamoDb.putItem(b -> b.tableName(tableName)
+                    .item(Map.of(
+                            KEY, AttributeValue.fromS(key),
+                            FINGERPRINT, AttributeValue.fromS(fingerprint),
+                            CLAIMED_AT, AttributeValue.fromN(Long.toString(now)),
+                            EXPIRES_AT, AttributeValue.fromN(Long.toString(expiresAtSeconds(now)))))
+                    .conditionExpression(CLAIM_CONDITION)
+                    .expressionAttributeNames(Map.of(
+                            "#key", KEY,
+                            "#result", RESULT,
+                            "#claimedAt", CLAIMED_AT,
+                            "#expiresAt", EXPIRES_AT))
+                    .expressionAttributeValues(Map.of(
+                            ":leaseCutoff", AttributeValue.fromN(Long.toString(now - leaseMillis)),
+                            ":nowSeconds", AttributeValue.fromN(Long.toString(TimeUnit.MILLISECONDS.toSeconds(now))))));
+            return Optional.empty();
+        } catch (ConditionalCheckFailedException e) {
+            return Optional.of(read(key));
+        }
+    }
+
+    @Override
+    public void complete(String key, String fingerprint, LightBulb result) {
+        long now = System.currentTimeMillis();
+        try {
+            String json = mapper.writeValueAsString(result);
+            dynamoDb.putItem(b -> b.tableName(tableName)
+                    .item(Map.of(
+                            KEY, AttributeValue.fromS(key),
+                            FINGERPRINT, AttributeValue.fromS(fingerprint),
+                            RESULT, AttributeValue.fromS(json),
+                            CLAIMED_AT, AttributeValue.fromN(Long.toString(now)),
+                            EXPIRES_AT, AttributeValue.fromN(Long.toString(expiresAtSeconds(now))))));
+        } catch (Exception e) {
+            // the bulb is already stored; losing the record only means a later retry is not deduplicated
+            logger.warn("Failed to record completion of idempotency key {}: {}", key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void release(String key) {
+        try {
+            dynamoDb.deleteItem(b -> b.tableName(tableName)
+                    .key(Map.of(KEY, AttributeValue.fromS(key)))
+                    .conditionExpression("attribute_not_exists(#result)")
+                    .expressionAttributeNames(Map.of("#result", RESULT)));
+        } catch (ConditionalCheckFailedException e) {
+            // already completed by someone else, keep it
+        } catch (Exception e) {
+            logger.warn("Failed to release idempotency key {}: {}", key, e.getMessage());
+        }
+    }
+
+    private IdempotencyRecord read(String key) {
+        Map<String, AttributeValue> item = dynamoDb.getItem(b -> b.tableName(tableName)
+                .key(Map.of(KEY, AttributeValue.fromS(key)))
+                .consistentRead(true)).item();
+        if (item == null || item.isEmpty()) {
+            // released between our put and get; report it as in progress so the client retries
+            return new IdempotencyRecord(key, null, null, System.currentTimeMillis());
+        }
+        LightBulb result = null;
+        AttributeValue stored = item.get(RESULT);
+        if (stored != null) {
+            try {
+                result = mapper.readValue(stored.s(), LightBulb.class);
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to read stored response for idempotency key " + key, e);
+            }
+        }
+        return new IdempotencyRecord(key, item.get(FINGERPRINT).s(), result, Long.parseLong(item.get(CLAIMED_AT).n()));
+    }
+
+    private long expiresAtSeconds(long nowMillis) {
+        return TimeUnit.MILLISECONDS.toSeconds(nowMillis + ttlMillis);
+    }
+}
@@ -1,10 +1,31 @@
 package com.example.repo;
 
+import com.example.exception.PartialBatchWriteException;
+import com.example.exception.ServiceUnavailableException;
+import com.example.exception.VersionConflictException;
 import com.example.model.LightBulb;
+import com.example.model.LightBulbPatch;
+import com.example.resilience.AdaptiveRateLimiter;
+import com.example.resilience.Deadline;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import software.amazon.awssdk.enhanced.dynamodb.*;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.StaticTableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteResult;
+import software.amazon.awssdk.enhanced.dynamodb.model.DeleteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValuesOnConditionCheckFailure;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 
 import java.util.*;
@@ -13,16 +34,72 @@ import java.util.stream.Collectors;
 public class DynamoDbLightBulbRepository implements LightBulbRepository {
     private static final Logger logger = LoggerFactory.getLogger(DynamoDbLightBulbRepository.class);
 
+    private static final String ID_ATTRIBUTE = "id";
+    private static final String VERSION_ATTRIBUTE = "version";
+
+    // BatchWriteItem takes at most 25 puts
+    private static final int BATCH_WRITE_LIMIT = 25;
+    private static final int MAX_BATCH_ATTEMPTS = 5;
+    private static final long BATCH_RETRY_BASE_DELAY_MILLIS = 50;
+    private static final int MAX_NEW_ID_ATTEMPTS = 3;
+
+    private final DynamoDbClient dynamoDb;
+
+    private final String tableName;
+
     private final DynamoDbEnhancedClient enhancedClient;
 
+    // the same mapping TableSchema.fromBean derives from LightBulb's @DynamoDbBean, written out: no
+    // introspection on startup, and no lambdas spun at runtime, which native images cannot do
+    static final TableSchema<LightBulb> SCHEMA = StaticTableSchema.builder(LightBulb.class)
+            .newItemSupplier(LightBulb::new)
+            .addAttribute(Long.class, a -> a.name(ID_ATTRIBUTE)
+                    .getter(LightBulb::getId)
+                    .setter(LightBulb::setId)
+                    .tags(StaticAttributeTags.primaryPartitionKey()))
+            .addAttribute(Long.class, a -> a.name("lastModified")
+                    .getter(LightBulb::getLastModified)
+                    .setter(LightBulb::setLastModified))
+            .addAttribute(String.class, a -> a.name("name")
+                    .getter(LightBulb::getName)
+                    .setter(LightBulb::setName))
+            .addAttribute(String.class, a -> a.name("type")
+                    .getter(LightBulb::getType)
+                    .setter(LightBulb::setType))
+            .addAttribute(Long.class, a -> a.name(VERSION_ATTRIBUTE)
+                    .getter(LightBulb::getVersion)
+                    .setter(LightBulb::setVersion))
+            .addAttribute(Integer.class, a -> a.name("wattage")
+                    .getter(LightBulb::getWattage)
+                    .setter(LightBulb::setWattage))
+            .build();
+
     private final DynamoDbTable<LightBulb> table;
 
+    private final IdGenerator idGenerator;
+
+    // told about unprocessed batch items, which are DynamoDB throttling part of a batch; may be null
+    private final AdaptiveRateLimiter rateLimiter;
+
     public DynamoDbLightBulbRepository(DynamoDbClient dynamoDb, 
                                      @Value("${lightbulb.table.name:LightBulb}") String tableName) {
+        this(dynamoDb, tableName, SnowflakeIdGenerator.shared());
+    }
+
+    public DynamoDbLightBulbRepository(DynamoDbClient dynamoDb, String tableName, IdGenerator idGenerator) {
+        this(dynamoDb, tableName, idGenerator, null);
+    }
+
+    public DynamoDbLightBulbRepository(DynamoDbClient dynamoDb, String tableName, IdGenerator idGenerator,
+                                       AdaptiveRateLimiter rateLimiter) {
+        this.idGenerator = idGenerator;
+        this.rateLimiter = rateLimiter;
+        this.dynamoDb = dynamoDb;
+        this.tableName = tableName;
         this.enhancedClient = DynamoDbEnhancedClient.builder()
                 .dynamoDbClient(dynamoDb)
                 .build();
-        this.table = enhancedClient.table(tableName, TableSchema.fromBean(LightBulb.class));
+        this.table = enhancedClient.table(tableName, SCHEMA);
         
         logger.info("Initialized DynamoDB repository for table: {}", tableName);
     }
@@ -36,11 +113,43 @@ public class DynamoDbLightBulbRepository implements LightBulbRepository {
                     .stream()
                     .collect(Collectors.toList());
         } catch (Exception e) {
-            logger.error("Error fetching all light bulbs", e);
             throw new RuntimeException("Failed to retrieve light bulbs: " + e.getMessage(), e);
         }
     }
 
+    @Override
+    public LightBulbPage findPage(String cursor, int pageSize) {
+        try {
+            logger.debug("Scanning a page of {} light bulbs after {}", pageSize, cursor);
+            return scanPage(ScanEnhancedRequest.builder(), cursor, pageSize);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to retrieve light bulbs: " + e.getMessage(), e);
+        }
+    }
+
+    // a native parallel scan: DynamoDB splits the table into the segments
+    @Override
+    public LightBulbPage findSegmentPage(int segment, int totalSegments, String cursor, int pageSize) {
+        try {
+            logger.debug("Scanning a page of {} light bulbs of segment {}/{} after {}", pageSize, segment, totalSegments, cursor);
+            return scanPage(ScanEnhancedRequest.builder().segment(segment).totalSegments(totalSegments), cursor, pageSize);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to retrieve light bulbs: " + e.getMessage(), e);
+        }
+    }
+
+    private LightBulbPage scanPage(ScanEnhancedRequest.Builder request, String cursor, int pageSize) {
+        request.limit(pageSize);
+        if (cursor != null) {
+            request.exclusiveStartKey(Map.of(ID_ATTRIBUTE, AttributeValue.fromN(cursor)));
+        }
+        // only the first page of the iterable is fetched
+        Page<LightBulb> page = table.scan(request.build()).iterator().next();
+        Map<String, AttributeValue> lastKey = page.lastEvaluatedKey();
+        String nextCursor = lastKey == null || lastKey.isEmpty() ? null : lastKey.get(ID_ATTRIBUTE).n();
+        return new LightBulbPage(page.items(), nextCursor);
+    }
+
     @Override
     public Optional<LightBulb> findById(Long id) {
         if (id == null) {
@@ -58,44 +167,230 @@ public class DynamoDbLightBulbRepository implements LightBulbRepository {
             logger.debug("Successfully retrieved light bulb with id: {}", id);
             return Optional.of(item);
         } catch (Exception e) {
-            String errorMsg = String.format("Error finding light bulb with id: %d. Error: %s", id, e.getMessage());
-            logger.error(errorMsg, e);
-            throw new RuntimeException(errorMsg, e);
+            throw new RuntimeException("Error finding light bulb with id: " + id + ". Error: " + e.getMessage(), e);
         }
     }
 
     @Override
     public LightBulb save(LightBulb bulb) {
+        Long previousVersion = bulb.getVersion();
+        Long previousLastModified = bulb.getLastModified();
+        boolean generatedId = bulb.getId() == null;
         try {
-            if (bulb.getId() == null) {
+            if (generatedId) {
                 bulb.setId(generateId());
                 logger.debug("Generated new ID for light bulb: {}", bulb.getId());
             }
+            bulb.setVersion(previousVersion == null ? 1L : previousVersion + 1);
+            bulb.setLastModified(System.currentTimeMillis());
             
             logger.debug("Saving light bulb: {}", bulb);
-            table.putItem(bulb);
+            if (generatedId) {
+                putNew(bulb);
+            } else if (previousVersion == null) {
+                table.putItem(bulb);
+            } else {
+                // a versioned save only succeeds on top of the version it was read at
+                table.putItem(PutItemEnhancedRequest.builder(LightBulb.class)
+                        .item(bulb)
+                        .conditionExpression(versionIs(previousVersion))
+                        .build());
+            }
             return bulb;
+        } catch (ConditionalCheckFailedException e) {
+            Long id = bulb.getId();
+            restore(bulb, generatedId, previousVersion, previousLastModified);
+            throw new VersionConflictException("LightBulb " + id + " is no longer at version " + previousVersion, e);
         } catch (Exception e) {
-            logger.error("Error saving light bulb: " + bulb, e);
+            restore(bulb, generatedId, previousVersion, previousLastModified);
             throw new RuntimeException("Failed to save light bulb: " + e.getMessage(), e);
         }
     }
 
+    // keep the version stable so a retried save does not skip one, and drop a generated id so the
+    // retry creates under a fresh one with the condition instead of overwriting through an unconditional put
+    private static void restore(LightBulb bulb, boolean generatedId, Long previousVersion, Long previousLastModified) {
+        if (generatedId) {
+            bulb.setId(null);
+        }
+        bulb.setVersion(previousVersion);
+        bulb.setLastModified(previousLastModified);
+    }
+
+    /**
+     * A generated id must not overwrite anything: should another instance have issued the same one,
+     * the bulb is put again under a fresh id.
+     */
+    private void putNew(LightBulb bulb) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                table.putItem(PutItemEnhancedRequest.builder(LightBulb.class)
+                        .item(bulb)
+                        .conditionExpression(Expression.builder()
+                                .expression("attribute_not_exists(#id)")
+                                .putExpressionName("#id", ID_ATTRIBUTE)
+                                .build())
+                        .build());
+                return;
+            } catch (ConditionalCheckFailedException e) {
+                if (attempt >= MAX_NEW_ID_ATTEMPTS) {
+                    throw new IllegalStateException("Generated ids keep colliding, last was " + bulb.getId(), e);
+                }
+                logger.warn("Generated id {} is already taken, retrying with a new one", bulb.getId());
+                bulb.setId(generateId());
+            }
+        }
+    }
+
+    /**
+     * BatchWriteItem puts; items DynamoDB leaves unprocessed (throttling) are resent with backoff, as
+     * long as the request's {@link Deadline} allows. Items still unprocessed after that are reported
+     * in a {@link PartialBatchWriteException}; the rest of the batch is stored.
+     * Puts in a batch cannot be conditional, so generated ids rely on the generator alone: RepoConfig
+     * gives this repository a {@link LeasedIdGenerator} unless a worker id is configured.
+     */
+    @Override
+    public List<LightBulb> saveAll(List<LightBulb> bulbs) {
+        if (bulbs.size() > BATCH_WRITE_LIMIT) {
+            throw new IllegalArgumentException("At most " + BATCH_WRITE_LIMIT + " bulbs can be written in one batch");
+        }
+        long now = System.currentTimeMillis();
+        for (LightBulb bulb : bulbs) {
+            if (bulb.getId() == null) {
+                bulb.setId(generateId());
+            }
+            bulb.setVersion(1L);
+            bulb.setLastModified(now);
+        }
+
+        List<LightBulb> pending = bulbs;
+        for (int attempt = 1; ; attempt++) {
+            logger.debug("Batch writing {} light bulbs (attempt {})", pending.size(), attempt);
+            WriteBatch.Builder<LightBulb> batch = WriteBatch.builder(LightBulb.class).mappedTableResource(table);
+            pending.forEach(batch::addPutItem);
+            BatchWriteResult result = enhancedClient.batchWriteItem(BatchWriteItemEnhancedRequest.builder()
+                    .addWriteBatch(batch.build())
+                    .build());
+            pending = result.unprocessedPutItemsForTable(table);
+            if (pending.isEmpty()) {
+                return bulbs;
+            }
+            if (rateLimiter != null) {
+                rateLimiter.onThrottle();
+            }
+            long delay = BATCH_RETRY_BASE_DELAY_MILLIS << (attempt - 1);
+            if (attempt >= MAX_BATCH_ATTEMPTS || delay >= Deadline.current().remainingMillis()) {
+                throw new PartialBatchWriteException(pending.size() + " of " + bulbs.size()
+                        + " bulbs were left unprocessed by DynamoDB", 1, pending);
+            }
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PartialBatchWriteException("Interrupted while retrying a batch write", 1, pending, e);
+            }
+        }
+    }
+
+    @Override
+    public int writeBatchSize() {
+        return BATCH_WRITE_LIMIT;
+    }
+
+    /**
+     * One UpdateItem that SETs only the patched attributes and ADDs 1 to the version, so nothing
+     * is read first. The condition on the id keeps it from creating a bulb that does not exist.
+     */
+    @Override
+    public Optional<LightBulb> patch(Long id, LightBulbPatch patch, Long expectedVersion) {
+        Map<String, String> names = new HashMap<>();
+        Map<String, AttributeValue> values = new HashMap<>();
+        List<String> assignments = new ArrayList<>();
+        if (patch.getName() != null) {
+            assign(assignments, names, values, "name", AttributeValue.fromS(patch.getName()));
+        }
+        if (patch.getType() != null) {
+            assign(assignments, names, values, "type", AttributeValue.fromS(patch.getType()));
+        }
+        if (patch.getWattage() != null) {
+            assign(assignments, names, values, "wattage", AttributeValue.fromN(patch.getWattage().toString()));
+        }
+        assign(assignments, names, values, "lastModified", AttributeValue.fromN(Long.toString(System.currentTimeMillis())));
+        names.put("#id", ID_ATTRIBUTE);
+        names.put("#version", VERSION_ATTRIBUTE);
+        values.put(":one", AttributeValue.fromN("1"));
+        String condition = "attribute_exists(#id)";
+        if (expectedVersion != null) {
+            condition += " AND #version = :expectedVersion";
+            values.put(":expectedVersion", AttributeValue.fromN(expectedVersion.toString()));
+        }
+
+        try {
+            logger.debug("Patching light bulb with id: {} with {}", id, patch);
+            UpdateItemResponse response = dynamoDb.updateItem(UpdateItemRequest.builder()
+                    .tableName(tableName)
+                    .key(Map.of(ID_ATTRIBUTE, AttributeValue.fromN(id.toString())))
+                    .updateExpression("SET " + String.join(", ", assignments) + " ADD #version :one")
+                    .conditionExpression(condition)
+                    .expressionAttributeNames(names)
+                    .expressionAttributeValues(values)
+                    .returnValues(ReturnValue.ALL_NEW)
+                    .returnValuesOnConditionCheckFailure(ReturnValuesOnConditionCheckFailure.ALL_OLD)
+                    .build());
+            return Optional.of(SCHEMA.mapToItem(response.attributes()));
+        } catch (ConditionalCheckFailedException e) {
+            // the old item tells a missing bulb apart from a stale version
+            if (!e.hasItem() || e.item().isEmpty()) {
+                return Optional.empty();
+            }
+            throw new VersionConflictException("LightBulb " + id + " is no longer at version " + expectedVersion, e);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to patch light bulb: " + e.getMessage(), e);
+        }
+    }
+
+    private static void assign(List<String> assignments, Map<String, String> names, Map<String, AttributeValue> values,
+                               String attribute, AttributeValue value) {
+        names.put("#" + attribute, attribute);
+        values.put(":" + attribute, value);
+        assignments.add("#" + attribute + " = :" + attribute);
+    }
+
     @Override
     public void deleteById(Long id) {
         try {
             logger.debug("Deleting light bulb with id: {}", id);
             table.deleteItem(Key.builder().partitionValue(id).build());
         } catch (Exception e) {
-            logger.error("Error deleting light bulb with id: " + id, e);
             throw new RuntimeException("Failed to delete light bulb: " + e.getMessage(), e);
         }
     }
 
 
+    @Override
+    public void deleteById(Long id, Long expectedVersion) {
+        try {
+            logger.debug("Deleting light bulb with id: {} at version {}", id, expectedVersion);
+            table.deleteItem(DeleteItemEnhancedRequest.builder()
+                    .key(Key.builder().partitionValue(id).build())
+                    .conditionExpression(versionIs(expectedVersion))
+                    .build());
+        } catch (ConditionalCheckFailedException e) {
+            throw new VersionConflictException("LightBulb " + id + " is no longer at version " + expectedVersion, e);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to delete light bulb: " + e.getMessage(), e);
+        }
+    }
+
+    private static Expression versionIs(Long version) {
+        return Expression.builder()
+                .expression("#version = :expectedVersion")
+                .putExpressionName("#version", VERSION_ATTRIBUTE)
+                .putExpressionValue(":expectedVersion", AttributeValue.fromN(version.toString()))
+                .build();
+    }
+
     protected Long generateId() {
-       long timestamp = System.nanoTime();
-        int random = new Random().nextInt(1000);
-        return Math.abs((timestamp % 1000000000000L) * 1000 + random);
+        return idGenerator.nextId();
     }
 }
@@ -0,0 +1,10 @@
+package com.example.repo;
+
+/**
+ * Source of unique ids for newly created light bulbs.
+ * Implementations must be thread-safe and must not hand out the same id twice.
+ */
+@FunctionalInterface
+public interface IdGenerator {
+    long nextId();
+}
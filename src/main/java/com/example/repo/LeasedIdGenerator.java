@@ -0,0 +1,139 @@
+package com.example.repo;
+
+import com.example.exception.ServiceUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake ids under a worker id leased from a DynamoDB table, so no two live instances share one.
+ * A worker id hashed from the environment name is likely to be shared once a few dozen environments
+ * run at the same time, and a BatchWriteItem put cannot be made conditional to catch the collision.
+ *
+ * A worker id is claimed with a conditional put on an item that is missing, expired or already ours,
+ * and renewed the same way once half the lease has passed. Ids are only issued while more than half
+ * of the lease is left, so an environment that was frozen renews, or moves to another worker id,
+ * before it generates again. {@code expiresAt} is meant to be the table's TTL attribute.
+ */
+public class LeasedIdGenerator implements IdGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(LeasedIdGenerator.class);
+
+    static final String WORKER_ID = "workerId";
+    private static final String OWNER = "owner";
+    private static final String EXPIRES_AT = "expiresAt";
+
+    private static final String CLAIM_CONDITION = "attribute_not_exists(#workerId)"
+            + " OR #owner = :owner"
+            + " OR #expiresAt < :nowSeconds";
+
+    private final DynamoDbClient dynamoDb;
+    private final String tableName;
+    private final long leaseMillis;
+    private final LongSupplier clock;
+    private final SnowflakeIdGenerator generator;
+
+    private volatile String owner = newOwner();
+    // -1 until a lease is held
+    private volatile long workerId = -1;
+    private volatile long renewAt;
+
+    public LeasedIdGenerator(DynamoDbClient dynamoDb, String tableName, long leaseMillis) {
+        this(dynamoDb, tableName, leaseMillis, System::currentTimeMillis);
+    }
+
+    LeasedIdGenerator(DynamoDbClient dynamoDb, String tableName, long leaseMillis, LongSupplier clock) {
+        this.dynamoDb = dynamoDb;
+        this.tableName = tableName;
+        this.leaseMillis = leaseMillis;
+        this.clock = clock;
+        this.generator = new SnowflakeIdGenerator(0, clock);
+    }
+
+    @Override
+    public long nextId() {
+        if (workerId < 0 || clock.getAsLong() >= renewAt) {
+            lease();
+        }
+        return generator.nextId();
+    }
+
+    /**
+     * The leased worker id, or -1 before the first id is generated.
+     */
+    public long getWorkerId() {
+        return workerId;
+    }
+
+    /**
+     * Forgets the lease, e.g. after the process has been restored from a snapshot: every environment
+     * restored from it would otherwise renew the same lease as the same owner.
+     */
+    public synchronized void reset() {
+        owner = newOwner();
+        workerId = -1;
+        renewAt = 0;
+    }
+
+    private synchronized void lease() {
+        long now = clock.getAsLong();
+        if (workerId >= 0 && now < renewAt) {
+            return;
+        }
+        if (workerId >= 0 && claim(workerId, now)) {
+            renewAt = now + leaseMillis / 2;
+            return;
+        }
+        // never held one, or it expired while this environment was frozen and someone else took it
+        long previous = workerId;
+        workerId = -1;
+        long start = SnowflakeIdGenerator.resolveRestoredWorkerId(null);
+        for (long i = 0; i <= SnowflakeIdGenerator.MAX_WORKER_ID; i++) {
+            long candidate = (start + i) & SnowflakeIdGenerator.MAX_WORKER_ID;
+            if (candidate != previous && claim(candidate, now)) {
+                generator.reset(candidate);
+                workerId = candidate;
+                renewAt = now + leaseMillis / 2;
+                logger.info("Leased Snowflake worker id {} (previously {})", candidate, previous);
+                return;
+            }
+        }
+        throw new ServiceUnavailableException("No Snowflake worker id is free", 1);
+    }
+
+    private boolean claim(long candidate, long now) {
+        try {
+            dynamoDb.putItem(PutItemRequest.builder()
+                    .tableName(tableName)
+                    .item(Map.of(
+                            WORKER_ID, AttributeValue.fromN(Long.toString(candidate)),
+                            OWNER, AttributeValue.fromS(owner),
+                            EXPIRES_AT, AttributeValue.fromN(Long.toString(TimeUnit.MILLISECONDS.toSeconds(now + leaseMillis)))))
+                    .conditionExpression(CLAIM_CONDITION)
+                    .expressionAttributeNames(Map.of(
+                            "#workerId", WORKER_ID,
+                            "#owner", OWNER,
+                            "#expiresAt", EXPIRES_AT))
+                    .expressionAttributeValues(Map.of(
+                            ":owner", AttributeValue.fromS(owner),
+                            ":nowSeconds", AttributeValue.fromN(Long.toString(TimeUnit.MILLISECONDS.toSeconds(now)))))
+                    .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    // created here rather than kept, so it is seeded after a restore
+    private static String newOwner() {
+        SecureRandom random = new SecureRandom();
+        return Long.toHexString(random.nextLong()) + Long.toHexString(random.nextLong());
+    }
+}
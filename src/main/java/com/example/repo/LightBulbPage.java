@@ -0,0 +1,32 @@
+package com.example.repo;
+
+import com.example.model.LightBulb;
+
+import java.util.List;
+
+/**
+ * One page of a repository scan. {@code nextCursor} is passed back to
+ * {@link LightBulbRepository#findPage} to continue and is null on the last page.
+ */
+public final class LightBulbPage {
+
+    private final List<LightBulb> items;
+    private final String nextCursor;
+
+    public LightBulbPage(List<LightBulb> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<LightBulb> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isLast() {
+        return nextCursor == null;
+    }
+}
@@ -1,8 +1,12 @@
 package com.example.repo;
 
+import com.example.exception.VersionConflictException;
 import com.example.model.LightBulb;
+import com.example.model.LightBulbPatch;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 
@@ -11,4 +15,92 @@ public interface LightBulbRepository {
     Optional<LightBulb> findById(Long id);
     LightBulb save(LightBulb bulb);
     void deleteById(Long id);
+
+    /**
+     * Stores new bulbs, in as few backend writes as the store allows. Ids are assigned as in
+     * {@link #save} and every bulb starts at version 1; writes are unconditional.
+     */
+    default List<LightBulb> saveAll(List<LightBulb> bulbs) {
+        List<LightBulb> saved = new ArrayList<>(bulbs.size());
+        for (LightBulb bulb : bulbs) {
+            bulb.setVersion(null);
+            saved.add(save(bulb));
+        }
+        return saved;
+    }
+
+    /**
+     * How many bulbs one {@link #saveAll} call should carry for this store.
+     */
+    default int writeBatchSize() {
+        return 25;
+    }
+
+    /**
+     * Deletes the bulb only if it is still at {@code expectedVersion}, otherwise throws
+     * {@link VersionConflictException}. Stores override this to check and delete atomically.
+     */
+    default void deleteById(Long id, Long expectedVersion) {
+        Optional<LightBulb> current = findById(id);
+        if (current.isPresent() && !Objects.equals(current.get().getVersion(), expectedVersion)) {
+            throw new VersionConflictException("LightBulb " + id + " is at version "
+                    + current.get().getVersion() + ", expected " + expectedVersion);
+        }
+        deleteById(id);
+    }
+
+    /**
+     * Applies {@code patch} and bumps the version; empty when there is no such bulb. A non-null
+     * {@code expectedVersion} makes it conditional. This default reads and saves the whole bulb;
+     * stores override it to change only the patched fields without reading first.
+     */
+    default Optional<LightBulb> patch(Long id, LightBulbPatch patch, Long expectedVersion) {
+        Optional<LightBulb> current = findById(id);
+        if (current.isEmpty()) {
+            return Optional.empty();
+        }
+        LightBulb bulb = current.get();
+        if (expectedVersion != null && !expectedVersion.equals(bulb.getVersion())) {
+            throw new VersionConflictException("LightBulb " + id + " is at version "
+                    + bulb.getVersion() + ", expected " + expectedVersion);
+        }
+        patch.applyTo(bulb);
+        return Optional.of(save(bulb));
+    }
+
+    /**
+     * Reads the table one page at a time so callers never hold all of it. A null cursor starts
+     * the scan; the order is up to the backend. This default pages by offset over a
+     * {@link #findAll()} per page; stores override it with a paged read of their own.
+     */
+    default LightBulbPage findPage(String cursor, int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        List<LightBulb> all = findAll();
+        int from = cursor == null ? 0 : Integer.parseInt(cursor);
+        int to = Math.min(all.size(), from + pageSize);
+        List<LightBulb> items = from >= to ? List.of() : List.copyOf(all.subList(from, to));
+        return new LightBulbPage(items, to < all.size() ? Integer.toString(to) : null);
+    }
+
+    /**
+     * Like {@link #findPage}, but over one of {@code totalSegments} disjoint slices of the table so
+     * the slices can be scanned in parallel. The default slices the offsets of {@link #findAll()}.
+     */
+    default LightBulbPage findSegmentPage(int segment, int totalSegments, String cursor, int pageSize) {
+        if (totalSegments < 1 || segment < 0 || segment >= totalSegments) {
+            throw new IllegalArgumentException("Segment must be between 0 and " + (totalSegments - 1));
+        }
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        List<LightBulb> all = findAll();
+        int start = (int) ((long) all.size() * segment / totalSegments);
+        int end = (int) ((long) all.size() * (segment + 1) / totalSegments);
+        int from = cursor == null ? start : Integer.parseInt(cursor);
+        int to = Math.min(end, from + pageSize);
+        List<LightBulb> items = from >= to ? List.of() : List.copyOf(all.subList(from, to));
+        return new LightBulbPage(items, to < end ? Integer.toString(to) : null);
+    }
 }
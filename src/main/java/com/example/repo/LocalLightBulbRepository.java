@@ -15,6 +15,13 @@ public class LocalLightBulbRepository extends AbstractJsonLightBulbRepository {
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    public LocalLightBulbRepository() {
+    }
+
+    public LocalLightBulbRepository(IdGenerator idGenerator) {
+        super(idGenerator);
+    }
+
     @Override
     protected List<LightBulb> readAll() {
         File file = new File(FILE_NAME);
@@ -0,0 +1,75 @@
+package com.example.repo;
+
+import software.amazon.awssdk.http.ExecutableHttpRequest;
+import software.amazon.awssdk.http.HttpExecuteRequest;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.SdkHttpService;
+
+import java.util.ServiceLoader;
+import java.util.function.Supplier;
+
+/**
+ * The HTTP client shared by the SDK clients, replaceable as a whole. {@link #reset()} closes the
+ * current client with its connection pool before a SnapStart checkpoint, so no socket is captured
+ * in the snapshot; the next request after the restore opens fresh connections.
+ */
+public class RestorableHttpClient implements SdkHttpClient {
+
+    private final Supplier<SdkHttpClient> factory;
+    private volatile SdkHttpClient delegate;
+
+    public RestorableHttpClient(Supplier<SdkHttpClient> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Builds the HTTP implementation the SDK would pick itself (Apache by default).
+     */
+    public static RestorableHttpClient withDefaultImplementation() {
+        return new RestorableHttpClient(() -> ServiceLoader.load(SdkHttpService.class).findFirst()
+                .orElseThrow(() -> new IllegalStateException("No SDK HTTP client implementation on the classpath"))
+                .createHttpClientBuilder()
+                .build());
+    }
+
+    @Override
+    public ExecutableHttpRequest prepareRequest(HttpExecuteRequest request) {
+        return delegate().prepareRequest(request);
+    }
+
+    @Override
+    public String clientName() {
+        return delegate().clientName();
+    }
+
+    /**
+     * Closes the current client and its pooled connections. Requests still running on it are not
+     * waited for, so only reset when there are none, as before a checkpoint.
+     */
+    public synchronized void reset() {
+        SdkHttpClient current = delegate;
+        delegate = null;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        reset();
+    }
+
+    private SdkHttpClient delegate() {
+        SdkHttpClient current = delegate;
+        if (current == null) {
+            synchronized (this) {
+                current = delegate;
+                if (current == null) {
+                    current = factory.get();
+                    delegate = current;
+                }
+            }
+        }
+        return current;
+    }
+}
@@ -23,6 +23,11 @@ public class S3LightBulbRepository extends AbstractJsonLightBulbRepository {
     private final ObjectMapper mapper = new ObjectMapper();
 
     public S3LightBulbRepository(S3Client s3) {
+        this(s3, SnowflakeIdGenerator.shared());
+    }
+
+    public S3LightBulbRepository(S3Client s3, IdGenerator idGenerator) {
+        super(idGenerator);
         this.s3 = s3;
         this.BUCKET_NAME = System.getenv("BULBS_BUCKET");
         if (BUCKET_NAME == null || BUCKET_NAME.trim().isEmpty()) {
@@ -0,0 +1,133 @@
+package com.example.repo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes an S3 object of unknown length as a multipart upload, holding at most one part in memory.
+ * Output that never fills a part is sent as a single PutObject instead. {@link #close()} completes
+ * the upload; call {@link #abort()} instead when the content is incomplete.
+ */
+public class S3MultipartOutputStream extends OutputStream {
+    private static final Logger logger = LoggerFactory.getLogger(S3MultipartOutputStream.class);
+
+    // S3 rejects parts below 5 MiB except the last one
+    public static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    private final S3Client s3;
+    private final String bucket;
+    private final String key;
+    private final int partSize;
+    private final String contentType;
+
+    private final ByteArrayOutputStream buffer;
+    private final List<CompletedPart> parts = new ArrayList<>();
+    private String uploadId;
+    private long bytesUploaded;
+    private boolean closed;
+
+    public S3MultipartOutputStream(S3Client s3, String bucket, String key, int partSize, String contentType) {
+        if (partSize < MIN_PART_SIZE) {
+            throw new IllegalArgumentException("Part size must be at least " + MIN_PART_SIZE + " bytes");
+        }
+        this.s3 = s3;
+        this.bucket = bucket;
+        this.key = key;
+        this.partSize = partSize;
+        this.contentType = contentType;
+        this.buffer = new ByteArrayOutputStream(partSize);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            int chunk = Math.min(len, partSize - buffer.size());
+            buffer.write(b, off, chunk);
+            off += chunk;
+            len -= chunk;
+            if (buffer.size() >= partSize) {
+                uploadPart();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (uploadId == null) {
+                s3.putObject(b -> b.bucket(bucket).key(key).contentType(contentType),
+                        RequestBody.fromBytes(buffer.toByteArray()));
+                bytesUploaded = buffer.size();
+                return;
+            }
+            if (buffer.size() > 0) {
+                uploadPart();
+            }
+            s3.completeMultipartUpload(b -> b.bucket(bucket).key(key).uploadId(uploadId)
+                    .multipartUpload(u -> u.parts(parts)));
+            logger.info("Completed upload of s3://{}/{} in {} parts ({} bytes)", bucket, key, parts.size(), bytesUploaded);
+        } catch (RuntimeException e) {
+            abort();
+            throw new IOException("Failed to upload s3://" + bucket + "/" + key, e);
+        }
+    }
+
+    /**
+     * Drops the parts uploaded so far; nothing becomes visible under the key.
+     */
+    public void abort() {
+        closed = true;
+        if (uploadId == null) {
+            return;
+        }
+        try {
+            s3.abortMultipartUpload(b -> b.bucket(bucket).key(key).uploadId(uploadId));
+        } catch (RuntimeException e) {
+            // a bucket lifecycle rule for incomplete uploads cleans up what is left
+            logger.warn("Failed to abort upload {} of s3://{}/{}: {}", uploadId, bucket, key, e.getMessage());
+        }
+    }
+
+    public long getBytesUploaded() {
+        return bytesUploaded;
+    }
+
+    private void uploadPart() {
+        if (uploadId == null) {
+            uploadId = s3.createMultipartUpload(b -> b.bucket(bucket).key(key).contentType(contentType)).uploadId();
+        }
+        int partNumber = parts.size() + 1;
+        byte[] bytes = buffer.toByteArray();
+        buffer.reset();
+        String etag = s3.uploadPart(b -> b.bucket(bucket).key(key).uploadId(uploadId).partNumber(partNumber),
+                RequestBody.fromBytes(bytes)).eTag();
+        parts.add(CompletedPart.builder().partNumber(partNumber).eTag(etag).build());
+        bytesUploaded += bytes.length;
+        logger.debug("Uploaded part {} of s3://{}/{} ({} bytes)", partNumber, bucket, key, bytes.length);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.repo;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake-style 64-bit id generator.
+ *
+ * Layout (most significant bit first): 1 unused sign bit, 41 bits of milliseconds since
+ * {@link #EPOCH_MILLIS}, 10 bits of worker id and 12 bits of per-millisecond sequence.
+ * Ids are unique as long as no two live instances share a worker id, and strictly increasing per instance.
+ *
+ * The timestamp and sequence are packed into a single {@link AtomicLong} and advanced with CAS,
+ * so {@link #nextId()} never locks and never allocates. When the sequence of the current millisecond
+ * is exhausted, or the wall clock moves backwards, the generator borrows the next millisecond
+ * instead of spinning or failing.
+ */
+public class SnowflakeIdGenerator implements IdGenerator {
+
+    // 2024-01-01T00:00:00Z
+    public static final long EPOCH_MILLIS = 1704067200000L;
+
+    static final int WORKER_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_WORKER_ID = (1L << WORKER_BITS) - 1;
+    static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final SnowflakeIdGenerator SHARED = new SnowflakeIdGenerator(resolveWorkerId(null));
+
+    // only replaced by reset(long), when the process is restored from a snapshot
+    private volatile long workerBits;
+    private final LongSupplier clock;
+
+    // (millis since epoch << SEQUENCE_BITS) | sequence of the last issued id
+    private final AtomicLong state = new AtomicLong();
+
+    public SnowflakeIdGenerator(long workerId) {
+        this(workerId, System::currentTimeMillis);
+    }
+
+    SnowflakeIdGenerator(long workerId, LongSupplier clock) {
+        this.workerBits = checkWorkerId(workerId) << SEQUENCE_BITS;
+        this.clock = clock;
+    }
+
+    private static long checkWorkerId(long workerId) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("Worker id must be between 0 and " + MAX_WORKER_ID + ": " + workerId);
+        }
+        return workerId;
+    }
+
+    /**
+     * Process-wide generator used by repositories that are not given one explicitly.
+     */
+    public static SnowflakeIdGenerator shared() {
+        return SHARED;
+    }
+
+    @Override
+    public long nextId() {
+        while (true) {
+            long current = state.get();
+            long lastMillis = current >>> SEQUENCE_BITS;
+            long now = clock.getAsLong() - EPOCH_MILLIS;
+
+            long next;
+            if (now > lastMillis) {
+                next = now << SEQUENCE_BITS;
+            } else if ((current & SEQUENCE_MASK) < SEQUENCE_MASK) {
+                next = current + 1;
+            } else {
+                next = (lastMillis + 1) << SEQUENCE_BITS;
+            }
+
+            if (state.compareAndSet(current, next)) {
+                long millis = next >>> SEQUENCE_BITS;
+                long sequence = next & SEQUENCE_MASK;
+                return (millis << (WORKER_BITS + SEQUENCE_BITS)) | workerBits | sequence;
+            }
+        }
+    }
+
+    public long getWorkerId() {
+        return workerBits >>> SEQUENCE_BITS;
+    }
+
+    /**
+     * Resets the sequence state, e.g. after the process has been restored from a snapshot.
+     * Only the monotonicity guarantee against previously issued ids of this instance is dropped;
+     * the wall clock keeps later ids unique.
+     */
+    public void reset() {
+        state.set(0L);
+    }
+
+    /**
+     * Resets the sequence state and moves to another worker id. Every execution environment restored
+     * from the same SnapStart snapshot starts out with the worker id derived before the checkpoint,
+     * so each has to pick its own again (see {@link #resolveRestoredWorkerId(String)}).
+     */
+    public void reset(long workerId) {
+        workerBits = checkWorkerId(workerId) << SEQUENCE_BITS;
+        state.set(0L);
+    }
+
+    /**
+     * Picks the worker id: an explicitly configured value wins, otherwise it is derived from the
+     * Lambda log stream name (unique per execution environment) or, in server mode, from host name and pid.
+     * Derived ids are hashed into 10 bits, so configure ids explicitly, or lease them with
+     * {@link LeasedIdGenerator}, when instances must never collide.
+     */
+    public static long resolveWorkerId(String configured) {
+        if (configured != null && !configured.isBlank()) {
+            return Long.parseLong(configured.trim());
+        }
+        String source = System.getenv("AWS_LAMBDA_LOG_STREAM_NAME");
+        if (source == null || source.isBlank()) {
+            source = hostName() + "/" + ManagementFactory.getRuntimeMXBean().getName();
+        }
+        return mix(source.hashCode()) & MAX_WORKER_ID;
+    }
+
+    /**
+     * The worker id for a process restored from a snapshot. An explicitly configured value still wins;
+     * otherwise it is drawn at random, as the environment and host name are those of the snapshot.
+     */
+    public static long resolveRestoredWorkerId(String configured) {
+        if (configured != null && !configured.isBlank()) {
+            return Long.parseLong(configured.trim());
+        }
+        // created here rather than kept, so it is seeded after the restore
+        return new SecureRandom().nextInt((int) MAX_WORKER_ID + 1);
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+
+    // spread the bits of String.hashCode() so that similar names land on different workers
+    private static int mix(int h) {
+        h ^= (h >>> 16);
+        h *= 0x85ebca6b;
+        h ^= (h >>> 13);
+        return h;
+    }
+}
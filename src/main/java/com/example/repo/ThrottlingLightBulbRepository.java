@@ -0,0 +1,220 @@
+package com.example.repo;
+
+import com.example.exception.ServiceUnavailableException;
+import com.example.model.LightBulb;
+import com.example.model.LightBulbPatch;
+import com.example.resilience.AdaptiveRateLimiter;
+import com.example.resilience.Deadline;
+import com.example.resilience.Jitter;
+import com.example.resilience.ThrottleMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
+import software.amazon.awssdk.core.exception.SdkException;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Puts an {@link AdaptiveRateLimiter} in front of a backend repository and retries throttled or
+ * otherwise retryable SDK failures with full-jitter exponential backoff.
+ * Waits and retries never run past the {@link Deadline} of the current request, and once it has
+ * passed calls fail fast with {@link ServiceUnavailableException} instead of reaching the backend.
+ */
+public class ThrottlingLightBulbRepository implements LightBulbRepository {
+    private static final Logger logger = LoggerFactory.getLogger(ThrottlingLightBulbRepository.class);
+
+    // throttles need more room to drain than transient errors
+    private static final int THROTTLE_DELAY_MULTIPLIER = 4;
+
+    private final LightBulbRepository delegate;
+    private final AdaptiveRateLimiter rateLimiter;
+    private final ThrottleMetrics metrics;
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+
+    public ThrottlingLightBulbRepository(LightBulbRepository delegate, AdaptiveRateLimiter rateLimiter,
+                                         ThrottleMetrics metrics, int maxAttempts,
+                                         long baseDelayMillis, long maxDelayMillis) {
+        this.delegate = delegate;
+        this.rateLimiter = rateLimiter;
+        this.metrics = metrics;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    @Override
+    public List<LightBulb> findAll() {
+        return call(delegate::findAll);
+    }
+
+    @Override
+    public Optional<LightBulb> findById(Long id) {
+        return call(() -> delegate.findById(id));
+    }
+
+    // each page is limited and retried on its own, a throttled scan resumes where it stopped
+    @Override
+    public LightBulbPage findPage(String cursor, int pageSize) {
+        return call(() -> delegate.findPage(cursor, pageSize));
+    }
+
+    @Override
+    public LightBulbPage findSegmentPage(int segment, int totalSegments, String cursor, int pageSize) {
+        return call(() -> delegate.findSegmentPage(segment, totalSegments, cursor, pageSize));
+    }
+
+    @Override
+    public LightBulb save(LightBulb bulb) {
+        return call(() -> delegate.save(bulb));
+    }
+
+    // puts are idempotent, so a failed batch is retried whole
+    @Override
+    public List<LightBulb> saveAll(List<LightBulb> bulbs) {
+        return call(() -> delegate.saveAll(bulbs));
+    }
+
+    @Override
+    public int writeBatchSize() {
+        return delegate.writeBatchSize();
+    }
+
+    @Override
+    public Optional<LightBulb> patch(Long id, LightBulbPatch patch, Long expectedVersion) {
+        return call(() -> delegate.patch(id, patch, expectedVersion));
+    }
+
+    @Override
+    public void deleteById(Long id, Long expectedVersion) {
+        call(() -> {
+            delegate.deleteById(id, expectedVersion);
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        call(() -> {
+            delegate.deleteById(id);
+            return null;
+        });
+    }
+
+    private <T> T call(Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            if (Deadline.current().isExpired()) {
+                metrics.onExhausted();
+                throw deadlineExceeded(null);
+            }
+            acquire();
+            try {
+                return action.get();
+            } catch (RuntimeException e) {
+                if (isApiCallTimeout(e) && !Deadline.current().isUnbounded()) {
+                    // the SDK timeout was capped at the remaining budget, there is no time left to retry
+                    metrics.onExhausted();
+                    throw deadlineExceeded(e);
+                }
+                boolean throttled = isThrottling(e);
+                if (throttled) {
+                    metrics.onThrottled();
+                    rateLimiter.onThrottle();
+                }
+                if (!throttled && !isRetryable(e)) {
+                    throw e;
+                }
+                if (attempt >= maxAttempts) {
+                    metrics.onExhausted();
+                    throw giveUp(e, throttled);
+                }
+
+                long delay = backoff(attempt, throttled);
+                if (delay >= Deadline.current().remainingMillis()) {
+                    metrics.onExhausted();
+                    throw giveUp(e, throttled);
+                }
+                logger.debug("Retrying backend call after {} ms (attempt {}, throttled={})", delay, attempt, throttled);
+                metrics.onRetry();
+                sleep(delay);
+            }
+        }
+    }
+
+    private void acquire() {
+        long waitNanos = rateLimiter.reserve();
+        if (waitNanos <= 0) {
+            return;
+        }
+        long waitMillis = TimeUnit.NANOSECONDS.toMillis(waitNanos);
+        if (waitMillis >= Deadline.current().remainingMillis()) {
+            rateLimiter.release();
+            metrics.onRejected();
+            throw new ServiceUnavailableException("Backend capacity exhausted", retryAfterSeconds(waitMillis));
+        }
+        metrics.onDelayed();
+        sleep(waitMillis);
+    }
+
+    private long backoff(int attempt, boolean throttled) {
+        long base = throttled ? baseDelayMillis * THROTTLE_DELAY_MULTIPLIER : baseDelayMillis;
+        long cap = Math.min(maxDelayMillis, base << Math.min(attempt - 1, 20));
+        return Jitter.nextLong(cap + 1);
+    }
+
+    private RuntimeException giveUp(RuntimeException e, boolean throttled) {
+        if (throttled) {
+            return new ServiceUnavailableException("Backend is throttling requests", retryAfterSeconds(maxDelayMillis), e);
+        }
+        return e;
+    }
+
+    private static ServiceUnavailableException deadlineExceeded(RuntimeException cause) {
+        return new ServiceUnavailableException("Request deadline exceeded before the backend answered", 1, cause);
+    }
+
+    private static long retryAfterSeconds(long millis) {
+        return Math.max(1, TimeUnit.MILLISECONDS.toSeconds(millis + 999));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for backend capacity", 1, ie);
+        }
+    }
+
+    static boolean isThrottling(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof AwsServiceException ase && ase.isThrottlingException()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean isApiCallTimeout(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof ApiCallTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean isRetryable(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SdkException sdk) {
+                return sdk.retryable();
+            }
+        }
+        return false;
+    }
+}
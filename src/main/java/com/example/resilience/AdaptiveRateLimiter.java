@@ -0,0 +1,134 @@
+package com.example.resilience;
+
+/**
+ * Client-side token bucket whose fill rate follows the throttling signals of the backend.
+ *
+ * The limiter stays out of the way until the backend throttles for the first time. It then starts
+ * admitting requests at a fraction of the recently observed request rate, cuts the rate
+ * multiplicatively on every further throttle and grows it back linearly over time while calls succeed.
+ * Once the rate is back at {@code maxRate} the limiter switches itself off again.
+ *
+ * Callers {@link #reserve()} a token and sleep for the returned time outside of the lock.
+ */
+public class AdaptiveRateLimiter {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    // ignore further throttles for this long after a decrease, they are usually the same burst
+    private static final long DECREASE_COOLDOWN_NANOS = 100_000_000L;
+
+    private final double minRate;
+    private final double maxRate;
+    private final double increasePerSecond;
+    private final double decreaseFactor;
+
+    private boolean enabled;
+    private double rate;
+    private double tokens;
+    private long lastRefillNanos;
+    private long lastDecreaseNanos;
+
+    // request rate observed while the limiter is disabled, smoothed over one second windows
+    private double measuredRate;
+    private long windowStartNanos;
+    private long windowCount;
+
+    public AdaptiveRateLimiter(double minRate, double maxRate, double increasePerSecond, double decreaseFactor) {
+        if (minRate <= 0 || maxRate < minRate) {
+            throw new IllegalArgumentException("Rates must satisfy 0 < minRate <= maxRate");
+        }
+        if (decreaseFactor <= 0 || decreaseFactor >= 1) {
+            throw new IllegalArgumentException("Decrease factor must be between 0 and 1");
+        }
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.increasePerSecond = increasePerSecond;
+        this.decreaseFactor = decreaseFactor;
+        this.windowStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Takes one token and returns how many nanoseconds the caller has to wait before using it.
+     */
+    public synchronized long reserve() {
+        long now = System.nanoTime();
+        measure(now);
+        if (!enabled) {
+            return 0;
+        }
+        refill(now);
+        if (!enabled) {
+            return 0;
+        }
+        tokens -= 1;
+        if (tokens >= 0) {
+            return 0;
+        }
+        return (long) (-tokens / rate * NANOS_PER_SECOND);
+    }
+
+    /**
+     * Hands back a token that was reserved but not used.
+     */
+    public synchronized void release() {
+        if (enabled) {
+            tokens += 1;
+        }
+    }
+
+    public synchronized void onThrottle() {
+        long now = System.nanoTime();
+        if (!enabled) {
+            enabled = true;
+            rate = clamp(Math.max(measuredRate, minRate) * decreaseFactor);
+            tokens = 0;
+            lastRefillNanos = now;
+            lastDecreaseNanos = now;
+            return;
+        }
+        if (now - lastDecreaseNanos < DECREASE_COOLDOWN_NANOS) {
+            return;
+        }
+        refill(now);
+        rate = clamp(rate * decreaseFactor);
+        tokens = Math.min(tokens, 0);
+        lastDecreaseNanos = now;
+    }
+
+    public synchronized boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Current admission rate in requests per second, or -1 while the limiter is disabled.
+     */
+    public synchronized double currentRate() {
+        return enabled ? rate : -1;
+    }
+
+    private void refill(long now) {
+        double elapsedSeconds = (double) (now - lastRefillNanos) / NANOS_PER_SECOND;
+        lastRefillNanos = now;
+        rate = clamp(rate + increasePerSecond * elapsedSeconds);
+        if (rate >= maxRate) {
+            enabled = false;
+            return;
+        }
+        tokens = Math.min(Math.max(1, rate), tokens + elapsedSeconds * rate);
+    }
+
+    private void measure(long now) {
+        windowCount++;
+        long elapsed = now - windowStartNanos;
+        if (elapsed >= NANOS_PER_SECOND) {
+            double windowRate = windowCount * (double) NANOS_PER_SECOND / elapsed;
+            measuredRate = measuredRate == 0 ? windowRate : 0.8 * measuredRate + 0.2 * windowRate;
+            windowStartNanos = now;
+            windowCount = 0;
+        }
+    }
+
+    private double clamp(double value) {
+        return Math.max(minRate, Math.min(maxRate, value));
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.resilience;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-client token buckets without locks or per-client allocation.
+ *
+ * Each bucket is a single long in a fixed array of stripes, indexed by a hash of the client key, and
+ * holds the GCRA "theoretical arrival time": the instant at which the bucket would be full again.
+ * Taking a token is one compare-and-set that moves it forward by one emission interval. Clients whose
+ * keys hash to the same stripe share a bucket, so the stripe count should be well above the number of
+ * concurrently active clients; memory stays fixed no matter how many distinct clients show up.
+ */
+public class ClientQuota {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final AtomicLongArray stripes;
+    private final int mask;
+    private final LongSupplier nanoClock;
+    private final long origin;
+
+    public ClientQuota(double permitsPerSecond, int burst, int stripes) {
+        this(permitsPerSecond, burst, stripes, System::nanoTime);
+    }
+
+    ClientQuota(double permitsPerSecond, int burst, int stripes, LongSupplier nanoClock) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Quota rate must be positive and burst at least 1");
+        }
+        if (stripes < 1 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("Stripe count must be a power of two");
+        }
+        this.emissionIntervalNanos = Math.max(1, (long) (NANOS_PER_SECOND / permitsPerSecond));
+        this.burstNanos = emissionIntervalNanos * burst;
+        this.stripes = new AtomicLongArray(stripes);
+        this.mask = stripes - 1;
+        this.nanoClock = nanoClock;
+        // nanoTime may be negative; keep stored times relative so an untouched stripe (0) reads as full
+        this.origin = nanoClock.getAsLong() - burstNanos;
+    }
+
+    /**
+     * Takes one token from the client's bucket. Returns 0 when admitted, otherwise how many
+     * nanoseconds until a token will be available; nothing is taken in that case.
+     */
+    public long tryAcquire(String client) {
+        int stripe = stripe(client);
+        long now = nanoClock.getAsLong() - origin;
+        while (true) {
+            long arrival = stripes.get(stripe);
+            long next = Math.max(arrival, now) + emissionIntervalNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (stripes.compareAndSet(stripe, arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private int stripe(String client) {
+        // spread the hash so keys differing only in high bits do not collide
+        int h = client.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h & mask;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.resilience;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point in time by which the current request has to be answered.
+ * The deadline of the request being handled is attached to the handling thread;
+ * code without an attached deadline sees {@link #none()}.
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private static final Deadline NONE = new Deadline(Long.MAX_VALUE);
+
+    private final long expiresAtNanos;
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    public static Deadline none() {
+        return NONE;
+    }
+
+    public static Deadline after(long millis) {
+        return new Deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    public static Deadline current() {
+        Deadline deadline = CURRENT.get();
+        return deadline != null ? deadline : NONE;
+    }
+
+    /**
+     * Attaches the deadline to the current thread until the returned scope is closed.
+     */
+    public static Scope attach(Deadline deadline) {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(deadline);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Wraps {@code task} so that it runs under the deadline of the submitting thread, for work handed
+     * to executors.
+     */
+    public static Runnable propagate(Runnable task) {
+        Deadline deadline = CURRENT.get();
+        if (deadline == null) {
+            return task;
+        }
+        return () -> {
+            try (Scope ignored = attach(deadline)) {
+                task.run();
+            }
+        };
+    }
+
+    public boolean isUnbounded() {
+        return expiresAtNanos == Long.MAX_VALUE;
+    }
+
+    public long remainingMillis() {
+        if (isUnbounded()) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(expiresAtNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return !isUnbounded() && expiresAtNanos - System.nanoTime() <= 0;
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.resilience;
+
+import software.amazon.awssdk.awscore.AwsRequest;
+import software.amazon.awssdk.awscore.AwsRequestOverrideConfiguration;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+
+import java.time.Duration;
+
+/**
+ * Caps the SDK {@code apiCallTimeout} of every call at the time left on the current {@link Deadline}.
+ * Installed on the clients rather than set per request because the enhanced DynamoDB client has no
+ * per-request override configuration; the SDK applies overrides made here.
+ */
+public class DeadlineInterceptor implements ExecutionInterceptor {
+
+    // an exhausted budget still needs a positive timeout; the call then fails almost at once
+    private static final long MIN_TIMEOUT_MILLIS = 1;
+
+    @Override
+    public SdkRequest modifyRequest(Context.ModifyRequest context, ExecutionAttributes executionAttributes) {
+        SdkRequest request = context.request();
+        Deadline deadline = Deadline.current();
+        if (deadline.isUnbounded() || !(request instanceof AwsRequest awsRequest)) {
+            return request;
+        }
+        long remaining = Math.max(MIN_TIMEOUT_MILLIS, deadline.remainingMillis());
+        AwsRequestOverrideConfiguration.Builder override = awsRequest.overrideConfiguration()
+                .map(AwsRequestOverrideConfiguration::toBuilder)
+                .orElseGet(AwsRequestOverrideConfiguration::builder);
+        Duration configured = override.apiCallTimeout();
+        if (configured != null && configured.toMillis() <= remaining) {
+            return request;
+        }
+        return awsRequest.toBuilder()
+                .overrideConfiguration(override.apiCallTimeout(Duration.ofMillis(remaining)).build())
+                .build();
+    }
+}
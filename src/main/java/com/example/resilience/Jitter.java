@@ -0,0 +1,38 @@
+package com.example.resilience;
+
+import java.security.SecureRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Random delays for retries. ThreadLocalRandom cannot be reseeded, and every execution environment
+ * restored from the same snapshot would draw the same sequence from it, so retries across them
+ * would line up again. Its output is mixed with a salt that {@link #reseed()} replaces after a restore.
+ */
+public final class Jitter {
+
+    private static volatile long salt = System.nanoTime();
+
+    private Jitter() {
+    }
+
+    /**
+     * A random value between 0 (inclusive) and {@code bound} (exclusive).
+     */
+    public static long nextLong(long bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive: " + bound);
+        }
+        return Math.floorMod(mix(ThreadLocalRandom.current().nextLong() ^ salt), bound);
+    }
+
+    public static void reseed() {
+        salt = new SecureRandom().nextLong();
+    }
+
+    // the finalizer of SplittableRandom, so a changed salt changes every output bit
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
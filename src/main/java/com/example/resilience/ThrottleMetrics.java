@@ -0,0 +1,59 @@
+package com.example.resilience;
+
+import com.example.metrics.MetricsSource;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ThrottleMetrics implements MetricsSource {
+
+    private final AdaptiveRateLimiter rateLimiter;
+
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder delayed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    public ThrottleMetrics(AdaptiveRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    public void onThrottled() {
+        throttled.increment();
+    }
+
+    public void onRetry() {
+        retries.increment();
+    }
+
+    public void onDelayed() {
+        delayed.increment();
+    }
+
+    public void onRejected() {
+        rejected.increment();
+    }
+
+    public void onExhausted() {
+        exhausted.increment();
+    }
+
+    @Override
+    public String metricsName() {
+        return "repository.throttling";
+    }
+
+    @Override
+    public Map<String, Number> metricsSnapshot() {
+        Map<String, Number> snapshot = new LinkedHashMap<>();
+        snapshot.put("throttled", throttled.sum());
+        snapshot.put("retries", retries.sum());
+        snapshot.put("delayedByRateLimiter", delayed.sum());
+        snapshot.put("rejectedByRateLimiter", rejected.sum());
+        snapshot.put("retriesExhausted", exhausted.sum());
+        snapshot.put("rateLimit", rateLimiter.currentRate());
+        return snapshot;
+    }
+}
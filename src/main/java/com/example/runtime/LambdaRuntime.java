@@ -0,0 +1,126 @@
+package com.example.runtime;
+
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import com.example.StreamLambdaHandler;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Main class of the native executable (the native-image profile). The provided.al2023 runtime has
+ * no Java runtime interface client, so this is the loop that one runs: take the next API Gateway
+ * proxy event from the Lambda Runtime API, pass it through {@link StreamLambdaHandler} and post the
+ * response back. The bootstrap script in src/native starts it.
+ */
+public final class LambdaRuntime {
+    private static final Logger logger = LoggerFactory.getLogger(LambdaRuntime.class);
+
+    static final String API_VERSION = "2018-06-01";
+    static final String REQUEST_ID_HEADER = "Lambda-Runtime-Aws-Request-Id";
+    static final String DEADLINE_HEADER = "Lambda-Runtime-Deadline-Ms";
+    static final String FUNCTION_ARN_HEADER = "Lambda-Runtime-Invoked-Function-Arn";
+    static final String TRACE_ID_HEADER = "Lambda-Runtime-Trace-Id";
+    static final String ERROR_TYPE_HEADER = "Lambda-Runtime-Function-Error-Type";
+
+    private final URI runtimeApi;
+    private final Map<String, String> env;
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+
+    LambdaRuntime(String runtimeApi, Map<String, String> env) {
+        this.runtimeApi = URI.create("http://" + runtimeApi + "/" + API_VERSION + "/runtime/");
+        this.env = env;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String runtimeApi = System.getenv("AWS_LAMBDA_RUNTIME_API");
+        if (runtimeApi == null || runtimeApi.isBlank()) {
+            throw new IllegalStateException("AWS_LAMBDA_RUNTIME_API is not set, start this through the bootstrap");
+        }
+        LambdaRuntime runtime = new LambdaRuntime(runtimeApi, System.getenv());
+        RequestStreamHandler handler;
+        try {
+            // starts Spring in StreamLambdaHandler's static initializer
+            handler = new StreamLambdaHandler();
+        } catch (Throwable e) {
+            // Lambda fails the pending invocation and starts a new environment
+            runtime.initError(e);
+            throw e;
+        }
+        while (true) {
+            runtime.next(handler);
+        }
+    }
+
+    /**
+     * Waits for the next invocation, runs it and posts its response or error. An exception from the
+     * handler is reported for that invocation only; one from the Runtime API itself is thrown, and
+     * the process should then exit so Lambda replaces the environment.
+     */
+    void next(RequestStreamHandler handler) throws IOException, InterruptedException {
+        HttpResponse<byte[]> event = http.send(HttpRequest.newBuilder(runtimeApi.resolve("invocation/next")).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (event.statusCode() != 200) {
+            throw new IOException("Runtime API returned " + event.statusCode() + " for the next invocation");
+        }
+        String requestId = event.headers().firstValue(REQUEST_ID_HEADER)
+                .orElseThrow(() -> new IOException("Next invocation has no " + REQUEST_ID_HEADER));
+        long deadline = event.headers().firstValueAsLong(DEADLINE_HEADER).orElse(0);
+        // read by the X-Ray SDK when it is on the classpath, as the Java runtimes do
+        event.headers().firstValue(TRACE_ID_HEADER)
+                .ifPresentOrElse(trace -> System.setProperty("com.amazonaws.xray.traceHeader", trace),
+                        () -> System.clearProperty("com.amazonaws.xray.traceHeader"));
+        RuntimeContext context = new RuntimeContext(requestId, deadline,
+                event.headers().firstValue(FUNCTION_ARN_HEADER).orElse(null), env);
+
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        try {
+            handler.handleRequest(new ByteArrayInputStream(event.body()), response, context);
+        } catch (Exception e) {
+            logger.error("Invocation {} failed", requestId, e);
+            post("invocation/" + requestId + "/error", error(e), "Unhandled");
+            return;
+        }
+        post("invocation/" + requestId + "/response", response.toByteArray(), null);
+    }
+
+    void initError(Throwable e) {
+        try {
+            post("init/error", error(e), "Runtime.InitError");
+        } catch (Exception failed) {
+            logger.warn("Could not report the init error: {}", failed.getMessage());
+        }
+    }
+
+    private void post(String path, byte[] body, String errorType) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(runtimeApi.resolve(path))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+        if (errorType != null) {
+            request.header(ERROR_TYPE_HEADER, errorType);
+        }
+        HttpResponse<Void> posted = http.send(request.build(), HttpResponse.BodyHandlers.discarding());
+        if (posted.statusCode() != 202) {
+            throw new IOException("Runtime API returned " + posted.statusCode() + " for " + path);
+        }
+    }
+
+    static byte[] error(Throwable e) {
+        Throwable cause = e instanceof ExceptionInInitializerError && e.getCause() != null ? e.getCause() : e;
+        JsonStringEncoder json = JsonStringEncoder.getInstance();
+        String message = cause.getMessage() == null ? cause.getClass().getName() : cause.getMessage();
+        return ("{\"errorMessage\":\"" + new String(json.quoteAsString(message))
+                + "\",\"errorType\":\"" + new String(json.quoteAsString(cause.getClass().getName())) + "\"}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+}
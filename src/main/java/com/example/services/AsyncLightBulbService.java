@@ -0,0 +1,49 @@
+package com.example.services;
+
+import com.example.model.LightBulb;
+import com.example.model.LightBulbPatch;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Non-blocking view of {@link LightBulbService}. Futures complete exceptionally with the same
+ * exceptions the synchronous service throws, so the exception handler maps them unchanged.
+ */
+public interface AsyncLightBulbService {
+
+    CompletableFuture<List<LightBulb>> getAllBulbs();
+
+    /**
+     * Runs on the calling thread: it is meant for response writers that are already off the
+     * request thread, such as a {@code StreamingResponseBody}.
+     */
+    void forEachPage(Consumer<List<LightBulb>> pageConsumer);
+
+    CompletableFuture<LightBulb> getBulbById(Long id);
+
+    /**
+     * Fetches all ids concurrently. Bulbs come back in the order of {@code ids}; unknown ids are skipped.
+     */
+    CompletableFuture<List<LightBulb>> getBulbsByIds(List<Long> ids);
+
+    CompletableFuture<List<LightBulb>> getTopBulbs(String by, int k);
+
+    /**
+     * Same as {@link LightBulbService#addBulb(LightBulb, String)}; a null key adds without deduplication.
+     */
+    CompletableFuture<LightBulb> addBulb(LightBulb bulb, String idempotencyKey);
+
+    /**
+     * A null {@code expectedVersion} updates whatever is current.
+     */
+    CompletableFuture<LightBulb> updateBulb(Long id, LightBulb updatedBulb, Long expectedVersion);
+
+    CompletableFuture<LightBulb> patchBulb(Long id, LightBulbPatch patch, Long expectedVersion);
+
+    /**
+     * A null {@code expectedVersion} deletes whatever is current.
+     */
+    CompletableFuture<Void> deleteBulb(Long id, Long expectedVersion);
+}
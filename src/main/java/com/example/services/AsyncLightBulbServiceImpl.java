@@ -0,0 +1,114 @@
+package com.example.services;
+
+import com.example.exception.ResourceNotFoundException;
+import com.example.model.LightBulb;
+import com.example.model.LightBulbPatch;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Runs the blocking {@link LightBulbService} on a dedicated executor so request threads are
+ * released while the backend call is in flight.
+ */
+@Service
+public class AsyncLightBulbServiceImpl implements AsyncLightBulbService {
+
+    private final LightBulbService lightBulbService;
+    private final Executor executor;
+
+    @Autowired
+    public AsyncLightBulbServiceImpl(LightBulbService lightBulbService,
+                                     @Qualifier("applicationTaskExecutor") Executor executor) {
+        this.lightBulbService = lightBulbService;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<List<LightBulb>> getAllBulbs() {
+        return CompletableFuture.supplyAsync(lightBulbService::getAllBulbs, executor);
+    }
+
+    @Override
+    public void forEachPage(Consumer<List<LightBulb>> pageConsumer) {
+        lightBulbService.forEachPage(pageConsumer);
+    }
+
+    @Override
+    public CompletableFuture<LightBulb> getBulbById(Long id) {
+        return CompletableFuture.supplyAsync(() -> lightBulbService.getBulbById(id), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<LightBulb>> getBulbsByIds(List<Long> ids) {
+        if (ids == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Bulb IDs cannot be null"));
+        }
+        Map<Long, CompletableFuture<LightBulb>> lookups = new LinkedHashMap<>();
+        for (Long id : ids) {
+            if (id == null) {
+                return CompletableFuture.failedFuture(new IllegalArgumentException("Bulb ID cannot be null"));
+            }
+            lookups.computeIfAbsent(id, key -> getBulbById(key).exceptionally(AsyncLightBulbServiceImpl::skipMissing));
+        }
+        return CompletableFuture.allOf(lookups.values().toArray(new CompletableFuture[0]))
+                .thenApply(done -> {
+                    List<LightBulb> bulbs = new ArrayList<>(lookups.size());
+                    lookups.values().stream().map(CompletableFuture::join).filter(Objects::nonNull).forEach(bulbs::add);
+                    return bulbs;
+                });
+    }
+
+    @Override
+    public CompletableFuture<List<LightBulb>> getTopBulbs(String by, int k) {
+        return CompletableFuture.supplyAsync(() -> lightBulbService.getTopBulbs(by, k), executor);
+    }
+
+    @Override
+    public CompletableFuture<LightBulb> addBulb(LightBulb bulb, String idempotencyKey) {
+        return CompletableFuture.supplyAsync(() -> idempotencyKey == null
+                ? lightBulbService.addBulb(bulb)
+                : lightBulbService.addBulb(bulb, idempotencyKey), executor);
+    }
+
+    @Override
+    public CompletableFuture<LightBulb> updateBulb(Long id, LightBulb updatedBulb, Long expectedVersion) {
+        return CompletableFuture.supplyAsync(() -> expectedVersion == null
+                ? lightBulbService.updateBulb(id, updatedBulb)
+                : lightBulbService.updateBulb(id, updatedBulb, expectedVersion), executor);
+    }
+
+    @Override
+    public CompletableFuture<LightBulb> patchBulb(Long id, LightBulbPatch patch, Long expectedVersion) {
+        return CompletableFuture.supplyAsync(() -> lightBulbService.patchBulb(id, patch, expectedVersion), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteBulb(Long id, Long expectedVersion) {
+        return CompletableFuture.runAsync(() -> {
+            if (expectedVersion == null) {
+                lightBulbService.deleteBulb(id);
+            } else {
+                lightBulbService.deleteBulb(id, expectedVersion);
+            }
+        }, executor);
+    }
+
+    private static LightBulb skipMissing(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        if (cause instanceof ResourceNotFoundException) {
+            return null;
+        }
+        throw failure instanceof CompletionException ? (CompletionException) failure : new CompletionException(cause);
+    }
+}
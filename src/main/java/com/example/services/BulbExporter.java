@@ -0,0 +1,265 @@
+package com.example.services;
+
+import com.example.http.ResponseCompression;
+import com.example.model.ExportSummary;
+import com.example.model.LightBulb;
+import com.example.repo.LightBulbPage;
+import com.example.repo.LightBulbRepository;
+import com.example.repo.S3MultipartOutputStream;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.Deflater;
+
+/**
+ * Exports every bulb as gzip-compressed NDJSON.
+ *
+ * The table is read as {@code segments} parallel scans ({@link LightBulbRepository#findSegmentPage}).
+ * Each scan serializes and compresses its own pages, so compression runs in parallel too, and appends
+ * every page to the output as a complete gzip member. Concatenated members are one valid gzip stream,
+ * which gunzip and {@link java.util.zip.GZIPInputStream} read as a whole. Only one page per segment is
+ * held in memory; a slow output holds the scans back.
+ */
+public class BulbExporter {
+    private static final Logger logger = LoggerFactory.getLogger(BulbExporter.class);
+
+    static final int PAGE_SIZE = 1000;
+    static final int MAX_SEGMENTS = 64;
+    static final int S3_PART_SIZE = 8 * 1024 * 1024;
+    private static final long PROGRESS_LOG_INTERVAL_MILLIS = 10_000;
+    private static final DateTimeFormatter FILE_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    private final LightBulbRepository repository;
+    private final Executor executor;
+    private final int defaultSegments;
+    private final S3Client s3;
+    private final String bucket;
+    private final String keyPrefix;
+    private final Path directory;
+    private final ObjectWriter writer = new ObjectMapper().writerFor(LightBulb.class);
+
+    private volatile Progress current;
+
+    public BulbExporter(LightBulbRepository repository, Executor executor, int defaultSegments,
+                        S3Client s3, String bucket, String keyPrefix, Path directory) {
+        this.repository = repository;
+        this.executor = executor;
+        this.defaultSegments = Math.max(1, Math.min(defaultSegments, MAX_SEGMENTS));
+        this.s3 = s3;
+        this.bucket = bucket;
+        this.keyPrefix = keyPrefix == null ? "" : keyPrefix;
+        this.directory = directory;
+    }
+
+    /**
+     * Writes the export to {@code out}, which is flushed but not closed. {@code segments} below 1
+     * selects the configured default.
+     */
+    public ExportSummary export(OutputStream out, int segments, String location) throws IOException {
+        int totalSegments = segments < 1 ? defaultSegments : Math.min(segments, MAX_SEGMENTS);
+        Progress progress = new Progress(location, totalSegments);
+        current = progress;
+        ReentrantLock outputLock = new ReentrantLock();
+        AtomicBoolean failed = new AtomicBoolean();
+
+        List<CompletableFuture<Void>> scans = new ArrayList<>(totalSegments);
+        for (int segment = 0; segment < totalSegments; segment++) {
+            int s = segment;
+            scans.add(CompletableFuture.runAsync(
+                    () -> scanSegment(s, totalSegments, out, outputLock, progress, failed), executor));
+        }
+        try {
+            // allOf waits for every scan; after a failure the others stop at their next page
+            CompletableFuture.allOf(scans.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            progress.fail();
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Export failed", cause);
+        }
+        if (progress.bulbs.get() == 0) {
+            // keep an empty export a valid gzip stream
+            byte[] empty = ResponseCompression.gzip(new byte[0], Deflater.BEST_SPEED);
+            out.write(empty);
+            progress.add(0, empty.length);
+        }
+        out.flush();
+        ExportSummary summary = progress.finish();
+        logger.info("Exported {} bulbs to {} in {} ms with {} segments ({} bytes gzip, {} bulbs/s)",
+                summary.getBulbs(), location, summary.getElapsedMillis(), totalSegments,
+                summary.getCompressedBytes(), summary.getBulbsPerSecond());
+        return summary;
+    }
+
+    /**
+     * Exports into a new file in the configured directory. The file only appears under its final
+     * name once the export is complete.
+     */
+    public ExportSummary exportToFile(int segments) throws IOException {
+        if (directory == null) {
+            throw new IllegalArgumentException("No export directory is configured");
+        }
+        Files.createDirectories(directory);
+        Path target = directory.resolve(exportName());
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        ExportSummary summary;
+        try (OutputStream out = Files.newOutputStream(partial)) {
+            summary = export(out, segments, target.toString());
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+        return summary;
+    }
+
+    /**
+     * Exports into a new object under the configured bucket and prefix as a multipart upload, which
+     * is aborted if the export fails.
+     */
+    public ExportSummary exportToS3(int segments) throws IOException {
+        if (s3 == null || bucket == null || bucket.isBlank()) {
+            throw new IllegalArgumentException("No export bucket is configured");
+        }
+        String key = keyPrefix + exportName();
+        S3MultipartOutputStream out = new S3MultipartOutputStream(s3, bucket, key, S3_PART_SIZE, "application/gzip");
+        ExportSummary summary;
+        try {
+            summary = export(out, segments, "s3://" + bucket + "/" + key);
+        } catch (IOException | RuntimeException e) {
+            out.abort();
+            throw e;
+        }
+        // uploads the last part and completes the upload, or aborts it
+        out.close();
+        return summary;
+    }
+
+    /**
+     * The running export, or the last one to finish on this instance.
+     */
+    public Optional<ExportSummary> progress() {
+        Progress progress = current;
+        return progress == null ? Optional.empty() : Optional.of(progress.snapshot());
+    }
+
+    private void scanSegment(int segment, int totalSegments, OutputStream out, ReentrantLock outputLock,
+                             Progress progress, AtomicBoolean failed) {
+        try {
+            String cursor = null;
+            do {
+                if (failed.get()) {
+                    return;
+                }
+                LightBulbPage page = repository.findSegmentPage(segment, totalSegments, cursor, PAGE_SIZE);
+                if (!page.getItems().isEmpty()) {
+                    // fastest level: the scan, not the deflater, should bound throughput
+                    byte[] member = ResponseCompression.gzip(toNdjson(page.getItems()), Deflater.BEST_SPEED);
+                    outputLock.lock();
+                    try {
+                        out.write(member);
+                    } finally {
+                        outputLock.unlock();
+                    }
+                    progress.add(page.getItems().size(), member.length);
+                }
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+        } catch (IOException e) {
+            failed.set(true);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            failed.set(true);
+            throw e;
+        }
+    }
+
+    private byte[] toNdjson(List<LightBulb> bulbs) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(bulbs.size() * 128);
+        for (LightBulb bulb : bulbs) {
+            bytes.write(writer.writeValueAsBytes(bulb));
+            bytes.write('\n');
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String exportName() {
+        return "bulbs-" + FILE_TIMESTAMP.format(Instant.now()) + ".ndjson.gz";
+    }
+
+    private static final class Progress {
+        private final String location;
+        private final int segments;
+        private final long startedAt = System.currentTimeMillis();
+        private final AtomicLong bulbs = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicLong lastLoggedAt = new AtomicLong(startedAt);
+        private volatile long finishedAt;
+        private volatile ExportSummary.Status status = ExportSummary.Status.RUNNING;
+
+        Progress(String location, int segments) {
+            this.location = location;
+            this.segments = segments;
+        }
+
+        void add(int count, int compressedBytes) {
+            long total = bulbs.addAndGet(count);
+            bytes.addAndGet(compressedBytes);
+            long now = System.currentTimeMillis();
+            long logged = lastLoggedAt.get();
+            if (now - logged >= PROGRESS_LOG_INTERVAL_MILLIS && lastLoggedAt.compareAndSet(logged, now)) {
+                long elapsed = now - startedAt;
+                logger.info("Export to {}: {} bulbs in {} ms ({} bulbs/s)", location, total, elapsed,
+                        elapsed == 0 ? total : total * 1000 / elapsed);
+            }
+        }
+
+        void fail() {
+            end(ExportSummary.Status.FAILED);
+        }
+
+        ExportSummary finish() {
+            end(ExportSummary.Status.FINISHED);
+            return snapshot();
+        }
+
+        private void end(ExportSummary.Status status) {
+            finishedAt = System.currentTimeMillis();
+            this.status = status;
+        }
+
+        ExportSummary snapshot() {
+            ExportSummary.Status state = status;
+            long end = state == ExportSummary.Status.RUNNING ? System.currentTimeMillis() : finishedAt;
+            return new ExportSummary(location, segments, bulbs.get(), bytes.get(), end - startedAt, state);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.example.services;
+
+import com.example.exception.PartialBatchWriteException;
+import com.example.exception.ServiceUnavailableException;
+import com.example.model.ImportSummary;
+import com.example.model.LightBulb;
+import com.example.repo.LightBulbRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.Errors;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.Validator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk loads bulbs from NDJSON or CSV without holding the upload in memory.
+ *
+ * Lines are parsed and validated one at a time and collected into batches of the repository's
+ * {@link LightBulbRepository#writeBatchSize()}. At most {@code maxInFlight} batches are written
+ * concurrently; when all permits are taken the parser blocks, which in turn stops reading the
+ * request body. Rejected lines are reported with their line number and do not stop the import.
+ */
+@Service
+public class BulbImporter {
+    private static final Logger logger = LoggerFactory.getLogger(BulbImporter.class);
+
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    private final LightBulbRepository repository;
+    private final Executor executor;
+    private final Validator validator;
+    private final int maxInFlight;
+    private final ObjectReader bulbReader = new ObjectMapper().readerFor(LightBulb.class);
+
+    public BulbImporter(LightBulbRepository repository,
+                        @Qualifier("applicationTaskExecutor") Executor executor,
+                        @Qualifier("generatedValidator") Validator validator,
+                        @Value("${lightbulb.import.max-in-flight:4}") int maxInFlight) {
+        this.repository = repository;
+        this.executor = executor;
+        this.validator = validator;
+        this.maxInFlight = Math.max(1, maxInFlight);
+    }
+
+    public ImportSummary importBulbs(InputStream body, Format format) throws IOException {
+        Run run = new Run();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        try {
+            CsvColumns columns = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                long lineNumber = run.lines.incrementAndGet();
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == Format.CSV && columns == null) {
+                    columns = CsvColumns.parse(line);
+                    continue;
+                }
+                LightBulb bulb;
+                try {
+                    bulb = format == Format.CSV ? columns.toBulb(line) : parseJson(line);
+                    validate(bulb);
+                } catch (IllegalArgumentException e) {
+                    run.reject(lineNumber, e.getMessage());
+                    continue;
+                }
+                run.add(bulb, lineNumber);
+            }
+            run.flush();
+        } finally {
+            run.awaitWrites();
+        }
+        return run.summary();
+    }
+
+    private LightBulb parseJson(String line) {
+        try {
+            return bulbReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getMessage());
+        }
+    }
+
+    private void validate(LightBulb bulb) {
+        if (bulb.getId() != null || bulb.getVersion() != null || bulb.getLastModified() != null) {
+            throw new IllegalArgumentException("id, version and lastModified are assigned on import");
+        }
+        Errors errors = validator.validateObject(bulb);
+        if (errors.hasErrors()) {
+            throw new IllegalArgumentException(errors.getFieldErrors().stream()
+                    .map(FieldError::getDefaultMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    /**
+     * State of one import: the batch being filled and the outcome of the batches already written.
+     */
+    private class Run {
+        private final int batchSize = Math.max(1, repository.writeBatchSize());
+        private final Semaphore inFlight = new Semaphore(maxInFlight);
+        private final AtomicLong lines = new AtomicLong();
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final List<ImportSummary.LineError> errors = new ArrayList<>();
+        private boolean errorsTruncated;
+
+        private List<LightBulb> batch = new ArrayList<>();
+        private List<Long> batchLines = new ArrayList<>();
+
+        void add(LightBulb bulb, long lineNumber) {
+            batch.add(bulb);
+            batchLines.add(lineNumber);
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<LightBulb> bulbs = batch;
+            List<Long> numbers = batchLines;
+            batch = new ArrayList<>(batchSize);
+            batchLines = new ArrayList<>(batchSize);
+
+            try {
+                inFlight.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServiceUnavailableException("Import interrupted", 1, e);
+            }
+            Runnable write = () -> {
+                try {
+                    repository.saveAll(bulbs);
+                    imported.addAndGet(bulbs.size());
+                } catch (PartialBatchWriteException e) {
+                    // the rest of the batch is stored, only the unprocessed lines failed
+                    Set<Long> unprocessed = e.getUnprocessed().stream().map(LightBulb::getId).collect(Collectors.toSet());
+                    logger.warn("Import batch of {} bulbs starting at line {} left {} unwritten: {}",
+                            bulbs.size(), numbers.get(0), unprocessed.size(), e.getMessage());
+                    for (int i = 0; i < bulbs.size(); i++) {
+                        if (unprocessed.contains(bulbs.get(i).getId())) {
+                            reject(numbers.get(i), "Write failed: " + e.getMessage());
+                        } else {
+                            imported.incrementAndGet();
+                        }
+                    }
+                } catch (Exception e) {
+                    logger.warn("Import batch of {} bulbs starting at line {} failed: {}",
+                            bulbs.size(), numbers.get(0), e.getMessage());
+                    for (Long number : numbers) {
+                        reject(number, "Write failed: " + e.getMessage());
+                    }
+                } finally {
+                    inFlight.release();
+                }
+            };
+            try {
+                executor.execute(write);
+            } catch (RejectedExecutionException e) {
+                // executor saturated, write on the parsing thread instead
+                write.run();
+            }
+        }
+
+        void awaitWrites() {
+            inFlight.acquireUninterruptibly(maxInFlight);
+            inFlight.release(maxInFlight);
+        }
+
+        synchronized void reject(long lineNumber, String message) {
+            failed.incrementAndGet();
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportSummary.LineError(lineNumber, message));
+            } else {
+                errorsTruncated = true;
+            }
+        }
+
+        synchronized ImportSummary summary() {
+            // batch failures are recorded as their writes finish, out of line order
+            errors.sort(Comparator.comparingLong(ImportSummary.LineError::getLine));
+            return new ImportSummary(lines.get(), imported.get(), failed.get(), List.copyOf(errors), errorsTruncated);
+        }
+    }
+
+    /**
+     * CSV header mapping. Fields may be double-quoted, with {@code ""} for a literal quote.
+     */
+    static final class CsvColumns {
+        private final int name;
+        private final int type;
+        private final int wattage;
+        private final int count;
+
+        private CsvColumns(int name, int type, int wattage, int count) {
+            this.name = name;
+            this.type = type;
+            this.wattage = wattage;
+            this.count = count;
+        }
+
+        static CsvColumns parse(String header) {
+            List<String> columns = split(header);
+            int name = -1;
+            int type = -1;
+            int wattage = -1;
+            for (int i = 0; i < columns.size(); i++) {
+                switch (columns.get(i).trim().toLowerCase(Locale.ROOT)) {
+                    case "name" -> name = i;
+                    case "type" -> type = i;
+                    case "wattage" -> wattage = i;
+                    default -> throw new IllegalArgumentException("Unsupported CSV column '" + columns.get(i)
+                            + "', expected name, type and wattage");
+                }
+            }
+            if (name < 0 || type < 0 || wattage < 0) {
+                throw new IllegalArgumentException("CSV header must contain name, type and wattage");
+            }
+            return new CsvColumns(name, type, wattage, columns.size());
+        }
+
+        LightBulb toBulb(String line) {
+            List<String> fields = split(line);
+            if (fields.size() != count) {
+                throw new IllegalArgumentException("Expected " + count + " fields but found " + fields.size());
+            }
+            LightBulb bulb = new LightBulb();
+            bulb.setName(fields.get(name));
+            bulb.setType(fields.get(type));
+            try {
+                bulb.setWattage(Integer.parseInt(fields.get(wattage).trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Wattage must be an integer");
+            }
+            return bulb;
+        }
+
+        static List<String> split(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("Unterminated quoted field");
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,455 @@
+package com.example.services;
+
+import com.example.events.LightBulbChangeEvent;
+import com.example.events.LightBulbChangeFeed;
+import com.example.events.LightBulbChangeListener;
+import com.example.exception.ServiceUnavailableException;
+import com.example.model.LightBulb;
+import com.example.repo.LightBulbRepository;
+import com.example.resilience.Deadline;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory inverted index over bulb names for {@code GET /bulbs/search}.
+ *
+ * Names are split into lowercase words. Each distinct word is indexed by its trigrams, with two
+ * leading {@code ^} so that the first one or two letters of a word are grams too, and each word
+ * has a posting list of the bulbs using it. A query term is first matched against the vocabulary
+ * (terms of three or more characters anywhere in a word, shorter terms as word prefixes), which is
+ * small, and only the bulbs of the matching words are ranked. The index is kept current from the
+ * change feed and rebuilt from a full scan in the background: once the application is ready, after
+ * a snapshot restore, and whenever the last scan is older than {@code maxAgeMillis}, which repairs
+ * writes made by other instances when no stream source is configured. Until the first scan has
+ * finished, searches are answered with 503 and {@code Retry-After}.
+ */
+@Service
+public class BulbSearchIndex implements LightBulbChangeListener {
+    private static final Logger logger = LoggerFactory.getLogger(BulbSearchIndex.class);
+
+    static final int GRAM = 3;
+    private static final String PAD = "^^";
+
+    // higher score, then shorter name, then older id ranks first; the heap keeps the worst on top
+    private static final Comparator<Match> RANKING = BulbSearchIndex::compare;
+
+    private final LightBulbRepository repository;
+    private final LightBulbChangeFeed changeFeed;
+    private final Executor executor;
+    private final long maxAgeMillis;
+    private final LongSupplier clock;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // one full scan at a time
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    // a background rebuild has been handed to the executor and not finished yet
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    // word -> bulbs whose name contains it, gram -> words containing it
+    private final Map<String, Map<Long, Entry>> wordPostings = new HashMap<>();
+    private final Map<String, Set<String>> gramWords = new HashMap<>();
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    // non-null while a rebuild is scanning; changes are replayed on top of the scan
+    private List<LightBulbChangeEvent> pending;
+    private volatile boolean initialized;
+    private volatile long builtAtMillis;
+
+    @Autowired
+    public BulbSearchIndex(LightBulbRepository repository, LightBulbChangeFeed changeFeed,
+                           @Qualifier("applicationTaskExecutor") Executor executor,
+                           @Value("${lightbulb.search.max-age-seconds:300}") long maxAgeSeconds) {
+        this(repository, changeFeed, executor, TimeUnit.SECONDS.toMillis(maxAgeSeconds), System::currentTimeMillis);
+    }
+
+    BulbSearchIndex(LightBulbRepository repository, LightBulbChangeFeed changeFeed, Executor executor,
+                    long maxAgeMillis, LongSupplier clock) {
+        this.repository = repository;
+        this.changeFeed = changeFeed;
+        this.executor = executor;
+        this.maxAgeMillis = maxAgeMillis;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void start() {
+        changeFeed.subscribe(this);
+    }
+
+    @PreDestroy
+    public void close() {
+        changeFeed.unsubscribe(this);
+    }
+
+    // off the startup path: a cold start does not wait for a full scan
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildAtStartup() {
+        rebuildInBackground();
+    }
+
+    /**
+     * Starts a rebuild on the executor unless one is already under way. The rebuild runs without a
+     * deadline: the executor hands it the deadline of the request that happened to trigger it, which
+     * is far too short for a full scan.
+     */
+    public void rebuildInBackground() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try (Deadline.Scope ignored = Deadline.attach(Deadline.none())) {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    // the next search tries again
+                    logger.warn("Building the search index failed: {}", e.getMessage());
+                } finally {
+                    rebuilding.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rebuilding.set(false);
+            logger.warn("Building the search index could not be scheduled: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Bulbs whose name contains every term of {@code query}, best matches first: exact name,
+     * then name prefix, then word prefix, then anywhere in a word.
+     */
+    public List<LightBulb> search(String query, int limit) {
+        List<String> terms = words(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        if (!initialized) {
+            rebuildInBackground();
+            throw new ServiceUnavailableException("Search index is warming up", 1);
+        }
+        if (maxAgeMillis > 0 && clock.getAsLong() - builtAtMillis > maxAgeMillis) {
+            // the current contents are still good enough to serve meanwhile
+            rebuildInBackground();
+        }
+        String normalizedQuery = String.join(" ", terms);
+
+        PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, RANKING);
+        lock.readLock().lock();
+        try {
+            List<Map<String, Integer>> matches = new ArrayList<>(terms.size());
+            Set<String> driver = null;
+            long driverSize = Long.MAX_VALUE;
+            for (String term : terms) {
+                Map<String, Integer> words = matchingWords(term);
+                if (words.isEmpty()) {
+                    return new ArrayList<>();
+                }
+                matches.add(words);
+                // walk the postings of the most selective term, check the others per bulb
+                long size = words.keySet().stream().mapToLong(word -> wordPostings.get(word).size()).sum();
+                if (size < driverSize) {
+                    driverSize = size;
+                    driver = words.keySet();
+                }
+            }
+
+            Set<Long> seen = driver.size() > 1 ? new HashSet<>() : null;
+            for (String word : driver) {
+                for (Entry entry : wordPostings.get(word).values()) {
+                    if (seen != null && !seen.add(entry.bulb().getId())) {
+                        continue;
+                    }
+                    int score = score(entry, normalizedQuery, matches);
+                    if (score == 0) {
+                        continue;
+                    }
+                    if (best.size() < limit) {
+                        best.add(new Match(entry, score));
+                    } else if (compare(score, entry, best.peek()) > 0) {
+                        best.poll();
+                        best.add(new Match(entry, score));
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<LightBulb> results = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            results.add(best.poll().entry().bulb());
+        }
+        Collections.reverse(results);
+        return results;
+    }
+
+    /**
+     * Rebuilds the index from a full scan of the repository.
+     */
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                pending = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            List<LightBulb> bulbs;
+            try {
+                bulbs = repository.findAll();
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    if (initialized) {
+                        pending.forEach(this::apply);
+                    }
+                    pending = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                wordPostings.clear();
+                gramWords.clear();
+                entries.clear();
+                bulbs.forEach(this::index);
+                pending.forEach(this::apply);
+                pending = null;
+                initialized = true;
+                builtAtMillis = clock.getAsLong();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("Indexed {} bulb names for search", bulbs.size());
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @Override
+    public void onChange(LightBulbChangeEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(event);
+            } else if (initialized) {
+                apply(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(LightBulbChangeEvent event) {
+        if (event.getOperation() == LightBulbChangeEvent.Operation.DELETE) {
+            unindex(event.getId());
+            return;
+        }
+        LightBulb bulb = event.getBulb();
+        if (bulb == null) {
+            return;
+        }
+        Entry existing = entries.get(bulb.getId());
+        if (existing != null && existing.bulb().getVersion() != null && bulb.getVersion() != null
+                && bulb.getVersion() < existing.bulb().getVersion()) {
+            // a stream record older than what we already have
+            return;
+        }
+        unindex(bulb.getId());
+        index(bulb);
+    }
+
+    private void index(LightBulb bulb) {
+        if (bulb.getId() == null) {
+            return;
+        }
+        // our own copy, callers may mutate the instance they saved
+        LightBulb copy = new LightBulb();
+        copy.setId(bulb.getId());
+        copy.setName(bulb.getName());
+        copy.setType(bulb.getType());
+        copy.setWattage(bulb.getWattage());
+        copy.setVersion(bulb.getVersion());
+        copy.setLastModified(bulb.getLastModified());
+
+        List<String> words = words(bulb.getName());
+        Entry entry = new Entry(copy, String.join(" ", words), words);
+        entries.put(copy.getId(), entry);
+        for (String word : words) {
+            Map<Long, Entry> bulbs = wordPostings.get(word);
+            if (bulbs == null) {
+                bulbs = new HashMap<>();
+                wordPostings.put(word, bulbs);
+                for (String gram : grams(word)) {
+                    gramWords.computeIfAbsent(gram, g -> new HashSet<>()).add(word);
+                }
+            }
+            bulbs.put(copy.getId(), entry);
+        }
+    }
+
+    private void unindex(Long id) {
+        Entry removed = entries.remove(id);
+        if (removed == null) {
+            return;
+        }
+        for (String word : removed.words()) {
+            Map<Long, Entry> bulbs = wordPostings.get(word);
+            if (bulbs == null || bulbs.remove(id) == null || !bulbs.isEmpty()) {
+                continue;
+            }
+            // last bulb using this word, drop it from the vocabulary
+            wordPostings.remove(word);
+            for (String gram : grams(word)) {
+                Set<String> words = gramWords.get(gram);
+                if (words != null) {
+                    words.remove(word);
+                    if (words.isEmpty()) {
+                        gramWords.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    // vocabulary words matching the term, with how well they match: 3 equal, 2 prefix, 1 inside
+    private Map<String, Integer> matchingWords(String term) {
+        List<Set<String>> lists = new ArrayList<>();
+        for (String gram : queryGrams(term)) {
+            Set<String> words = gramWords.get(gram);
+            if (words == null) {
+                return Map.of();
+            }
+            lists.add(words);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        Map<String, Integer> matches = new HashMap<>();
+        for (String word : lists.get(0)) {
+            int quality = word.equals(term) ? 3
+                    : word.startsWith(term) ? 2
+                    : term.length() >= GRAM && word.contains(term) ? 1 : 0;
+            if (quality > 0) {
+                matches.put(word, quality);
+            }
+        }
+        return matches;
+    }
+
+    // 0 when some term does not occur in the name, higher is better
+    private static int score(Entry entry, String query, List<Map<String, Integer>> matches) {
+        int score = 0;
+        for (Map<String, Integer> termMatches : matches) {
+            int best = 0;
+            for (String word : entry.words()) {
+                best = Math.max(best, termMatches.getOrDefault(word, 0));
+            }
+            if (best == 0) {
+                return 0;
+            }
+            score += best;
+        }
+        if (entry.name().equals(query)) {
+            score += 20;
+        } else if (entry.name().startsWith(query)) {
+            score += 10;
+        }
+        return score;
+    }
+
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static Set<String> grams(String word) {
+        Set<String> grams = new LinkedHashSet<>();
+        String padded = PAD + word;
+        for (int i = 0; i + GRAM <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static List<String> queryGrams(String term) {
+        List<String> grams = new ArrayList<>();
+        if (term.length() < GRAM) {
+            // prefix of a word: "^^p" or "^ph"
+            String padded = PAD + term;
+            grams.add(padded.substring(term.length() - 1, term.length() - 1 + GRAM));
+            return grams;
+        }
+        for (int i = 0; i + GRAM <= term.length(); i++) {
+            grams.add(term.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private record Entry(LightBulb bulb, String name, List<String> words) {
+    }
+
+    private record Match(Entry entry, int score) {
+    }
+
+    private static int compare(Match a, Match b) {
+        return compare(a.score(), a.entry(), b);
+    }
+
+    private static int compare(int score, Entry entry, Match other) {
+        if (score != other.score()) {
+            return Integer.compare(score, other.score());
+        }
+        if (entry.name().length() != other.entry().name().length()) {
+            return Integer.compare(other.entry().name().length(), entry.name().length());
+        }
+        return Long.compare(other.entry().bulb().getId(), entry.bulb().getId());
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.services;
+
+import com.example.events.LightBulbChangeEvent;
+import com.example.events.LightBulbChangeFeed;
+import com.example.events.LightBulbChangeListener;
+import com.example.model.BulbStats;
+import com.example.model.LightBulb;
+import com.example.repo.LightBulbRepository;
+import com.example.resilience.Deadline;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Aggregates over all bulbs, kept current from the change feed so reads never scan the backend.
+ *
+ * Each bulb's last seen type and wattage is remembered so updates and deletes can be subtracted,
+ * and wattages are kept as a counted multiset so min/max survive deletes. A full scan
+ * ({@link #recompute()}) seeds the aggregates on first use and repairs drift, e.g. writes made by
+ * other instances when no stream source is configured; it runs again on the executor once the last
+ * one is older than {@code maxAgeMillis}, while reads keep getting the current aggregates.
+ */
+@Service
+public class BulbStatistics implements LightBulbChangeListener {
+    private static final Logger logger = LoggerFactory.getLogger(BulbStatistics.class);
+
+    private static final String UNKNOWN_TYPE = "unknown";
+
+    private final LightBulbRepository repository;
+    private final LightBulbChangeFeed changeFeed;
+    private final Executor executor;
+    private final long maxAgeMillis;
+    private final LongSupplier clock;
+
+    // guards the aggregates; only held for in-memory updates, never across backend calls
+    private final ReentrantLock lock = new ReentrantLock();
+    // one full scan at a time
+    private final ReentrantLock recomputeLock = new ReentrantLock();
+    // a background refresh has been handed to the executor and not finished yet
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<String, Long> countsByType = new HashMap<>();
+    private final TreeMap<Integer, Long> wattages = new TreeMap<>();
+    private long totalWattage;
+
+    // non-null while a recompute is scanning; changes are replayed on top of the scan
+    private List<LightBulbChangeEvent> pending;
+    private volatile boolean initialized;
+    private volatile long computedAtMillis;
+
+    @Autowired
+    public BulbStatistics(LightBulbRepository repository, LightBulbChangeFeed changeFeed,
+                          @Qualifier("applicationTaskExecutor") Executor executor,
+                          @Value("${lightbulb.stats.max-age-seconds:300}") long maxAgeSeconds) {
+        this(repository, changeFeed, executor, TimeUnit.SECONDS.toMillis(maxAgeSeconds), System::currentTimeMillis);
+    }
+
+    BulbStatistics(LightBulbRepository repository, LightBulbChangeFeed changeFeed, Executor executor,
+                   long maxAgeMillis, LongSupplier clock) {
+        this.repository = repository;
+        this.changeFeed = changeFeed;
+        this.executor = executor;
+        this.maxAgeMillis = maxAgeMillis;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void start() {
+        changeFeed.subscribe(this);
+    }
+
+    @PreDestroy
+    public void close() {
+        changeFeed.unsubscribe(this);
+    }
+
+    public BulbStats getStats() {
+        if (!initialized) {
+            initialize();
+        } else if (maxAgeMillis > 0 && clock.getAsLong() - computedAtMillis > maxAgeMillis) {
+            // the incrementally maintained values are still good enough to serve meanwhile
+            refreshInBackground();
+        }
+
+        lock.lock();
+        try {
+            return new BulbStats(entries.size(), new TreeMap<>(countsByType), totalWattage,
+                    wattages.isEmpty() ? null : wattages.firstKey(),
+                    wattages.isEmpty() ? null : wattages.lastKey());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // concurrent first reads wait for one scan instead of each running their own
+    private void initialize() {
+        recomputeLock.lock();
+        try {
+            if (!initialized) {
+                recompute();
+            }
+        } finally {
+            recomputeLock.unlock();
+        }
+    }
+
+    /**
+     * Starts a recompute on the executor unless one is already under way. Like search index
+     * rebuilds it runs without the deadline of the request that triggered it.
+     */
+    public void refreshInBackground() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try (Deadline.Scope ignored = Deadline.attach(Deadline.none())) {
+                    recompute();
+                } catch (RuntimeException e) {
+                    // the next stale read tries again
+                    logger.warn("Refreshing bulb statistics failed: {}", e.getMessage());
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.set(false);
+            logger.warn("Refreshing bulb statistics could not be scheduled: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuilds the aggregates from a full scan of the repository.
+     */
+    public void recompute() {
+        recomputeLock.lock();
+        try {
+            lock.lock();
+            try {
+                pending = new ArrayList<>();
+            } finally {
+                lock.unlock();
+            }
+
+            List<LightBulb> bulbs;
+            try {
+                bulbs = repository.findAll();
+            } catch (RuntimeException e) {
+                lock.lock();
+                try {
+                    if (initialized) {
+                        pending.forEach(this::apply);
+                    }
+                    pending = null;
+                } finally {
+                    lock.unlock();
+                }
+                throw e;
+            }
+
+            lock.lock();
+            try {
+                entries.clear();
+                countsByType.clear();
+                wattages.clear();
+                totalWattage = 0;
+                for (LightBulb bulb : bulbs) {
+                    Entry entry = Entry.of(bulb);
+                    entries.put(bulb.getId(), entry);
+                    add(entry);
+                }
+                pending.forEach(this::apply);
+                pending = null;
+                initialized = true;
+                computedAtMillis = clock.getAsLong();
+            } finally {
+                lock.unlock();
+            }
+            logger.info("Recomputed bulb statistics over {} bulbs", bulbs.size());
+        } finally {
+            recomputeLock.unlock();
+        }
+    }
+
+    @Override
+    public void onChange(LightBulbChangeEvent event) {
+        lock.lock();
+        try {
+            if (pending != null) {
+                pending.add(event);
+            } else if (initialized) {
+                apply(event);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void apply(LightBulbChangeEvent event) {
+        if (event.getOperation() == LightBulbChangeEvent.Operation.DELETE) {
+            Entry removed = entries.remove(event.getId());
+            if (removed != null) {
+                remove(removed);
+            }
+            return;
+        }
+        LightBulb bulb = event.getBulb();
+        if (bulb == null) {
+            return;
+        }
+        Entry existing = entries.get(event.getId());
+        if (existing != null && existing.version() != null && bulb.getVersion() != null
+                && bulb.getVersion() < existing.version()) {
+            // a stream record older than what we already have
+            return;
+        }
+        if (existing != null) {
+            remove(existing);
+        }
+        Entry entry = Entry.of(bulb);
+        entries.put(event.getId(), entry);
+        add(entry);
+    }
+
+    private void add(Entry entry) {
+        countsByType.merge(entry.type(), 1L, Long::sum);
+        wattages.merge(entry.wattage(), 1L, Long::sum);
+        totalWattage += entry.wattage();
+    }
+
+    private void remove(Entry entry) {
+        decrement(countsByType, entry.type());
+        decrement(wattages, entry.wattage());
+        totalWattage -= entry.wattage();
+    }
+
+    private static <K> void decrement(Map<K, Long> counts, K key) {
+        counts.computeIfPresent(key, (k, count) -> count == 1 ? null : count - 1);
+    }
+
+    private record Entry(String type, int wattage, Long version) {
+        static Entry of(LightBulb bulb) {
+            return new Entry(bulb.getType() == null ? UNKNOWN_TYPE : bulb.getType(), bulb.getWattage(), bulb.getVersion());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.services;
+
+import com.example.model.LightBulb;
+
+/**
+ * What an idempotency store remembers about an {@code Idempotency-Key}: the fingerprint of the
+ * request that first used it and, once that request has completed, the bulb it created.
+ */
+public final class IdempotencyRecord {
+
+    private final String key;
+    private final String fingerprint;
+    private final LightBulb result;
+    private final long claimedAtMillis;
+
+    public IdempotencyRecord(String key, String fingerprint, LightBulb result, long claimedAtMillis) {
+        this.key = key;
+        this.fingerprint = fingerprint;
+        this.result = result;
+        this.claimedAtMillis = claimedAtMillis;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * The created bulb, or null while the first request is still in progress.
+     */
+    public LightBulb getResult() {
+        return result;
+    }
+
+    public boolean isCompleted() {
+        return result != null;
+    }
+
+    public long getClaimedAtMillis() {
+        return claimedAtMillis;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.services;
+
+import com.example.model.LightBulb;
+
+import java.util.Optional;
+
+/**
+ * Deduplication store for {@code Idempotency-Key} headers.
+ *
+ * {@link #claim} atomically reserves a key for the calling request. It returns empty when the caller
+ * owns the key and must run the request, or the existing record when another request already used it.
+ * The owner then either {@link #complete}s the key with the created bulb or {@link #release}s it
+ * when the request failed, so a retry can run again.
+ */
+public interface IdempotencyStore {
+
+    Optional<IdempotencyRecord> claim(String key, String fingerprint);
+
+    void complete(String key, String fingerprint, LightBulb result);
+
+    void release(String key);
+}
@@ -0,0 +1,81 @@
+package com.example.services;
+
+import com.example.model.LightBulb;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded, per-instance idempotency store. Keeps at most {@code maxEntries} keys in LRU order and
+ * forgets them after {@code ttlMillis}. A key left in progress longer than {@code leaseMillis}
+ * (e.g. the request died) can be claimed again.
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final long leaseMillis;
+    private final LongSupplier clock;
+
+    private final LinkedHashMap<String, IdempotencyRecord> records;
+
+    public InMemoryIdempotencyStore(int maxEntries, long ttlMillis, long leaseMillis) {
+        this(maxEntries, ttlMillis, leaseMillis, System::currentTimeMillis);
+    }
+
+    InMemoryIdempotencyStore(int maxEntries, long ttlMillis, long leaseMillis, LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.leaseMillis = leaseMillis;
+        this.clock = clock;
+        this.records = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+                return size() > InMemoryIdempotencyStore.this.maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public synchronized Optional<IdempotencyRecord> claim(String key, String fingerprint) {
+        long now = clock.getAsLong();
+        IdempotencyRecord existing = records.get(key);
+        if (existing != null && !isStale(existing, now)) {
+            return Optional.of(existing);
+        }
+        records.put(key, new IdempotencyRecord(key, fingerprint, null, now));
+        return Optional.empty();
+    }
+
+    @Override
+    public synchronized void complete(String key, String fingerprint, LightBulb result) {
+        records.put(key, new IdempotencyRecord(key, fingerprint, result, clock.getAsLong()));
+    }
+
+    @Override
+    public synchronized void release(String key) {
+        IdempotencyRecord existing = records.get(key);
+        if (existing != null && !existing.isCompleted()) {
+            records.remove(key);
+        }
+    }
+
+    /**
+     * Caches a record obtained from a slower tier without claiming anything.
+     */
+    synchronized void remember(IdempotencyRecord record) {
+        records.put(record.getKey(), record);
+    }
+
+    synchronized Optional<IdempotencyRecord> peek(String key) {
+        IdempotencyRecord existing = records.get(key);
+        return existing != null && !isStale(existing, clock.getAsLong()) ? Optional.of(existing) : Optional.empty();
+    }
+
+    private boolean isStale(IdempotencyRecord record, long now) {
+        long age = now - record.getClaimedAtMillis();
+        return record.isCompleted() ? age > ttlMillis : age > leaseMillis;
+    }
+}
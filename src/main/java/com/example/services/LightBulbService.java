@@ -1,18 +1,56 @@
 package com.example.services;
 
 import com.example.model.LightBulb;
+import com.example.model.LightBulbPatch;
 import java.util.List;
+import java.util.function.Consumer;
 
 
 public interface LightBulbService {
 
     List<LightBulb> getAllBulbs();
 
+    /**
+     * Walks the whole table one repository page at a time, handing each page to
+     * {@code pageConsumer} before the next one is read, so callers can stream without holding it all.
+     */
+    void forEachPage(Consumer<List<LightBulb>> pageConsumer);
+
     LightBulb getBulbById(Long id);
 
+    /**
+     * The {@code k} highest-wattage bulbs ({@code by} = "wattage") or the first {@code k} by name
+     * ({@code by} = "name"), best first.
+     */
+    List<LightBulb> getTopBulbs(String by, int k);
+
     LightBulb addBulb(LightBulb bulb);
 
+    /**
+     * Adds the bulb at most once per {@code idempotencyKey}; a repeated key returns the bulb
+     * created by the first request without writing again.
+     */
+    LightBulb addBulb(LightBulb bulb, String idempotencyKey);
+
     LightBulb updateBulb(Long id, LightBulb updatedBulb);
 
+    /**
+     * Updates the bulb only if it is still at {@code expectedVersion} (from If-Match); a null
+     * version updates whatever is current.
+     */
+    LightBulb updateBulb(Long id, LightBulb updatedBulb, Long expectedVersion);
+
+    /**
+     * Changes only the fields set in {@code patch}, conditional on {@code expectedVersion} when it
+     * is not null.
+     */
+    LightBulb patchBulb(Long id, LightBulbPatch patch, Long expectedVersion);
+
     void deleteBulb(Long id);
+
+    /**
+     * Deletes the bulb only if it is still at {@code expectedVersion}; a null version deletes
+     * whatever is current.
+     */
+    void deleteBulb(Long id, Long expectedVersion);
 }
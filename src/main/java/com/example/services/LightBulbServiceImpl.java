@@ -1,25 +1,62 @@
 package com.example.services;
 
+import com.example.exception.IdempotencyConflictException;
 import com.example.exception.ResourceNotFoundException;
+import com.example.exception.ServiceUnavailableException;
+import com.example.exception.VersionConflictException;
+import com.example.metrics.MetricsSource;
 import com.example.model.LightBulb;
+import com.example.model.LightBulbPatch;
+import com.example.repo.LightBulbPage;
 import com.example.repo.LightBulbRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
 
 @Service
-public class LightBulbServiceImpl implements LightBulbService {
+public class LightBulbServiceImpl implements LightBulbService, MetricsSource {
 
     private static final Logger logger = LoggerFactory.getLogger(LightBulbServiceImpl.class);
 
+    private static final String ALL_BULBS = "all";
+
+    static final int SCAN_PAGE_SIZE = 500;
+
+    static final int MAX_UPDATE_ATTEMPTS = 3;
+
+    private static final Comparator<LightBulb> BY_WATTAGE = Comparator.comparingInt(LightBulb::getWattage).reversed()
+            .thenComparing(LightBulb::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+    private static final Comparator<LightBulb> BY_NAME = Comparator.comparing(LightBulb::getName,
+                    Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+            .thenComparing(LightBulb::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
     private final LightBulbRepository lightBulbRepository;
 
-    @Autowired
+    private final IdempotencyStore idempotencyStore;
+
+    // Concurrent identical reads share one backend call
+    private final SingleFlight<Long, Optional<LightBulb>> findByIdFlight = new SingleFlight<>();
+    private final SingleFlight<String, List<LightBulb>> findAllFlight = new SingleFlight<>();
+
     public LightBulbServiceImpl(LightBulbRepository lightBulbRepository) {
+        this(lightBulbRepository, new InMemoryIdempotencyStore(10_000, 86_400_000L, 30_000L));
+    }
+
+    @Autowired
+    public LightBulbServiceImpl(LightBulbRepository lightBulbRepository, IdempotencyStore idempotencyStore) {
         this.lightBulbRepository = lightBulbRepository;
+        this.idempotencyStore = idempotencyStore;
     }
 
     @Override
@@ -29,14 +66,54 @@ public class LightBulbServiceImpl implements LightBulbService {
             throw new IllegalArgumentException("LightBulb cannot be null");
         }
         
-        logger.info("Adding new bulb: {}", bulb);
+        logger.debug("Adding new bulb: {}", bulb);
+        // version and timestamp are owned by the repository, never by the client
+        bulb.setVersion(null);
+        bulb.setLastModified(null);
         try {
             LightBulb savedBulb = lightBulbRepository.save(bulb);
+            forgetInFlightReads(savedBulb.getId());
             logger.info("Successfully added bulb with ID: {}", savedBulb.getId());
             return savedBulb;
+        } catch (ServiceUnavailableException e) {
+            throw e;
         } catch (Exception e) {
-            logger.error("Failed to add bulb: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to add bulb: " + e.getMessage(), e);
+            throw new RuntimeException("Failed to add bulb", e);
+        }
+    }
+
+    @Override
+    public LightBulb addBulb(LightBulb bulb, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return addBulb(bulb);
+        }
+        if (bulb == null) {
+            logger.error("Attempted to add a null bulb");
+            throw new IllegalArgumentException("LightBulb cannot be null");
+        }
+
+        String fingerprint = fingerprint(bulb);
+        Optional<IdempotencyRecord> existing = idempotencyStore.claim(idempotencyKey, fingerprint);
+        if (existing.isPresent()) {
+            IdempotencyRecord record = existing.get();
+            if (record.getFingerprint() != null && !record.getFingerprint().equals(fingerprint)) {
+                throw new IdempotencyConflictException("Idempotency-Key was already used for a different request");
+            }
+            if (!record.isCompleted()) {
+                throw new IdempotencyConflictException("A request with this Idempotency-Key is still in progress");
+            }
+            logger.info("Replaying stored response for bulb with ID: {}", record.getResult().getId());
+            return record.getResult();
+        }
+
+        try {
+            LightBulb savedBulb = addBulb(bulb);
+            idempotencyStore.complete(idempotencyKey, fingerprint, savedBulb);
+            return savedBulb;
+        } catch (RuntimeException e) {
+            // let a retry with the same key run again
+            idempotencyStore.release(idempotencyKey);
+            throw e;
         }
     }
 
@@ -44,12 +121,34 @@ public class LightBulbServiceImpl implements LightBulbService {
     public List<LightBulb> getAllBulbs() {
         logger.info("Fetching all bulbs...");
         try {
-            List<LightBulb> bulbs = lightBulbRepository.findAll();
+            List<LightBulb> bulbs = findAllFlight.execute(ALL_BULBS, lightBulbRepository::findAll);
             logger.info("Successfully retrieved {} bulbs", bulbs.size());
             return bulbs;
+        } catch (ServiceUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to retrieve bulbs", e);
+        }
+    }
+
+    @Override
+    public void forEachPage(Consumer<List<LightBulb>> pageConsumer) {
+        logger.info("Streaming all bulbs...");
+        long count = 0;
+        try {
+            String cursor = null;
+            do {
+                LightBulbPage page = lightBulbRepository.findPage(cursor, SCAN_PAGE_SIZE);
+                pageConsumer.accept(page.getItems());
+                count += page.getItems().size();
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+            logger.info("Successfully streamed {} bulbs", count);
+        } catch (ServiceUnavailableException | UncheckedIOException e) {
+            // a client that went away mid-stream is not a failure of ours
+            throw e;
         } catch (Exception e) {
-            logger.error("Failed to retrieve bulbs: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to retrieve bulbs: " + e.getMessage(), e);
+            throw new RuntimeException("Failed to stream bulbs after " + count, e);
         }
     }
 
@@ -60,20 +159,66 @@ public class LightBulbServiceImpl implements LightBulbService {
             throw new IllegalArgumentException("Bulb ID cannot be null");
         }
         
-        logger.info("Fetching bulb with ID: {}", id);
+        logger.debug("Fetching bulb with ID: {}", id);
         try {
-            return lightBulbRepository.findById(id)
+            return findByIdFlight.execute(id, () -> lightBulbRepository.findById(id))
                     .orElseThrow(() -> new ResourceNotFoundException("LightBulb", "id", id));
-        } catch (ResourceNotFoundException e) {
-            throw e; // Re-throw ResourceNotFoundException as is
+        } catch (ResourceNotFoundException | ServiceUnavailableException e) {
+            throw e; // Re-throw as is, the exception handler maps them to 404/503
         } catch (Exception e) {
-            logger.error("Failed to fetch bulb with ID {}: {}", id, e.getMessage(), e);
-            throw new RuntimeException("Failed to fetch bulb: " + e.getMessage(), e);
+            throw new RuntimeException("Failed to fetch bulb " + id, e);
+        }
+    }
+
+    @Override
+    public List<LightBulb> getTopBulbs(String by, int k) {
+        Comparator<LightBulb> order;
+        if ("wattage".equals(by)) {
+            order = BY_WATTAGE;
+        } else if ("name".equals(by)) {
+            order = BY_NAME;
+        } else {
+            throw new IllegalArgumentException("Unsupported order '" + by + "', expected wattage or name");
+        }
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be at least 1");
+        }
+
+        logger.info("Fetching top {} bulbs by {}", k, by);
+        try {
+            // worst of the current top k on the head, so memory stays O(k) whatever the table size
+            PriorityQueue<LightBulb> top = new PriorityQueue<>(k + 1, order.reversed());
+            String cursor = null;
+            do {
+                LightBulbPage page = lightBulbRepository.findPage(cursor, SCAN_PAGE_SIZE);
+                for (LightBulb bulb : page.getItems()) {
+                    if (top.size() < k) {
+                        top.add(bulb);
+                    } else if (order.compare(bulb, top.peek()) < 0) {
+                        top.poll();
+                        top.add(bulb);
+                    }
+                }
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+
+            List<LightBulb> result = new ArrayList<>(top);
+            result.sort(order);
+            return result;
+        } catch (ServiceUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to fetch top bulbs by " + by, e);
         }
     }
 
     @Override
     public LightBulb updateBulb(Long id, LightBulb updatedBulb) {
+        return updateBulb(id, updatedBulb, null);
+    }
+
+    @Override
+    public LightBulb updateBulb(Long id, LightBulb updatedBulb, Long expectedVersion) {
         if (id == null) {
             logger.error("Attempted to update bulb with null ID");
             throw new IllegalArgumentException("Bulb ID cannot be null");
@@ -85,27 +230,84 @@ public class LightBulbServiceImpl implements LightBulbService {
         
         logger.info("Updating bulb with ID: {}", id);
         try {
-            return lightBulbRepository.findById(id).map(existingBulb -> {
+            for (int attempt = 1; ; attempt++) {
+                LightBulb existingBulb = lightBulbRepository.findById(id)
+                        .orElseThrow(() -> new ResourceNotFoundException("LightBulb", "id", id));
                 logger.debug("Found existing bulb: {}", existingBulb);
+                requireVersion(existingBulb, expectedVersion);
                 existingBulb.setName(updatedBulb.getName());
                 existingBulb.setType(updatedBulb.getType());
                 existingBulb.setWattage(updatedBulb.getWattage());
-                
-                LightBulb updated = lightBulbRepository.save(existingBulb);
-                logger.info("Successfully updated bulb with ID: {}", id);
-                return updated;
-            }).orElseThrow(() -> new ResourceNotFoundException("LightBulb", "id", id));
-        } catch (ResourceNotFoundException e) {
-            throw e; // Re-throw ResourceNotFoundException as is
+
+                try {
+                    // saved conditionally on the version just read
+                    LightBulb updated = lightBulbRepository.save(existingBulb);
+                    forgetInFlightReads(id);
+                    logger.info("Successfully updated bulb with ID: {}", id);
+                    return updated;
+                } catch (VersionConflictException e) {
+                    // another write got in between; without If-Match, apply ours on top of it
+                    if (expectedVersion != null || attempt >= MAX_UPDATE_ATTEMPTS) {
+                        throw e;
+                    }
+                    logger.debug("Bulb {} changed while updating, retrying", id);
+                }
+            }
+        } catch (ResourceNotFoundException | ServiceUnavailableException | VersionConflictException e) {
+            throw e; // Re-throw as is, the exception handler maps them to 404/503/412
         } catch (Exception e) {
-            logger.error("Failed to update bulb with ID {}: {}", id, e.getMessage(), e);
-            throw new RuntimeException("Failed to update bulb: " + e.getMessage(), e);
+            throw new RuntimeException("Failed to update bulb " + id, e);
         }
     }
 
+    @Override
+    public LightBulb patchBulb(Long id, LightBulbPatch patch, Long expectedVersion) {
+        if (id == null) {
+            logger.error("Attempted to patch bulb with null ID");
+            throw new IllegalArgumentException("Bulb ID cannot be null");
+        }
+        if (patch == null) {
+            logger.error("Attempted to patch with null bulb data");
+            throw new IllegalArgumentException("Bulb data cannot be null");
+        }
+        if (patch.getName() != null && patch.getName().isBlank()) {
+            throw new IllegalArgumentException("Name must not be blank");
+        }
+        if (patch.getType() != null && patch.getType().isBlank()) {
+            throw new IllegalArgumentException("Type must not be blank");
+        }
+        if (patch.getWattage() != null && patch.getWattage() < 1) {
+            throw new IllegalArgumentException("Wattage must be at least 1");
+        }
+        if (patch.isEmpty()) {
+            // nothing to change, answer like a read
+            LightBulb current = getBulbById(id);
+            requireVersion(current, expectedVersion);
+            return current;
+        }
+
+        logger.info("Patching bulb with ID: {}", id);
+        try {
+            // the repository applies the patch in one conditional write, no read first
+            LightBulb patched = lightBulbRepository.patch(id, patch, expectedVersion)
+                    .orElseThrow(() -> new ResourceNotFoundException("LightBulb", "id", id));
+            forgetInFlightReads(id);
+            logger.info("Successfully patched bulb with ID: {}", id);
+            return patched;
+        } catch (ResourceNotFoundException | ServiceUnavailableException | VersionConflictException e) {
+            throw e; // Re-throw as is, the exception handler maps them to 404/503/412
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to patch bulb " + id, e);
+        }
+    }
 
     @Override
     public void deleteBulb(Long id) {
+        deleteBulb(id, null);
+    }
+
+    @Override
+    public void deleteBulb(Long id, Long expectedVersion) {
         if (id == null) {
             logger.error("Attempted to delete bulb with null ID");
             throw new IllegalArgumentException("Bulb ID cannot be null");
@@ -113,16 +315,60 @@ public class LightBulbServiceImpl implements LightBulbService {
         
         logger.info("Deleting bulb with ID: {}", id);
         try {
-            if (lightBulbRepository.findById(id).isEmpty()) {
+            Optional<LightBulb> existingBulb = lightBulbRepository.findById(id);
+            if (existingBulb.isEmpty()) {
                 throw new ResourceNotFoundException("LightBulb", "id", id);
             }
-            lightBulbRepository.deleteById(id);
+            if (expectedVersion == null) {
+                lightBulbRepository.deleteById(id);
+            } else {
+                requireVersion(existingBulb.get(), expectedVersion);
+                lightBulbRepository.deleteById(id, expectedVersion);
+            }
+            forgetInFlightReads(id);
             logger.info("Successfully deleted bulb with ID: {}", id);
-        } catch (ResourceNotFoundException e) {
-            throw e; // Re-throw ResourceNotFoundException as is
+        } catch (ResourceNotFoundException | ServiceUnavailableException | VersionConflictException e) {
+            throw e; // Re-throw as is, the exception handler maps them to 404/503/412
         } catch (Exception e) {
-            logger.error("Failed to delete bulb with ID {}: {}", id, e.getMessage(), e);
-            throw new RuntimeException("Failed to delete bulb: " + e.getMessage(), e);
+            throw new RuntimeException("Failed to delete bulb " + id, e);
+        }
+    }
+
+    private static void requireVersion(LightBulb current, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+            throw new VersionConflictException("LightBulb " + current.getId() + " is at version "
+                    + current.getVersion() + ", expected " + expectedVersion);
+        }
+    }
+
+    // reads that started before a write must not be handed to callers arriving after it
+    private void forgetInFlightReads(Long id) {
+        findByIdFlight.forget(id);
+        findAllFlight.forget(ALL_BULBS);
+    }
+
+    @Override
+    public String metricsName() {
+        return "service.singleflight";
+    }
+
+    @Override
+    public Map<String, Number> metricsSnapshot() {
+        Map<String, Number> snapshot = new LinkedHashMap<>();
+        snapshot.put("findById.calls", findByIdFlight.getCalls());
+        snapshot.put("findById.coalesced", findByIdFlight.getCoalesced());
+        snapshot.put("findAll.calls", findAllFlight.getCalls());
+        snapshot.put("findAll.coalesced", findAllFlight.getCoalesced());
+        return snapshot;
+    }
+
+    // length-prefixed so that field boundaries cannot be shifted between values
+    private static String fingerprint(LightBulb bulb) {
+        StringBuilder sb = new StringBuilder();
+        for (Object field : new Object[]{bulb.getId(), bulb.getName(), bulb.getType(), bulb.getWattage()}) {
+            String value = String.valueOf(field);
+            sb.append(value.length()).append(':').append(value).append(';');
         }
+        return sb.toString();
     }
 }
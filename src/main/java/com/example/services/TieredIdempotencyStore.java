@@ -0,0 +1,44 @@
+package com.example.services;
+
+import com.example.model.LightBulb;
+
+import java.util.Optional;
+
+/**
+ * Answers replays of completed keys from the local {@link InMemoryIdempotencyStore} and falls back
+ * to a shared durable store (a DynamoDB conditional put) so that retries landing on another
+ * instance are deduplicated too.
+ */
+public class TieredIdempotencyStore implements IdempotencyStore {
+
+    private final InMemoryIdempotencyStore local;
+    private final IdempotencyStore shared;
+
+    public TieredIdempotencyStore(InMemoryIdempotencyStore local, IdempotencyStore shared) {
+        this.local = local;
+        this.shared = shared;
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> claim(String key, String fingerprint) {
+        Optional<IdempotencyRecord> cached = local.peek(key);
+        if (cached.isPresent() && cached.get().isCompleted()) {
+            return cached;
+        }
+        Optional<IdempotencyRecord> existing = shared.claim(key, fingerprint);
+        existing.filter(IdempotencyRecord::isCompleted).ifPresent(local::remember);
+        return existing;
+    }
+
+    @Override
+    public void complete(String key, String fingerprint, LightBulb result) {
+        shared.complete(key, fingerprint, result);
+        local.complete(key, fingerprint, result);
+    }
+
+    @Override
+    public void release(String key) {
+        local.release(key);
+        shared.release(key);
+    }
+}
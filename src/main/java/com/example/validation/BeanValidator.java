@@ -0,0 +1,34 @@
+package com.example.validation;
+
+import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.validation.Errors;
+
+/**
+ * Checks the Jakarta constraint annotations of one model class with plain code. Implementations
+ * are generated at compile time by {@link com.example.validation.processor.ConstraintProcessor}
+ * as {@code <Type>BeanValidator} next to the type they check.
+ */
+public interface BeanValidator<T> {
+
+    String SUFFIX = "BeanValidator";
+
+    Class<T> type();
+
+    /**
+     * Rejects every violated constraint on {@code errors}, with the constraint's name as error code
+     * and its message as default message, as Spring's Bean Validation adapter does.
+     */
+    void validate(T bean, Errors errors);
+
+    /**
+     * Error arguments in the shape Spring's Bean Validation adapter uses: the field, then the
+     * constraint's attributes in name order, so message codes resolve the same way.
+     */
+    static Object[] arguments(Errors errors, String field, Object... attributes) {
+        Object[] arguments = new Object[attributes.length + 1];
+        arguments[0] = new DefaultMessageSourceResolvable(
+                new String[]{errors.getObjectName() + Errors.NESTED_PATH_SEPARATOR + field, field}, field);
+        System.arraycopy(attributes, 0, arguments, 1, attributes.length);
+        return arguments;
+    }
+}
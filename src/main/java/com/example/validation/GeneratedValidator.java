@@ -0,0 +1,54 @@
+package com.example.validation;
+
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+
+/**
+ * Spring {@link Validator} backed by the generated {@link BeanValidator}s, used for {@code @Valid}
+ * request bodies instead of Hibernate Validator. Nothing is bootstrapped and nothing is reflected
+ * on per call; the generated class for a type is looked up once.
+ */
+public class GeneratedValidator implements Validator {
+
+    private static final ClassValue<BeanValidator<Object>> VALIDATORS = new ClassValue<>() {
+        @Override
+        protected BeanValidator<Object> computeValue(Class<?> type) {
+            // constraints of a superclass apply to its subclasses too
+            for (Class<?> candidate = type; candidate != null && candidate != Object.class;
+                 candidate = candidate.getSuperclass()) {
+                BeanValidator<Object> validator = load(candidate);
+                if (validator != null) {
+                    return validator;
+                }
+            }
+            return null;
+        }
+    };
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return VALIDATORS.get(clazz) != null;
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        BeanValidator<Object> validator = VALIDATORS.get(target.getClass());
+        if (validator != null) {
+            validator.validate(target, errors);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BeanValidator<Object> load(Class<?> type) {
+        try {
+            // nested types are generated as Outer_Inner
+            String name = type.getName().replace('$', '_') + BeanValidator.SUFFIX;
+            Class<?> generated = Class.forName(name, true, type.getClassLoader());
+            return (BeanValidator<Object>) generated.getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create the generated validator for " + type.getName(), e);
+        }
+    }
+}
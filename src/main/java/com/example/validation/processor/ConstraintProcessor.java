@@ -0,0 +1,399 @@
+package com.example.validation.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a {@code <Type>BeanValidator} for every class with Jakarta constraint annotations on
+ * its fields, so requests are validated by straight-line code instead of Hibernate Validator.
+ *
+ * Only what the model uses is supported: {@code @NotNull}, {@code @NotBlank}, {@code @NotEmpty},
+ * {@code @Min}, {@code @Max} and {@code @Size} on fields read through a getter, in the default group,
+ * with literal messages or the default ones. Anything else fails the build rather than going
+ * unchecked. Messages may use {@code {value}}, {@code {min}} and {@code {max}}.
+ *
+ * {@link com.example.validation.GeneratedValidator} finds the generated classes by name, so their
+ * constructors are also listed in a {@value #REFLECT_CONFIG} for native-image builds.
+ */
+@SupportedAnnotationTypes({
+        ConstraintProcessor.NOT_NULL,
+        ConstraintProcessor.NOT_BLANK,
+        ConstraintProcessor.NOT_EMPTY,
+        ConstraintProcessor.MIN,
+        ConstraintProcessor.MAX,
+        ConstraintProcessor.SIZE
+})
+public class ConstraintProcessor extends AbstractProcessor {
+
+    private static final String CONSTRAINTS = "jakarta.validation.constraints.";
+    static final String NOT_NULL = CONSTRAINTS + "NotNull";
+    static final String NOT_BLANK = CONSTRAINTS + "NotBlank";
+    static final String NOT_EMPTY = CONSTRAINTS + "NotEmpty";
+    static final String MIN = CONSTRAINTS + "Min";
+    static final String MAX = CONSTRAINTS + "Max";
+    static final String SIZE = CONSTRAINTS + "Size";
+
+    // Hibernate Validator's English defaults, so responses read the same as before
+    private static final Map<String, String> DEFAULT_MESSAGES = Map.of(
+            NOT_NULL, "must not be null",
+            NOT_BLANK, "must not be blank",
+            NOT_EMPTY, "must not be empty",
+            MIN, "must be greater than or equal to {value}",
+            MAX, "must be less than or equal to {value}",
+            SIZE, "size must be between {min} and {max}");
+
+    // must match BeanValidator.SUFFIX, which this processor cannot load
+    private static final String SUFFIX = "BeanValidator";
+
+    static final String REFLECT_CONFIG = "META-INF/native-image/com.example/generated-validators/reflect-config.json";
+
+    private final Set<String> generated = new LinkedHashSet<>();
+
+    private enum Shape {
+        TEXT, COLLECTION, ARRAY, INTEGRAL, OTHER
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> types = new LinkedHashSet<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.FIELD) {
+                    error(element, "@" + annotation.getSimpleName() + " is only supported on fields");
+                } else {
+                    types.add((TypeElement) element.getEnclosingElement());
+                }
+            }
+        }
+        try {
+            for (TypeElement type : types) {
+                generate(type);
+            }
+            if (roundEnv.processingOver() && !generated.isEmpty()) {
+                writeReflectConfig();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return false;
+    }
+
+    private void generate(TypeElement type) throws IOException {
+        StringBuilder checks = new StringBuilder();
+        for (VariableElement field : constrainedFields(type)) {
+            String checksOfField = checks(type, field);
+            if (checksOfField != null) {
+                checks.append(checksOfField);
+            }
+        }
+
+        String packageName = ((PackageElement) processingEnv.getElementUtils().getPackageOf(type))
+                .getQualifiedName().toString();
+        String typeName = type.getQualifiedName().toString();
+        String simpleName = binarySimpleName(type) + SUFFIX;
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("import com.example.validation.BeanValidator;\n")
+                .append("import org.springframework.validation.Errors;\n\n")
+                .append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n")
+                .append("public final class ").append(simpleName)
+                .append(" implements BeanValidator<").append(typeName).append("> {\n\n")
+                .append("    @Override\n")
+                .append("    public Class<").append(typeName).append("> type() {\n")
+                .append("        return ").append(typeName).append(".class;\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public void validate(").append(typeName).append(" bean, Errors errors) {\n")
+                .append(checks)
+                .append("    }\n")
+                .append("}\n");
+
+        String generatedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(generatedName, type).openWriter()) {
+            writer.write(source.toString());
+        }
+        generated.add(generatedName);
+    }
+
+    private void writeReflectConfig() throws IOException {
+        StringBuilder json = new StringBuilder("[\n");
+        for (String name : generated) {
+            if (json.length() > 2) {
+                json.append(",\n");
+            }
+            json.append("  {\"name\": ").append(literal(name))
+                    .append(", \"methods\": [{\"name\": \"<init>\", \"parameterTypes\": []}]}");
+        }
+        json.append("\n]\n");
+        try (Writer writer = processingEnv.getFiler()
+                .createResource(StandardLocation.CLASS_OUTPUT, "", REFLECT_CONFIG).openWriter()) {
+            writer.write(json.toString());
+        }
+    }
+
+    /**
+     * Constrained fields of the type and its superclasses, superclass fields first.
+     */
+    private List<VariableElement> constrainedFields(TypeElement type) {
+        List<VariableElement> fields = new ArrayList<>();
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() == TypeKind.DECLARED) {
+            fields.addAll(constrainedFields((TypeElement) ((DeclaredType) superclass).asElement()));
+        }
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            if (!constraints(field).isEmpty()) {
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    private List<AnnotationMirror> constraints(Element field) {
+        List<AnnotationMirror> constraints = new ArrayList<>();
+        for (AnnotationMirror annotation : field.getAnnotationMirrors()) {
+            if (DEFAULT_MESSAGES.containsKey(annotationName(annotation))) {
+                constraints.add(annotation);
+            }
+        }
+        return constraints;
+    }
+
+    private String checks(TypeElement type, VariableElement field) {
+        String name = field.getSimpleName().toString();
+        String read = accessor(type, field);
+        if (read == null) {
+            error(field, "Constrained field '" + name + "' needs a getter");
+            return null;
+        }
+        TypeMirror fieldType = field.asType();
+        Shape shape = shape(fieldType);
+        boolean primitive = fieldType.getKind().isPrimitive();
+
+        StringBuilder code = new StringBuilder();
+        code.append("        {\n")
+                .append("            ").append(sourceName(fieldType)).append(" value = bean.").append(read).append(";\n");
+        for (AnnotationMirror constraint : constraints(field)) {
+            String annotation = annotationName(constraint);
+            Map<String, Object> attributes = attributes(constraint);
+            if (attributes.get("groups") instanceof List<?> groups && !groups.isEmpty()) {
+                error(field, "Validation groups are not supported", constraint);
+                continue;
+            }
+            String condition = condition(annotation, shape, primitive, attributes);
+            if (condition == null) {
+                error(field, "@" + simpleName(annotation) + " is not supported on " + sourceName(fieldType), constraint);
+                continue;
+            }
+            if (condition.isEmpty()) {
+                // @NotNull on a primitive always holds
+                continue;
+            }
+            String message = message(annotation, attributes);
+            if (message == null) {
+                error(field, "Only literal messages with {value}, {min} and {max} are supported", constraint);
+                continue;
+            }
+            code.append("            if (").append(condition).append(") {\n")
+                    .append("                errors.rejectValue(\"").append(name).append("\", \"")
+                    .append(simpleName(annotation)).append("\", BeanValidator.arguments(errors, \"")
+                    .append(name).append('"').append(arguments(annotation, attributes)).append("), ")
+                    .append(literal(message)).append(");\n")
+                    .append("            }\n");
+        }
+        return code.append("        }\n").toString();
+    }
+
+    /**
+     * The Java condition under which the constraint is violated, empty when it cannot be violated,
+     * or null when the constraint is not supported on this type.
+     */
+    private static String condition(String annotation, Shape shape, boolean primitive, Map<String, Object> attributes) {
+        String size = switch (shape) {
+            case TEXT -> "value.length()";
+            case COLLECTION -> "value.size()";
+            case ARRAY -> "value.length";
+            default -> null;
+        };
+        String present = primitive ? "" : "value != null && ";
+        return switch (annotation) {
+            case NOT_NULL -> primitive ? "" : "value == null";
+            case NOT_BLANK -> shape == Shape.TEXT ? "value == null || value.toString().trim().isEmpty()" : null;
+            case NOT_EMPTY -> size == null ? null
+                    : shape == Shape.COLLECTION ? "value == null || value.isEmpty()" : "value == null || " + size + " == 0";
+            case MIN -> shape == Shape.INTEGRAL ? present + "value < " + attributes.get("value") + "L" : null;
+            case MAX -> shape == Shape.INTEGRAL ? present + "value > " + attributes.get("value") + "L" : null;
+            case SIZE -> size == null ? null
+                    : "value != null && (" + size + " < " + attributes.get("min") + " || "
+                    + size + " > " + attributes.get("max") + ")";
+            default -> null;
+        };
+    }
+
+    /**
+     * The constraint's attributes after the field, in name order as Spring's adapter passes them.
+     */
+    private static String arguments(String annotation, Map<String, Object> attributes) {
+        return switch (annotation) {
+            case MIN, MAX -> ", " + attributes.get("value") + "L";
+            case SIZE -> ", " + attributes.get("max") + ", " + attributes.get("min");
+            default -> "";
+        };
+    }
+
+    private static String message(String annotation, Map<String, Object> attributes) {
+        String message = (String) attributes.get("message");
+        if (message.equals("{" + annotation + ".message}")) {
+            message = DEFAULT_MESSAGES.get(annotation);
+        }
+        for (String attribute : List.of("value", "min", "max")) {
+            if (attributes.containsKey(attribute)) {
+                message = message.replace("{" + attribute + "}", String.valueOf(attributes.get(attribute)));
+            }
+        }
+        return message.contains("{") || message.contains("$") ? null : message;
+    }
+
+    private Map<String, Object> attributes(AnnotationMirror annotation) {
+        Map<String, Object> attributes = new HashMap<>();
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : processingEnv.getElementUtils().getElementValuesWithDefaults(annotation).entrySet()) {
+            attributes.put(entry.getKey().getSimpleName().toString(), entry.getValue().getValue());
+        }
+        return attributes;
+    }
+
+    private String accessor(TypeElement type, VariableElement field) {
+        String name = field.getSimpleName().toString();
+        String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+            String methodName = method.getSimpleName().toString();
+            if (method.getParameters().isEmpty() && !method.getModifiers().contains(Modifier.PRIVATE)
+                    && !method.getModifiers().contains(Modifier.STATIC)
+                    && (methodName.equals("get" + capitalized) || methodName.equals("is" + capitalized))) {
+                return methodName + "()";
+            }
+        }
+        return null;
+    }
+
+    private Shape shape(TypeMirror type) {
+        switch (type.getKind()) {
+            case INT, LONG, SHORT, BYTE:
+                return Shape.INTEGRAL;
+            case ARRAY:
+                return Shape.ARRAY;
+            case DECLARED:
+                break;
+            default:
+                return Shape.OTHER;
+        }
+        var types = processingEnv.getTypeUtils();
+        var elements = processingEnv.getElementUtils();
+        TypeMirror erased = types.erasure(type);
+        if (types.isAssignable(erased, elements.getTypeElement("java.lang.CharSequence").asType())) {
+            return Shape.TEXT;
+        }
+        if (types.isAssignable(erased, types.erasure(elements.getTypeElement("java.util.Collection").asType()))
+                || types.isAssignable(erased, types.erasure(elements.getTypeElement("java.util.Map").asType()))) {
+            return Shape.COLLECTION;
+        }
+        for (String boxed : List.of("java.lang.Integer", "java.lang.Long", "java.lang.Short", "java.lang.Byte")) {
+            if (types.isSameType(erased, elements.getTypeElement(boxed).asType())) {
+                return Shape.INTEGRAL;
+            }
+        }
+        return Shape.OTHER;
+    }
+
+    /**
+     * The type as it is written in the generated source: raw, and without the constraint
+     * annotations that {@code toString()} includes for type-use annotations.
+     */
+    private static String sourceName(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return type.getKind().name().toLowerCase(Locale.ROOT);
+        }
+        if (type.getKind() == TypeKind.ARRAY) {
+            return sourceName(((ArrayType) type).getComponentType()) + "[]";
+        }
+        if (type.getKind() == TypeKind.DECLARED) {
+            return ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+        }
+        return "Object";
+    }
+
+    private static String binarySimpleName(TypeElement type) {
+        // nested types become Outer_Inner so the generated class can live in the same package
+        Element enclosing = type.getEnclosingElement();
+        if (enclosing instanceof TypeElement outer) {
+            return binarySimpleName(outer) + "_" + type.getSimpleName();
+        }
+        return type.getSimpleName().toString();
+    }
+
+    private static String annotationName(AnnotationMirror annotation) {
+        return ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+    }
+
+    private static String simpleName(String annotation) {
+        return annotation.substring(annotation.lastIndexOf('.') + 1);
+    }
+
+    private static String literal(String value) {
+        StringBuilder literal = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> literal.append("\\\"");
+                case '\\' -> literal.append("\\\\");
+                case '\n' -> literal.append("\\n");
+                case '\r' -> literal.append("\\r");
+                case '\t' -> literal.append("\\t");
+                default -> literal.append(c);
+            }
+        }
+        return literal.append('"').toString();
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private void error(Element element, String message, AnnotationMirror annotation) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element, annotation);
+    }
+}
@@ -3,8 +3,11 @@ package com.example;
 import com.amazonaws.serverless.proxy.internal.LambdaContainerHandler;
 import com.amazonaws.serverless.proxy.internal.testutils.AwsProxyRequestBuilder;
 import com.amazonaws.serverless.proxy.internal.testutils.MockLambdaContext;
+import com.amazonaws.serverless.proxy.model.AwsProxyRequest;
 import com.amazonaws.serverless.proxy.model.AwsProxyResponse;
+import com.amazonaws.serverless.proxy.model.Headers;
 import com.amazonaws.services.lambda.runtime.Context;
+import com.example.resilience.Deadline;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -15,11 +18,17 @@ import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 @TestPropertySource(properties = {
     "spring.profiles.active=local",
@@ -87,6 +96,97 @@ public class StreamLambdaHandlerTest {
                   "Expected 404 or 500, but got: " + response.getStatusCode());
     }
 
+    @Test
+    public void getBulb_fastPathAndSpring_respondAlike() throws IOException {
+        ByteArrayOutputStream created = new ByteArrayOutputStream();
+        handle(new AwsProxyRequestBuilder("/bulbs", HttpMethod.POST)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                .body("{\"name\":\"Porch\",\"type\":\"LED\",\"wattage\":7}")
+                .buildStream(), created);
+        String id = LambdaContainerHandler.getObjectMapper()
+                .readTree(readResponse(created).getBody()).get("id").asText();
+
+        ByteArrayOutputStream fast = new ByteArrayOutputStream();
+        handle(new AwsProxyRequestBuilder("/bulbs/" + id, HttpMethod.GET)
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON)
+                .buildStream(), fast);
+        // an Accept parameter is one of the things only Spring handles
+        ByteArrayOutputStream spring = new ByteArrayOutputStream();
+        handle(new AwsProxyRequestBuilder("/bulbs/" + id, HttpMethod.GET)
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON + ";q=1")
+                .buildStream(), spring);
+
+        AwsProxyResponse fastResponse = readResponse(fast);
+        AwsProxyResponse springResponse = readResponse(spring);
+        assertEquals(200, fastResponse.getStatusCode());
+        assertEquals(springResponse.getStatusCode(), fastResponse.getStatusCode());
+        assertEquals(LambdaContainerHandler.getObjectMapper().readTree(springResponse.getBody()),
+                LambdaContainerHandler.getObjectMapper().readTree(fastResponse.getBody()));
+        assertEquals(springResponse.getMultiValueHeaders().getFirst(HttpHeaders.ETAG),
+                fastResponse.getMultiValueHeaders().getFirst(HttpHeaders.ETAG));
+        assertEquals(springResponse.getMultiValueHeaders().getFirst(HttpHeaders.LAST_MODIFIED),
+                fastResponse.getMultiValueHeaders().getFirst(HttpHeaders.LAST_MODIFIED));
+    }
+
+    @Test
+    public void compress_largeBodyAndGzipAccepted_returnsBase64Gzip() throws IOException {
+        AwsProxyRequest request = new AwsProxyRequestBuilder("/bulbs", HttpMethod.GET)
+                                            .header(HttpHeaders.ACCEPT_ENCODING, "gzip, br")
+                                            .build();
+        String body = "[" + "{\"name\":\"Bulb\",\"type\":\"LED\"},".repeat(100) + "{}]";
+        AwsProxyResponse response = new AwsProxyResponse(200, new Headers(), body);
+
+        StreamLambdaHandler.compress(request, response);
+
+        assertTrue(response.isBase64Encoded());
+        assertEquals("gzip", response.getMultiValueHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("Accept-Encoding", response.getMultiValueHeaders().getFirst(HttpHeaders.VARY));
+        byte[] compressed = Base64.getDecoder().decode(response.getBody());
+        assertTrue(compressed.length < body.length());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertEquals(body, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void compress_smallBodyOrNoAcceptEncoding_leavesBodyAlone() {
+        AwsProxyRequest gzipRequest = new AwsProxyRequestBuilder("/ping", HttpMethod.GET)
+                                            .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                                            .build();
+        AwsProxyResponse small = new AwsProxyResponse(200, new Headers(), "{\"pong\":\"Hello, World!\"}");
+        StreamLambdaHandler.compress(gzipRequest, small);
+        assertFalse(small.isBase64Encoded());
+
+        AwsProxyRequest plainRequest = new AwsProxyRequestBuilder("/bulbs", HttpMethod.GET).build();
+        String body = "x".repeat(4096);
+        AwsProxyResponse large = new AwsProxyResponse(200, new Headers(), body);
+        StreamLambdaHandler.compress(plainRequest, large);
+        assertFalse(large.isBase64Encoded());
+        assertEquals(body, large.getBody());
+        assertNull(large.getMultiValueHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    public void deadline_shouldLeaveResponseReserveOfRemainingTime() {
+        Context context = mock(Context.class);
+        when(context.getRemainingTimeInMillis()).thenReturn(10_000);
+
+        Deadline deadline = StreamLambdaHandler.deadline(context);
+
+        assertFalse(deadline.isUnbounded());
+        assertTrue(deadline.remainingMillis() <= 10_000 - StreamLambdaHandler.RESPONSE_RESERVE_MILLIS);
+        assertTrue(deadline.remainingMillis() > 9_000 - StreamLambdaHandler.RESPONSE_RESERVE_MILLIS);
+        assertTrue(StreamLambdaHandler.deadline(null).isUnbounded());
+    }
+
+    @Test
+    public void prime_runsEverySyntheticRequestThroughTheHandler() {
+        int completed = StreamLambdaHandler.prime(2);
+
+        // all of them complete, the unknown id and the invalid POST with 404 and 400
+        assertEquals(8, completed);
+    }
+
     private void handle(InputStream is, ByteArrayOutputStream os) {
         try {
             handler.handleRequest(is, os, lambdaContext);
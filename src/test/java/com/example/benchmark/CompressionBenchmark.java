@@ -0,0 +1,64 @@
+package com.example.benchmark;
+
+import com.example.http.ResponseCompression;
+import com.example.model.LightBulb;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU cost of gzipping a GET /bulbs body on the Lambda path (gzip plus base64) against the bytes
+ * it saves. The compressed size for each combination is printed once per trial; 1 is
+ * Deflater.BEST_SPEED, which StreamLambdaHandler uses, and 6 is the JDK and Tomcat default.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressionBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int bulbs;
+
+    @Param({"1", "6", "9"})
+    public int level;
+
+    private byte[] json;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Random random = new Random(42);
+        List<LightBulb> fleet = new ArrayList<>(bulbs);
+        for (long id = 1; id <= bulbs; id++) {
+            LightBulb bulb = new LightBulb();
+            bulb.setId(7_000_000_000_000L + random.nextInt(1 << 30));
+            bulb.setName("Living room lamp " + random.nextInt(5000));
+            bulb.setType(random.nextBoolean() ? "LED" : "CFL");
+            bulb.setWattage(1 + random.nextInt(100));
+            bulb.setVersion(1L + random.nextInt(20));
+            bulb.setLastModified(1_700_000_000_000L + random.nextInt(1_000_000_000));
+            fleet.add(bulb);
+        }
+        json = new ObjectMapper().writeValueAsBytes(fleet);
+        int compressed = ResponseCompression.gzip(json, level).length;
+        System.out.printf("%n%d bulbs, level %d: %d bytes -> %d gzip (%.1f%%), %d as base64%n",
+                bulbs, level, json.length, compressed, 100.0 * compressed / json.length, (compressed + 2) / 3 * 4);
+    }
+
+    @Benchmark
+    public byte[] gzip() {
+        return ResponseCompression.gzip(json, level);
+    }
+
+    @Benchmark
+    public String gzipAndBase64() {
+        return Base64.getEncoder().encodeToString(ResponseCompression.gzip(json, level));
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.benchmark;
+
+import com.amazonaws.serverless.proxy.internal.LambdaContainerHandler;
+import com.amazonaws.serverless.proxy.internal.testutils.AwsProxyRequestBuilder;
+import com.amazonaws.serverless.proxy.internal.testutils.MockLambdaContext;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.example.StreamLambdaHandler;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-invocation overhead of StreamLambdaHandler for the hot routes, from the proxy event bytes to
+ * the written proxy response, against the in-memory repository of the local profile.
+ * {@code fastPath=false} sends them through the Lambda container and Spring MVC like every other
+ * request; the flag is read when the handler starts, so each value runs in its own fork.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FastPathBenchmark {
+
+    @Param({"true", "false"})
+    public String fastPath;
+
+    @Param({"ping", "bulb"})
+    public String route;
+
+    private StreamLambdaHandler handler;
+    private final Context context = new MockLambdaContext();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+    private byte[] event;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        System.setProperty("spring.profiles.active", "local");
+        System.setProperty("lightbulb.fast-path.enabled", fastPath);
+        // one client asking as fast as it can would otherwise be answered with 429s
+        System.setProperty("lightbulb.quota.read.per-second", "1000000000");
+        handler = new StreamLambdaHandler();
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME))
+                .setLevel(ch.qos.logback.classic.Level.WARN);
+
+        String path = "/ping";
+        if ("bulb".equals(route)) {
+            handler.handleRequest(new AwsProxyRequestBuilder("/bulbs", "POST")
+                    .header("Content-Type", "application/json")
+                    .body("{\"name\":\"Porch\",\"type\":\"LED\",\"wattage\":7}")
+                    .buildStream(), out, context);
+            String body = LambdaContainerHandler.getObjectMapper().readTree(out.toByteArray()).get("body").asText();
+            path = "/bulbs/" + LambdaContainerHandler.getObjectMapper().readTree(body).get("id").asText();
+        }
+        try (InputStream stream = new AwsProxyRequestBuilder(path, "GET")
+                .header("Accept", "application/json")
+                .buildStream()) {
+            event = stream.readAllBytes();
+        }
+    }
+
+    @Benchmark
+    public int invoke() throws IOException {
+        out.reset();
+        handler.handleRequest(new ByteArrayInputStream(event), out, context);
+        return out.size();
+    }
+}
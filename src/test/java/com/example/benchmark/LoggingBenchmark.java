@@ -0,0 +1,162 @@
+package com.example.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.JsonEncoder;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import com.example.logging.SamplingTurboFilter;
+import com.example.model.LightBulb;
+import com.example.repo.LightBulbRepository;
+import com.example.services.LightBulbServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request-path cost of logging in LightBulbServiceImpl.
+ *
+ * sync-text-debug reproduces the previous setup: com.example at DEBUG, synchronous pattern encoder.
+ * async-json-sampled is the current one: INFO, sampled success paths, JSON encoded on the async appender thread.
+ * Output goes to a null stream, so the numbers exclude console I/O and favour the synchronous baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class LoggingBenchmark {
+
+    @Param({"sync-text-debug", "async-json-sampled"})
+    public String mode;
+
+    private LightBulbServiceImpl service;
+    private LightBulb update;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+
+        ch.qos.logback.classic.Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(ch.qos.logback.classic.Level.INFO);
+        if ("sync-text-debug".equals(mode)) {
+            PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+            encoder.setPattern("%d{yyyy-MM-dd HH:mm:ss} %-5level %logger{36} - %msg%n");
+            root.addAppender(nullStreamAppender(context, encoder));
+            context.getLogger("com.example").setLevel(ch.qos.logback.classic.Level.DEBUG);
+        } else {
+            SamplingTurboFilter sampling = new SamplingTurboFilter();
+            sampling.setContext(context);
+            sampling.setRules("com.example.services=20,com.example.repo=20");
+            sampling.start();
+            context.addTurboFilter(sampling);
+
+            JsonEncoder encoder = new JsonEncoder();
+            encoder.setWithSequenceNumber(false);
+            encoder.setWithNanoseconds(false);
+            encoder.setWithContext(false);
+            encoder.setWithMessage(false);
+            encoder.setWithArguments(false);
+
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.setIncludeCallerData(false);
+            async.addAppender(nullStreamAppender(context, encoder));
+            async.start();
+            root.addAppender(async);
+            context.getLogger("com.example").setLevel(ch.qos.logback.classic.Level.INFO);
+        }
+
+        InMemoryRepository repository = new InMemoryRepository();
+        LightBulb bulb = new LightBulb();
+        bulb.setId(1L);
+        bulb.setName("Philips Hue");
+        bulb.setType("LED");
+        bulb.setWattage(9);
+        repository.save(bulb);
+        service = new LightBulbServiceImpl(repository);
+
+        update = new LightBulb();
+        update.setName("Philips Hue White");
+        update.setType("LED");
+        update.setWattage(10);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ((LoggerContext) LoggerFactory.getILoggerFactory()).stop();
+    }
+
+    @Benchmark
+    public LightBulb getBulbById() {
+        return service.getBulbById(1L);
+    }
+
+    @Benchmark
+    public LightBulb updateBulb() {
+        return service.updateBulb(1L, update);
+    }
+
+    private static Appender<ILoggingEvent> nullStreamAppender(LoggerContext context, Encoder<ILoggingEvent> encoder) {
+        encoder.setContext(context);
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+        return appender;
+    }
+
+    static class InMemoryRepository implements LightBulbRepository {
+        private final Map<Long, LightBulb> bulbs = new ConcurrentHashMap<>();
+
+        @Override
+        public List<LightBulb> findAll() {
+            return new ArrayList<>(bulbs.values());
+        }
+
+        @Override
+        public Optional<LightBulb> findById(Long id) {
+            LightBulb stored = bulbs.get(id);
+            if (stored == null) {
+                return Optional.empty();
+            }
+            LightBulb copy = new LightBulb();
+            copy.setId(stored.getId());
+            copy.setName(stored.getName());
+            copy.setType(stored.getType());
+            copy.setWattage(stored.getWattage());
+            copy.setVersion(stored.getVersion());
+            return Optional.of(copy);
+        }
+
+        @Override
+        public LightBulb save(LightBulb bulb) {
+            bulb.setVersion(bulb.getVersion() == null ? 1L : bulb.getVersion() + 1);
+            bulbs.put(bulb.getId(), bulb);
+            return bulb;
+        }
+
+        @Override
+        public void deleteById(Long id) {
+            bulbs.remove(id);
+        }
+    }
+}
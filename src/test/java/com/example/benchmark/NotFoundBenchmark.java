@@ -0,0 +1,90 @@
+package com.example.benchmark;
+
+import com.example.exception.GlobalExceptionHandler;
+import com.example.exception.ResourceNotFoundException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of answering GET /bulbs/{id} for an id that does not exist, from throwing the
+ * exception to the serialized body. {@code formerNotFound} is the path before error bodies were
+ * pre-rendered: an exception with a stack trace and a String.format message, a HashMap with a
+ * LocalDateTime, and Jackson. {@code depth} is how many frames sit below the throw; a request through
+ * Spring MVC or the Lambda container is well over a hundred.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotFoundBenchmark {
+
+    @Param({"20", "150"})
+    public int depth;
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+    private final ObjectMapper mapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private WebRequest request;
+    private long id;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        request = new ServletWebRequest(new MockHttpServletRequest("GET", "/bulbs/424242"));
+    }
+
+    @Benchmark
+    public byte[] notFound() {
+        try {
+            return lookup(depth, ++id, false);
+        } catch (ResourceNotFoundException e) {
+            return handler.handleResourceNotFound(e, request).getBody();
+        }
+    }
+
+    @Benchmark
+    public byte[] formerNotFound() throws Exception {
+        try {
+            return lookup(depth, ++id, true);
+        } catch (FormerNotFoundException e) {
+            Map<String, Object> errorDetails = new HashMap<>();
+            errorDetails.put("timestamp", LocalDateTime.now());
+            errorDetails.put("status", HttpStatus.NOT_FOUND.value());
+            errorDetails.put("error", HttpStatus.NOT_FOUND.getReasonPhrase());
+            errorDetails.put("message", e.getMessage());
+            String path = request.getDescription(false);
+            errorDetails.put("path", path.startsWith("uri=") ? path.substring(4) : path);
+            ResponseEntity<Map<String, Object>> response = new ResponseEntity<>(errorDetails, HttpStatus.NOT_FOUND);
+            return mapper.writeValueAsBytes(response.getBody());
+        }
+    }
+
+    private static byte[] lookup(int depth, long id, boolean former) {
+        if (depth > 0) {
+            return lookup(depth - 1, id, former);
+        }
+        throw former ? new FormerNotFoundException("LightBulb", "id", id)
+                : new ResourceNotFoundException("LightBulb", "id", id);
+    }
+
+    private static final class FormerNotFoundException extends RuntimeException {
+        FormerNotFoundException(String resourceName, String fieldName, Object fieldValue) {
+            super(String.format("%s not found with %s : '%s'", resourceName, fieldName, fieldValue));
+        }
+    }
+}
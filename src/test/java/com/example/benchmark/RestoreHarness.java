@@ -0,0 +1,67 @@
+package com.example.benchmark;
+
+import com.amazonaws.serverless.proxy.internal.testutils.AwsProxyRequestBuilder;
+import com.amazonaws.serverless.proxy.internal.testutils.MockLambdaContext;
+import com.example.StreamLambdaHandler;
+import org.crac.Core;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Measures how long StreamLambdaHandler takes to answer its first request, after a cold start and
+ * after a restore from a checkpoint taken the way SnapStart takes it (priming hooks included).
+ * Needs a JDK with CRaC, e.g. Azul Zulu with CRaC, and the local profile so no AWS access is needed:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * CP=target/classes:target/test-classes:$(cat target/cp.txt)
+ * java -Dspring.profiles.active=local -cp $CP com.example.benchmark.RestoreHarness cold
+ * java -Dspring.profiles.active=local -XX:CRaCCheckpointTo=target/crac -cp $CP com.example.benchmark.RestoreHarness checkpoint
+ * date +%s%3N > target/crac-launch; java -XX:CRaCRestoreFrom=target/crac
+ * </pre>
+ * The restored process reads the launch time from {@code target/crac-launch}, since a restore takes
+ * no new arguments, and reports from there to the first response.
+ */
+public class RestoreHarness {
+
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : "cold";
+        if (mode.equals("cold")) {
+            long started = ManagementFactory.getRuntimeMXBean().getStartTime();
+            long answered = firstResponse();
+            System.out.printf("cold start: JVM start to first response %d ms%n", answered - started);
+            return;
+        }
+
+        // static initialization starts Spring before the checkpoint
+        new StreamLambdaHandler();
+        Core.checkpointRestore();
+
+        // from here on this is the restored process
+        long restored = System.currentTimeMillis();
+        long answered = firstResponse();
+        Path launchFile = Path.of(args.length > 1 ? args[1] : "target/crac-launch");
+        if (Files.exists(launchFile)) {
+            long launched = Long.parseLong(Files.readString(launchFile).trim());
+            System.out.printf("restore: launch to first response %d ms (restore hooks done after %d ms)%n",
+                    answered - launched, restored - launched);
+        } else {
+            System.out.printf("restore: restore hooks to first response %d ms%n", answered - restored);
+        }
+    }
+
+    private static long firstResponse() throws Exception {
+        StreamLambdaHandler handler = new StreamLambdaHandler();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        handler.handleRequest(new AwsProxyRequestBuilder("/bulbs/1", "GET")
+                .header("Accept", "application/json")
+                .buildStream(), out, new MockLambdaContext());
+        long answered = System.currentTimeMillis();
+        if (out.size() == 0) {
+            throw new IllegalStateException("No response written");
+        }
+        return answered;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.benchmark;
+
+import com.example.events.LightBulbChangeFeed;
+import com.example.model.LightBulb;
+import com.example.repo.LightBulbRepository;
+import com.example.services.BulbSearchIndex;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /bulbs/search latency over a large fleet. "hue" and "ph" match a sixth of all bulbs and are
+ * the worst case; "hue 4999" is a typical selective query.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SearchBenchmark {
+
+    private static final String[] BRANDS = {
+            "Philips Hue", "IKEA Tradfri", "Sylvania", "GE Cync", "Wiz", "Nanoleaf Essentials"};
+
+    @Param({"300000"})
+    public int bulbs;
+
+    @Param({"hue", "ph", "hue 4999", "tradfri model 1"})
+    public String query;
+
+    private BulbSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME))
+                .setLevel(ch.qos.logback.classic.Level.WARN);
+        Random random = new Random(42);
+        List<LightBulb> fleet = new ArrayList<>(bulbs);
+        for (long id = 1; id <= bulbs; id++) {
+            LightBulb bulb = new LightBulb();
+            bulb.setId(id);
+            bulb.setName(BRANDS[random.nextInt(BRANDS.length)] + " model " + random.nextInt(5000));
+            bulb.setType("LED");
+            bulb.setWattage(1 + random.nextInt(100));
+            fleet.add(bulb);
+        }
+        index = new BulbSearchIndex(new FixedRepository(fleet), new LightBulbChangeFeed(), Runnable::run, 0);
+        index.rebuild();
+    }
+
+    @Benchmark
+    public List<LightBulb> search() {
+        return index.search(query, 20);
+    }
+
+    static class FixedRepository implements LightBulbRepository {
+        private final List<LightBulb> bulbs;
+
+        FixedRepository(List<LightBulb> bulbs) {
+            this.bulbs = bulbs;
+        }
+
+        @Override
+        public List<LightBulb> findAll() {
+            return bulbs;
+        }
+
+        @Override
+        public Optional<LightBulb> findById(Long id) {
+            return Optional.empty();
+        }
+
+        @Override
+        public LightBulb save(LightBulb bulb) {
+            return bulb;
+        }
+
+        @Override
+        public void deleteById(Long id) {
+        }
+    }
+}
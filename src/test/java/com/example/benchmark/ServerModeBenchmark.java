@@ -0,0 +1,119 @@
+package com.example.benchmark;
+
+import com.example.model.LightBulb;
+import com.example.repo.LightBulbRepository;
+import com.example.services.AsyncLightBulbServiceImpl;
+import com.example.services.LightBulbServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server-mode concurrency: one operation is a burst of {@code concurrency} simultaneous
+ * GET /bulbs/{id} service calls against a repository that blocks for {@code backendLatencyMillis},
+ * the way DynamoDB/S3 calls do.
+ *
+ * platform mirrors Tomcat's default pool of 200 threads; virtual is spring.threads.virtual.enabled=true.
+ * Requests per second = score * concurrency. The fork traces pinned virtual threads, so any
+ * synchronized block left around blocking I/O shows up in the output.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Djdk.tracePinnedThreads=short")
+public class ServerModeBenchmark {
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    @Param({"2000"})
+    public int concurrency;
+
+    @Param({"10"})
+    public long backendLatencyMillis;
+
+    private ExecutorService executor;
+    private AsyncLightBulbServiceImpl service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME))
+                .setLevel(ch.qos.logback.classic.Level.WARN);
+        executor = "virtual".equals(mode)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(200);
+        service = new AsyncLightBulbServiceImpl(
+                new LightBulbServiceImpl(new SlowRepository(backendLatencyMillis)), executor);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public int burst() {
+        List<CompletableFuture<LightBulb>> requests = new ArrayList<>(concurrency);
+        for (int i = 1; i <= concurrency; i++) {
+            // distinct ids, so single-flight does not coalesce the burst
+            requests.add(service.getBulbById((long) i));
+        }
+        CompletableFuture.allOf(requests.toArray(new CompletableFuture[0])).join();
+        return requests.size();
+    }
+
+    static class SlowRepository implements LightBulbRepository {
+        private final long latencyMillis;
+
+        SlowRepository(long latencyMillis) {
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public List<LightBulb> findAll() {
+            pause();
+            return new ArrayList<>();
+        }
+
+        @Override
+        public Optional<LightBulb> findById(Long id) {
+            pause();
+            LightBulb bulb = new LightBulb();
+            bulb.setId(id);
+            bulb.setName("Bulb" + id);
+            bulb.setType("LED");
+            bulb.setWattage(10);
+            return Optional.of(bulb);
+        }
+
+        @Override
+        public LightBulb save(LightBulb bulb) {
+            pause();
+            return bulb;
+        }
+
+        @Override
+        public void deleteById(Long id) {
+            pause();
+        }
+
+        private void pause() {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.benchmark;
+
+import com.example.model.LightBulb;
+import com.example.validation.GeneratedValidator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import jakarta.validation.Validation;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of validating a POST /bulbs body the way Spring MVC does it, into a
+ * BeanPropertyBindingResult: Hibernate Validator behind Spring's adapter, as before, against the
+ * generated validator. {@code valid} false makes every constraint fail. The one-off bootstrap of
+ * Hibernate Validator, which the generated validator avoids at cold start, is {@code bootstrap}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationBenchmark {
+
+    @Param({"true", "false"})
+    public boolean valid;
+
+    private final Validator generated = new GeneratedValidator();
+    private Validator hibernate;
+    private LightBulb bulb;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        hibernate = new SpringValidatorAdapter(Validation.buildDefaultValidatorFactory().getValidator());
+        bulb = new LightBulb();
+        bulb.setName(valid ? "Desk lamp" : " ");
+        bulb.setType(valid ? "LED" : "");
+        bulb.setWattage(valid ? 9 : 0);
+    }
+
+    @Benchmark
+    public int generated() {
+        BeanPropertyBindingResult errors = new BeanPropertyBindingResult(bulb, "lightBulb");
+        generated.validate(bulb, errors);
+        return errors.getErrorCount();
+    }
+
+    @Benchmark
+    public int hibernateValidator() {
+        BeanPropertyBindingResult errors = new BeanPropertyBindingResult(bulb, "lightBulb");
+        hibernate.validate(bulb, errors);
+        return errors.getErrorCount();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(10)
+    public Object bootstrap() {
+        return Validation.buildDefaultValidatorFactory().getValidator();
+    }
+}
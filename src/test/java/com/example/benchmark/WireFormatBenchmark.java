@@ -0,0 +1,84 @@
+package com.example.benchmark;
+
+import com.example.http.LightBulbProtobufHttpMessageConverter;
+import com.example.model.LightBulb;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode cost of a GET /bulbs body in each negotiated representation, through the
+ * same message converters the controller uses. The payload size of each format is printed once
+ * per trial.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private static final Type BULB_LIST = new ParameterizedTypeReference<List<LightBulb>>() {}.getType();
+
+    @Param({"json", "cbor", "smile", "protobuf"})
+    public String format;
+
+    @Param({"1", "100", "1000"})
+    public int bulbs;
+
+    private GenericHttpMessageConverter<Object> converter;
+    private List<LightBulb> fleet;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        converter = switch (format) {
+            case "json" -> new MappingJackson2HttpMessageConverter(new ObjectMapper());
+            case "cbor" -> new MappingJackson2CborHttpMessageConverter(new CBORMapper());
+            case "smile" -> new MappingJackson2SmileHttpMessageConverter(new SmileMapper());
+            case "protobuf" -> new LightBulbProtobufHttpMessageConverter();
+            default -> throw new IllegalArgumentException(format);
+        };
+        Random random = new Random(42);
+        fleet = new ArrayList<>(bulbs);
+        for (long id = 1; id <= bulbs; id++) {
+            LightBulb bulb = new LightBulb();
+            bulb.setId(7_000_000_000_000L + random.nextInt(1 << 30));
+            bulb.setName("Living room lamp " + random.nextInt(5000));
+            bulb.setType(random.nextBoolean() ? "LED" : "CFL");
+            bulb.setWattage(1 + random.nextInt(100));
+            bulb.setVersion(1L + random.nextInt(20));
+            bulb.setLastModified(1_700_000_000_000L + random.nextInt(1_000_000_000));
+            fleet.add(bulb);
+        }
+        encoded = encode();
+        System.out.printf("%n%s, %d bulbs: %d bytes%n", format, bulbs, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(fleet, BULB_LIST, null, output);
+        return output.getBodyAsBytes();
+    }
+
+    @Benchmark
+    public Object decode() throws Exception {
+        return converter.read(BULB_LIST, null, new MockHttpInputMessage(encoded));
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.config;
+
+import com.example.model.LightBulb;
+import com.example.model.LightBulbPatch;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NativeImageHintsTest {
+
+    @Test
+    @DisplayName("Verifies the model is bound by reflection and the protobuf schema is bundled in the native image")
+    void registerHints_shouldCoverTheModelAndTheProtobufSchema() throws Exception {
+        // Arrange
+        RuntimeHints hints = new RuntimeHints();
+
+        // Act
+        new NativeImageHints().registerHints(hints, getClass().getClassLoader());
+
+        // Assert
+        assertTrue(RuntimeHintsPredicates.reflection().onType(LightBulb.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(LightBulb.class.getMethod("setWattage", int.class)).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(LightBulbPatch.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("lightbulb.proto").test(hints));
+        assertNotNull(getClass().getResource("/lightbulb.proto"));
+    }
+}
@@ -3,6 +3,7 @@ package com.example.config;
 import com.example.repo.LightBulbRepository;
 import com.example.repo.LocalLightBulbRepository;
 import com.example.repo.S3LightBulbRepository;
+import com.example.repo.SnowflakeIdGenerator;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -25,7 +26,7 @@ class RepoConfigTest {
         RepoConfig config = new RepoConfig();
 
         // Act
-        LightBulbRepository repository = config.localRepo();
+        LightBulbRepository repository = config.localRepo(new SnowflakeIdGenerator(1));
 
         // Assert
         assertNotNull(repository);
@@ -46,7 +47,7 @@ class RepoConfigTest {
             RepoConfig config = new RepoConfig();
 
             // Act & Assert
-            IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, config::s3Repo);
+            IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, () -> config.s3Repo(new SnowflakeIdGenerator(1)));
             assertEquals("BULBS_BUCKET environment variable must be set", thrown.getMessage());
         }
     }
@@ -64,7 +65,7 @@ class RepoConfigTest {
             RepoConfig config = new RepoConfig();
 
             // Act & Assert
-            RuntimeException thrown = assertThrows(RuntimeException.class, config::s3Repo);
+            RuntimeException thrown = assertThrows(RuntimeException.class, () -> config.s3Repo(new SnowflakeIdGenerator(1)));
             assertEquals("S3 init failed", thrown.getMessage());
         }
     }
@@ -0,0 +1,111 @@
+package com.example.config;
+
+import com.example.events.DynamoDbStreamsChangeSource;
+import com.example.repo.LeasedIdGenerator;
+import com.example.repo.RestorableHttpClient;
+import com.example.repo.SnowflakeIdGenerator;
+import com.example.services.BulbSearchIndex;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SnapStartConfigTest {
+
+    @Test
+    @DisplayName("Verifies the first start leaves the state alone")
+    void start_onContextRefresh_shouldNotReset() {
+        // Arrange
+        SnowflakeIdGenerator idGenerator = spy(new SnowflakeIdGenerator(5));
+        RestorableHttpClient httpClient = mock(RestorableHttpClient.class);
+        SnapStartConfig.RestoreLifecycle lifecycle = new SnapStartConfig.RestoreLifecycle(idGenerator, httpClient, "", null, null);
+
+        // Act
+        lifecycle.start();
+
+        // Assert
+        assertTrue(lifecycle.isRunning());
+        verify(idGenerator, never()).reset(anyLong());
+        verifyNoInteractions(httpClient);
+    }
+
+    @Test
+    @DisplayName("Verifies a checkpoint drops connections and a restore resets the id state")
+    void stopAndStart_aroundCheckpoint_shouldResetConnectionsAndIds() {
+        // Arrange
+        SnowflakeIdGenerator idGenerator = spy(new SnowflakeIdGenerator(5));
+        RestorableHttpClient httpClient = mock(RestorableHttpClient.class);
+        SnapStartConfig.RestoreLifecycle lifecycle = new SnapStartConfig.RestoreLifecycle(idGenerator, httpClient, "9", null, null);
+        lifecycle.start();
+
+        // Act
+        lifecycle.stop();
+        boolean runningInSnapshot = lifecycle.isRunning();
+        lifecycle.start();
+
+        // Assert
+        assertFalse(runningInSnapshot);
+        verify(httpClient).reset();
+        verify(idGenerator).reset(9L);
+        assertEquals(9, idGenerator.getWorkerId());
+        assertTrue(lifecycle.isRunning());
+    }
+
+    @Test
+    @DisplayName("Verifies a restore drops a leased worker id so the next id leases its own")
+    void stopAndStart_withLeasedIds_shouldResetTheLease() {
+        // Arrange
+        LeasedIdGenerator idGenerator = mock(LeasedIdGenerator.class);
+        SnapStartConfig.RestoreLifecycle lifecycle = new SnapStartConfig.RestoreLifecycle(idGenerator, null, "", null, null);
+        lifecycle.start();
+
+        // Act
+        lifecycle.stop();
+        lifecycle.start();
+
+        // Assert
+        verify(idGenerator).reset();
+    }
+
+    @Test
+    @DisplayName("Verifies a restore rebuilds the search index left over from the snapshot")
+    void stopAndStart_withSearchIndex_shouldRebuildIt() {
+        // Arrange
+        BulbSearchIndex searchIndex = mock(BulbSearchIndex.class);
+        SnapStartConfig.RestoreLifecycle lifecycle = new SnapStartConfig.RestoreLifecycle(
+                new SnowflakeIdGenerator(5), null, "", searchIndex, null);
+        lifecycle.start();
+        verifyNoInteractions(searchIndex);
+
+        // Act
+        lifecycle.stop();
+        lifecycle.start();
+
+        // Assert
+        verify(searchIndex).rebuildInBackground();
+    }
+
+    @Test
+    @DisplayName("Verifies the stream poller stops before connections are dropped and starts again after a restore")
+    void stopAndStart_withChangeSource_shouldStopPollingAroundCheckpoint() {
+        // Arrange
+        DynamoDbStreamsChangeSource changeSource = mock(DynamoDbStreamsChangeSource.class);
+        RestorableHttpClient httpClient = mock(RestorableHttpClient.class);
+        SnapStartConfig.RestoreLifecycle lifecycle = new SnapStartConfig.RestoreLifecycle(
+                new SnowflakeIdGenerator(5), httpClient, "", null, changeSource);
+        lifecycle.start();
+        verifyNoInteractions(changeSource);
+
+        // Act
+        lifecycle.stop();
+        lifecycle.start();
+
+        // Assert
+        InOrder order = inOrder(changeSource, httpClient);
+        order.verify(changeSource).close();
+        order.verify(httpClient).reset();
+        order.verify(changeSource).start();
+    }
+}
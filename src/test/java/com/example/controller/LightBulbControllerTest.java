@@ -2,25 +2,37 @@ package com.example.controller;
 
 import com.example.exception.GlobalExceptionHandler;
 import com.example.exception.ResourceNotFoundException;
+import com.example.exception.VersionConflictException;
 import com.example.model.LightBulb;
+import com.example.model.LightBulbPatch;
+import com.example.services.AsyncLightBulbServiceImpl;
 import com.example.services.LightBulbService;
+import com.example.validation.GeneratedValidator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -33,16 +45,16 @@ class LightBulbControllerTest {
     @Mock
     private LightBulbService service;
 
-    @InjectMocks
-    private LightBulbController controller;
-
     private MockMvc mockMvc;
     private ObjectMapper objectMapper;
 
     @BeforeEach
     void setUp() {
+        // a direct executor completes the futures before the handler returns
+        LightBulbController controller = new LightBulbController(new AsyncLightBulbServiceImpl(service, Runnable::run));
         mockMvc = MockMvcBuilders.standaloneSetup(controller)
                 .setControllerAdvice(new GlobalExceptionHandler())
+                .setValidator(new GeneratedValidator())
                 .build();
         objectMapper = new ObjectMapper();
     }
@@ -60,7 +72,7 @@ class LightBulbControllerTest {
         when(service.addBulb(any(LightBulb.class))).thenReturn(bulb);
 
         // Act & Assert
-        mockMvc.perform(post("/bulbs")
+        perform(post("/bulbs")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(bulb)))
                 .andExpect(status().isCreated())
@@ -73,6 +85,30 @@ class LightBulbControllerTest {
         verify(service).addBulb(any(LightBulb.class));
     }
     
+    @Test
+    @DisplayName("Verifies addBulb passes the Idempotency-Key header to the service")
+    void addBulb_whenIdempotencyKeyProvided_shouldUseKeyedAdd() throws Exception {
+        // Arrange
+        LightBulb bulb = new LightBulb();
+        bulb.setId(1L);
+        bulb.setName("TestBulb");
+        bulb.setType("LED");
+        bulb.setWattage(10);
+
+        when(service.addBulb(any(LightBulb.class), eq("key-1"))).thenReturn(bulb);
+
+        // Act & Assert
+        perform(post("/bulbs")
+                .header("Idempotency-Key", "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(bulb)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(1));
+
+        verify(service).addBulb(any(LightBulb.class), eq("key-1"));
+        verify(service, never()).addBulb(any(LightBulb.class));
+    }
+
     @Test
     @DisplayName("Verifies addBulb returns bad request when invalid input is provided")
     void addBulb_whenInvalidInput_shouldReturnBadRequest() throws Exception {
@@ -80,7 +116,7 @@ class LightBulbControllerTest {
         LightBulb bulb = new LightBulb(); // Missing required fields
         
         // Act & Assert
-        mockMvc.perform(post("/bulbs")
+        perform(post("/bulbs")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(bulb)))
                 .andExpect(status().isBadRequest())
@@ -113,7 +149,7 @@ class LightBulbControllerTest {
         when(service.getAllBulbs()).thenReturn(Arrays.asList(bulb1, bulb2));
 
         // Act & Assert
-        mockMvc.perform(get("/bulbs"))
+        perform(get("/bulbs"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(2)))
                 .andExpect(jsonPath("$[0].id").value(1))
@@ -131,7 +167,7 @@ class LightBulbControllerTest {
         when(service.getAllBulbs()).thenReturn(Collections.emptyList());
         
         // Act & Assert
-        mockMvc.perform(get("/bulbs"))
+        perform(get("/bulbs"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(0)));
                 
@@ -151,7 +187,7 @@ class LightBulbControllerTest {
         when(service.getBulbById(1L)).thenReturn(bulb);
 
         // Act & Assert
-        mockMvc.perform(get("/bulbs/1"))
+        perform(get("/bulbs/1"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.name").value("Test Bulb"))
@@ -168,7 +204,7 @@ class LightBulbControllerTest {
         when(service.getBulbById(999L)).thenThrow(new ResourceNotFoundException("LightBulb", "id", 999L));
         
         // Act & Assert
-        mockMvc.perform(get("/bulbs/999"))
+        perform(get("/bulbs/999"))
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.status").value(404))
                 .andExpect(jsonPath("$.message").value(containsString("not found")));
@@ -180,7 +216,7 @@ class LightBulbControllerTest {
     @DisplayName("Verifies getBulbById returns bad request when the id is invalid")
     void getBulbById_whenInvalidIdFormat_shouldReturnBadRequest() throws Exception {
         // Act & Assert
-        mockMvc.perform(get("/bulbs/abc"))
+        perform(get("/bulbs/abc"))
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.status").value(400))
                 .andExpect(jsonPath("$.error").value("Bad Request"))
@@ -202,7 +238,7 @@ class LightBulbControllerTest {
         when(service.updateBulb(eq(1L), any(LightBulb.class))).thenReturn(updatedBulb);
 
         // Act & Assert
-        mockMvc.perform(put("/bulbs/1")
+        perform(put("/bulbs/1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(updatedBulb)))
                 .andExpect(status().isOk())
@@ -225,7 +261,7 @@ class LightBulbControllerTest {
         bulb.setWattage(10);
         
         // Act & Assert
-        mockMvc.perform(put("/bulbs/1")
+        perform(put("/bulbs/1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(bulb)))
                 .andExpect(status().isBadRequest())
@@ -242,7 +278,7 @@ class LightBulbControllerTest {
         LightBulb bulb = new LightBulb(); // Missing required fields
         
         // Act & Assert
-        mockMvc.perform(put("/bulbs/1")
+        perform(put("/bulbs/1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(bulb)))
                 .andExpect(status().isBadRequest())
@@ -260,7 +296,7 @@ class LightBulbControllerTest {
     @DisplayName("Verifies deleteBulb returns no content when the bulb exists")
     void deleteBulb_whenBulbExists_shouldReturnNoContent() throws Exception {
         // Act & Assert
-        mockMvc.perform(delete("/bulbs/1"))
+        perform(delete("/bulbs/1"))
                 .andExpect(status().isNoContent())
                 .andExpect(content().string(""));
                 
@@ -275,7 +311,7 @@ class LightBulbControllerTest {
             .when(service).deleteBulb(999L);
         
         // Act & Assert
-        mockMvc.perform(delete("/bulbs/999"))
+        perform(delete("/bulbs/999"))
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.status").value(404));
                 
@@ -286,7 +322,7 @@ class LightBulbControllerTest {
     @DisplayName("Verifies deleteBulb returns bad request when the id is invalid")
     void deleteBulb_whenInvalidIdFormat_shouldReturnBadRequest() throws Exception {
         // Act & Assert
-        mockMvc.perform(delete("/bulbs/abc"))
+        perform(delete("/bulbs/abc"))
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.status").value(400))
                 .andExpect(jsonPath("$.error").value("Bad Request"))
@@ -294,4 +330,314 @@ class LightBulbControllerTest {
                 
         verify(service, never()).deleteBulb(any());
     }
+
+    @Test
+    @DisplayName("Verifies getBulbsByIds returns the bulbs that exist")
+    void getBulbsByIds_whenSomeIdsMissing_shouldReturnExistingBulbs() throws Exception {
+        // Arrange
+        LightBulb bulb = new LightBulb();
+        bulb.setId(1L);
+        bulb.setName("Bulb1");
+        bulb.setType("LED");
+        bulb.setWattage(10);
+
+        when(service.getBulbById(1L)).thenReturn(bulb);
+        when(service.getBulbById(2L)).thenThrow(new ResourceNotFoundException("LightBulb", "id", 2L));
+
+        // Act & Assert
+        perform(get("/bulbs").param("ids", "1,2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(1));
+
+        verify(service, never()).getAllBulbs();
+    }
+
+    @Test
+    @DisplayName("Verifies getTopBulbs passes order and k to the service")
+    void getTopBulbs_whenValidParams_shouldReturnTopBulbs() throws Exception {
+        // Arrange
+        LightBulb bulb = new LightBulb();
+        bulb.setId(7L);
+        bulb.setName("Floodlight");
+        bulb.setType("LED");
+        bulb.setWattage(150);
+
+        when(service.getTopBulbs("wattage", 1)).thenReturn(Collections.singletonList(bulb));
+
+        // Act & Assert
+        perform(get("/bulbs/top").param("by", "wattage").param("k", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(7));
+    }
+
+    @Test
+    @DisplayName("Verifies getTopBulbs returns bad request when k is out of range")
+    void getTopBulbs_whenKTooLarge_shouldReturnBadRequest() throws Exception {
+        // Act & Assert
+        perform(get("/bulbs/top").param("k", "100000"))
+                .andExpect(status().isBadRequest());
+
+        verify(service, never()).getTopBulbs(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Verifies getBulbById returns 304 without a body when the ETag still matches")
+    void getBulbById_whenIfNoneMatchIsCurrent_shouldReturnNotModified() throws Exception {
+        // Arrange
+        LightBulb bulb = new LightBulb();
+        bulb.setId(1L);
+        bulb.setName("Test Bulb");
+        bulb.setType("LED");
+        bulb.setWattage(10);
+        bulb.setVersion(4L);
+        bulb.setLastModified(1_700_000_000_000L);
+
+        when(service.getBulbById(1L)).thenReturn(bulb);
+
+        // Act & Assert
+        perform(get("/bulbs/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"4\""))
+                .andExpect(header().exists("Last-Modified"));
+        perform(get("/bulbs/1").header("If-None-Match", "W/\"4\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("Verifies getAllBulbs returns 304 until the collection changes")
+    void getAllBulbs_whenIfNoneMatchIsCurrent_shouldReturnNotModified() throws Exception {
+        // Arrange
+        LightBulb bulb = new LightBulb();
+        bulb.setId(1L);
+        bulb.setName("Bulb1");
+        bulb.setType("LED");
+        bulb.setWattage(10);
+        bulb.setVersion(1L);
+
+        when(service.getAllBulbs()).thenReturn(Collections.singletonList(bulb));
+        String etag = perform(get("/bulbs")).andReturn().getResponse().getHeader("ETag");
+
+        // Act & Assert
+        perform(get("/bulbs").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        bulb.setVersion(2L);
+        perform(get("/bulbs").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    @DisplayName("Verifies updateBulb passes the If-Match version to the service")
+    void updateBulb_whenIfMatchProvided_shouldUpdateConditionally() throws Exception {
+        // Arrange
+        LightBulb bulb = new LightBulb();
+        bulb.setId(1L);
+        bulb.setName("Updated Bulb");
+        bulb.setType("CFL");
+        bulb.setWattage(15);
+
+        LightBulb saved = new LightBulb();
+        saved.setId(1L);
+        saved.setName("Updated Bulb");
+        saved.setType("CFL");
+        saved.setWattage(15);
+        saved.setVersion(4L);
+
+        when(service.updateBulb(eq(1L), any(LightBulb.class), eq(3L))).thenReturn(saved);
+
+        // Act & Assert
+        perform(put("/bulbs/1")
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(bulb)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"4\""));
+    }
+
+    @Test
+    @DisplayName("Verifies deleteBulb returns precondition failed when the If-Match version is stale")
+    void deleteBulb_whenIfMatchIsStale_shouldReturnPreconditionFailed() throws Exception {
+        // Arrange
+        doThrow(new VersionConflictException("LightBulb 1 is at version 4, expected 3"))
+            .when(service).deleteBulb(1L, 3L);
+
+        // Act & Assert
+        perform(delete("/bulbs/1").header("If-Match", "W/\"3\""))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.status").value(412));
+    }
+
+    @Test
+    @DisplayName("Verifies getAllBulbs streams one JSON bulb per line when NDJSON is accepted")
+    void getAllBulbs_whenNdjsonAccepted_shouldStreamLines() throws Exception {
+        // Arrange
+        LightBulb bulb1 = new LightBulb();
+        bulb1.setId(1L);
+        bulb1.setName("Bulb1");
+        LightBulb bulb2 = new LightBulb();
+        bulb2.setId(2L);
+        bulb2.setName("Bulb2");
+        doAnswer(invocation -> {
+            Consumer<List<LightBulb>> pages = invocation.getArgument(0);
+            pages.accept(List.of(bulb1));
+            pages.accept(List.of(bulb2));
+            return null;
+        }).when(service).forEachPage(any());
+
+        // Act
+        String body = perform(get("/bulbs").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        // Assert
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Bulb1", objectMapper.readValue(lines[0], LightBulb.class).getName());
+        assertEquals("Bulb2", objectMapper.readValue(lines[1], LightBulb.class).getName());
+        verify(service, never()).getAllBulbs();
+    }
+
+    @Test
+    @DisplayName("Verifies getAllBulbs with stream=true writes a JSON array page by page")
+    void getAllBulbs_whenStreamRequested_shouldWriteJsonArray() throws Exception {
+        // Arrange
+        LightBulb bulb = new LightBulb();
+        bulb.setId(1L);
+        bulb.setName("Bulb1");
+        doAnswer(invocation -> {
+            Consumer<List<LightBulb>> pages = invocation.getArgument(0);
+            pages.accept(List.of(bulb));
+            pages.accept(List.of());
+            return null;
+        }).when(service).forEachPage(any());
+
+        // Act & Assert
+        perform(get("/bulbs").param("stream", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name").value("Bulb1"));
+    }
+
+    @Test
+    @DisplayName("Verifies ids together with stream=true looks up the named bulbs instead of streaming")
+    void getBulbsByIds_whenStreamAlsoRequested_shouldReturnNamedBulbs() throws Exception {
+        // Arrange
+        LightBulb bulb = new LightBulb();
+        bulb.setId(1L);
+        bulb.setName("Bulb1");
+        bulb.setType("LED");
+        bulb.setWattage(10);
+
+        when(service.getBulbById(1L)).thenReturn(bulb);
+        when(service.getBulbById(2L)).thenThrow(new ResourceNotFoundException("LightBulb", "id", 2L));
+
+        // Act & Assert
+        perform(get("/bulbs").param("ids", "1,2").param("stream", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(1));
+
+        verify(service, never()).forEachPage(any());
+    }
+
+    @Test
+    @DisplayName("Verifies getBulbById answers in CBOR when the client accepts it")
+    void getBulbById_whenCborAccepted_shouldReturnCbor() throws Exception {
+        // Arrange
+        LightBulb bulb = new LightBulb();
+        bulb.setId(1L);
+        bulb.setName("Test Bulb");
+        bulb.setType("LED");
+        bulb.setWattage(10);
+
+        when(service.getBulbById(1L)).thenReturn(bulb);
+
+        // Act
+        byte[] body = perform(get("/bulbs/1").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert
+        assertEquals("Test Bulb", new CBORMapper().readValue(body, LightBulb.class).getName());
+    }
+
+    @Test
+    @DisplayName("Verifies addBulb accepts a Smile request body and still answers in JSON by default")
+    void addBulb_whenSmileBody_shouldCreateBulb() throws Exception {
+        // Arrange
+        LightBulb bulb = new LightBulb();
+        bulb.setName("Smile Bulb");
+        bulb.setType("LED");
+        bulb.setWattage(12);
+
+        LightBulb saved = new LightBulb();
+        saved.setId(1L);
+        saved.setName("Smile Bulb");
+        saved.setType("LED");
+        saved.setWattage(12);
+
+        when(service.addBulb(any(LightBulb.class))).thenReturn(saved);
+
+        // Act & Assert
+        perform(post("/bulbs")
+                .contentType(new MediaType("application", "x-jackson-smile"))
+                .content(new SmileMapper().writeValueAsBytes(bulb)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.name").value("Smile Bulb"));
+    }
+
+    @Test
+    @DisplayName("Verifies patchBulb passes only the fields in the merge patch and the If-Match version")
+    void patchBulb_whenMergePatch_shouldPatchGivenFields() throws Exception {
+        // Arrange
+        LightBulb patched = new LightBulb();
+        patched.setId(1L);
+        patched.setName("Test Bulb");
+        patched.setType("LED");
+        patched.setWattage(20);
+        patched.setVersion(4L);
+
+        when(service.patchBulb(eq(1L), any(LightBulbPatch.class), eq(3L))).thenReturn(patched);
+
+        // Act & Assert
+        perform(patch("/bulbs/1")
+                .header("If-Match", "\"3\"")
+                .contentType("application/merge-patch+json")
+                .content("{\"wattage\": 20}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"4\""))
+                .andExpect(jsonPath("$.wattage").value(20));
+        verify(service).patchBulb(eq(1L), argThat(patch -> patch.getWattage() == 20
+                && patch.getName() == null && patch.getType() == null), eq(3L));
+    }
+
+    @Test
+    @DisplayName("Verifies patchBulb rejects removing a required field or patching the version")
+    void patchBulb_whenInvalidMergePatch_shouldReturnBadRequest() throws Exception {
+        // Act & Assert
+        perform(patch("/bulbs/1")
+                .contentType("application/merge-patch+json")
+                .content("{\"name\": null}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(containsString("cannot be removed")));
+        perform(patch("/bulbs/1")
+                .contentType("application/merge-patch+json")
+                .content("{\"version\": 7}"))
+                .andExpect(status().isBadRequest());
+        verify(service, never()).patchBulb(any(), any(), any());
+    }
+
+    // handlers return futures; dispatch again to render their result
+    private ResultActions perform(RequestBuilder request) throws Exception {
+        ResultActions actions = mockMvc.perform(request);
+        MvcResult result = actions.andReturn();
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+    }
 }
@@ -0,0 +1,113 @@
+package com.example.events;
+
+import com.example.model.LightBulb;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.OperationType;
+import software.amazon.awssdk.services.dynamodb.model.Record;
+import software.amazon.awssdk.services.dynamodb.model.StreamRecord;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamRecordConverterTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final StreamRecordConverter converter = new StreamRecordConverter(mapper);
+
+    @Test
+    @DisplayName("Verifies a Lambda-shaped MODIFY record becomes a remote upsert with the new image")
+    void fromJson_whenModifyRecord_shouldReturnUpsert() throws Exception {
+        // Arrange
+        JsonNode record = mapper.readTree("""
+                {"eventName":"MODIFY","dynamodb":{
+                  "Keys":{"id":{"N":"42"}},
+                  "NewImage":{"id":{"N":"42"},"name":{"S":"Hue"},"type":{"S":"LED"},
+                              "wattage":{"N":"9"},"version":{"N":"3"},"lastModified":{"N":"1700000000000"}},
+                  "SequenceNumber":"111"}}
+                """);
+
+        // Act
+        LightBulbChangeEvent event = converter.fromJson(record);
+
+        // Assert
+        assertEquals(LightBulbChangeEvent.Operation.UPSERT, event.getOperation());
+        assertEquals(42L, event.getId());
+        assertEquals(3L, event.getVersion());
+        assertEquals("Hue", event.getBulb().getName());
+        assertEquals(9, event.getBulb().getWattage());
+        assertEquals(1_700_000_000_000L, event.getBulb().getLastModified());
+        assertFalse(event.isLocal());
+    }
+
+    @Test
+    @DisplayName("Verifies an SDK INSERT record keeps the new image's last-modified time")
+    void fromRecord_whenInsertRecord_shouldReturnUpsertWithLastModified() {
+        // Arrange
+        Record record = Record.builder()
+                .eventName(OperationType.INSERT)
+                .dynamodb(StreamRecord.builder()
+                        .keys(Map.of("id", AttributeValue.fromN("7")))
+                        .newImage(Map.of("id", AttributeValue.fromN("7"), "name", AttributeValue.fromS("Desk"),
+                                "version", AttributeValue.fromN("1"), "lastModified", AttributeValue.fromN("1700000000000")))
+                        .build())
+                .build();
+
+        // Act
+        LightBulbChangeEvent event = converter.fromRecord(record);
+
+        // Assert
+        assertEquals(LightBulbChangeEvent.Operation.UPSERT, event.getOperation());
+        assertEquals(1L, event.getVersion());
+        assertEquals(1_700_000_000_000L, event.getBulb().getLastModified());
+    }
+
+    @Test
+    @DisplayName("Verifies an SDK REMOVE record becomes a delete carrying the old version")
+    void fromRecord_whenRemoveRecord_shouldReturnDelete() {
+        // Arrange
+        Record record = Record.builder()
+                .eventName(OperationType.REMOVE)
+                .dynamodb(StreamRecord.builder()
+                        .keys(Map.of("id", AttributeValue.fromN("7")))
+                        .oldImage(Map.of("id", AttributeValue.fromN("7"), "version", AttributeValue.fromN("5")))
+                        .build())
+                .build();
+
+        // Act
+        LightBulbChangeEvent event = converter.fromRecord(record);
+
+        // Assert
+        assertEquals(LightBulbChangeEvent.Operation.DELETE, event.getOperation());
+        assertEquals(7L, event.getId());
+        assertEquals(5L, event.getVersion());
+        assertNull(event.getBulb());
+    }
+
+    @Test
+    @DisplayName("Verifies toJson and fromJson round-trip a local upsert")
+    void toJson_whenRoundTripped_shouldPreserveEvent() {
+        // Arrange
+        LightBulb bulb = new LightBulb();
+        bulb.setId(1L);
+        bulb.setName("Philips");
+        bulb.setType("CFL");
+        bulb.setWattage(15);
+        bulb.setVersion(2L);
+        bulb.setLastModified(1_700_000_000_000L);
+
+        // Act
+        LightBulbChangeEvent event = converter.fromJson(converter.toJson(LightBulbChangeEvent.upsert(bulb)));
+
+        // Assert
+        assertEquals(1L, event.getId());
+        assertEquals(2L, event.getVersion());
+        assertEquals("Philips", event.getBulb().getName());
+        assertEquals("CFL", event.getBulb().getType());
+        assertEquals(1_700_000_000_000L, event.getBulb().getLastModified());
+    }
+}
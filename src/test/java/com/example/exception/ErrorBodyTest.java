@@ -0,0 +1,29 @@
+package com.example.exception;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ErrorBodyTest {
+
+    @Test
+    @DisplayName("Verifies error timestamps are the given instant in the system zone, not the current time")
+    void formatTimestamp_shouldRenderTheGivenInstant() {
+        // Arrange
+        long epochMillis = 1_700_000_000_123L;
+        String expected = LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault())
+                .truncatedTo(ChronoUnit.SECONDS).toString();
+
+        // Act
+        String rendered = ErrorBody.formatTimestamp(epochMillis);
+
+        // Assert
+        assertEquals(expected, rendered);
+    }
+}
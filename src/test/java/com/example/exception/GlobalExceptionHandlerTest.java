@@ -1,5 +1,7 @@
 package com.example.exception;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -8,6 +10,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.validation.BindingResult;
@@ -16,6 +19,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.Map;
 
@@ -48,14 +52,14 @@ class GlobalExceptionHandlerTest {
         ResourceNotFoundException ex = new ResourceNotFoundException(resourceName, fieldName, fieldValue);
         
         // Act
-        ResponseEntity<Map<String, Object>> response = exceptionHandler.handleResourceNotFound(ex, webRequest);
+        ResponseEntity<byte[]> response = exceptionHandler.handleResourceNotFound(ex, webRequest);
         
         // Assert
         assertNotNull(response);
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
         assertNotNull(response.getBody());
         
-        Map<String, Object> body = response.getBody();
+        Map<String, Object> body = body(response);
         
         assertEquals(HttpStatus.NOT_FOUND.value(), body.get("status"));
         assertEquals("Not Found", body.get("error"));
@@ -108,14 +112,14 @@ class GlobalExceptionHandlerTest {
         IllegalArgumentException ex = new IllegalArgumentException(errorMessage);
         
         // Act
-        ResponseEntity<Map<String, Object>> response = exceptionHandler.handleIllegalArgument(ex, webRequest);
+        ResponseEntity<byte[]> response = exceptionHandler.handleIllegalArgument(ex, webRequest);
         
         // Assert
         assertNotNull(response);
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertNotNull(response.getBody());
         
-        Map<String, Object> body = response.getBody();
+        Map<String, Object> body = body(response);
         
         assertEquals(HttpStatus.BAD_REQUEST.value(), body.get("status"));
         assertEquals("Bad Request", body.get("error"));
@@ -132,14 +136,14 @@ class GlobalExceptionHandlerTest {
             "abc", Long.class, "id", null, null);
         
         // Act
-        ResponseEntity<Map<String, Object>> response = exceptionHandler.handleMethodArgumentTypeMismatch(ex, webRequest);
+        ResponseEntity<byte[]> response = exceptionHandler.handleMethodArgumentTypeMismatch(ex, webRequest);
         
         // Assert
         assertNotNull(response);
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertNotNull(response.getBody());
         
-        Map<String, Object> body = response.getBody();
+        Map<String, Object> body = body(response);
         
         assertEquals(HttpStatus.BAD_REQUEST.value(), body.get("status"));
         assertEquals("Bad Request", body.get("error"));
@@ -148,6 +152,21 @@ class GlobalExceptionHandlerTest {
         assertEquals("/api/bulbs/1", body.get("path"));
     }
     
+    @Test
+    @DisplayName("Verifies handleServiceUnavailable returns 503 with a Retry-After header")
+    void handleServiceUnavailable_shouldReturnServiceUnavailableWithRetryAfter() {
+        // Arrange
+        ServiceUnavailableException ex = new ServiceUnavailableException("Backend is throttling requests", 2);
+        
+        // Act
+        ResponseEntity<byte[]> response = exceptionHandler.handleServiceUnavailable(ex, webRequest);
+        
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("2", response.getHeaders().getFirst("Retry-After"));
+        assertEquals("Backend is throttling requests", body(response).get("message"));
+    }
+
     @Test
     @DisplayName("Verifies handleAllExceptions returns an internal server error response")
     void handleAllExceptions_shouldReturnInternalServerError() {
@@ -155,14 +174,14 @@ class GlobalExceptionHandlerTest {
         RuntimeException ex = new RuntimeException("Unexpected error");
         
         // Act
-        ResponseEntity<Map<String, Object>> response = exceptionHandler.handleGlobalException(ex, webRequest);
+        ResponseEntity<byte[]> response = exceptionHandler.handleGlobalException(ex, webRequest);
         
         // Assert
         assertNotNull(response);
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
         assertNotNull(response.getBody());
         
-        Map<String, Object> body = response.getBody();
+        Map<String, Object> body = body(response);
         
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.value(), body.get("status"));
         assertEquals("Internal Server Error", body.get("error"));
@@ -183,14 +202,14 @@ class GlobalExceptionHandlerTest {
         when(ex.getMessage()).thenReturn(errorMessage);
         
         // Act
-        ResponseEntity<Map<String, Object>> response = exceptionHandler.handleGlobalException(ex, webRequest);
+        ResponseEntity<byte[]> response = exceptionHandler.handleGlobalException(ex, webRequest);
         
         // Assert
         assertNotNull(response);
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
         assertNotNull(response.getBody());
         
-        Map<String, Object> body = response.getBody();
+        Map<String, Object> body = body(response);
         
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.value(), body.get("status"));
         assertEquals("Internal Server Error", body.get("error"));
@@ -198,4 +217,30 @@ class GlobalExceptionHandlerTest {
         assertNotNull(body.get("timestamp"));
         assertNotNull(body.get("path"));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Verifies error bodies escape messages and are served as JSON")
+    void handleResourceNotFound_shouldEscapeMessageAndSetContentType() {
+        // Arrange
+        ResourceNotFoundException ex = new ResourceNotFoundException("Bulb \"kitchen\"\nnot found");
+        
+        // Act
+        ResponseEntity<byte[]> response = exceptionHandler.handleResourceNotFound(ex, webRequest);
+        
+        // Assert
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        Map<String, Object> body = body(response);
+        assertEquals("Bulb \"kitchen\"\nnot found", body.get("message"));
+        assertEquals("/api/bulbs/1", body.get("path"));
+        assertEquals(404, body.get("status"));
+    }
+
+    private static Map<String, Object> body(ResponseEntity<byte[]> response) {
+        assertNotNull(response.getBody());
+        try {
+            return new ObjectMapper().readValue(response.getBody(), new TypeReference<>() {});
+        } catch (IOException e) {
+            throw new AssertionError("Error body is not valid JSON", e);
+        }
+    }
+}
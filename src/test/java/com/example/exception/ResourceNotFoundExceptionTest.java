@@ -0,0 +1,35 @@
+package com.example.exception;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourceNotFoundExceptionTest {
+
+    @Test
+    @DisplayName("Verifies not found exceptions skip the stack trace and format their message once")
+    void resourceNotFoundException_shouldBeStackless() {
+        // Act
+        ResourceNotFoundException ex = new ResourceNotFoundException("LightBulb", "id", 42L);
+
+        // Assert
+        assertEquals(0, ex.getStackTrace().length);
+        assertEquals("LightBulb not found with id : '42'", ex.getMessage());
+        assertSame(ex.getMessage(), ex.getMessage());
+    }
+
+    @Test
+    @DisplayName("Verifies conflict exceptions keep their cause without a stack trace")
+    void versionConflictException_shouldKeepCause() {
+        // Arrange
+        RuntimeException cause = new RuntimeException("conditional check failed");
+
+        // Act
+        VersionConflictException ex = new VersionConflictException("LightBulb 1 is no longer at version 2", cause);
+
+        // Assert
+        assertEquals(0, ex.getStackTrace().length);
+        assertSame(cause, ex.getCause());
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.http;
+
+import com.example.resilience.ClientQuota;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.filters.RemoteIpFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.InputStream;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientQuotaFilterTest {
+
+    private final ClientQuotaFilter filter = new ClientQuotaFilter(new ClientQuota(0.5, 2, 1024), new ClientQuota(0.5, 1, 1024));
+
+    @Test
+    @DisplayName("Verifies requests over the read quota get 429 with Retry-After and never reach the chain")
+    void doFilter_whenReadQuotaExceeded_shouldReturn429() throws Exception {
+        // Arrange & Act
+        MockHttpServletResponse first = get("10.0.0.1", null);
+        MockHttpServletResponse second = get("10.0.0.1", null);
+        MockHttpServletResponse third = get("10.0.0.1", null);
+
+        // Assert
+        assertEquals(200, first.getStatus());
+        assertEquals(200, second.getStatus());
+        assertEquals(429, third.getStatus());
+        assertEquals("2", third.getHeader("Retry-After"));
+        assertTrue(third.getContentAsString().contains("\"status\":429"));
+        assertTrue(third.getContentAsString().contains("\"error\":\"Too Many Requests\""));
+        assertEquals("application/json", third.getContentType());
+        assertEquals(1L, filter.metricsSnapshot().get("readsRejected"));
+    }
+
+    @Test
+    @DisplayName("Verifies writes have their own budget and verified clients are counted apart from source IPs")
+    void doFilter_shouldSeparateWritesAndVerifiedClients() throws Exception {
+        // Arrange & Act
+        MockHttpServletResponse write = request("POST", "/bulbs", "10.0.0.1", null);
+        MockHttpServletResponse secondWrite = request("POST", "/bulbs", "10.0.0.1", null);
+        MockHttpServletResponse read = get("10.0.0.1", null);
+        MockHttpServletResponse keyedWrite = request("POST", "/bulbs", "10.0.0.1", ClientIdentity.verified("k1a2b3", null));
+
+        // Assert
+        assertEquals(200, write.getStatus());
+        assertEquals(429, secondWrite.getStatus());
+        assertEquals(200, read.getStatus());
+        assertEquals(200, keyedWrite.getStatus());
+    }
+
+    @Test
+    @DisplayName("Verifies an x-api-key header alone does not buy a fresh quota")
+    void doFilter_whenOnlyApiKeyHeaderVaries_shouldShareTheAddressQuota() throws Exception {
+        // Arrange
+        request("POST", "/bulbs", "10.0.0.2", null);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/bulbs");
+        request.setRemoteAddr("10.0.0.2");
+        request.addHeader("x-api-key", "made-up");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, new MockFilterChain());
+
+        // Assert
+        assertEquals(429, response.getStatus());
+    }
+
+    @Test
+    @DisplayName("Verifies clients forwarded by the same trusted load balancer get separate quotas")
+    void doFilter_whenForwardedByTrustedProxy_shouldCountClientsApart() throws Exception {
+        // Arrange: what server.forward-headers-strategy=native installs in front of the filter chain
+        Properties properties = new Properties();
+        try (InputStream in = getClass().getResourceAsStream("/application.properties")) {
+            properties.load(in);
+        }
+        RemoteIpFilter remoteIp = new RemoteIpFilter();
+        remoteIp.setInternalProxies(properties.getProperty("server.tomcat.remoteip.internal-proxies"));
+
+        // Act
+        MockHttpServletResponse firstClient = forwarded(remoteIp, "203.0.113.7");
+        MockHttpServletResponse secondClient = forwarded(remoteIp, "198.51.100.4");
+        MockHttpServletResponse firstAgain = forwarded(remoteIp, "203.0.113.7");
+
+        // Assert
+        assertEquals(200, firstClient.getStatus());
+        assertEquals(200, secondClient.getStatus());
+        assertEquals(429, firstAgain.getStatus());
+    }
+
+    @Test
+    @DisplayName("Verifies health checks are never throttled")
+    void doFilter_whenPing_shouldSkipQuota() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, request("GET", "/ping", "10.0.0.9", null).getStatus());
+        }
+    }
+
+    // a write through the load balancer at 10.0.0.5
+    private MockHttpServletResponse forwarded(RemoteIpFilter remoteIp, String client) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/bulbs");
+        request.setRemoteAddr("10.0.0.5");
+        request.addHeader("X-Forwarded-For", client);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+            }
+        }, remoteIp, filter).doFilter(request, response);
+        return response;
+    }
+
+    private MockHttpServletResponse get(String ip, String verifiedClient) throws Exception {
+        return request("GET", "/bulbs/1", ip, verifiedClient);
+    }
+
+    private MockHttpServletResponse request(String method, String uri, String ip, String verifiedClient) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr(ip);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        try (ClientIdentity.Scope ignored = ClientIdentity.attach(verifiedClient)) {
+            filter.doFilter(request, response, chain);
+        }
+        assertEquals(response.getStatus() == 200, chain.getRequest() != null);
+        return response;
+    }
+}
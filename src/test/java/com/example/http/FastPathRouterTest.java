@@ -0,0 +1,257 @@
+package com.example.http;
+
+import com.example.controller.LightBulbController;
+import com.example.exception.GlobalExceptionHandler;
+import com.example.exception.ResourceNotFoundException;
+import com.example.model.LightBulb;
+import com.example.resilience.ClientQuota;
+import com.example.services.AsyncLightBulbServiceImpl;
+import com.example.services.LightBulbService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Base64;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@ExtendWith(MockitoExtension.class)
+class FastPathRouterTest {
+
+    @Mock
+    private LightBulbService service;
+
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+    private FastPathRouter router;
+
+    @BeforeEach
+    void setUp() {
+        router = new FastPathRouter(service, null, mapper);
+    }
+
+    private static LightBulb bulb(long id) {
+        LightBulb bulb = new LightBulb();
+        bulb.setId(id);
+        bulb.setName("Desk Lamp");
+        bulb.setType("LED");
+        bulb.setWattage(9);
+        bulb.setVersion(3L);
+        bulb.setLastModified(1_700_000_000_000L);
+        return bulb;
+    }
+
+    // an API Gateway REST API proxy event, headers in both the single and the multi-value map
+    private ObjectNode event(String method, String path, Map<String, String> headers) {
+        ObjectNode event = mapper.createObjectNode();
+        event.put("resource", "/{proxy+}");
+        event.put("path", path);
+        event.put("httpMethod", method);
+        ObjectNode single = event.putObject("headers");
+        ObjectNode multi = event.putObject("multiValueHeaders");
+        headers.forEach((name, value) -> {
+            single.put(name, value);
+            multi.putArray(name).add(value);
+        });
+        event.putNull("queryStringParameters");
+        event.putNull("multiValueQueryStringParameters");
+        event.putObject("requestContext").putObject("identity").put("sourceIp", "10.0.0.1");
+        event.putNull("body");
+        event.put("isBase64Encoded", false);
+        return event;
+    }
+
+    private JsonNode route(ObjectNode event) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertTrue(router.route(mapper.writeValueAsBytes(event), out), "expected the fast path to answer");
+        return mapper.readTree(out.toByteArray());
+    }
+
+    private void assertFallsBack(ObjectNode event) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertFalse(router.route(mapper.writeValueAsBytes(event), out));
+        assertEquals(0, out.size(), "nothing may be written for Spring's response to follow");
+    }
+
+    private static String header(JsonNode response, String name) {
+        JsonNode values = response.get("multiValueHeaders").get(name);
+        return values == null ? null : values.get(0).asText();
+    }
+
+    @Test
+    @DisplayName("Verifies /ping is answered with the content type Spring negotiates")
+    void route_whenPing_shouldAnswerPong() throws Exception {
+        // Act
+        JsonNode plain = route(event("GET", "/ping", Map.of()));
+        JsonNode json = route(event("GET", "/ping", Map.of("Accept", "application/json")));
+
+        // Assert
+        assertEquals(200, plain.get("statusCode").asInt());
+        assertEquals("pong", plain.get("body").asText());
+        assertEquals("text/plain;charset=UTF-8", header(plain, "Content-Type"));
+        assertFalse(plain.get("isBase64Encoded").asBoolean());
+        assertEquals("application/json", header(json, "Content-Type"));
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    @DisplayName("Verifies a bulb is answered with the same status, body and validators as the controller")
+    void route_whenBulbExists_shouldMatchTheController() throws Exception {
+        // Arrange
+        when(service.getBulbById(42L)).thenReturn(bulb(42L));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(
+                        new LightBulbController(new AsyncLightBulbServiceImpl(service, Runnable::run)))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+        MvcResult started = mockMvc.perform(get("/bulbs/42").header("Accept", "application/json")).andReturn();
+        MockHttpServletResponse expected = mockMvc.perform(asyncDispatch(started)).andReturn().getResponse();
+
+        // Act
+        JsonNode response = route(event("GET", "/bulbs/42", Map.of("Accept", "application/json")));
+
+        // Assert
+        assertEquals(expected.getStatus(), response.get("statusCode").asInt());
+        assertEquals(mapper.readTree(expected.getContentAsByteArray()), mapper.readTree(response.get("body").asText()));
+        assertEquals(expected.getHeader("ETag"), header(response, "ETag"));
+        assertEquals(expected.getHeader("Last-Modified"), header(response, "Last-Modified"));
+        assertEquals(expected.getContentType(), header(response, "Content-Type"));
+    }
+
+    @Test
+    @DisplayName("Verifies a matching If-None-Match gets 304 without a body")
+    void route_whenETagMatches_shouldReturnNotModified() throws Exception {
+        // Arrange
+        when(service.getBulbById(42L)).thenReturn(bulb(42L));
+
+        // Act
+        JsonNode response = route(event("GET", "/bulbs/42", Map.of("If-None-Match", "W/\"3\"")));
+
+        // Assert
+        assertEquals(304, response.get("statusCode").asInt());
+        assertNull(response.get("body"));
+        assertEquals("W/\"3\"", header(response, "ETag"));
+    }
+
+    @Test
+    @DisplayName("Verifies a missing bulb gets the exception handler's 404 body")
+    void route_whenBulbMissing_shouldReturnNotFound() throws Exception {
+        // Arrange
+        when(service.getBulbById(999L)).thenThrow(new ResourceNotFoundException("LightBulb", "id", 999L));
+
+        // Act
+        JsonNode response = route(event("GET", "/bulbs/999", Map.of()));
+
+        // Assert
+        assertEquals(404, response.get("statusCode").asInt());
+        JsonNode body = mapper.readTree(response.get("body").asText());
+        assertEquals(404, body.get("status").asInt());
+        assertEquals("/bulbs/999", body.get("path").asText());
+        assertTrue(body.get("message").asText().contains("not found"));
+    }
+
+    @Test
+    @DisplayName("Verifies an unexpected failure gets 500 instead of falling back and running the lookup again")
+    void route_whenServiceFails_shouldReturnServerError() throws Exception {
+        // Arrange
+        when(service.getBulbById(7L)).thenThrow(new IllegalStateException("table gone"));
+
+        // Act
+        JsonNode response = route(event("GET", "/bulbs/7", Map.of()));
+
+        // Assert
+        assertEquals(500, response.get("statusCode").asInt());
+        assertTrue(mapper.readTree(response.get("body").asText()).get("message").asText().contains("table gone"));
+        verify(service, times(1)).getBulbById(7L);
+    }
+
+    @Test
+    @DisplayName("Verifies requests the fast path does not cover are left to Spring")
+    void route_whenNotAHotRoute_shouldFallBack() throws Exception {
+        // Arrange
+        ObjectNode withQuery = event("GET", "/bulbs/1", Map.of());
+        withQuery.putObject("queryStringParameters").put("fields", "name");
+        ObjectNode ambiguous = event("GET", "/bulbs/1", Map.of("Accept", "application/json"));
+        ((ObjectNode) ambiguous.get("multiValueHeaders")).putArray("accept").add("application/cbor");
+
+        // Act & Assert
+        assertFallsBack(event("POST", "/bulbs/1", Map.of()));
+        assertFallsBack(event("GET", "/bulbs", Map.of()));
+        assertFallsBack(event("GET", "/bulbs/abc", Map.of()));
+        assertFallsBack(event("GET", "/bulbs/12345678901234567890", Map.of()));
+        assertFallsBack(event("GET", "/bulbs/stats", Map.of()));
+        assertFallsBack(withQuery);
+        assertFallsBack(event("GET", "/bulbs/1", Map.of("Accept", "application/cbor")));
+        assertFallsBack(event("GET", "/bulbs/1", Map.of("If-Modified-Since", "Tue, 14 Nov 2023 22:13:20 GMT")));
+        assertFallsBack(ambiguous);
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    @DisplayName("Verifies the quota filter's budget applies to the fast path too, keyed on the verified API key")
+    void route_whenQuotaExceeded_shouldReturn429() throws Exception {
+        // Arrange
+        ClientQuotaFilter quota = new ClientQuotaFilter(new ClientQuota(0.5, 1, 1024), new ClientQuota(0.5, 1, 1024));
+        router = new FastPathRouter(service, quota, mapper);
+        when(service.getBulbById(anyLong())).thenReturn(bulb(1L));
+
+        // Act
+        JsonNode first = route(event("GET", "/bulbs/1", Map.of()));
+        JsonNode second = route(event("GET", "/bulbs/1", Map.of()));
+        JsonNode unverified = route(event("GET", "/bulbs/1", Map.of("X-Api-Key", "made-up")));
+        ObjectNode verifiedEvent = event("GET", "/bulbs/1", Map.of());
+        ((ObjectNode) verifiedEvent.get("requestContext").get("identity")).put("apiKeyId", "k1a2b3");
+        JsonNode verified = route(verifiedEvent);
+
+        // Assert
+        assertEquals(200, first.get("statusCode").asInt());
+        assertEquals(429, second.get("statusCode").asInt());
+        assertEquals("2", header(second, "Retry-After"));
+        assertEquals(429, mapper.readTree(second.get("body").asText()).get("status").asInt());
+        assertEquals(429, unverified.get("statusCode").asInt());
+        assertEquals(200, verified.get("statusCode").asInt());
+        assertEquals(2L, quota.metricsSnapshot().get("readsRejected"));
+        verify(service, times(2)).getBulbById(1L);
+    }
+
+    @Test
+    @DisplayName("Verifies large bodies are gzipped for clients that accept it")
+    void route_whenBodyIsLarge_shouldGzip() throws Exception {
+        // Arrange
+        LightBulb large = bulb(5L);
+        large.setName("x".repeat(ResponseCompression.DEFAULT_MIN_BYTES));
+        when(service.getBulbById(5L)).thenReturn(large);
+
+        // Act
+        JsonNode plain = route(event("GET", "/bulbs/5", Map.of()));
+        JsonNode gzipped = route(event("GET", "/bulbs/5", Map.of("Accept-Encoding", "gzip, deflate")));
+
+        // Assert
+        assertFalse(plain.get("isBase64Encoded").asBoolean());
+        assertEquals("Accept-Encoding", header(plain, "Vary"));
+        assertTrue(gzipped.get("isBase64Encoded").asBoolean());
+        assertEquals("gzip", header(gzipped, "Content-Encoding"));
+        assertEquals("Accept-Encoding", header(gzipped, "Vary"));
+        byte[] compressed = Base64.getDecoder().decode(gzipped.get("body").asText());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertEquals(mapper.readTree(plain.get("body").asText()), mapper.readTree(in.readAllBytes()));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.http;
+
+import com.example.model.LightBulb;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LightBulbProtobufHttpMessageConverterTest {
+
+    private static final Type BULB_LIST = new ParameterizedTypeReference<List<LightBulb>>() {}.getType();
+
+    private final LightBulbProtobufHttpMessageConverter converter = new LightBulbProtobufHttpMessageConverter();
+
+    @Test
+    @DisplayName("Verifies a bulb survives a protobuf round trip, including unset optional fields")
+    void writeAndRead_whenSingleBulb_shouldRoundTrip() throws Exception {
+        // Arrange
+        LightBulb bulb = bulb(7L, "Desk lamp", 9);
+        bulb.setVersion(3L);
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        // Act
+        converter.write(bulb, LightBulb.class, LightBulbProtobufHttpMessageConverter.APPLICATION_X_PROTOBUF, output);
+        LightBulb read = (LightBulb) converter.read(LightBulb.class, null, new MockHttpInputMessage(output.getBodyAsBytes()));
+
+        // Assert
+        assertEquals(LightBulbProtobufHttpMessageConverter.APPLICATION_X_PROTOBUF, output.getHeaders().getContentType());
+        assertEquals(7L, read.getId());
+        assertEquals("Desk lamp", read.getName());
+        assertEquals(9, read.getWattage());
+        assertEquals(3L, read.getVersion());
+        assertNull(read.getLastModified());
+    }
+
+    @Test
+    @DisplayName("Verifies a list of bulbs is written as a LightBulbList message and read back in order")
+    void writeAndRead_whenBulbList_shouldRoundTrip() throws Exception {
+        // Arrange
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        // Act
+        converter.write(List.of(bulb(1L, "A", 5), bulb(2L, "B", 6)), BULB_LIST,
+                LightBulbProtobufHttpMessageConverter.APPLICATION_X_PROTOBUF, output);
+        @SuppressWarnings("unchecked")
+        List<LightBulb> read = (List<LightBulb>) converter.read(BULB_LIST, null, new MockHttpInputMessage(output.getBodyAsBytes()));
+
+        // Assert
+        assertEquals(List.of("A", "B"), read.stream().map(LightBulb::getName).toList());
+    }
+
+    @Test
+    @DisplayName("Verifies only bulbs and bulb lists are offered for protobuf")
+    void canWrite_whenOtherTypes_shouldDecline() {
+        // Act & Assert
+        assertTrue(converter.canWrite(BULB_LIST, List.class, LightBulbProtobufHttpMessageConverter.APPLICATION_X_PROTOBUF));
+        assertTrue(converter.canWrite(LightBulb.class, LightBulb.class, LightBulbProtobufHttpMessageConverter.APPLICATION_PROTOBUF));
+        assertFalse(converter.canWrite(Map.class, Map.class, LightBulbProtobufHttpMessageConverter.APPLICATION_X_PROTOBUF));
+        assertFalse(converter.canWrite(LightBulb.class, LightBulb.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(String.class, null, LightBulbProtobufHttpMessageConverter.APPLICATION_X_PROTOBUF));
+    }
+
+    private static LightBulb bulb(Long id, String name, int wattage) {
+        LightBulb bulb = new LightBulb();
+        bulb.setId(id);
+        bulb.setName(name);
+        bulb.setType("LED");
+        bulb.setWattage(wattage);
+        return bulb;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.http;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCompressionTest {
+
+    @Test
+    @DisplayName("Verifies negotiate picks gzip only when the client accepts it")
+    void negotiate_whenVariousHeaders_shouldHonourQualities() {
+        // Act & Assert
+        assertEquals("gzip", ResponseCompression.negotiate("gzip, deflate, br"));
+        assertEquals("gzip", ResponseCompression.negotiate("br;q=1.0, GZIP;q=0.5"));
+        assertEquals("gzip", ResponseCompression.negotiate("*"));
+        assertNull(ResponseCompression.negotiate(null));
+        assertNull(ResponseCompression.negotiate("identity"));
+        assertNull(ResponseCompression.negotiate("br"));
+        assertNull(ResponseCompression.negotiate("gzip;q=0, *"));
+    }
+
+    @Test
+    @DisplayName("Verifies gzip output decompresses to the original bytes")
+    void gzip_whenRoundTripped_shouldRestoreInput() throws Exception {
+        // Arrange
+        byte[] json = "{\"name\":\"Bulb\",\"type\":\"LED\"},".repeat(200).getBytes(StandardCharsets.UTF_8);
+
+        // Act
+        byte[] compressed = ResponseCompression.gzip(json, Deflater.BEST_SPEED);
+
+        // Assert
+        assertTrue(compressed.length < json.length / 10);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertArrayEquals(json, in.readAllBytes());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LambdaSafeAsyncAppenderTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final ListAppender<ILoggingEvent> written = new ListAppender<>();
+    private final LambdaSafeAsyncAppender appender = new LambdaSafeAsyncAppender();
+    private Logger logger;
+
+    @BeforeEach
+    void setUp() {
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        written.setContext(context);
+        written.start();
+        appender.setContext(context);
+        logger = context.getLogger("com.example.Test");
+        logger.addAppender(appender);
+        logger.setAdditive(false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        appender.stop();
+        context.stop();
+    }
+
+    @Test
+    @DisplayName("Verifies that on Lambda an event is written before the logging call returns")
+    void append_whenSynchronous_shouldWriteOnTheCallingThread() {
+        // Arrange
+        appender.addAppender(written);
+        appender.setSynchronous(true);
+        appender.start();
+
+        // Act
+        logger.info("first");
+        logger.error("second");
+
+        // Assert
+        assertEquals(2, written.list.size());
+        assertEquals("second", written.list.get(1).getFormattedMessage());
+    }
+
+    @Test
+    @DisplayName("Verifies that a full queue still takes ERROR events instead of dropping them")
+    void append_whenQueueIsFull_shouldWriteErrorsDirectly() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        ListAppender<ILoggingEvent> blocked = new ListAppender<>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.append(event);
+            }
+        };
+        blocked.setContext(context);
+        blocked.start();
+        appender.addAppender(blocked);
+        appender.setSynchronous(false);
+        appender.setQueueSize(1);
+        appender.setNeverBlock(true);
+        appender.start();
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            logger.warn("filler {}", i);
+        }
+        Thread errorThread = new Thread(() -> logger.error("must not be lost"));
+        errorThread.start();
+        release.countDown();
+        errorThread.join(5000);
+        appender.stop();
+
+        // Assert
+        assertTrue(blocked.list.stream().anyMatch(e -> e.getFormattedMessage().equals("must not be lost")
+                && e.getLevel() == Level.ERROR));
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SamplingTurboFilterTest {
+
+    private LoggerContext context;
+    private SamplingTurboFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        context = new LoggerContext();
+        context.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.INFO);
+        filter = new SamplingTurboFilter();
+        filter.setContext(context);
+        filter.setRules("com.example.services=1000, com.example.services.hot=1000000");
+        filter.start();
+    }
+
+    private int passed(Logger logger, Level level, Throwable t, int calls) {
+        int passed = 0;
+        for (int i = 0; i < calls; i++) {
+            if (filter.decide(null, logger, level, "message {}", null, t) == FilterReply.NEUTRAL) {
+                passed++;
+            }
+        }
+        return passed;
+    }
+
+    @Test
+    @DisplayName("Verifies INFO events of a sampled logger are mostly dropped")
+    void decide_whenInfoOnSampledLogger_shouldDropMostEvents() {
+        Logger logger = context.getLogger("com.example.services.LightBulbServiceImpl");
+        int passed = passed(logger, Level.INFO, null, 10_000);
+        assertTrue(passed < 100, "expected ~10 events, got " + passed);
+    }
+
+    @Test
+    @DisplayName("Verifies WARN, ERROR and events with a throwable are never sampled")
+    void decide_whenErrorPath_shouldAlwaysPass() {
+        Logger logger = context.getLogger("com.example.services.LightBulbServiceImpl");
+        assertEquals(1000, passed(logger, Level.WARN, null, 1000));
+        assertEquals(1000, passed(logger, Level.ERROR, null, 1000));
+        assertEquals(1000, passed(logger, Level.INFO, new RuntimeException("boom"), 1000));
+    }
+
+    @Test
+    @DisplayName("Verifies loggers without a matching rule are not sampled")
+    void decide_whenNoRuleMatches_shouldPass() {
+        Logger logger = context.getLogger("com.example.servicesX.Other");
+        assertEquals(1000, passed(logger, Level.INFO, null, 1000));
+    }
+
+    @Test
+    @DisplayName("Verifies the longest matching prefix decides the sample rate")
+    void decide_whenNestedRules_shouldUseLongestPrefix() {
+        Logger logger = context.getLogger("com.example.services.hot.Cache");
+        assertTrue(passed(logger, Level.INFO, null, 10_000) < 5);
+    }
+
+    @Test
+    @DisplayName("Verifies a rule with a malformed rate is reported and skipped while the others still apply")
+    void start_whenRateIsMalformed_shouldSkipTheRule() {
+        SamplingTurboFilter malformed = new SamplingTurboFilter();
+        malformed.setContext(context);
+        malformed.setRules("com.example.repo=ten, com.example.services=1000000");
+
+        assertDoesNotThrow(malformed::start);
+
+        assertTrue(malformed.isStarted());
+        assertEquals(1000, passedThrough(malformed, context.getLogger("com.example.repo.S3"), 1000));
+        assertTrue(passedThrough(malformed, context.getLogger("com.example.services.Impl"), 1000) < 5);
+        assertTrue(context.getStatusManager().getCopyOfStatusList().stream()
+                .anyMatch(status -> status.getMessage().contains("com.example.repo=ten")));
+    }
+
+    private static int passedThrough(SamplingTurboFilter filter, Logger logger, int calls) {
+        int passed = 0;
+        for (int i = 0; i < calls; i++) {
+            if (filter.decide(null, logger, Level.INFO, "message {}", null, null) == FilterReply.NEUTRAL) {
+                passed++;
+            }
+        }
+        return passed;
+    }
+}
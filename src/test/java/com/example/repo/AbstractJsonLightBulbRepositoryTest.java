@@ -1,6 +1,8 @@
 package com.example.repo;
 
+import com.example.exception.VersionConflictException;
 import com.example.model.LightBulb;
+import com.example.model.LightBulbPatch;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import java.util.*;
@@ -11,7 +13,9 @@ class AbstractJsonLightBulbRepositoryTest {
 
     static class DummyRepo extends AbstractJsonLightBulbRepository {
         private List<LightBulb> store = new ArrayList<>();
+        int reads;
         @Override protected List<LightBulb> readAll() {
+            reads++;
             return new ArrayList<>(store);
         }
         @Override protected void writeAll(List<LightBulb> bulbs) {
@@ -112,4 +116,241 @@ class AbstractJsonLightBulbRepositoryTest {
         // Assert
         assertNotNull(bulb.getId());
     }
+
+    @Test
+    @DisplayName("Verifies that save bumps the version on every write of the same bulb")
+    void save_whenBulbSavedTwice_shouldIncrementVersion() {
+        // Arrange
+        DummyRepo repo = new DummyRepo();
+        LightBulb bulb = new LightBulb(); bulb.setName("Versioned");
+        // Act
+        repo.save(bulb);
+        LightBulb updated = new LightBulb(); updated.setId(bulb.getId()); updated.setName("Versioned 2");
+        repo.save(updated);
+        // Assert
+        assertEquals(1L, bulb.getVersion());
+        assertEquals(2L, repo.findById(bulb.getId()).get().getVersion());
+    }
+
+    @Test
+    @DisplayName("Verifies that findPage walks all bulbs page by page")
+    void findPage_shouldPageThroughAllBulbs() {
+        // Arrange
+        DummyRepo repo = new DummyRepo();
+        for (int i = 0; i < 5; i++) {
+            LightBulb bulb = new LightBulb(); bulb.setName("Bulb" + i);
+            repo.save(bulb);
+        }
+        // Act
+        LightBulbPage first = repo.findPage(null, 2);
+        LightBulbPage second = repo.findPage(first.getNextCursor(), 2);
+        LightBulbPage last = repo.findPage(second.getNextCursor(), 2);
+        // Assert
+        assertEquals(2, first.getItems().size());
+        assertEquals(2, second.getItems().size());
+        assertEquals(1, last.getItems().size());
+        assertTrue(last.isLast());
+        assertEquals("Bulb4", last.getItems().get(0).getName());
+    }
+
+    @Test
+    @DisplayName("Verifies that a save based on an outdated version is rejected")
+    void save_whenVersionIsStale_shouldThrowVersionConflict() {
+        // Arrange
+        DummyRepo repo = new DummyRepo();
+        LightBulb bulb = new LightBulb(); bulb.setName("Versioned");
+        repo.save(bulb);
+        repo.save(bulb);
+        LightBulb stale = new LightBulb(); stale.setId(bulb.getId()); stale.setName("Stale"); stale.setVersion(1L);
+        // Act & Assert
+        assertThrows(VersionConflictException.class, () -> repo.save(stale));
+        assertEquals("Versioned", repo.findById(bulb.getId()).get().getName());
+        assertThrows(VersionConflictException.class, () -> repo.deleteById(bulb.getId(), 1L));
+        repo.deleteById(bulb.getId(), 2L);
+        assertTrue(repo.findById(bulb.getId()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Verifies that a versioned save of a bulb that no longer exists is rejected instead of recreating it")
+    void save_whenVersionedBulbWasDeleted_shouldThrowVersionConflict() {
+        // Arrange
+        DummyRepo repo = new DummyRepo();
+        LightBulb bulb = new LightBulb(); bulb.setName("Deleted");
+        repo.save(bulb);
+        repo.deleteById(bulb.getId());
+        // Act & Assert
+        assertThrows(VersionConflictException.class, () -> repo.save(bulb));
+        assertEquals(1L, bulb.getVersion());
+        assertTrue(repo.findAll().isEmpty());
+    }
+
+
+    @Test
+    @DisplayName("Verifies that patch changes only the patched fields in place and bumps the version")
+    void patch_whenBulbExists_shouldChangeOnlyPatchedFields() {
+        // Arrange
+        DummyRepo repo = new DummyRepo();
+        LightBulb bulb = new LightBulb(); bulb.setName("Desk"); bulb.setType("LED"); bulb.setWattage(9);
+        repo.save(bulb);
+        // Act
+        Optional<LightBulb> patched = repo.patch(bulb.getId(), new LightBulbPatch(null, null, 12), 1L);
+        // Assert
+        assertTrue(patched.isPresent());
+        LightBulb stored = repo.findById(bulb.getId()).get();
+        assertEquals("Desk", stored.getName());
+        assertEquals(12, stored.getWattage());
+        assertEquals(2L, stored.getVersion());
+        assertThrows(VersionConflictException.class, () -> repo.patch(bulb.getId(), new LightBulbPatch("Stale", null, null), 1L));
+        assertTrue(repo.patch(12345L, new LightBulbPatch("Missing", null, null), null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Verifies that saveAll stores a whole batch with one document write")
+    void saveAll_shouldWriteDocumentOnce() {
+        // Arrange
+        int[] writes = {0};
+        DummyRepo repo = new DummyRepo() {
+            @Override protected void writeAll(List<LightBulb> bulbs) {
+                writes[0]++;
+                super.writeAll(bulbs);
+            }
+        };
+        List<LightBulb> batch = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            LightBulb bulb = new LightBulb(); bulb.setName("Imported" + i);
+            batch.add(bulb);
+        }
+        // Act
+        repo.saveAll(batch);
+        // Assert
+        assertEquals(1, writes[0]);
+        assertEquals(3, repo.findAll().size());
+        assertTrue(batch.stream().allMatch(b -> b.getId() != null && b.getVersion() == 1L));
+    }
+
+    @Test
+    @DisplayName("Verifies that segment pages split the bulbs into disjoint slices that cover all of them")
+    void findSegmentPage_shouldCoverAllBulbsOnce() {
+        // Arrange
+        DummyRepo repo = new DummyRepo();
+        for (int i = 0; i < 7; i++) {
+            LightBulb bulb = new LightBulb(); bulb.setName("Bulb" + i);
+            repo.save(bulb);
+        }
+        Set<Long> seen = new HashSet<>();
+        int total = 0;
+        // Act
+        for (int segment = 0; segment < 3; segment++) {
+            String cursor = null;
+            do {
+                LightBulbPage page = repo.findSegmentPage(segment, 3, cursor, 2);
+                page.getItems().forEach(b -> seen.add(b.getId()));
+                total += page.getItems().size();
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+        }
+        // Assert
+        assertEquals(7, total);
+        assertEquals(7, seen.size());
+        assertThrows(IllegalArgumentException.class, () -> repo.findSegmentPage(3, 3, null, 2));
+    }
+
+    @Test
+    @DisplayName("Verifies that a page traversal reads the document once and continues after the last id")
+    void findPage_shouldReadDocumentOncePerTraversal() {
+        // Arrange
+        DummyRepo repo = new DummyRepo();
+        for (int i = 0; i < 5; i++) {
+            LightBulb bulb = new LightBulb(); bulb.setName("Bulb" + i);
+            repo.save(bulb);
+        }
+        repo.reads = 0;
+        // Act
+        List<LightBulb> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            LightBulbPage page = repo.findPage(cursor, 2);
+            seen.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        // Assert
+        assertEquals(1, repo.reads);
+        assertEquals(List.of("Bulb0", "Bulb1", "Bulb2", "Bulb3", "Bulb4"), seen.stream().map(LightBulb::getName).toList());
+    }
+
+    @Test
+    @DisplayName("Verifies that a write during a traversal neither repeats nor skips the bulbs present throughout")
+    void findPage_whenWrittenDuringTraversal_shouldContinueAfterLastId() {
+        // Arrange
+        DummyRepo repo = new DummyRepo();
+        List<LightBulb> bulbs = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            LightBulb bulb = new LightBulb(); bulb.setName("Bulb" + i);
+            bulbs.add(repo.save(bulb));
+        }
+        // Act
+        LightBulbPage first = repo.findPage(null, 2);
+        repo.deleteById(bulbs.get(0).getId());
+        LightBulbPage second = repo.findPage(first.getNextCursor(), 2);
+        // Assert
+        assertEquals(List.of("Bulb0", "Bulb1"), first.getItems().stream().map(LightBulb::getName).toList());
+        assertEquals(List.of("Bulb2", "Bulb3"), second.getItems().stream().map(LightBulb::getName).toList());
+        assertTrue(second.isLast());
+        assertThrows(IllegalArgumentException.class, () -> repo.findPage("x", 2));
+    }
+
+    @Test
+    @DisplayName("Verifies that the segments of one traversal share a single read of the document")
+    void findSegmentPage_shouldShareOneReadAcrossSegments() {
+        // Arrange
+        DummyRepo repo = new DummyRepo();
+        for (int i = 0; i < 20; i++) {
+            LightBulb bulb = new LightBulb(); bulb.setName("Bulb" + i);
+            repo.save(bulb);
+        }
+        repo.reads = 0;
+        // Act
+        int total = 0;
+        for (int traversal = 0; traversal < 2; traversal++) {
+            for (int segment = 0; segment < 4; segment++) {
+                String cursor = null;
+                do {
+                    LightBulbPage page = repo.findSegmentPage(segment, 4, cursor, 3);
+                    total += page.getItems().size();
+                    cursor = page.getNextCursor();
+                } while (cursor != null);
+            }
+        }
+        // Assert
+        assertEquals(40, total);
+        assertEquals(1, repo.reads);
+    }
+
+    @Test
+    @DisplayName("Verifies that two interleaved traversals share one read until a write drops it")
+    void findPage_whenTraversalsInterleave_shouldShareOneRead() {
+        // Arrange
+        DummyRepo repo = new DummyRepo();
+        for (int i = 0; i < 6; i++) {
+            LightBulb bulb = new LightBulb(); bulb.setName("Bulb" + i);
+            repo.save(bulb);
+        }
+        repo.reads = 0;
+        // Act
+        LightBulbPage firstA = repo.findPage(null, 2);
+        LightBulbPage firstB = repo.findPage(null, 3);
+        LightBulbPage secondA = repo.findPage(firstA.getNextCursor(), 2);
+        LightBulbPage secondB = repo.findPage(firstB.getNextCursor(), 3);
+        int readsBeforeWrite = repo.reads;
+        LightBulb added = new LightBulb(); added.setName("Bulb6");
+        repo.save(added);
+        int readsAfterWrite = repo.reads;
+        LightBulbPage thirdA = repo.findPage(secondA.getNextCursor(), 2);
+        // Assert
+        assertEquals(1, readsBeforeWrite);
+        assertEquals(readsAfterWrite + 1, repo.reads);
+        assertTrue(secondB.isLast());
+        assertEquals(List.of("Bulb4", "Bulb5"), thirdA.getItems().stream().map(LightBulb::getName).toList());
+        assertFalse(thirdA.isLast());
+    }
 }
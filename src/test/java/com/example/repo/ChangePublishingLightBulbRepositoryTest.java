@@ -0,0 +1,130 @@
+package com.example.repo;
+
+import com.example.events.LightBulbChangeEvent;
+import com.example.events.LightBulbChangeFeed;
+import com.example.exception.PartialBatchWriteException;
+import com.example.model.LightBulb;
+import com.example.model.LightBulbPatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangePublishingLightBulbRepositoryTest {
+
+    private final List<LightBulbChangeEvent> events = new ArrayList<>();
+    private ChangePublishingLightBulbRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        LightBulbChangeFeed feed = new LightBulbChangeFeed();
+        feed.subscribe(events::add);
+        repository = new ChangePublishingLightBulbRepository(new AbstractJsonLightBulbRepositoryTest.DummyRepo(), feed);
+    }
+
+    @Test
+    @DisplayName("Verifies save publishes an upsert with the id and version of the stored bulb")
+    void save_shouldPublishUpsert() {
+        // Arrange
+        LightBulb bulb = new LightBulb();
+        bulb.setName("Hue");
+
+        // Act
+        repository.save(bulb);
+
+        // Assert
+        assertEquals(1, events.size());
+        LightBulbChangeEvent event = events.get(0);
+        assertEquals(LightBulbChangeEvent.Operation.UPSERT, event.getOperation());
+        assertEquals(bulb.getId(), event.getId());
+        assertEquals(1L, event.getVersion());
+        assertTrue(event.isLocal());
+    }
+
+    @Test
+    @DisplayName("Verifies deleteById publishes a delete event")
+    void deleteById_shouldPublishDelete() {
+        // Act
+        repository.deleteById(9L);
+
+        // Assert
+        assertEquals(1, events.size());
+        assertEquals(LightBulbChangeEvent.Operation.DELETE, events.get(0).getOperation());
+        assertEquals(9L, events.get(0).getId());
+    }
+
+    @Test
+    @DisplayName("Verifies reads do not publish events")
+    void findAll_shouldNotPublish() {
+        // Act
+        repository.findAll();
+        repository.findById(1L);
+
+        // Assert
+        assertTrue(events.isEmpty());
+    }
+
+
+    @Test
+    @DisplayName("Verifies patch publishes an upsert with the new version")
+    void patch_shouldPublishUpsert() {
+        // Arrange
+        LightBulb bulb = new LightBulb();
+        bulb.setName("Hue");
+        repository.save(bulb);
+        events.clear();
+
+        // Act
+        repository.patch(bulb.getId(), new LightBulbPatch("Hue Go", null, null), null);
+
+        // Assert
+        assertEquals(1, events.size());
+        assertEquals(LightBulbChangeEvent.Operation.UPSERT, events.get(0).getOperation());
+        assertEquals(2L, events.get(0).getVersion());
+    }
+
+    @Test
+    @DisplayName("Verifies saveAll publishes one upsert per stored bulb")
+    void saveAll_shouldPublishUpsertPerBulb() {
+        // Arrange
+        LightBulb first = new LightBulb(); first.setName("A");
+        LightBulb second = new LightBulb(); second.setName("B");
+
+        // Act
+        repository.saveAll(List.of(first, second));
+
+        // Assert
+        assertEquals(2, events.size());
+        assertEquals(first.getId(), events.get(0).getId());
+        assertEquals(second.getId(), events.get(1).getId());
+    }
+
+    @Test
+    @DisplayName("Verifies a partly written batch publishes upserts only for the bulbs that were stored")
+    void saveAll_whenPartlyWritten_shouldPublishStoredBulbs() {
+        // Arrange
+        LightBulbChangeFeed feed = new LightBulbChangeFeed();
+        feed.subscribe(events::add);
+        ChangePublishingLightBulbRepository partial = new ChangePublishingLightBulbRepository(
+                new AbstractJsonLightBulbRepositoryTest.DummyRepo() {
+                    @Override
+                    public List<LightBulb> saveAll(List<LightBulb> bulbs) {
+                        super.saveAll(bulbs);
+                        throw new PartialBatchWriteException("1 of 2 bulbs were left unprocessed", 1, bulbs.subList(1, 2));
+                    }
+                }, feed);
+        LightBulb first = new LightBulb(); first.setName("A");
+        LightBulb second = new LightBulb(); second.setName("B");
+
+        // Act
+        assertThrows(PartialBatchWriteException.class, () -> partial.saveAll(List.of(first, second)));
+
+        // Assert
+        assertEquals(1, events.size());
+        assertEquals(first.getId(), events.get(0).getId());
+    }
+}
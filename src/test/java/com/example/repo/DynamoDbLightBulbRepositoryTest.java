@@ -1,6 +1,12 @@
 package com.example.repo;
 
+import com.example.exception.PartialBatchWriteException;
+import com.example.exception.VersionConflictException;
 import com.example.model.LightBulb;
+import com.example.model.LightBulbPatch;
+import com.example.resilience.AdaptiveRateLimiter;
+import com.example.resilience.Deadline;
+import com.example.resilience.ThrottleMetrics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -9,16 +15,29 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
 import software.amazon.awssdk.core.pagination.sync.SdkIterable;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteResult;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
 import software.amazon.awssdk.enhanced.dynamodb.model.PageIterable;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -105,7 +124,57 @@ class DynamoDbLightBulbRepositoryTest {
         // Assert
         assertNotNull(savedBulb);
         assertNotNull(savedBulb.getId());
-        verify(lightBulbTable).putItem(bulb);
+        verify(lightBulbTable).putItem(argThat((PutItemEnhancedRequest<LightBulb> request) -> request.item() == bulb
+                && "attribute_not_exists(#id)".equals(request.conditionExpression().expression())));
+    }
+
+    @Test
+    @DisplayName("Verifies a generated id that is already taken is replaced instead of overwriting the other bulb")
+    void save_whenGeneratedIdIsTaken_shouldRetryWithNewId() {
+        // Arrange
+        AtomicLong ids = new AtomicLong(100);
+        repository = new DynamoDbLightBulbRepository(dynamoDbClient, TABLE_NAME, ids::incrementAndGet);
+        doThrow(ConditionalCheckFailedException.builder().build())
+                .doNothing()
+                .when(lightBulbTable).putItem(any(PutItemEnhancedRequest.class));
+        LightBulb bulb = new LightBulb();
+        bulb.setName("Test Bulb");
+
+        // Act
+        LightBulb savedBulb = repository.save(bulb);
+
+        // Assert
+        assertEquals(102L, savedBulb.getId());
+        assertEquals(1L, savedBulb.getVersion());
+        verify(lightBulbTable, times(2)).putItem(any(PutItemEnhancedRequest.class));
+        verify(lightBulbTable, never()).putItem(any(LightBulb.class));
+    }
+
+    @Test
+    @DisplayName("Verifies a create retried after throttling stays conditional instead of overwriting")
+    void save_whenGeneratedIdCreateIsThrottled_shouldRetryConditionally() {
+        // Arrange
+        AtomicLong ids = new AtomicLong(100);
+        repository = new DynamoDbLightBulbRepository(dynamoDbClient, TABLE_NAME, ids::incrementAndGet);
+        AdaptiveRateLimiter rateLimiter = new AdaptiveRateLimiter(1000, 100_000, 0, 0.7);
+        ThrottlingLightBulbRepository throttling = new ThrottlingLightBulbRepository(
+                repository, rateLimiter, new ThrottleMetrics(rateLimiter), 3, 1, 5);
+        doThrow(DynamoDbException.builder().statusCode(400)
+                        .awsErrorDetails(AwsErrorDetails.builder().errorCode("ProvisionedThroughputExceededException").build())
+                        .build())
+                .doNothing()
+                .when(lightBulbTable).putItem(any(PutItemEnhancedRequest.class));
+        LightBulb bulb = new LightBulb();
+        bulb.setName("Test Bulb");
+
+        // Act
+        LightBulb savedBulb = throttling.save(bulb);
+
+        // Assert
+        assertEquals(102L, savedBulb.getId());
+        assertEquals(1L, savedBulb.getVersion());
+        verify(lightBulbTable, times(2)).putItem(any(PutItemEnhancedRequest.class));
+        verify(lightBulbTable, never()).putItem(any(LightBulb.class));
     }
 
     @Test
@@ -218,4 +287,168 @@ class DynamoDbLightBulbRepositoryTest {
         // Assert
         verify(lightBulbTable).deleteItem(any(Key.class));
     }
+
+    @Test
+    @DisplayName("Verifies findPage fetches one limited scan page and returns its last key as cursor")
+    void findPage_shouldReturnOnePageWithCursor() {
+        // Arrange
+        LightBulb bulb = new LightBulb();
+        bulb.setId(42L);
+        bulb.setName("Paged Bulb");
+        when(lightBulbTable.scan(any(ScanEnhancedRequest.class))).thenReturn(pageIterable);
+        when(pageIterable.iterator()).thenReturn(List.of(
+                Page.create(List.of(bulb), Map.of("id", AttributeValue.fromN("42")))).iterator());
+
+        // Act
+        LightBulbPage page = repository.findPage("7", 1);
+
+        // Assert
+        assertEquals(List.of(bulb), page.getItems());
+        assertEquals("42", page.getNextCursor());
+        verify(lightBulbTable).scan(argThat((ScanEnhancedRequest request) -> request.limit() == 1
+                && "7".equals(request.exclusiveStartKey().get("id").n())));
+    }
+
+
+    @Test
+    @DisplayName("Verifies patch sends one UpdateItem that sets only the patched attributes")
+    void patch_shouldUpdateOnlyPatchedAttributes() {
+        // Arrange
+        when(dynamoDbClient.updateItem(any(UpdateItemRequest.class))).thenReturn(UpdateItemResponse.builder()
+                .attributes(Map.of(
+                        "id", AttributeValue.fromN("5"),
+                        "name", AttributeValue.fromS("Desk"),
+                        "type", AttributeValue.fromS("LED"),
+                        "wattage", AttributeValue.fromN("12"),
+                        "version", AttributeValue.fromN("4")))
+                .build());
+
+        // Act
+        Optional<LightBulb> result = repository.patch(5L, new LightBulbPatch(null, null, 12), 3L);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(12, result.get().getWattage());
+        assertEquals(4L, result.get().getVersion());
+        verify(dynamoDbClient).updateItem(argThat((UpdateItemRequest request) ->
+                request.updateExpression().contains("#wattage = :wattage")
+                        && !request.updateExpression().contains("#name")
+                        && request.updateExpression().contains("ADD #version :one")
+                        && request.conditionExpression().contains("#version = :expectedVersion")
+                        && "3".equals(request.expressionAttributeValues().get(":expectedVersion").n())));
+        verify(lightBulbTable, never()).getItem(any(Key.class));
+    }
+
+    @Test
+    @DisplayName("Verifies patch tells a missing bulb apart from a stale version")
+    void patch_whenConditionFails_shouldReturnEmptyOrConflict() {
+        // Arrange
+        when(dynamoDbClient.updateItem(any(UpdateItemRequest.class)))
+                .thenThrow(ConditionalCheckFailedException.builder().build())
+                .thenThrow(ConditionalCheckFailedException.builder()
+                        .item(Map.of("id", AttributeValue.fromN("5"), "version", AttributeValue.fromN("7")))
+                        .build());
+
+        // Act & Assert
+        assertTrue(repository.patch(5L, new LightBulbPatch("Desk", null, null), null).isEmpty());
+        assertThrows(VersionConflictException.class,
+                () -> repository.patch(5L, new LightBulbPatch("Desk", null, null), 3L));
+    }
+
+    @Test
+    @DisplayName("Verifies saveAll sends one BatchWriteItem and resends the items DynamoDB left unprocessed")
+    void saveAll_shouldBatchWriteAndRetryUnprocessedItems() {
+        // Arrange
+        when(lightBulbTable.tableSchema()).thenReturn(DynamoDbLightBulbRepository.SCHEMA);
+        when(lightBulbTable.tableName()).thenReturn(TABLE_NAME);
+        LightBulb first = new LightBulb(); first.setName("A"); first.setType("LED"); first.setWattage(5);
+        LightBulb second = new LightBulb(); second.setName("B"); second.setType("LED"); second.setWattage(7);
+        BatchWriteResult throttled = mock(BatchWriteResult.class);
+        when(throttled.unprocessedPutItemsForTable(lightBulbTable)).thenReturn(List.of(second));
+        BatchWriteResult done = mock(BatchWriteResult.class);
+        when(done.unprocessedPutItemsForTable(lightBulbTable)).thenReturn(List.of());
+        when(dynamoDbEnhancedClient.batchWriteItem(any(BatchWriteItemEnhancedRequest.class)))
+                .thenReturn(throttled, done);
+
+        // Act
+        List<LightBulb> saved = repository.saveAll(List.of(first, second));
+
+        // Assert
+        assertEquals(2, saved.size());
+        assertNotNull(first.getId());
+        assertEquals(1L, second.getVersion());
+        verify(dynamoDbEnhancedClient, times(2)).batchWriteItem(any(BatchWriteItemEnhancedRequest.class));
+        verify(lightBulbTable, never()).putItem(any(LightBulb.class));
+        assertEquals(25, repository.writeBatchSize());
+    }
+
+    @Test
+    @DisplayName("Verifies saveAll stops resending within the deadline and reports only the unprocessed items")
+    void saveAll_whenItemsStayUnprocessedPastDeadline_shouldReportThemAsThrottles() {
+        // Arrange
+        when(lightBulbTable.tableSchema()).thenReturn(DynamoDbLightBulbRepository.SCHEMA);
+        when(lightBulbTable.tableName()).thenReturn(TABLE_NAME);
+        AdaptiveRateLimiter rateLimiter = mock(AdaptiveRateLimiter.class);
+        DynamoDbLightBulbRepository limited = new DynamoDbLightBulbRepository(
+                dynamoDbClient, TABLE_NAME, SnowflakeIdGenerator.shared(), rateLimiter);
+        LightBulb first = new LightBulb(); first.setName("A"); first.setType("LED"); first.setWattage(5);
+        LightBulb second = new LightBulb(); second.setName("B"); second.setType("LED"); second.setWattage(7);
+        BatchWriteResult throttled = mock(BatchWriteResult.class);
+        when(throttled.unprocessedPutItemsForTable(lightBulbTable)).thenReturn(List.of(second));
+        when(dynamoDbEnhancedClient.batchWriteItem(any(BatchWriteItemEnhancedRequest.class))).thenReturn(throttled);
+
+        // Act
+        PartialBatchWriteException e;
+        try (Deadline.Scope ignored = Deadline.attach(Deadline.after(250))) {
+            e = assertThrows(PartialBatchWriteException.class, () -> limited.saveAll(List.of(first, second)));
+        }
+
+        // Assert
+        assertEquals(List.of(second), e.getUnprocessed());
+        // 50 and 100 ms waits fit the deadline, the 200 ms one does not
+        verify(dynamoDbEnhancedClient, times(3)).batchWriteItem(any(BatchWriteItemEnhancedRequest.class));
+        verify(rateLimiter, times(3)).onThrottle();
+    }
+
+    @Test
+    @DisplayName("Verifies findSegmentPage scans only the requested segment of a parallel scan")
+    void findSegmentPage_shouldScanRequestedSegment() {
+        // Arrange
+        LightBulb bulb = new LightBulb(); bulb.setId(9L); bulb.setName("Desk");
+        when(lightBulbTable.scan(any(ScanEnhancedRequest.class))).thenReturn(pageIterable);
+        when(pageIterable.iterator()).thenReturn(List.of(Page.create(List.of(bulb),
+                Map.of("id", AttributeValue.fromN("9")))).iterator());
+
+        // Act
+        LightBulbPage page = repository.findSegmentPage(2, 4, null, 100);
+
+        // Assert
+        assertEquals(List.of(bulb), page.getItems());
+        assertEquals("9", page.getNextCursor());
+        verify(lightBulbTable).scan(argThat((ScanEnhancedRequest request) -> request.segment() == 2
+                && request.totalSegments() == 4 && request.limit() == 100));
+    }
+
+    @Test
+    @DisplayName("Verifies the static table schema maps bulbs exactly like the @DynamoDbBean schema")
+    void schema_shouldMatchBeanSchema() {
+        // Arrange
+        TableSchema<LightBulb> bean = TableSchema.fromBean(LightBulb.class);
+        LightBulb bulb = new LightBulb();
+        bulb.setId(42L); bulb.setName("Desk"); bulb.setType("LED"); bulb.setWattage(9);
+        bulb.setVersion(3L); bulb.setLastModified(1_700_000_000_000L);
+        LightBulb sparse = new LightBulb();
+        sparse.setId(43L);
+
+        // Act & Assert
+        assertEquals(bean.itemToMap(bulb, false), DynamoDbLightBulbRepository.SCHEMA.itemToMap(bulb, false));
+        assertEquals(bean.itemToMap(sparse, true), DynamoDbLightBulbRepository.SCHEMA.itemToMap(sparse, true));
+        assertEquals(bean.attributeNames(), DynamoDbLightBulbRepository.SCHEMA.attributeNames());
+        assertEquals(bean.tableMetadata().primaryPartitionKey(),
+                DynamoDbLightBulbRepository.SCHEMA.tableMetadata().primaryPartitionKey());
+        LightBulb read = DynamoDbLightBulbRepository.SCHEMA.mapToItem(bean.itemToMap(bulb, true));
+        assertEquals(bulb.toString(), read.toString());
+        assertEquals(bulb.getLastModified(), read.getLastModified());
+        assertEquals(0, DynamoDbLightBulbRepository.SCHEMA.mapToItem(bean.itemToMap(sparse, true)).getWattage());
+    }
 }
@@ -0,0 +1,103 @@
+package com.example.repo;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class LeasedIdGeneratorTest {
+
+    private static final long LEASE_MILLIS = 60_000;
+
+    private final DynamoDbClient dynamoDb = mock(DynamoDbClient.class);
+    private final AtomicLong clock = new AtomicLong(SnowflakeIdGenerator.EPOCH_MILLIS + 1_000_000);
+    private final LeasedIdGenerator generator = new LeasedIdGenerator(dynamoDb, "workers", LEASE_MILLIS, clock::get);
+
+    private static long workerOf(long id) {
+        return (id >>> SnowflakeIdGenerator.SEQUENCE_BITS) & SnowflakeIdGenerator.MAX_WORKER_ID;
+    }
+
+    private List<PutItemRequest> claims() {
+        List<PutItemRequest> claims = new ArrayList<>();
+        mockingDetails(dynamoDb).getInvocations().forEach(i -> claims.add(i.getArgument(0)));
+        return claims;
+    }
+
+    @Test
+    @DisplayName("Verifies ids carry the leased worker id and the lease is only renewed after half its time")
+    void nextId_shouldLeaseOnceAndRenewAtHalfTime() {
+        // Arrange
+        when(dynamoDb.putItem(any(PutItemRequest.class))).thenReturn(PutItemResponse.builder().build());
+
+        // Act
+        long first = generator.nextId();
+        long second = generator.nextId();
+        clock.addAndGet(LEASE_MILLIS / 2);
+        long renewed = generator.nextId();
+
+        // Assert
+        long workerId = generator.getWorkerId();
+        assertEquals(workerId, workerOf(first));
+        assertEquals(workerId, workerOf(second));
+        assertEquals(workerId, workerOf(renewed));
+        List<PutItemRequest> claims = claims();
+        assertEquals(2, claims.size());
+        assertEquals(Long.toString(workerId), claims.get(1).item().get(LeasedIdGenerator.WORKER_ID).n());
+        assertEquals(claims.get(0).item().get("owner").s(), claims.get(1).item().get("owner").s());
+        assertTrue(claims.get(0).conditionExpression().contains("#expiresAt < :nowSeconds"));
+    }
+
+    @Test
+    @DisplayName("Verifies taken worker ids are skipped and a lease lost while frozen is replaced")
+    void nextId_whenWorkerIdTaken_shouldClaimAnother() {
+        // Arrange
+        when(dynamoDb.putItem(any(PutItemRequest.class)))
+                .thenThrow(ConditionalCheckFailedException.builder().build())
+                .thenReturn(PutItemResponse.builder().build())
+                .thenThrow(ConditionalCheckFailedException.builder().build())
+                .thenReturn(PutItemResponse.builder().build());
+
+        // Act
+        generator.nextId();
+        long leased = generator.getWorkerId();
+        clock.addAndGet(10 * LEASE_MILLIS);
+        long afterThaw = generator.nextId();
+
+        // Assert
+        List<PutItemRequest> claims = claims();
+        assertEquals(4, claims.size());
+        assertNotEquals(claims.get(0).item().get(LeasedIdGenerator.WORKER_ID).n(), Long.toString(leased));
+        assertEquals(Long.toString(leased), claims.get(2).item().get(LeasedIdGenerator.WORKER_ID).n());
+        assertNotEquals(leased, generator.getWorkerId());
+        assertEquals(generator.getWorkerId(), workerOf(afterThaw));
+    }
+
+    @Test
+    @DisplayName("Verifies a reset drops the lease and claims anew under another owner")
+    void reset_shouldClaimUnderANewOwner() {
+        // Arrange
+        when(dynamoDb.putItem(any(PutItemRequest.class))).thenReturn(PutItemResponse.builder().build());
+        generator.nextId();
+
+        // Act
+        generator.reset();
+        long beforeNextId = generator.getWorkerId();
+        generator.nextId();
+
+        // Assert
+        assertEquals(-1, beforeNextId);
+        List<PutItemRequest> claims = claims();
+        assertEquals(2, claims.size());
+        assertNotEquals(claims.get(0).item().get("owner").s(), claims.get(1).item().get("owner").s());
+    }
+}
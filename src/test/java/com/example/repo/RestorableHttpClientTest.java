@@ -0,0 +1,60 @@
+package com.example.repo;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.http.HttpExecuteRequest;
+import software.amazon.awssdk.http.SdkHttpClient;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RestorableHttpClientTest {
+
+    @Test
+    @DisplayName("Verifies reset closes the current client and the next request builds a new one")
+    void reset_shouldCloseAndReplaceTheClient() {
+        // Arrange
+        List<SdkHttpClient> built = new ArrayList<>();
+        RestorableHttpClient client = new RestorableHttpClient(() -> {
+            SdkHttpClient delegate = mock(SdkHttpClient.class);
+            built.add(delegate);
+            return delegate;
+        });
+        HttpExecuteRequest request = mock(HttpExecuteRequest.class);
+
+        // Act
+        client.prepareRequest(request);
+        client.prepareRequest(request);
+        client.reset();
+        client.reset();
+        client.prepareRequest(request);
+
+        // Assert
+        assertEquals(2, built.size());
+        verify(built.get(0), times(2)).prepareRequest(request);
+        verify(built.get(0)).close();
+        verify(built.get(1)).prepareRequest(request);
+        verify(built.get(1), never()).close();
+    }
+
+    @Test
+    @DisplayName("Verifies no client is built until the first request")
+    void reset_beforeFirstRequest_shouldNotBuildAClient() {
+        // Arrange
+        List<SdkHttpClient> built = new ArrayList<>();
+        RestorableHttpClient client = new RestorableHttpClient(() -> {
+            SdkHttpClient delegate = mock(SdkHttpClient.class);
+            built.add(delegate);
+            return delegate;
+        });
+
+        // Act
+        client.close();
+
+        // Assert
+        assertTrue(built.isEmpty());
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.repo;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class S3MultipartOutputStreamTest {
+
+    private static final int PART_SIZE = S3MultipartOutputStream.MIN_PART_SIZE;
+
+    @Mock
+    private S3Client s3Client;
+
+    @Test
+    @DisplayName("Verifies output smaller than one part is sent as a single PutObject")
+    @SuppressWarnings("unchecked")
+    void close_whenBelowPartSize_shouldPutObject() throws IOException {
+        // Arrange
+        S3MultipartOutputStream out = new S3MultipartOutputStream(s3Client, "bucket", "key", PART_SIZE, "application/gzip");
+
+        // Act
+        out.write(new byte[100]);
+        out.close();
+
+        // Assert
+        verify(s3Client).putObject(any(Consumer.class), any(RequestBody.class));
+        verify(s3Client, never()).createMultipartUpload(any(Consumer.class));
+        assertEquals(100, out.getBytesUploaded());
+    }
+
+    @Test
+    @DisplayName("Verifies larger output is uploaded part by part and completed on close")
+    @SuppressWarnings("unchecked")
+    void close_whenAbovePartSize_shouldCompleteMultipartUpload() throws IOException {
+        // Arrange
+        when(s3Client.createMultipartUpload(any(Consumer.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-1").build());
+        when(s3Client.uploadPart(any(Consumer.class), any(RequestBody.class)))
+                .thenReturn(UploadPartResponse.builder().eTag("etag").build());
+        S3MultipartOutputStream out = new S3MultipartOutputStream(s3Client, "bucket", "key", PART_SIZE, "application/gzip");
+
+        // Act
+        out.write(new byte[PART_SIZE + 10]);
+        out.write(new byte[PART_SIZE]);
+        out.close();
+
+        // Assert
+        verify(s3Client, times(3)).uploadPart(any(Consumer.class), any(RequestBody.class));
+        verify(s3Client).completeMultipartUpload(any(Consumer.class));
+        verify(s3Client, never()).putObject(any(Consumer.class), any(RequestBody.class));
+        assertEquals(2L * PART_SIZE + 10, out.getBytesUploaded());
+    }
+
+    @Test
+    @DisplayName("Verifies a failed upload is aborted")
+    @SuppressWarnings("unchecked")
+    void close_whenCompleteFails_shouldAbortUpload() throws IOException {
+        // Arrange
+        when(s3Client.createMultipartUpload(any(Consumer.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-1").build());
+        when(s3Client.uploadPart(any(Consumer.class), any(RequestBody.class)))
+                .thenReturn(UploadPartResponse.builder().eTag("etag").build());
+        when(s3Client.completeMultipartUpload(any(Consumer.class))).thenThrow(S3Exception.builder().message("boom").build());
+        S3MultipartOutputStream out = new S3MultipartOutputStream(s3Client, "bucket", "key", PART_SIZE, "application/gzip");
+        out.write(new byte[PART_SIZE]);
+
+        // Act & Assert
+        assertThrows(IOException.class, out::close);
+        verify(s3Client).abortMultipartUpload(any(Consumer.class));
+        assertThrows(IOException.class, () -> out.write(1));
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.repo;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnowflakeIdGeneratorTest {
+
+    @Test
+    @DisplayName("Verifies nextId embeds the worker id and is strictly increasing")
+    void nextId_whenCalledRepeatedly_shouldIncreaseAndCarryWorkerId() {
+        // Arrange
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(42);
+        // Act
+        long first = generator.nextId();
+        long second = generator.nextId();
+        // Assert
+        assertTrue(first > 0);
+        assertTrue(second > first);
+        assertEquals(42, (first >>> SnowflakeIdGenerator.SEQUENCE_BITS) & SnowflakeIdGenerator.MAX_WORKER_ID);
+    }
+
+    @Test
+    @DisplayName("Verifies nextId borrows the next millisecond when the sequence is exhausted")
+    void nextId_whenSequenceExhausted_shouldStayUnique() {
+        // Arrange - frozen clock
+        long now = SnowflakeIdGenerator.EPOCH_MILLIS + 1000;
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, () -> now);
+        Set<Long> ids = new HashSet<>();
+        // Act
+        for (int i = 0; i < 3 * (SnowflakeIdGenerator.SEQUENCE_MASK + 1); i++) {
+            ids.add(generator.nextId());
+        }
+        // Assert
+        assertEquals(3 * (SnowflakeIdGenerator.SEQUENCE_MASK + 1), ids.size());
+    }
+
+    @Test
+    @DisplayName("Verifies nextId stays monotonic when the clock moves backwards")
+    void nextId_whenClockMovesBackwards_shouldStayMonotonic() {
+        // Arrange
+        AtomicLong clock = new AtomicLong(SnowflakeIdGenerator.EPOCH_MILLIS + 5000);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7, clock::get);
+        long before = generator.nextId();
+        // Act
+        clock.addAndGet(-2000);
+        long after = generator.nextId();
+        // Assert
+        assertTrue(after > before);
+    }
+
+    @Test
+    @DisplayName("Verifies nextId never returns duplicates under concurrent use")
+    void nextId_whenCalledConcurrently_shouldNotCollide() throws Exception {
+        // Arrange
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3);
+        int threads = 8;
+        int perThread = 20_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        List<Future<?>> futures = new ArrayList<>();
+        // Act
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    ids.add(generator.nextId());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        // Assert
+        assertEquals(threads * perThread, ids.size());
+    }
+
+    @Test
+    @DisplayName("Verifies different workers never produce the same id for the same instant")
+    void nextId_whenWorkersDiffer_shouldNotCollide() {
+        // Arrange
+        long now = SnowflakeIdGenerator.EPOCH_MILLIS + 1000;
+        SnowflakeIdGenerator a = new SnowflakeIdGenerator(1, () -> now);
+        SnowflakeIdGenerator b = new SnowflakeIdGenerator(2, () -> now);
+        // Act & Assert
+        assertNotEquals(a.nextId(), b.nextId());
+    }
+
+    @Test
+    @DisplayName("Verifies constructor rejects worker ids outside 10 bits")
+    void constructor_whenWorkerIdOutOfRange_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(1024));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1));
+    }
+
+    @Test
+    @DisplayName("Verifies resolveWorkerId prefers the configured value and derives one otherwise")
+    void resolveWorkerId_shouldPreferConfiguredValue() {
+        assertEquals(17, SnowflakeIdGenerator.resolveWorkerId("17"));
+        long derived = SnowflakeIdGenerator.resolveWorkerId("");
+        assertTrue(derived >= 0 && derived <= SnowflakeIdGenerator.MAX_WORKER_ID);
+    }
+
+    @Test
+    @DisplayName("Verifies reset with a worker id moves later ids to the new worker")
+    void reset_withWorkerId_shouldChangeWorkerAndKeepIssuing() {
+        // Arrange
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3);
+        generator.nextId();
+        // Act
+        generator.reset(700);
+        long id = generator.nextId();
+        // Assert
+        assertEquals(700, generator.getWorkerId());
+        assertEquals(700, (id >>> SnowflakeIdGenerator.SEQUENCE_BITS) & SnowflakeIdGenerator.MAX_WORKER_ID);
+        assertThrows(IllegalArgumentException.class, () -> generator.reset(1024));
+    }
+
+    @Test
+    @DisplayName("Verifies restored worker ids honour the configured value and are random otherwise")
+    void resolveRestoredWorkerId_shouldPreferConfiguredValue() {
+        assertEquals(17, SnowflakeIdGenerator.resolveRestoredWorkerId("17"));
+        Set<Long> drawn = new HashSet<>();
+        for (int i = 0; i < 50; i++) {
+            long workerId = SnowflakeIdGenerator.resolveRestoredWorkerId(null);
+            assertTrue(workerId >= 0 && workerId <= SnowflakeIdGenerator.MAX_WORKER_ID);
+            drawn.add(workerId);
+        }
+        assertTrue(drawn.size() > 1);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.repo;
+
+import com.example.exception.ServiceUnavailableException;
+import com.example.model.LightBulb;
+import com.example.resilience.AdaptiveRateLimiter;
+import com.example.resilience.Deadline;
+import com.example.resilience.ThrottleMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ThrottlingLightBulbRepositoryTest {
+
+    @Mock
+    private LightBulbRepository delegate;
+
+    private AdaptiveRateLimiter rateLimiter;
+    private ThrottleMetrics metrics;
+    private ThrottlingLightBulbRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new AdaptiveRateLimiter(1000, 100_000, 0, 0.7);
+        metrics = new ThrottleMetrics(rateLimiter);
+        repository = new ThrottlingLightBulbRepository(delegate, rateLimiter, metrics, 3, 1, 5);
+    }
+
+    private static RuntimeException throttled() {
+        return new RuntimeException("Failed to retrieve light bulbs",
+                DynamoDbException.builder().statusCode(429).message("Rate exceeded").build());
+    }
+
+    @Test
+    @DisplayName("Verifies a throttled call is retried and succeeds")
+    void findById_whenThrottledOnce_shouldRetryAndReturnResult() {
+        // Arrange
+        LightBulb bulb = new LightBulb();
+        bulb.setId(1L);
+        when(delegate.findById(1L)).thenThrow(throttled()).thenReturn(Optional.of(bulb));
+
+        // Act
+        Optional<LightBulb> result = repository.findById(1L);
+
+        // Assert
+        assertTrue(result.isPresent());
+        verify(delegate, times(2)).findById(1L);
+        assertEquals(1L, metrics.metricsSnapshot().get("throttled"));
+        assertEquals(1L, metrics.metricsSnapshot().get("retries"));
+        assertTrue(rateLimiter.isEnabled());
+    }
+
+    @Test
+    @DisplayName("Verifies persistent throttling surfaces as ServiceUnavailableException after max attempts")
+    void findAll_whenAlwaysThrottled_shouldThrowServiceUnavailable() {
+        // Arrange
+        when(delegate.findAll()).thenThrow(throttled());
+
+        // Act & Assert
+        assertThrows(ServiceUnavailableException.class, () -> repository.findAll());
+        verify(delegate, times(3)).findAll();
+        assertEquals(1L, metrics.metricsSnapshot().get("retriesExhausted"));
+    }
+
+    @Test
+    @DisplayName("Verifies non-retryable failures are not retried")
+    void save_whenNonRetryableFailure_shouldNotRetry() {
+        // Arrange
+        LightBulb bulb = new LightBulb();
+        when(delegate.save(bulb)).thenThrow(new RuntimeException("validation failed"));
+
+        // Act & Assert
+        RuntimeException thrown = assertThrows(RuntimeException.class, () -> repository.save(bulb));
+        assertEquals("validation failed", thrown.getMessage());
+        verify(delegate, times(1)).save(bulb);
+        assertEquals(0L, metrics.metricsSnapshot().get("retries"));
+    }
+
+    @Test
+    @DisplayName("Verifies deleteById delegates to the wrapped repository")
+    void deleteById_shouldDelegate() {
+        // Act
+        repository.deleteById(5L);
+
+        // Assert
+        verify(delegate).deleteById(5L);
+    }
+
+    @Test
+    @DisplayName("Verifies calls fail fast with ServiceUnavailableException once the request deadline has passed")
+    void findById_whenDeadlineExpired_shouldNotCallBackend() {
+        // Arrange
+        try (Deadline.Scope ignored = Deadline.attach(Deadline.after(0))) {
+            // Act & Assert
+            assertThrows(ServiceUnavailableException.class, () -> repository.findById(1L));
+        }
+        verifyNoInteractions(delegate);
+        assertEquals(1L, metrics.metricsSnapshot().get("retriesExhausted"));
+    }
+
+    @Test
+    @DisplayName("Verifies an SDK call cut off by the deadline-capped timeout is not retried")
+    void findAll_whenApiCallTimesOutUnderDeadline_shouldThrowServiceUnavailable() {
+        // Arrange
+        when(delegate.findAll()).thenThrow(new RuntimeException("Failed to retrieve light bulbs",
+                ApiCallTimeoutException.create(50)));
+
+        // Act & Assert
+        try (Deadline.Scope ignored = Deadline.attach(Deadline.after(60_000))) {
+            assertThrows(ServiceUnavailableException.class, () -> repository.findAll());
+        }
+        verify(delegate, times(1)).findAll();
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.resilience;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveRateLimiterTest {
+
+    @Test
+    @DisplayName("Verifies reserve never waits before the backend has throttled")
+    void reserve_whenNeverThrottled_shouldNotWait() {
+        // Arrange
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(1, 100, 1, 0.5);
+        // Act & Assert
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0, limiter.reserve());
+        }
+        assertFalse(limiter.isEnabled());
+        assertEquals(-1, limiter.currentRate());
+    }
+
+    @Test
+    @DisplayName("Verifies onThrottle enables the limiter and makes callers wait")
+    void reserve_afterThrottle_shouldMakeCallersWait() {
+        // Arrange
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(1, 100, 0, 0.5);
+        // Act
+        limiter.onThrottle();
+        long firstWait = limiter.reserve();
+        long secondWait = limiter.reserve();
+        // Assert
+        assertTrue(limiter.isEnabled());
+        assertTrue(firstWait > 0);
+        assertTrue(secondWait > firstWait);
+    }
+
+    @Test
+    @DisplayName("Verifies release hands back a reserved token")
+    void release_shouldReturnToken() {
+        // Arrange
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(1, 100, 0, 0.5);
+        limiter.onThrottle();
+        long firstWait = limiter.reserve();
+        // Act
+        limiter.release();
+        long retriedWait = limiter.reserve();
+        // Assert
+        assertTrue(retriedWait <= firstWait);
+    }
+
+    @Test
+    @DisplayName("Verifies repeated throttles never push the rate below the minimum")
+    void onThrottle_whenRepeated_shouldRespectMinimumRate() throws InterruptedException {
+        // Arrange
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(2, 100, 0, 0.5);
+        // Act
+        for (int i = 0; i < 5; i++) {
+            limiter.onThrottle();
+            Thread.sleep(110);
+        }
+        // Assert
+        assertEquals(2, limiter.currentRate(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Verifies constructor rejects inconsistent rates")
+    void constructor_whenRatesInvalid_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveRateLimiter(0, 10, 1, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveRateLimiter(10, 5, 1, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveRateLimiter(1, 5, 1, 1.5));
+    }
+}
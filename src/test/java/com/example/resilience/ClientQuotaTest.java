@@ -0,0 +1,87 @@
+package com.example.resilience;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientQuotaTest {
+
+    @Test
+    @DisplayName("Verifies a client gets its burst, then waits one emission interval per token")
+    void tryAcquire_afterBurst_shouldReturnWait() {
+        // Arrange
+        AtomicLong clock = new AtomicLong(-5_000_000_000L);
+        ClientQuota quota = new ClientQuota(10, 3, 16, clock::get);
+        // Act & Assert
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, quota.tryAcquire("ip:10.0.0.1"));
+        }
+        long wait = quota.tryAcquire("ip:10.0.0.1");
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), wait);
+        clock.addAndGet(wait);
+        assertEquals(0, quota.tryAcquire("ip:10.0.0.1"));
+        assertTrue(quota.tryAcquire("ip:10.0.0.1") > 0);
+    }
+
+    @Test
+    @DisplayName("Verifies an idle client's bucket refills only up to the burst")
+    void tryAcquire_afterIdle_shouldRefillUpToBurst() {
+        // Arrange
+        AtomicLong clock = new AtomicLong();
+        ClientQuota quota = new ClientQuota(10, 2, 16, clock::get);
+        quota.tryAcquire("key:a");
+        quota.tryAcquire("key:a");
+        // Act
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        // Assert
+        assertEquals(0, quota.tryAcquire("key:a"));
+        assertEquals(0, quota.tryAcquire("key:a"));
+        assertTrue(quota.tryAcquire("key:a") > 0);
+    }
+
+    @Test
+    @DisplayName("Verifies clients in different stripes do not share a budget")
+    void tryAcquire_shouldKeepClientsApart() {
+        // Arrange
+        ClientQuota quota = new ClientQuota(1, 1, 1 << 16, () -> 0L);
+        // Act
+        assertEquals(0, quota.tryAcquire("ip:10.0.0.1"));
+        // Assert
+        assertTrue(quota.tryAcquire("ip:10.0.0.1") > 0);
+        assertEquals(0, quota.tryAcquire("ip:10.0.0.2"));
+    }
+
+    @Test
+    @DisplayName("Verifies concurrent callers never get more than the burst from a frozen clock")
+    void tryAcquire_whenConcurrent_shouldNotOverAdmit() throws Exception {
+        // Arrange
+        ClientQuota quota = new ClientQuota(1, 50, 16, () -> 0L);
+        AtomicInteger admitted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        // Act
+        for (int i = 0; i < 400; i++) {
+            executor.execute(() -> {
+                if (quota.tryAcquire("key:shared") == 0) {
+                    admitted.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        // Assert
+        assertEquals(50, admitted.get());
+    }
+
+    @Test
+    @DisplayName("Verifies the stripe count must be a power of two")
+    void constructor_whenStripesNotPowerOfTwo_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new ClientQuota(1, 1, 1000));
+    }
+}
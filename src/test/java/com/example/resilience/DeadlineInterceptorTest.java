@@ -0,0 +1,79 @@
+package com.example.resilience;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DeadlineInterceptorTest {
+
+    private final DeadlineInterceptor interceptor = new DeadlineInterceptor();
+
+    @Test
+    @DisplayName("Verifies requests without a deadline are left untouched")
+    void modifyRequest_withoutDeadline_shouldKeepRequest() {
+        // Arrange
+        GetItemRequest request = GetItemRequest.builder().tableName("LightBulb").build();
+        // Act
+        SdkRequest modified = interceptor.modifyRequest(context(request), new ExecutionAttributes());
+        // Assert
+        assertSame(request, modified);
+    }
+
+    @Test
+    @DisplayName("Verifies the api call timeout is capped at the time left on the deadline")
+    void modifyRequest_withDeadline_shouldCapApiCallTimeout() {
+        // Arrange
+        GetItemRequest request = GetItemRequest.builder().tableName("LightBulb")
+                .overrideConfiguration(o -> o.apiCallTimeout(Duration.ofSeconds(30)).putHeader("x-test", "kept"))
+                .build();
+        // Act
+        SdkRequest modified;
+        try (Deadline.Scope ignored = Deadline.attach(Deadline.after(2_000))) {
+            modified = interceptor.modifyRequest(context(request), new ExecutionAttributes());
+        }
+        // Assert
+        GetItemRequest capped = (GetItemRequest) modified;
+        Duration timeout = capped.overrideConfiguration().get().apiCallTimeout().get();
+        assertTrue(timeout.toMillis() <= 2_000 && timeout.toMillis() > 1_000);
+        assertEquals("kept", capped.overrideConfiguration().get().headers().get("x-test").get(0));
+        assertEquals("LightBulb", capped.tableName());
+    }
+
+    @Test
+    @DisplayName("Verifies Deadline.propagate carries the submitter's deadline to executor threads")
+    void propagate_shouldAttachDeadlineOnWorkerThread() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> result;
+            // Act
+            try (Deadline.Scope ignored = Deadline.attach(Deadline.after(5_000))) {
+                result = executor.submit(Deadline.propagate(() ->
+                        assertFalse(Deadline.current().isUnbounded())));
+            }
+            result.get();
+            // Assert
+            executor.submit(() -> assertTrue(Deadline.current().isUnbounded())).get();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Context.ModifyRequest context(SdkRequest request) {
+        Context.ModifyRequest context = mock(Context.ModifyRequest.class);
+        when(context.request()).thenReturn(request);
+        return context;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.resilience;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JitterTest {
+
+    @Test
+    @DisplayName("Verifies jitter stays within its bound, also after a reseed")
+    void nextLong_shouldStayWithinBound() {
+        // Arrange
+        boolean sawZero = false;
+        boolean sawMax = false;
+
+        // Act
+        for (int i = 0; i < 10_000; i++) {
+            if (i == 5_000) {
+                Jitter.reseed();
+            }
+            long value = Jitter.nextLong(4);
+
+            // Assert
+            assertTrue(value >= 0 && value < 4, "out of range: " + value);
+            sawZero |= value == 0;
+            sawMax |= value == 3;
+        }
+        assertTrue(sawZero && sawMax);
+        assertEquals(0, Jitter.nextLong(1));
+        assertThrows(IllegalArgumentException.class, () -> Jitter.nextLong(0));
+    }
+}
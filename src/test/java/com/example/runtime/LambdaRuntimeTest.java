@@ -0,0 +1,102 @@
+package com.example.runtime;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LambdaRuntimeTest {
+
+    private StandInRuntimeApi api;
+    private LambdaRuntime runtime;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        api = new StandInRuntimeApi();
+        runtime = new LambdaRuntime(api.address(), Map.of(
+                "AWS_LAMBDA_FUNCTION_NAME", "LightBulbAPI",
+                "AWS_LAMBDA_FUNCTION_MEMORY_SIZE", "256"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        api.close();
+        System.clearProperty("com.amazonaws.xray.traceHeader");
+    }
+
+    @Test
+    @DisplayName("Verifies an invocation's event and context reach the handler and its output is posted back")
+    void next_shouldRunTheHandlerAndPostItsResponse() throws Exception {
+        // Arrange
+        String requestId = api.offer("{\"path\":\"/ping\"}".getBytes(StandardCharsets.UTF_8));
+        AtomicReference<Context> seen = new AtomicReference<>();
+
+        // Act
+        runtime.next((in, out, context) -> {
+            seen.set(context);
+            out.write("{\"statusCode\":200,\"body\":\"".getBytes(StandardCharsets.UTF_8));
+            in.transferTo(out);
+            out.write("\"}".getBytes(StandardCharsets.UTF_8));
+        });
+
+        // Assert
+        StandInRuntimeApi.Result result = api.await(requestId, Duration.ofSeconds(5));
+        assertEquals("invocation/" + requestId + "/response", result.path());
+        assertEquals("{\"statusCode\":200,\"body\":\"{\"path\":\"/ping\"}\"}", new String(result.body(), StandardCharsets.UTF_8));
+        Context context = seen.get();
+        assertEquals(requestId, context.getAwsRequestId());
+        assertEquals(StandInRuntimeApi.FUNCTION_ARN, context.getInvokedFunctionArn());
+        assertEquals("LightBulbAPI", context.getFunctionName());
+        assertEquals(256, context.getMemoryLimitInMB());
+        assertTrue(context.getRemainingTimeInMillis() > 0
+                && context.getRemainingTimeInMillis() <= StandInRuntimeApi.TIMEOUT_MILLIS);
+        assertNotNull(System.getProperty("com.amazonaws.xray.traceHeader"));
+    }
+
+    @Test
+    @DisplayName("Verifies a failing invocation is reported as an error and the next one still runs")
+    void next_whenHandlerThrows_shouldPostTheError() throws Exception {
+        // Arrange
+        String failing = api.offer(new byte[0]);
+        String passing = api.offer(new byte[0]);
+
+        // Act
+        runtime.next((in, out, context) -> {
+            throw new IllegalStateException("Bulb \"1\" exploded");
+        });
+        runtime.next((in, out, context) -> out.write('1'));
+
+        // Assert
+        StandInRuntimeApi.Result error = api.await(failing, Duration.ofSeconds(5));
+        assertEquals("invocation/" + failing + "/error", error.path());
+        assertEquals("Unhandled", error.errorType());
+        JsonNode body = new ObjectMapper().readTree(error.body());
+        assertEquals("Bulb \"1\" exploded", body.get("errorMessage").asText());
+        assertEquals(IllegalStateException.class.getName(), body.get("errorType").asText());
+        assertEquals("invocation/" + passing + "/response", api.await(passing, Duration.ofSeconds(5)).path());
+    }
+
+    @Test
+    @DisplayName("Verifies a failed Spring startup is reported as an init error with its cause")
+    void initError_shouldReportTheCause() throws Exception {
+        // Act
+        runtime.initError(new ExceptionInInitializerError(new RuntimeException("Could not initialize Spring Boot application")));
+
+        // Assert
+        StandInRuntimeApi.Result error = api.awaitInitError(Duration.ofSeconds(5));
+        assertEquals("init/error", error.path());
+        assertEquals("Runtime.InitError", error.errorType());
+        assertEquals("Could not initialize Spring Boot application",
+                new ObjectMapper().readTree(error.body()).get("errorMessage").asText());
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.runtime;
+
+import com.amazonaws.serverless.proxy.internal.testutils.AwsProxyRequestBuilder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.InputStream;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts the native executable the way the provided.al2023 bootstrap does and sends it API Gateway
+ * proxy events through a stand-in Runtime API. Runs in the integration-test phase of the
+ * native-image profile when the executable was built for the local profile, so nothing reaches AWS:
+ * <pre>
+ * mvn -Pnative-image -Dnative.spring.profiles=local verify
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "lightbulb.native.executable", matches = ".+")
+@EnabledIfSystemProperty(named = "lightbulb.native.profiles", matches = "local")
+class NativeImageSmokeIT {
+
+    private static final Duration STARTUP = Duration.ofSeconds(10);
+    private static final Duration RESPONSE = Duration.ofSeconds(5);
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private StandInRuntimeApi api;
+    private Process process;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        api = new StandInRuntimeApi();
+        ProcessBuilder builder = new ProcessBuilder(System.getProperty("lightbulb.native.executable"),
+                "-Dspring.profiles.active=local")
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.INHERIT);
+        builder.environment().put("AWS_LAMBDA_RUNTIME_API", api.address());
+        builder.environment().put("AWS_LAMBDA_FUNCTION_NAME", "LightBulbAPI");
+        builder.environment().put("AWS_LAMBDA_FUNCTION_MEMORY_SIZE", "256");
+        process = builder.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        process.destroy();
+        process.waitFor();
+        api.close();
+    }
+
+    private JsonNode invoke(AwsProxyRequestBuilder request, Duration timeout) throws Exception {
+        try (InputStream event = request.buildStream()) {
+            String requestId = api.offer(event.readAllBytes());
+            StandInRuntimeApi.Result result = api.await(requestId, timeout);
+            assertEquals("invocation/" + requestId + "/response", result.path(),
+                    () -> "Invocation failed: " + new String(result.body()));
+            return mapper.readTree(result.body());
+        }
+    }
+
+    @Test
+    @DisplayName("Verifies the native executable starts and answers proxy events through the Runtime API")
+    void nativeExecutable_shouldAnswerProxyEvents() throws Exception {
+        // Act
+        // the first invocation waits for the executable to start Spring
+        JsonNode ping = invoke(new AwsProxyRequestBuilder("/ping", "GET"), STARTUP);
+        JsonNode missing = invoke(new AwsProxyRequestBuilder("/bulbs/1", "GET")
+                .header("Accept", "application/json"), RESPONSE);
+        JsonNode invalid = invoke(new AwsProxyRequestBuilder("/bulbs", "POST")
+                .header("Content-Type", "application/json")
+                .body("{\"name\":\"\",\"type\":\"LED\",\"wattage\":0}"), RESPONSE);
+
+        // Assert
+        assertEquals(200, ping.get("statusCode").asInt());
+        assertEquals("pong", ping.get("body").asText());
+        assertEquals(404, missing.get("statusCode").asInt());
+        assertEquals(404, mapper.readTree(missing.get("body").asText()).get("status").asInt());
+        assertEquals(400, invalid.get("statusCode").asInt());
+        assertEquals("Name is required", mapper.readTree(invalid.get("body").asText())
+                .get("validationErrors").get("name").asText());
+        assertTrue(process.isAlive(), "the runtime loop should keep polling for invocations");
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.runtime;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An in-process Lambda Runtime API: hands out the events offered to it as invocations and keeps
+ * what the runtime posts back.
+ */
+class StandInRuntimeApi implements AutoCloseable {
+
+    static final String FUNCTION_ARN = "arn:aws:lambda:ap-south-1:123456789012:function:LightBulbAPI";
+    static final long TIMEOUT_MILLIS = 30_000;
+
+    record Invocation(String requestId, byte[] event) {
+    }
+
+    record Result(String path, String errorType, byte[] body) {
+    }
+
+    private final HttpServer server;
+    private final BlockingQueue<Invocation> invocations = new LinkedBlockingQueue<>();
+    private final Map<String, CompletableFuture<Result>> results = new ConcurrentHashMap<>();
+    private final AtomicInteger ids = new AtomicInteger();
+
+    StandInRuntimeApi() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/" + LambdaRuntime.API_VERSION + "/runtime/", this::handle);
+        server.start();
+    }
+
+    /**
+     * The value for AWS_LAMBDA_RUNTIME_API.
+     */
+    String address() {
+        return server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    String offer(byte[] event) {
+        String requestId = "request-" + ids.incrementAndGet();
+        results.put(requestId, new CompletableFuture<>());
+        invocations.add(new Invocation(requestId, event));
+        return requestId;
+    }
+
+    Result await(String requestId, Duration timeout) throws Exception {
+        return results.get(requestId).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    Result awaitInitError(Duration timeout) throws Exception {
+        return results.computeIfAbsent("init", ignored -> new CompletableFuture<>())
+                .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath()
+                    .substring(("/" + LambdaRuntime.API_VERSION + "/runtime/").length());
+            if (path.equals("invocation/next")) {
+                Invocation invocation = invocations.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (invocation == null) {
+                    exchange.sendResponseHeaders(504, -1);
+                    return;
+                }
+                exchange.getResponseHeaders().add(LambdaRuntime.REQUEST_ID_HEADER, invocation.requestId());
+                exchange.getResponseHeaders().add(LambdaRuntime.DEADLINE_HEADER,
+                        Long.toString(System.currentTimeMillis() + TIMEOUT_MILLIS));
+                exchange.getResponseHeaders().add(LambdaRuntime.FUNCTION_ARN_HEADER, FUNCTION_ARN);
+                exchange.getResponseHeaders().add(LambdaRuntime.TRACE_ID_HEADER, "Root=1-5759e988-bd862e3fe1be46a994272793");
+                exchange.sendResponseHeaders(200, invocation.event().length);
+                exchange.getResponseBody().write(invocation.event());
+                return;
+            }
+            Result result = new Result(path, exchange.getRequestHeaders().getFirst(LambdaRuntime.ERROR_TYPE_HEADER),
+                    exchange.getRequestBody().readAllBytes());
+            String requestId = path.startsWith("invocation/") ? path.split("/")[1] : "init";
+            exchange.sendResponseHeaders(202, -1);
+            results.computeIfAbsent(requestId, ignored -> new CompletableFuture<>()).complete(result);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
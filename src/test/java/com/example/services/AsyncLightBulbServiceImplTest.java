@@ -0,0 +1,117 @@
+package com.example.services;
+
+import com.example.exception.ResourceNotFoundException;
+import com.example.exception.ServiceUnavailableException;
+import com.example.model.LightBulb;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncLightBulbServiceImplTest {
+
+    @Mock
+    private LightBulbService delegate;
+
+    private ExecutorService executor;
+    private AsyncLightBulbServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        service = new AsyncLightBulbServiceImpl(delegate, executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Verifies getBulbsByIds runs the lookups concurrently")
+    void getBulbsByIds_shouldOverlapLookups() throws Exception {
+        // Arrange: each lookup only returns once both are in flight
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        when(delegate.getBulbById(anyLong())).thenAnswer(invocation -> {
+            bothStarted.countDown();
+            assertTrue(bothStarted.await(5, TimeUnit.SECONDS), "lookups did not overlap");
+            return bulb(invocation.getArgument(0));
+        });
+
+        // Act
+        List<LightBulb> result = service.getBulbsByIds(Arrays.asList(2L, 1L)).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals(2L, result.get(0).getId());
+        assertEquals(1L, result.get(1).getId());
+    }
+
+    @Test
+    @DisplayName("Verifies getBulbsByIds skips unknown ids and fetches duplicates once")
+    void getBulbsByIds_whenIdMissingOrRepeated_shouldSkipAndDeduplicate() throws Exception {
+        // Arrange
+        when(delegate.getBulbById(1L)).thenReturn(bulb(1L));
+        when(delegate.getBulbById(2L)).thenThrow(new ResourceNotFoundException("LightBulb", "id", 2L));
+
+        // Act
+        List<LightBulb> result = service.getBulbsByIds(Arrays.asList(1L, 2L, 1L)).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(1, result.size());
+        verify(delegate, times(1)).getBulbById(1L);
+    }
+
+    @Test
+    @DisplayName("Verifies getBulbsByIds fails when a lookup fails for another reason")
+    void getBulbsByIds_whenLookupFails_shouldFail() {
+        // Arrange
+        when(delegate.getBulbById(1L)).thenThrow(new ServiceUnavailableException("throttled", 1));
+
+        // Act & Assert
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> service.getBulbsByIds(List.of(1L)).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ServiceUnavailableException.class, exception.getCause());
+    }
+
+    @Test
+    @DisplayName("Verifies addBulb only uses the keyed add when an idempotency key is given")
+    void addBulb_shouldChooseKeyedAddByKey() throws Exception {
+        // Arrange
+        LightBulb bulb = bulb(1L);
+        when(delegate.addBulb(bulb)).thenReturn(bulb);
+        when(delegate.addBulb(bulb, "key")).thenReturn(bulb);
+
+        // Act
+        service.addBulb(bulb, null).get(5, TimeUnit.SECONDS);
+        service.addBulb(bulb, "key").get(5, TimeUnit.SECONDS);
+
+        // Assert
+        verify(delegate).addBulb(bulb);
+        verify(delegate).addBulb(bulb, "key");
+    }
+
+    private static LightBulb bulb(Long id) {
+        LightBulb bulb = new LightBulb();
+        bulb.setId(id);
+        bulb.setName("Bulb" + id);
+        bulb.setType("LED");
+        bulb.setWattage(10);
+        return bulb;
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.services;
+
+import com.example.model.ExportSummary;
+import com.example.model.LightBulb;
+import com.example.repo.AbstractJsonLightBulbRepository;
+import com.example.repo.LightBulbPage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulbExporterTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    static class InMemoryRepo extends AbstractJsonLightBulbRepository {
+        private List<LightBulb> store = new ArrayList<>();
+        @Override protected List<LightBulb> readAll() {
+            return new ArrayList<>(store);
+        }
+        @Override protected void writeAll(List<LightBulb> bulbs) {
+            store = new ArrayList<>(bulbs);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Verifies parallel segments export every bulb exactly once as one gzip NDJSON stream")
+    void export_withSegments_shouldWriteEveryBulbOnce() throws IOException {
+        // Arrange
+        InMemoryRepo repo = repoWith(2500);
+        BulbExporter exporter = new BulbExporter(repo, executor, 4, null, null, null, null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        ExportSummary summary = exporter.export(out, 3, "test");
+
+        // Assert
+        List<LightBulb> exported = read(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(2500, exported.size());
+        Set<Long> ids = new HashSet<>();
+        exported.forEach(b -> ids.add(b.getId()));
+        assertEquals(2500, ids.size());
+        assertEquals(2500, summary.getBulbs());
+        assertEquals(3, summary.getSegments());
+        assertEquals(out.size(), summary.getCompressedBytes());
+        assertEquals(ExportSummary.Status.FINISHED, summary.getStatus());
+        assertEquals(ExportSummary.Status.FINISHED, exporter.progress().get().getStatus());
+    }
+
+    @Test
+    @DisplayName("Verifies an empty table still exports a valid gzip stream")
+    void export_whenEmpty_shouldWriteValidGzip() throws IOException {
+        // Arrange
+        BulbExporter exporter = new BulbExporter(new InMemoryRepo(), executor, 2, null, null, null, null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        ExportSummary summary = exporter.export(out, 0, "test");
+
+        // Assert
+        assertTrue(read(new ByteArrayInputStream(out.toByteArray())).isEmpty());
+        assertEquals(0, summary.getBulbs());
+        assertEquals(2, summary.getSegments());
+    }
+
+    @Test
+    @DisplayName("Verifies a failing segment fails the export")
+    void export_whenSegmentFails_shouldThrow() {
+        // Arrange
+        InMemoryRepo repo = new InMemoryRepo() {
+            @Override
+            public LightBulbPage findSegmentPage(int segment, int totalSegments, String cursor, int pageSize) {
+                if (segment == 1) {
+                    throw new IllegalStateException("scan failed");
+                }
+                return super.findSegmentPage(segment, totalSegments, cursor, pageSize);
+            }
+        };
+        BulbExporter exporter = new BulbExporter(repo, executor, 2, null, null, null, null);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> exporter.export(new ByteArrayOutputStream(), 2, "test"));
+        assertEquals(ExportSummary.Status.FAILED, exporter.progress().get().getStatus());
+    }
+
+    @Test
+    @DisplayName("Verifies exportToFile leaves only the finished file in the export directory")
+    void exportToFile_shouldWriteCompleteFile(@TempDir Path directory) throws IOException {
+        // Arrange
+        BulbExporter exporter = new BulbExporter(repoWith(10), executor, 2, null, null, null, directory);
+
+        // Act
+        ExportSummary summary = exporter.exportToFile(0);
+
+        // Assert
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.toList();
+        }
+        assertEquals(1, files.size());
+        assertTrue(files.get(0).getFileName().toString().endsWith(".ndjson.gz"));
+        assertEquals(files.get(0).toString(), summary.getLocation());
+        try (InputStream in = Files.newInputStream(files.get(0))) {
+            assertEquals(10, read(in).size());
+        }
+    }
+
+    @Test
+    @DisplayName("Verifies exporting to an unconfigured target is rejected")
+    void exportToS3_whenNotConfigured_shouldThrow() {
+        // Arrange
+        BulbExporter exporter = new BulbExporter(new InMemoryRepo(), executor, 2, null, "", null, null);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> exporter.exportToS3(0));
+        assertThrows(IllegalArgumentException.class, () -> exporter.exportToFile(0));
+    }
+
+    private static InMemoryRepo repoWith(int count) {
+        InMemoryRepo repo = new InMemoryRepo();
+        List<LightBulb> bulbs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            LightBulb bulb = new LightBulb();
+            bulb.setName("Bulb" + i);
+            bulb.setType("LED");
+            bulb.setWattage(1 + i % 60);
+            bulbs.add(bulb);
+        }
+        repo.saveAll(bulbs);
+        return repo;
+    }
+
+    private List<LightBulb> read(InputStream gzip) throws IOException {
+        List<LightBulb> bulbs = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(gzip), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                bulbs.add(mapper.readValue(line, LightBulb.class));
+            }
+        }
+        return bulbs;
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.services;
+
+import com.example.exception.PartialBatchWriteException;
+import com.example.model.ImportSummary;
+import com.example.model.LightBulb;
+import com.example.repo.AbstractJsonLightBulbRepository;
+import com.example.validation.GeneratedValidator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulbImporterTest {
+
+    private final GeneratedValidator validator = new GeneratedValidator();
+
+    static class InMemoryRepo extends AbstractJsonLightBulbRepository {
+        private List<LightBulb> store = new ArrayList<>();
+        @Override protected List<LightBulb> readAll() {
+            return new ArrayList<>(store);
+        }
+        @Override protected void writeAll(List<LightBulb> bulbs) {
+            store = new ArrayList<>(bulbs);
+        }
+    }
+
+    @Test
+    @DisplayName("Verifies NDJSON lines are imported and bad lines are reported by line number")
+    void importBulbs_whenNdjsonHasBadLines_shouldImportTheRestAndReportErrors() throws Exception {
+        // Arrange
+        InMemoryRepo repo = new InMemoryRepo();
+        BulbImporter importer = new BulbImporter(repo, Runnable::run, validator, 2);
+        String body = """
+                {"name":"Desk","type":"LED","wattage":9}
+                {"name":"","type":"LED","wattage":9}
+
+                not json
+                {"id":7,"name":"Hall","type":"CFL","wattage":14}
+                {"name":"Porch","type":"Halogen","wattage":40}
+                """;
+
+        // Act
+        ImportSummary summary = importer.importBulbs(stream(body), BulbImporter.Format.NDJSON);
+
+        // Assert
+        assertEquals(6, summary.getLines());
+        assertEquals(2, summary.getImported());
+        assertEquals(3, summary.getFailed());
+        assertEquals(List.of(2L, 4L, 5L), summary.getErrors().stream().map(ImportSummary.LineError::getLine).toList());
+        assertEquals("Name is required", summary.getErrors().get(0).getMessage());
+        assertEquals(2, repo.findAll().size());
+    }
+
+    @Test
+    @DisplayName("Verifies CSV columns are mapped by header, in any order, with quoted fields")
+    void importBulbs_whenCsv_shouldMapColumnsByHeader() throws Exception {
+        // Arrange
+        InMemoryRepo repo = new InMemoryRepo();
+        BulbImporter importer = new BulbImporter(repo, Runnable::run, validator, 2);
+        String body = "wattage,name,type\r\n"
+                + "9,\"Desk, left\",LED\r\n"
+                + "abc,Hall,CFL\r\n"
+                + "12,\"The \"\"big\"\" one\",LED\r\n";
+
+        // Act
+        ImportSummary summary = importer.importBulbs(stream(body), BulbImporter.Format.CSV);
+
+        // Assert
+        assertEquals(2, summary.getImported());
+        assertEquals(1, summary.getFailed());
+        assertEquals(3L, summary.getErrors().get(0).getLine());
+        assertEquals("Wattage must be an integer", summary.getErrors().get(0).getMessage());
+        assertTrue(repo.findAll().stream().anyMatch(b -> "Desk, left".equals(b.getName()) && b.getWattage() == 9));
+        assertTrue(repo.findAll().stream().anyMatch(b -> "The \"big\" one".equals(b.getName())));
+    }
+
+    @Test
+    @DisplayName("Verifies a CSV header without the required columns is rejected")
+    void importBulbs_whenCsvHeaderIsInvalid_shouldThrow() {
+        // Arrange
+        BulbImporter importer = new BulbImporter(new InMemoryRepo(), Runnable::run, validator, 2);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> importer.importBulbs(stream("name,colour\nDesk,red\n"), BulbImporter.Format.CSV));
+    }
+
+    @Test
+    @DisplayName("Verifies bulbs are written in batches of the repository's batch size, at most N at a time")
+    void importBulbs_shouldWriteBoundedConcurrentBatches() throws Exception {
+        // Arrange
+        AtomicInteger batches = new AtomicInteger();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        InMemoryRepo repo = new InMemoryRepo() {
+            @Override
+            public List<LightBulb> saveAll(List<LightBulb> bulbs) {
+                int running = inFlight.incrementAndGet();
+                maxInFlight.accumulateAndGet(running, Math::max);
+                try {
+                    Thread.sleep(5);
+                    batches.incrementAndGet();
+                    return super.saveAll(bulbs);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            }
+
+            @Override
+            public int writeBatchSize() {
+                return 10;
+            }
+        };
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 95; i++) {
+            body.append("{\"name\":\"Bulb").append(i).append("\",\"type\":\"LED\",\"wattage\":5}\n");
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            BulbImporter importer = new BulbImporter(repo, executor, validator, 3);
+
+            // Act
+            ImportSummary summary = importer.importBulbs(stream(body.toString()), BulbImporter.Format.NDJSON);
+
+            // Assert
+            assertEquals(95, summary.getImported());
+            assertEquals(10, batches.get());
+            assertTrue(maxInFlight.get() <= 3);
+            assertEquals(95, repo.findAll().size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Verifies a failed batch marks each of its lines as failed")
+    void importBulbs_whenBatchWriteFails_shouldFailItsLines() throws Exception {
+        // Arrange
+        InMemoryRepo repo = new InMemoryRepo() {
+            @Override
+            public List<LightBulb> saveAll(List<LightBulb> bulbs) {
+                throw new IllegalStateException("disk full");
+            }
+        };
+        BulbImporter importer = new BulbImporter(repo, Runnable::run, validator, 1);
+        String body = """
+                {"name":"Desk","type":"LED","wattage":9}
+                {"name":"Hall","type":"CFL","wattage":14}
+                """;
+
+        // Act
+        ImportSummary summary = importer.importBulbs(stream(body), BulbImporter.Format.NDJSON);
+
+        // Assert
+        assertEquals(0, summary.getImported());
+        assertEquals(2, summary.getFailed());
+        assertEquals("Write failed: disk full", summary.getErrors().get(1).getMessage());
+    }
+
+    @Test
+    @DisplayName("Verifies a partly written batch fails only the lines left unprocessed")
+    void importBulbs_whenBatchPartlyWritten_shouldFailOnlyUnprocessedLines() throws Exception {
+        // Arrange
+        InMemoryRepo repo = new InMemoryRepo() {
+            @Override
+            public List<LightBulb> saveAll(List<LightBulb> bulbs) {
+                long id = 100;
+                for (LightBulb bulb : bulbs) {
+                    bulb.setId(id++);
+                }
+                super.saveAll(bulbs.subList(0, 2));
+                throw new PartialBatchWriteException("1 of 3 bulbs were left unprocessed", 1, bulbs.subList(2, 3));
+            }
+        };
+        BulbImporter importer = new BulbImporter(repo, Runnable::run, validator, 1);
+        String body = """
+                {"name":"Desk","type":"LED","wattage":9}
+                {"name":"Hall","type":"CFL","wattage":14}
+                {"name":"Porch","type":"LED","wattage":6}
+                """;
+
+        // Act
+        ImportSummary summary = importer.importBulbs(stream(body), BulbImporter.Format.NDJSON);
+
+        // Assert
+        assertEquals(2, summary.getImported());
+        assertEquals(1, summary.getFailed());
+        assertEquals(3, summary.getErrors().get(0).getLine());
+        assertEquals(2, repo.findAll().size());
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.services;
+
+import com.example.events.LightBulbChangeEvent;
+import com.example.events.LightBulbChangeFeed;
+import com.example.exception.ServiceUnavailableException;
+import com.example.model.LightBulb;
+import com.example.repo.LightBulbRepository;
+import com.example.resilience.Deadline;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulbSearchIndexTest {
+
+    @Mock
+    private LightBulbRepository repository;
+
+    private final LightBulbChangeFeed changeFeed = new LightBulbChangeFeed();
+    private final AtomicLong clock = new AtomicLong(0);
+    private final List<Runnable> background = new ArrayList<>();
+    private BulbSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(repository.findAll()).thenReturn(new ArrayList<>(List.of(
+                bulb(1L, "Philips Hue White"),
+                bulb(2L, "Philips Hue Color Ambiance"),
+                bulb(3L, "IKEA Tradfri"),
+                bulb(4L, "Hue"),
+                bulb(5L, "Sylvania Smart+ Hue-compatible"))));
+        index = new BulbSearchIndex(repository, changeFeed, background::add, 1_000L, clock::get);
+        index.start();
+        index.rebuild();
+    }
+
+    @Test
+    @DisplayName("Verifies search ranks an exact name above word matches")
+    void search_shouldRankExactMatchesFirst() {
+        // Act
+        List<LightBulb> results = index.search("hue", 10);
+
+        // Assert
+        assertEquals(List.of(4L, 1L, 2L, 5L), ids(results));
+    }
+
+    @Test
+    @DisplayName("Verifies search matches substrings, short prefixes and every term")
+    void search_shouldMatchSubstringsPrefixesAndAllTerms() {
+        // Act & Assert
+        assertEquals(List.of(3L), ids(index.search("radfr", 10)));
+        assertEquals(List.of(1L, 2L), ids(index.search("ph", 10)));
+        assertEquals(List.of(2L), ids(index.search("philips color", 10)));
+        assertTrue(index.search("philips tradfri", 10).isEmpty());
+        assertTrue(index.search("xyz", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Verifies search returns at most limit results")
+    void search_shouldRespectLimit() {
+        // Act
+        List<LightBulb> results = index.search("hue", 2);
+
+        // Assert
+        assertEquals(List.of(4L, 1L), ids(results));
+    }
+
+    @Test
+    @DisplayName("Verifies the index follows saves and deletes from the change feed")
+    void onChange_shouldUpdateIndex() {
+        // Arrange
+        LightBulb nanoleaf = bulb(6L, "Nanoleaf Essentials");
+        nanoleaf.setLastModified(1_700_000_000_000L);
+
+        // Act
+        changeFeed.publish(LightBulbChangeEvent.upsert(nanoleaf));
+        changeFeed.publish(LightBulbChangeEvent.upsert(bulb(3L, "IKEA Lampan")));
+        changeFeed.publish(LightBulbChangeEvent.delete(4L, null));
+
+        // Assert
+        assertEquals(List.of(6L), ids(index.search("leaf", 10)));
+        assertEquals(1_700_000_000_000L, index.search("leaf", 10).get(0).getLastModified());
+        assertTrue(index.search("tradfri", 10).isEmpty());
+        assertEquals(List.of(3L), ids(index.search("lampan", 10)));
+        assertEquals(List.of(1L, 2L, 5L), ids(index.search("hue", 10)));
+        assertEquals(5, index.size());
+        verify(repository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("Verifies searches before the first scan answer 503 while the index builds in the background")
+    void search_whenNotBuilt_shouldBuildInBackgroundAndRefuse() {
+        // Arrange
+        BulbSearchIndex cold = new BulbSearchIndex(repository, changeFeed, background::add, 1_000L, clock::get);
+        cold.rebuildAtStartup();
+
+        // Act
+        assertThrows(ServiceUnavailableException.class, () -> cold.search("hue", 10));
+        background.forEach(Runnable::run);
+        List<LightBulb> results = cold.search("hue", 10);
+
+        // Assert
+        assertEquals(1, background.size());
+        assertEquals(List.of(4L, 1L, 2L, 5L), ids(results));
+    }
+
+    @Test
+    @DisplayName("Verifies a stale index is still served while a background scan repairs it")
+    void search_whenOlderThanMaxAge_shouldRebuildInBackground() {
+        // Arrange
+        when(repository.findAll()).thenReturn(new ArrayList<>(List.of(bulb(4L, "Hue"), bulb(7L, "Hue Go"))));
+        clock.addAndGet(1_001L);
+
+        // Act
+        List<LightBulb> stale = index.search("hue", 10);
+        index.search("hue", 10);
+        background.forEach(Runnable::run);
+        List<LightBulb> repaired = index.search("hue", 10);
+
+        // Assert
+        assertEquals(List.of(4L, 1L, 2L, 5L), ids(stale));
+        assertEquals(1, background.size());
+        assertEquals(List.of(4L, 7L), ids(repaired));
+    }
+
+    @Test
+    @DisplayName("Verifies a rebuild triggered by a request does not inherit the request's deadline")
+    void rebuildInBackground_whenTriggeredUnderDeadline_shouldRunWithoutIt() {
+        // Arrange
+        AtomicBoolean unbounded = new AtomicBoolean();
+        when(repository.findAll()).thenAnswer(invocation -> {
+            unbounded.set(Deadline.current().isUnbounded());
+            return new ArrayList<>(List.of(bulb(4L, "Hue")));
+        });
+        List<Runnable> decorated = new ArrayList<>();
+        BulbSearchIndex propagating = new BulbSearchIndex(repository, changeFeed,
+                task -> decorated.add(Deadline.propagate(task)), 1_000L, clock::get);
+
+        // Act
+        try (Deadline.Scope ignored = Deadline.attach(Deadline.after(50))) {
+            propagating.rebuildInBackground();
+        }
+        decorated.forEach(Runnable::run);
+
+        // Assert
+        assertEquals(1, decorated.size());
+        assertTrue(unbounded.get());
+    }
+
+    private static List<Long> ids(List<LightBulb> bulbs) {
+        return bulbs.stream().map(LightBulb::getId).toList();
+    }
+
+    private static LightBulb bulb(Long id, String name) {
+        LightBulb bulb = new LightBulb();
+        bulb.setId(id);
+        bulb.setName(name);
+        bulb.setType("LED");
+        bulb.setWattage(10);
+        return bulb;
+    }
+}
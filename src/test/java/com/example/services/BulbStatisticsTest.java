@@ -0,0 +1,185 @@
+package com.example.services;
+
+import com.example.events.LightBulbChangeEvent;
+import com.example.events.LightBulbChangeFeed;
+import com.example.model.BulbStats;
+import com.example.model.LightBulb;
+import com.example.repo.LightBulbRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulbStatisticsTest {
+
+    @Mock
+    private LightBulbRepository repository;
+
+    private final LightBulbChangeFeed changeFeed = new LightBulbChangeFeed();
+    private final AtomicLong clock = new AtomicLong(0);
+    private final List<Runnable> background = new ArrayList<>();
+    private BulbStatistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = new BulbStatistics(repository, changeFeed, background::add, 1_000L, clock::get);
+        statistics.start();
+    }
+
+    @Test
+    @DisplayName("Verifies the first read seeds the aggregates from a full scan")
+    void getStats_whenFirstRead_shouldScanRepository() {
+        // Arrange
+        when(repository.findAll()).thenReturn(new ArrayList<>(List.of(
+                bulb(1L, "LED", 10, 1L), bulb(2L, "LED", 20, 1L), bulb(3L, "CFL", 60, 1L))));
+
+        // Act
+        BulbStats stats = statistics.getStats();
+
+        // Assert
+        assertEquals(3, stats.getCount());
+        assertEquals(2L, stats.getCountsByType().get("LED"));
+        assertEquals(1L, stats.getCountsByType().get("CFL"));
+        assertEquals(90, stats.getTotalWattage());
+        assertEquals(30.0, stats.getAverageWattage());
+        assertEquals(10, stats.getMinWattage());
+        assertEquals(60, stats.getMaxWattage());
+    }
+
+    @Test
+    @DisplayName("Verifies concurrent first reads share a single full scan")
+    void getStats_whenFirstReadsAreConcurrent_shouldScanOnce() throws Exception {
+        // Arrange
+        CountDownLatch scanning = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(repository.findAll()).thenAnswer(invocation -> {
+            scanning.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new ArrayList<>(List.of(bulb(1L, "LED", 10, 1L)));
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // Act
+        List<Future<BulbStats>> reads = new ArrayList<>();
+        reads.add(executor.submit(statistics::getStats));
+        assertTrue(scanning.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 3; i++) {
+            reads.add(executor.submit(statistics::getStats));
+        }
+        Thread.sleep(50);
+        release.countDown();
+
+        // Assert
+        for (Future<BulbStats> read : reads) {
+            assertEquals(1, read.get(5, TimeUnit.SECONDS).getCount());
+        }
+        verify(repository, times(1)).findAll();
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Verifies saves and deletes update the aggregates without another scan")
+    void onChange_shouldMaintainAggregatesIncrementally() {
+        // Arrange
+        when(repository.findAll()).thenReturn(new ArrayList<>(List.of(
+                bulb(1L, "LED", 10, 1L), bulb(2L, "CFL", 60, 1L))));
+        statistics.getStats();
+
+        // Act
+        changeFeed.publish(LightBulbChangeEvent.upsert(bulb(3L, "LED", 5, 1L)));
+        changeFeed.publish(LightBulbChangeEvent.upsert(bulb(1L, "HALOGEN", 40, 2L)));
+        changeFeed.publish(LightBulbChangeEvent.delete(2L, null));
+        BulbStats stats = statistics.getStats();
+
+        // Assert
+        assertEquals(2, stats.getCount());
+        assertEquals(1L, stats.getCountsByType().get("LED"));
+        assertEquals(1L, stats.getCountsByType().get("HALOGEN"));
+        assertFalse(stats.getCountsByType().containsKey("CFL"));
+        assertEquals(45, stats.getTotalWattage());
+        assertEquals(5, stats.getMinWattage());
+        assertEquals(40, stats.getMaxWattage());
+        verify(repository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("Verifies an older stream record does not overwrite a newer version")
+    void onChange_whenVersionIsOlder_shouldIgnoreEvent() {
+        // Arrange
+        when(repository.findAll()).thenReturn(new ArrayList<>(List.of(bulb(1L, "LED", 10, 3L))));
+        statistics.getStats();
+
+        // Act
+        changeFeed.publish(LightBulbChangeEvent.remote(1L, 2L, LightBulbChangeEvent.Operation.UPSERT,
+                bulb(1L, "CFL", 60, 2L)));
+        BulbStats stats = statistics.getStats();
+
+        // Assert
+        assertEquals(10, stats.getTotalWattage());
+        assertEquals(1L, stats.getCountsByType().get("LED"));
+    }
+
+    @Test
+    @DisplayName("Verifies stale aggregates are still served while a background scan rebuilds them")
+    void getStats_whenOlderThanMaxAge_shouldRecomputeInBackground() {
+        // Arrange
+        when(repository.findAll())
+                .thenReturn(new ArrayList<>(List.of(bulb(1L, "LED", 10, 1L))))
+                .thenReturn(new ArrayList<>(List.of(bulb(1L, "LED", 10, 1L), bulb(2L, "LED", 12, 1L))));
+        statistics.getStats();
+
+        // Act
+        clock.addAndGet(1_001L);
+        BulbStats stale = statistics.getStats();
+        statistics.getStats();
+        background.forEach(Runnable::run);
+        BulbStats refreshed = statistics.getStats();
+
+        // Assert
+        assertEquals(1, stale.getCount());
+        assertEquals(1, background.size());
+        assertEquals(2, refreshed.getCount());
+        verify(repository, times(2)).findAll();
+    }
+
+    @Test
+    @DisplayName("Verifies an empty fleet reports no average, min or max")
+    void getStats_whenNoBulbs_shouldReturnEmptyAggregates() {
+        // Arrange
+        when(repository.findAll()).thenReturn(new ArrayList<>());
+
+        // Act
+        BulbStats stats = statistics.getStats();
+
+        // Assert
+        assertEquals(0, stats.getCount());
+        assertNull(stats.getAverageWattage());
+        assertNull(stats.getMinWattage());
+        assertNull(stats.getMaxWattage());
+    }
+
+    private static LightBulb bulb(Long id, String type, int wattage, Long version) {
+        LightBulb bulb = new LightBulb();
+        bulb.setId(id);
+        bulb.setName("Bulb" + id);
+        bulb.setType(type);
+        bulb.setWattage(wattage);
+        bulb.setVersion(version);
+        return bulb;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.services;
+
+import com.example.model.LightBulb;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryIdempotencyStoreTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000L);
+    private InMemoryIdempotencyStore store;
+    private LightBulb bulb;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryIdempotencyStore(2, 10_000L, 100L, clock::get);
+        bulb = new LightBulb();
+        bulb.setId(1L);
+        bulb.setName("Test Bulb");
+    }
+
+    @Test
+    @DisplayName("Verifies the first claim owns the key and later claims see the completed result")
+    void claim_afterComplete_shouldReturnStoredResult() {
+        // Act
+        Optional<IdempotencyRecord> first = store.claim("key", "fp");
+        store.complete("key", "fp", bulb);
+        Optional<IdempotencyRecord> second = store.claim("key", "fp");
+
+        // Assert
+        assertTrue(first.isEmpty());
+        assertTrue(second.isPresent());
+        assertSame(bulb, second.get().getResult());
+    }
+
+    @Test
+    @DisplayName("Verifies an in-progress key is reported until its lease expires")
+    void claim_whileInProgress_shouldReturnPendingRecordUntilLeaseExpires() {
+        // Arrange
+        store.claim("key", "fp");
+
+        // Act & Assert
+        Optional<IdempotencyRecord> pending = store.claim("key", "fp");
+        assertTrue(pending.isPresent());
+        assertFalse(pending.get().isCompleted());
+
+        clock.addAndGet(101L);
+        assertTrue(store.claim("key", "fp").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Verifies release lets the key be claimed again")
+    void release_shouldAllowClaimAgain() {
+        // Arrange
+        store.claim("key", "fp");
+
+        // Act
+        store.release("key");
+
+        // Assert
+        assertTrue(store.claim("key", "fp").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Verifies completed keys expire after the ttl and the store stays bounded")
+    void claim_shouldForgetExpiredAndEvictedKeys() {
+        // Arrange
+        store.claim("a", "fp");
+        store.complete("a", "fp", bulb);
+
+        // Act & Assert
+        clock.addAndGet(10_001L);
+        assertTrue(store.claim("a", "fp").isEmpty());
+
+        store.complete("b", "fp", bulb);
+        store.complete("c", "fp", bulb);
+        assertTrue(store.claim("a", "fp").isEmpty(), "least recently used key should be evicted");
+    }
+}
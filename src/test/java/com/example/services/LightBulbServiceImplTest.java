@@ -1,12 +1,17 @@
 package com.example.services;
 
+import com.example.exception.IdempotencyConflictException;
 import com.example.exception.ResourceNotFoundException;
+import com.example.exception.VersionConflictException;
 import com.example.model.LightBulb;
+import com.example.model.LightBulbPatch;
+import com.example.repo.LightBulbPage;
 import com.example.repo.LightBulbRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -16,6 +21,10 @@ import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,6 +33,9 @@ class LightBulbServiceImplTest {
 
     @Mock
     private LightBulbRepository repository;
+
+    @Mock
+    private IdempotencyStore idempotencyStore;
     
     @InjectMocks
     private LightBulbServiceImpl service;
@@ -56,6 +68,125 @@ class LightBulbServiceImplTest {
         verify(repository).save(testBulb);
     }
     
+    @Test
+    @DisplayName("Verifies addBulb with a new idempotency key saves the bulb and records the result")
+    void addBulb_whenIdempotencyKeyIsNew_shouldSaveAndComplete() {
+        // Arrange
+        when(idempotencyStore.claim(eq("key-1"), anyString())).thenReturn(Optional.empty());
+        when(repository.save(any(LightBulb.class))).thenReturn(testBulb);
+
+        // Act
+        LightBulb result = service.addBulb(testBulb, "key-1");
+
+        // Assert
+        assertSame(testBulb, result);
+        verify(repository).save(testBulb);
+        verify(idempotencyStore).complete(eq("key-1"), anyString(), eq(testBulb));
+    }
+
+    @Test
+    @DisplayName("Verifies addBulb replays the stored bulb without touching the repository")
+    void addBulb_whenIdempotencyKeyCompleted_shouldReplayStoredBulb() {
+        // Arrange
+        ArgumentCaptor<String> fingerprint = ArgumentCaptor.forClass(String.class);
+        when(idempotencyStore.claim(eq("key-1"), fingerprint.capture())).thenReturn(Optional.empty());
+        when(repository.save(any(LightBulb.class))).thenReturn(testBulb);
+        service.addBulb(testBulb, "key-1");
+        IdempotencyRecord completed = new IdempotencyRecord("key-1", fingerprint.getValue(), testBulb, 0L);
+        doReturn(Optional.of(completed)).when(idempotencyStore).claim(eq("key-1"), anyString());
+
+        // Act
+        LightBulb result = service.addBulb(testBulb, "key-1");
+
+        // Assert
+        assertSame(testBulb, result);
+        verify(repository, times(1)).save(any(LightBulb.class));
+    }
+
+    @Test
+    @DisplayName("Verifies addBulb rejects an idempotency key reused with a different body")
+    void addBulb_whenIdempotencyKeyUsedForDifferentBody_shouldThrowConflict() {
+        // Arrange
+        when(idempotencyStore.claim(eq("key-1"), anyString())).thenReturn(Optional.of(
+                new IdempotencyRecord("key-1", "other", testBulb, 0L)));
+
+        // Act & Assert
+        assertThrows(IdempotencyConflictException.class, () -> service.addBulb(testBulb, "key-1"));
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Verifies addBulb releases the idempotency key when saving fails")
+    void addBulb_whenSaveFails_shouldReleaseIdempotencyKey() {
+        // Arrange
+        when(idempotencyStore.claim(eq("key-1"), anyString())).thenReturn(Optional.empty());
+        when(repository.save(any(LightBulb.class))).thenThrow(new RuntimeException("boom"));
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> service.addBulb(testBulb, "key-1"));
+        verify(idempotencyStore).release("key-1");
+        verify(idempotencyStore, never()).complete(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Verifies forEachPage hands over each repository page in scan order")
+    void forEachPage_whenSeveralPages_shouldPassEachPageInOrder() {
+        // Arrange
+        when(repository.findPage(isNull(), anyInt())).thenReturn(new LightBulbPage(
+                List.of(bulb(1L, "A", 10), bulb(2L, "B", 20)), "2"));
+        when(repository.findPage(eq("2"), anyInt())).thenReturn(new LightBulbPage(
+                List.of(bulb(3L, "C", 30)), null));
+        List<List<LightBulb>> pages = new ArrayList<>();
+
+        // Act
+        service.forEachPage(pages::add);
+
+        // Assert
+        assertEquals(2, pages.size());
+        assertEquals(List.of(1L, 2L), pages.get(0).stream().map(LightBulb::getId).toList());
+        assertEquals(List.of(3L), pages.get(1).stream().map(LightBulb::getId).toList());
+        verify(repository, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("Verifies getTopBulbs keeps the k highest-wattage bulbs across repository pages")
+    void getTopBulbs_byWattage_shouldReturnHighestAcrossPages() {
+        // Arrange
+        when(repository.findPage(isNull(), anyInt())).thenReturn(new LightBulbPage(
+                List.of(bulb(1L, "A", 40), bulb(2L, "B", 5), bulb(3L, "C", 60)), "3"));
+        when(repository.findPage(eq("3"), anyInt())).thenReturn(new LightBulbPage(
+                List.of(bulb(4L, "D", 100), bulb(5L, "E", 40)), null));
+
+        // Act
+        List<LightBulb> result = service.getTopBulbs("wattage", 3);
+
+        // Assert
+        assertEquals(List.of(4L, 3L, 1L), result.stream().map(LightBulb::getId).toList());
+        verify(repository, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("Verifies getTopBulbs by name returns the first k names alphabetically")
+    void getTopBulbs_byName_shouldReturnFirstNames() {
+        // Arrange
+        when(repository.findPage(isNull(), anyInt())).thenReturn(new LightBulbPage(
+                List.of(bulb(1L, "delta", 1), bulb(2L, "Alpha", 1), bulb(3L, "charlie", 1), bulb(4L, "Bravo", 1)), null));
+
+        // Act
+        List<LightBulb> result = service.getTopBulbs("name", 2);
+
+        // Assert
+        assertEquals(List.of("Alpha", "Bravo"), result.stream().map(LightBulb::getName).toList());
+    }
+
+    @Test
+    @DisplayName("Verifies getTopBulbs rejects an unknown order")
+    void getTopBulbs_whenOrderUnknown_shouldThrowIllegalArgumentException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> service.getTopBulbs("colour", 3));
+        verify(repository, never()).findPage(any(), anyInt());
+    }
+
     @Test
     @DisplayName("Verifies addBulb throws IllegalArgumentException when bulb is null")
     void addBulb_whenBulbIsNull_shouldThrowIllegalArgumentException() {
@@ -212,6 +343,89 @@ class LightBulbServiceImplTest {
         verify(repository).deleteById(1L);
     }
     
+    @Test
+    @DisplayName("Verifies updateBulb with a stale expected version fails without saving")
+    void updateBulb_whenExpectedVersionIsStale_shouldThrowVersionConflict() {
+        // Arrange
+        testBulb.setVersion(3L);
+        when(repository.findById(1L)).thenReturn(Optional.of(testBulb));
+
+        // Act & Assert
+        assertThrows(VersionConflictException.class, () -> service.updateBulb(1L, bulb(1L, "New", 20), 2L));
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Verifies updateBulb without an expected version retries when another write got in first")
+    void updateBulb_whenConcurrentWriteWithoutExpectedVersion_shouldRetry() {
+        // Arrange
+        testBulb.setVersion(3L);
+        when(repository.findById(1L)).thenReturn(Optional.of(testBulb));
+        when(repository.save(any(LightBulb.class)))
+                .thenThrow(new VersionConflictException("changed"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        LightBulb result = service.updateBulb(1L, bulb(1L, "New", 20));
+
+        // Assert
+        assertEquals("New", result.getName());
+        verify(repository, times(2)).findById(1L);
+        verify(repository, times(2)).save(any(LightBulb.class));
+    }
+
+    @Test
+    @DisplayName("Verifies patchBulb writes the patch through the repository without reading first")
+    void patchBulb_whenValidPatch_shouldPatchWithoutRead() {
+        // Arrange
+        LightBulbPatch patch = new LightBulbPatch(null, null, 20);
+        LightBulb patched = bulb(1L, "Test Bulb", 20);
+        when(repository.patch(1L, patch, 3L)).thenReturn(Optional.of(patched));
+
+        // Act
+        LightBulb result = service.patchBulb(1L, patch, 3L);
+
+        // Assert
+        assertSame(patched, result);
+        verify(repository, never()).findById(any());
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Verifies patchBulb throws ResourceNotFoundException when the bulb does not exist")
+    void patchBulb_whenBulbNotExists_shouldThrowResourceNotFound() {
+        // Arrange
+        LightBulbPatch patch = new LightBulbPatch("New", null, null);
+        when(repository.patch(1L, patch, null)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> service.patchBulb(1L, patch, null));
+    }
+
+    @Test
+    @DisplayName("Verifies patchBulb rejects values a bulb cannot hold")
+    void patchBulb_whenInvalidValues_shouldThrowIllegalArgument() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> service.patchBulb(1L, new LightBulbPatch(" ", null, null), null));
+        assertThrows(IllegalArgumentException.class, () -> service.patchBulb(1L, new LightBulbPatch(null, null, 0), null));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("Verifies deleteBulb with the current expected version deletes conditionally")
+    void deleteBulb_whenExpectedVersionMatches_shouldDeleteConditionally() {
+        // Arrange
+        testBulb.setVersion(3L);
+        when(repository.findById(1L)).thenReturn(Optional.of(testBulb));
+
+        // Act
+        service.deleteBulb(1L, 3L);
+
+        // Assert
+        verify(repository).deleteById(1L, 3L);
+        verify(repository, never()).deleteById(1L);
+    }
+
     @Test
     @DisplayName("Verifies deleteBulb throws IllegalArgumentException when id is null")
     void deleteBulb_whenIdIsNull_shouldThrowIllegalArgumentException() {
@@ -236,4 +450,13 @@ class LightBulbServiceImplTest {
         verify(repository).findById(999L);
         verify(repository, never()).deleteById(any());
     }
+
+    private static LightBulb bulb(Long id, String name, int wattage) {
+        LightBulb bulb = new LightBulb();
+        bulb.setId(id);
+        bulb.setName(name);
+        bulb.setType("LED");
+        bulb.setWattage(wattage);
+        return bulb;
+    }
 }
@@ -0,0 +1,107 @@
+package com.example.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    @DisplayName("Verifies concurrent calls for the same key share one loader invocation")
+    void execute_whenCalledConcurrently_shouldCoalesce() throws Exception {
+        // Arrange
+        SingleFlight<Long, String> flight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        Callable<String> call = () -> flight.execute(1L, () -> {
+            loads.incrementAndGet();
+            loaderStarted.countDown();
+            await(release);
+            return "bulb";
+        });
+
+        // Act
+        List<Future<String>> results = new ArrayList<>();
+        results.add(pool.submit(call));
+        assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 7; i++) {
+            results.add(pool.submit(call));
+        }
+        while (flight.getCoalesced() < 7) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        // Assert
+        for (Future<String> result : results) {
+            assertEquals("bulb", result.get(5, TimeUnit.SECONDS));
+        }
+        pool.shutdown();
+        assertEquals(1, loads.get());
+        assertEquals(7, flight.getCoalesced());
+    }
+
+    @Test
+    @DisplayName("Verifies waiting callers receive the exception of the shared call")
+    void execute_whenLoaderFails_shouldPropagateToWaiters() throws Exception {
+        // Arrange
+        SingleFlight<Long, String> flight = new SingleFlight<>();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+
+        Future<String> leader = pool.submit(() -> flight.execute(1L, () -> {
+            loaderStarted.countDown();
+            await(release);
+            throw new IllegalStateException("backend down");
+        }));
+        assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+        Future<String> follower = pool.submit(() -> flight.execute(1L, () -> "unused"));
+        while (flight.getCoalesced() < 1) {
+            Thread.onSpinWait();
+        }
+
+        // Act
+        release.countDown();
+
+        // Assert
+        ExecutionException leaderError = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        ExecutionException followerError = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertEquals("backend down", leaderError.getCause().getMessage());
+        assertEquals("backend down", followerError.getCause().getMessage());
+        pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("Verifies sequential calls are not cached")
+    void execute_whenCalledSequentially_shouldLoadEachTime() {
+        // Arrange
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        flight.execute("all", loads::incrementAndGet);
+        int second = flight.execute("all", loads::incrementAndGet);
+
+        // Assert
+        assertEquals(2, second);
+        assertEquals(0, flight.getCoalesced());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.validation;
+
+import com.example.controller.LightBulbController;
+import com.example.exception.GlobalExceptionHandler;
+import com.example.model.LightBulb;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeneratedValidatorTest {
+
+    private final GeneratedValidator validator = new GeneratedValidator();
+    private final jakarta.validation.Validator reference = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private static LightBulb bulb(String name, String type, int wattage) {
+        LightBulb bulb = new LightBulb();
+        bulb.setName(name);
+        bulb.setType(type);
+        bulb.setWattage(wattage);
+        return bulb;
+    }
+
+    @Test
+    @DisplayName("Verifies the generated validator reports the same fields and messages as Hibernate Validator")
+    void validate_shouldMatchHibernateValidator() {
+        // Arrange
+        List<LightBulb> bulbs = List.of(
+                bulb("Desk", "LED", 9),
+                bulb(null, null, 0),
+                bulb("", " ", 1),
+                bulb(" \t", "CFL", -5),
+                bulb("Hall", "LED", Integer.MIN_VALUE),
+                bulb("Porch", "Halogen", Integer.MAX_VALUE));
+
+        for (LightBulb bulb : bulbs) {
+            // Act
+            Errors errors = validator.validateObject(bulb);
+
+            // Assert
+            Map<String, String> expected = reference.validate(bulb).stream()
+                    .collect(Collectors.toMap(v -> v.getPropertyPath().toString(), ConstraintViolation::getMessage));
+            Map<String, String> actual = errors.getFieldErrors().stream()
+                    .collect(Collectors.toMap(FieldError::getField, FieldError::getDefaultMessage));
+            assertEquals(expected, actual, "for " + bulb);
+        }
+    }
+
+    @Test
+    @DisplayName("Verifies violations carry the constraint name as error code for message resolution")
+    void validate_shouldUseConstraintNamesAsCodes() {
+        // Arrange
+        LightBulb bulb = bulb("", "LED", 0);
+        BeanPropertyBindingResult errors = new BeanPropertyBindingResult(bulb, "lightBulb");
+
+        // Act
+        validator.validate(bulb, errors);
+
+        // Assert
+        FieldError name = errors.getFieldError("name");
+        assertNotNull(name);
+        assertArrayEquals(new String[]{"NotBlank.lightBulb.name", "NotBlank.name", "NotBlank.java.lang.String", "NotBlank"},
+                name.getCodes());
+        assertEquals("", name.getRejectedValue());
+        FieldError wattage = errors.getFieldError("wattage");
+        assertNotNull(wattage);
+        assertEquals("Min", wattage.getCode());
+        assertEquals(1L, wattage.getArguments()[1]);
+    }
+
+    @Test
+    @DisplayName("Verifies only types with generated validators are supported")
+    void supports_shouldOnlyAcceptConstrainedTypes() {
+        // Assert
+        assertTrue(validator.supports(LightBulb.class));
+        assertFalse(validator.supports(String.class));
+    }
+
+    @Test
+    @DisplayName("Verifies the exception handler renders generated violations as validation errors")
+    void validate_shouldProduceTheValidationErrorResponse() throws Exception {
+        // Arrange
+        LightBulb bulb = bulb(" ", "LED", 0);
+        BeanPropertyBindingResult errors = new BeanPropertyBindingResult(bulb, "lightBulb");
+        validator.validate(bulb, errors);
+        MethodParameter body = new MethodParameter(
+                LightBulbController.class.getMethod("addBulb", LightBulb.class, String.class), 0);
+        WebRequest request = Mockito.mock(WebRequest.class);
+        Mockito.when(request.getDescription(false)).thenReturn("uri=/bulbs");
+
+        // Act
+        ResponseEntity<Map<String, Object>> response = new GlobalExceptionHandler()
+                .handleValidationExceptions(new MethodArgumentNotValidException(body, errors), request);
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(Map.of("name", "Name is required", "wattage", "Wattage must be at least 1"),
+                response.getBody().get("validationErrors"));
+    }
+}
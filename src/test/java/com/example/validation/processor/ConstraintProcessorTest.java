@@ -0,0 +1,168 @@
+package com.example.validation.processor;
+
+import com.example.validation.BeanValidator;
+import jakarta.validation.constraints.NotNull;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.validation.Errors;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.MapBindingResult;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConstraintProcessorTest {
+
+    @TempDir
+    Path dir;
+
+    private DiagnosticCollector<JavaFileObject> compile(String className, String source) throws IOException {
+        Path file = dir.resolve("src").resolve(className.replace('.', '/') + ".java");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, source);
+        Files.createDirectories(dir.resolve("classes"));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager files = compiler.getStandardFileManager(diagnostics, null, null)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, files, diagnostics,
+                    List.of("-classpath", classpath(NotNull.class, BeanValidator.class, Errors.class),
+                            "-d", dir.resolve("classes").toString(), "-s", dir.resolve("classes").toString()),
+                    null, files.getJavaFileObjects(file));
+            task.setProcessors(List.of(new ConstraintProcessor()));
+            task.call();
+        }
+        return diagnostics;
+    }
+
+    // the jars and directories of these classes, whatever the test runner put on java.class.path
+    private static String classpath(Class<?>... classes) {
+        return Arrays.stream(classes)
+                .map(type -> {
+                    try {
+                        return Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+                    } catch (URISyntaxException e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .collect(Collectors.joining(File.pathSeparator));
+    }
+
+    private static String errors(DiagnosticCollector<JavaFileObject> diagnostics) {
+        return diagnostics.getDiagnostics().stream()
+                .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+                .map(d -> d.getMessage(null))
+                .collect(Collectors.joining("\n"));
+    }
+
+    @Test
+    @DisplayName("Verifies a validator is generated for sizes, bounds and default messages")
+    @SuppressWarnings("unchecked")
+    void process_shouldGenerateAWorkingValidator() throws Exception {
+        // Arrange
+        String source = """
+                package sample;
+
+                import jakarta.validation.constraints.*;
+                import java.util.List;
+
+                public class Room {
+                    @NotNull
+                    private String name;
+                    @Size(min = 1, max = 3, message = "between {min} and {max} bulbs")
+                    private List<String> bulbs;
+                    @Max(10)
+                    private Integer floor;
+
+                    public String getName() { return name; }
+                    public void setName(String name) { this.name = name; }
+                    public List<String> getBulbs() { return bulbs; }
+                    public void setBulbs(List<String> bulbs) { this.bulbs = bulbs; }
+                    public Integer getFloor() { return floor; }
+                    public void setFloor(Integer floor) { this.floor = floor; }
+                }
+                """;
+
+        // Act
+        DiagnosticCollector<JavaFileObject> diagnostics = compile("sample.Room", source);
+
+        // Assert
+        assertEquals("", errors(diagnostics));
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{dir.resolve("classes").toUri().toURL()},
+                getClass().getClassLoader())) {
+            Class<?> room = loader.loadClass("sample.Room");
+            Object bean = room.getDeclaredConstructor().newInstance();
+            room.getMethod("setBulbs", List.class).invoke(bean, List.of());
+            room.getMethod("setFloor", Integer.class).invoke(bean, 11);
+            BeanValidator<Object> validator = (BeanValidator<Object>) loader.loadClass("sample.RoomBeanValidator")
+                    .getDeclaredConstructor().newInstance();
+            Errors errors = new MapBindingResult(new HashMap<>(), "room");
+
+            validator.validate(bean, errors);
+
+            assertEquals(List.of("name: must not be null", "bulbs: between 1 and 3 bulbs",
+                            "floor: must be less than or equal to 10"),
+                    errors.getFieldErrors().stream()
+                            .map(e -> e.getField() + ": " + e.getDefaultMessage())
+                            .toList());
+            FieldError size = errors.getFieldError("bulbs");
+            assertEquals(3, size.getArguments()[1]);
+            assertEquals(1, size.getArguments()[2]);
+        }
+        String reflectConfig = Files.readString(dir.resolve("classes").resolve(ConstraintProcessor.REFLECT_CONFIG));
+        assertTrue(reflectConfig.contains("{\"name\": \"sample.RoomBeanValidator\", \"methods\": [{\"name\": \"<init>\""),
+                reflectConfig);
+    }
+
+    @Test
+    @DisplayName("Verifies unsupported constraints fail the build instead of going unchecked")
+    void process_whenConstraintIsUnsupported_shouldReportErrors() throws Exception {
+        // Arrange
+        String source = """
+                package sample;
+
+                import jakarta.validation.constraints.*;
+
+                public class Lamp {
+                    @NotBlank
+                    private Integer brightness;
+                    @Min(value = 1, groups = Lamp.class)
+                    private int count;
+                    @NotNull
+                    private String secret;
+
+                    public Integer getBrightness() { return brightness; }
+                    public int getCount() { return count; }
+
+                    public void dim(@Min(0) int percent) { }
+                }
+                """;
+
+        // Act
+        String errors = errors(compile("sample.Lamp", source));
+
+        // Assert
+        assertTrue(errors.contains("@NotBlank is not supported on java.lang.Integer"), errors);
+        assertTrue(errors.contains("Validation groups are not supported"), errors);
+        assertTrue(errors.contains("Constrained field 'secret' needs a getter"), errors);
+        assertTrue(errors.contains("@Min is only supported on fields"), errors);
+    }
+}